@@ -0,0 +1,47 @@
+package Utils.Certificate;
+
+import Utils.Security.Encryption.RSA;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the PEM encoding and decoding of a certificate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PEMCertificateEncoderBenchmark {
+
+    private final PEMCertificateEncoder encoder = new PEMCertificateEncoder();
+
+    private CustomCertificate certificate;
+    private String pem;
+
+    @Setup
+    public void setup() throws IOException {
+        certificate = new CertificateGenerator()
+                .forSubject("Alice")
+                .issuedBy("CA")
+                .validFrom(new Date())
+                .validTo(new Date(System.currentTimeMillis() + 60_000))
+                .withPublicKey(RSA.generateKeyPair().getPublic())
+                .generate();
+        pem = encoder.encode(certificate);
+    }
+
+    @Benchmark
+    public String encode() throws IOException {
+        return encoder.encode(certificate);
+    }
+
+    @Benchmark
+    public CustomCertificate decode() throws IOException, ClassNotFoundException {
+        return encoder.decode(pem);
+    }
+}
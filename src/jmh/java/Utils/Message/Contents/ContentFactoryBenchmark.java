@@ -0,0 +1,116 @@
+package Utils.Message.Contents;
+
+import Networks.User;
+import Utils.Message.Contents.Interfaces.MessageContent;
+import Utils.Message.EnumTypes.AccountMessageTypes;
+import Utils.Message.EnumTypes.CACommunicationTypes;
+import Utils.Security.Encryption.RSA;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the construction of each content type, which includes computing its digest or MAC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentFactoryBenchmark {
+
+    private static final String CERTIFICATE = "-----BEGIN CUSTOM CERTIFICATE-----\n" + "A".repeat(1200) + "\n-----END CUSTOM CERTIFICATE-----";
+
+    private BigInteger secret;
+    private PublicKey publicKey;
+    private byte[] encryptedMessage;
+    private ArrayList<User> users;
+    private MessageContent errorCause;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        secret = new BigInteger(120, random);
+        publicKey = RSA.generateKeyPair().getPublic();
+        encryptedMessage = new byte[512];
+        random.nextBytes(encryptedMessage);
+
+        users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            User user = new User("user" + i);
+            user.setCertificate(CERTIFICATE);
+            users.add(user);
+        }
+        errorCause = ContentFactory.createRegisterContent("Alice");
+    }
+
+    @Benchmark
+    public MessageContent typeContent() {
+        return ContentFactory.createTypeContent(AccountMessageTypes.LOGIN);
+    }
+
+    @Benchmark
+    public MessageContent integrityContent() {
+        return ContentFactory.createIntegrityContent(CERTIFICATE, secret, CACommunicationTypes.SIGNE);
+    }
+
+    @Benchmark
+    public MessageContent publicKeyContent() {
+        return ContentFactory.createPublicKeyContent(publicKey, secret);
+    }
+
+    @Benchmark
+    public MessageContent errorContent() {
+        return ContentFactory.createErrorContent(errorCause, "Username already is registered");
+    }
+
+    @Benchmark
+    public MessageContent registerContent() {
+        return ContentFactory.createRegisterContent("Alice");
+    }
+
+    @Benchmark
+    public MessageContent loginContent() {
+        return ContentFactory.createLoginContent(CERTIFICATE, "Alice");
+    }
+
+    @Benchmark
+    public MessageContent loginRenovateContent() {
+        return ContentFactory.createLoginRenovateContent(CERTIFICATE, "Alice");
+    }
+
+    @Benchmark
+    public MessageContent certificateStateContent() {
+        return ContentFactory.createCertificateStateContent(7, true);
+    }
+
+    @Benchmark
+    public MessageContent certificateStateInvalidContent() {
+        return ContentFactory.createCertificateStateInvalidContent(7);
+    }
+
+    @Benchmark
+    public MessageContent logoutContent() {
+        return ContentFactory.createLogoutContent("Alice");
+    }
+
+    @Benchmark
+    public MessageContent diffieHellmanContent() {
+        return ContentFactory.createDiffieHellmanContent(secret);
+    }
+
+    @Benchmark
+    public MessageContent allLoggedInContent() {
+        return ContentFactory.createAllLoggedInContent(users);
+    }
+
+    @Benchmark
+    public MessageContent msgCommunicationContent() {
+        return ContentFactory.createMSGCommunicationContent(encryptedMessage);
+    }
+}
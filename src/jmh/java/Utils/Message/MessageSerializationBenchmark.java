@@ -0,0 +1,47 @@
+package Utils.Message;
+
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Message.Codec.MessageCodec;
+import Utils.Message.Codec.MessageCodecs;
+import Utils.Message.Contents.ContentFactory;
+import Utils.Transport.MessageFrames;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the encoding of a message to a frame and its decoding back, with each codec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageSerializationBenchmark {
+
+    @Param({"JAVA", "BINARY"})
+    private CodecTypes codecType;
+
+    @Param({"64", "4096"})
+    private int payloadSize;
+
+    private MessageCodec codec;
+    private Message message;
+
+    @Setup
+    public void setup() {
+        codec = MessageCodecs.get(codecType);
+        byte[] encryptedMessage = new byte[payloadSize];
+        new Random(42).nextBytes(encryptedMessage);
+        message = new Message("Alice", "Bob", ContentFactory.createMSGCommunicationContent(encryptedMessage));
+    }
+
+    @Benchmark
+    public Message roundTrip() throws IOException, ClassNotFoundException {
+        byte[] frame = MessageFrames.encode(message, codec);
+        return MessageFrames.decode(frame, MessageFrames.LENGTH_PREFIX_SIZE, frame.length - MessageFrames.LENGTH_PREFIX_SIZE, codec);
+    }
+}
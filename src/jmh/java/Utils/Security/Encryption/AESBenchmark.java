@@ -0,0 +1,77 @@
+package Utils.Security.Encryption;
+
+import Utils.Security.Encryption.Enums.CipherLayouts;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the AES encryption and decryption of a chat message across payload sizes, with the static helpers and
+ * with a keyed {@link AESCipher} in the single and GCM layouts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AESBenchmark {
+
+    @Param({"16", "256", "4096", "65536"})
+    private int payloadSize;
+
+    private byte[] secretKey;
+    private String message;
+    private byte[] encryptedMessage;
+    private AESCipher cipher;
+    private byte[] singleEncryptedMessage;
+    private byte[] gcmEncryptedMessage;
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(42);
+        secretKey = new BigInteger(120, random).toByteArray();
+
+        StringBuilder builder = new StringBuilder(payloadSize);
+        for (int i = 0; i < payloadSize; i++) {
+            builder.append((char) ('a' + random.nextInt(26)));
+        }
+        message = builder.toString();
+        encryptedMessage = AES.encryptMessage(message, secretKey);
+        cipher = new AESCipher(secretKey);
+        singleEncryptedMessage = cipher.encrypt(message.getBytes(), CipherLayouts.SINGLE);
+        gcmEncryptedMessage = cipher.encrypt(message.getBytes(), CipherLayouts.GCM);
+    }
+
+    @Benchmark
+    public byte[] encryptMessage() throws Exception {
+        return AES.encryptMessage(message, secretKey);
+    }
+
+    @Benchmark
+    public byte[] decryptMessage() throws Exception {
+        return AES.decryptMessage(encryptedMessage, secretKey);
+    }
+
+    @Benchmark
+    public byte[] keyedEncrypt() throws Exception {
+        return cipher.encrypt(message.getBytes(), CipherLayouts.SINGLE);
+    }
+
+    @Benchmark
+    public byte[] keyedDecrypt() throws Exception {
+        return cipher.decrypt(singleEncryptedMessage);
+    }
+
+    @Benchmark
+    public byte[] gcmEncrypt() throws Exception {
+        return cipher.encrypt(message.getBytes(), CipherLayouts.GCM);
+    }
+
+    @Benchmark
+    public byte[] gcmDecrypt() throws Exception {
+        return cipher.decrypt(gcmEncryptedMessage);
+    }
+}
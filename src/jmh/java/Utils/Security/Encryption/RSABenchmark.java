@@ -0,0 +1,44 @@
+package Utils.Security.Encryption;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPair;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the RSA encryption and decryption with a 2048 bit key, as used in the key exchange.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RSABenchmark {
+
+    @Param({"32", "128", "245"})
+    private int payloadSize;
+
+    private KeyPair keyPair;
+    private byte[] message;
+    private byte[] encryptedMessage;
+
+    @Setup
+    public void setup() {
+        keyPair = RSA.generateKeyPair();
+        message = new byte[payloadSize];
+        new Random(42).nextBytes(message);
+        encryptedMessage = RSA.encryptRSA(message, keyPair.getPublic());
+    }
+
+    @Benchmark
+    public byte[] encryptRSA() {
+        return RSA.encryptRSA(message, keyPair.getPublic());
+    }
+
+    @Benchmark
+    public byte[] decryptRSA() {
+        return RSA.decryptRSA(encryptedMessage, keyPair.getPrivate());
+    }
+}
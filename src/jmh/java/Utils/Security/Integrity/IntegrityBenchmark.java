@@ -0,0 +1,54 @@
+package Utils.Security.Integrity;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the digest and MAC generation across payload sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntegrityBenchmark {
+
+    @Param({"64", "1024", "65536"})
+    private int payloadSize;
+
+    private byte[] message;
+    private byte[] macKey;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        message = new byte[payloadSize];
+        random.nextBytes(message);
+        macKey = new byte[32];
+        random.nextBytes(macKey);
+    }
+
+    @Benchmark
+    public byte[] generateDigest() {
+        return HASH.generateDigest(message);
+    }
+
+    @Benchmark
+    public byte[] generateMAC() {
+        return MAC.generateMAC(message, macKey);
+    }
+
+    @Benchmark
+    public byte[] generateDigestFromBuffer() {
+        return HASH.generateDigest(ByteBuffer.wrap(message));
+    }
+
+    @Benchmark
+    public byte[] generateMACFromBuffer() {
+        return MAC.generateMAC(ByteBuffer.wrap(message), macKey);
+    }
+}
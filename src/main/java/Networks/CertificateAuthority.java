@@ -4,6 +4,9 @@ import Utils.Certificate.CertificateEntry;
 import Utils.Certificate.CertificateGenerator;
 import Utils.Certificate.CustomCertificate;
 import Utils.Certificate.PEMCertificateEncoder;
+import Utils.Certificate.RevocationEvent;
+import Utils.Certificate.RevocationList;
+import Utils.Concurrency.HandlerExecutors;
 import Utils.Message.Contents.*;
 import Utils.Message.Contents.Interfaces.MessageContent;
 import Utils.Config.Config;
@@ -15,17 +18,23 @@ import Utils.Message.Message;
 import Utils.Security.DiffieHellman;
 import Utils.Security.Encryption.RSA;
 import Utils.Security.Integrity.HASH;
+import Utils.Transport.ConnectionSettings;
+import Utils.Transport.EncodedMessage;
+import Utils.Transport.MessageTransport;
+import Utils.Transport.StreamResetPolicy;
 
 import java.io.*;
 import java.math.BigInteger;
-import java.net.Socket;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.KeyPair;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.util.BitSet;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
@@ -36,23 +45,34 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class CertificateAuthority extends Server{
 
+    /** The maximum number of revocation changes kept to catch up a subscriber that missed them. */
+    private static final int REVOCATION_HISTORY = 1024;
+
     private final Config CONFIG;
     private final Logger LOGGER;
     private ConcurrentHashMap < Integer, CertificateEntry > certificateEntries;
     private PrivateKey privateRSAKey;
     private PublicKey publicRSAKey;
     private final Timer TIMER;
+    /** The revoked serial numbers, published to the subscribed clients as each change happens. */
+    private final RevocationList REVOCATIONS;
+    /** The handlers of the clients subscribed to the revocation feed. */
+    private final Set<ClientHandler> SUBSCRIBERS;
 
     /**
      * Constructs a CertificateAuthority object.
      */
     public CertificateAuthority(Config config, Logger logger)
     {
-        super( config.getCaServerPort(), logger );
+        super( config.getCaServerPort(), logger,
+                HandlerExecutors.create( config.getHandlerExecutor(), config.getHandlerPoolSize(), "ca-handler", logger ),
+                new ConnectionSettings( null, new StreamResetPolicy( config.getStreamResetMessages(), config.getStreamResetBytes() ) ) );
 
         CONFIG = config;
         LOGGER = logger;
         this.certificateEntries = new ConcurrentHashMap<>();
+        REVOCATIONS = new RevocationList( REVOCATION_HISTORY );
+        SUBSCRIBERS = ConcurrentHashMap.newKeySet();
 
         generateKeys();
         TIMER = createTimer();
@@ -60,15 +80,9 @@ public class CertificateAuthority extends Server{
     }
 
     @Override
-    protected void handleNewConnection(Socket connection) throws IOException
+    protected Server.ClientHandler createClientHandler( MessageTransport transport )
     {
-        ClientHandler clientHandler = new CertificateAuthority.ClientHandler( connection );
-
-        currentClientHandlers.lock();
-        currentClientHandlers.asyncGet().add( clientHandler );
-        currentClientHandlers.unlock();
-
-        clientHandler.start();
+        return new CertificateAuthority.ClientHandler( transport );
     }
 
     /**
@@ -109,12 +123,46 @@ public class CertificateAuthority extends Server{
      */
     private void revokeAll()
     {
+        BitSet revoked = new BitSet();
         for(CertificateEntry entry : certificateEntries.values())
         {
             if(entry.isApproved())
             {
                 LOGGER.log("Revoking certificate of " + entry.getCertificate().getSubject() + " " + entry.getCertificate().getSerialNumber(), Optional.of(LogTypes.DEBUG));
                 entry.revoke();
+                revoked.set( entry.getCertificate().getSerialNumber() );
+            }
+        }
+        publishRevocations( revoked );
+    }
+
+    /**
+     * Adds the revoked certificates to the revocation list and sends the change, signed once, to every subscribed
+     * client. A subscriber that can no longer be reached is removed.
+     *
+     * @param serialNumbers the serial numbers of the revoked certificates.
+     */
+    private void publishRevocations( BitSet serialNumbers )
+    {
+        synchronized ( REVOCATIONS )
+        {
+            Optional<RevocationEvent> event = REVOCATIONS.revoke( serialNumbers );
+            if ( event.isEmpty() )
+                return;
+
+            EncodedMessage message = new EncodedMessage(
+                    new Message( "CA", "revocations", ContentFactory.createRevocationEventContent( event.get(), privateRSAKey ) ) );
+            for ( ClientHandler subscriber : SUBSCRIBERS )
+            {
+                try
+                {
+                    subscriber.TRANSPORT.send( message );
+                }
+                catch (IOException e)
+                {
+                    LOGGER.log( "Couldn't send revocation to subscriber: " + e.getMessage(), Optional.of(LogTypes.WARN) );
+                    SUBSCRIBERS.remove( subscriber );
+                }
             }
         }
     }
@@ -147,11 +195,11 @@ public class CertificateAuthority extends Server{
         /**
          * Constructs a new client handler.
          *
-         * @param clientConnection the accepted connection to the client.
+         * @param transport the transport of the accepted connection to the client.
          */
-        public ClientHandler( Socket clientConnection )
+        public ClientHandler( MessageTransport transport )
         {
-            super(clientConnection);
+            super(transport);
         }
 
         @Override
@@ -216,12 +264,12 @@ public class CertificateAuthority extends Server{
                     this.privateDHKey = DiffieHellman.generatePrivateKey();
                     this.publicDHKey = DiffieHellman.generatePublicKey( this.privateDHKey );
                     this.clientDHPublicKey = content.getPublic_key();
-                    CLIENT_OUTPUT_STREAM.writeObject( new Message( "CA", "sender", ContentFactory.createDiffieHellmanContent( publicDHKey )  ) );
+                    TRANSPORT.send( new Message( "CA", "sender", ContentFactory.createDiffieHellmanContent( publicDHKey )  ) );
                     this.sharedDHSecret = DiffieHellman.computeSecret( clientDHPublicKey, this.privateDHKey );
                 }
                 else
                 {
-                    CLIENT_OUTPUT_STREAM.writeObject(
+                    TRANSPORT.send(
                             new Message( "CA", "sender", ContentFactory.createErrorContent( content , "Received message has not valid digest" )  ) );
                 }
             }
@@ -246,8 +294,12 @@ public class CertificateAuthority extends Server{
 
                 case CERTIFICATE_STATE -> { handleCheckCertificateContent( (CertificateState) message.getContent(), message.getSender() ); }
 
+                case CERTIFICATE_STATES -> { handleCheckCertificatesContent( (CertificateStatesContent) message.getContent(), message.getSender() ); }
+
                 case PUBLIC_KEY -> { handlePublicKeyRequest( (TypeContent) message.getContent() , message.getSender() ); }
 
+                case REVOCATION_SUBSCRIBE -> { handleRevocationSubscribe( (RevocationContent) message.getContent(), message.getSender() ); }
+
                 default -> {
                     LOGGER.log( "Server not prepared for receiving messages of type : " + message.getContent().getType().toString()
                             , Optional.of(LogTypes.ERROR) );
@@ -267,7 +319,7 @@ public class CertificateAuthority extends Server{
             {
                 if( sharedDHSecret == null)
                 {
-                    CLIENT_OUTPUT_STREAM.writeObject( new Message("CA", sender, ContentFactory.createErrorContent(content, "Invalid request:")));
+                    TRANSPORT.send( new Message("CA", sender, ContentFactory.createErrorContent(content, "Invalid request:")));
                     LOGGER.log("Client tried to signe without agreeing on a secret.", Optional.of(LogTypes.WARN));
                 }
                 else if ( content.hasValidMAC( sharedDHSecret.toByteArray() ) )
@@ -276,7 +328,7 @@ public class CertificateAuthority extends Server{
                 }
                 else
                 {
-                    CLIENT_OUTPUT_STREAM.writeObject( new Message( "CA", sender,  ContentFactory.createErrorContent( content , "Received message has not valid digest" )  ) );
+                    TRANSPORT.send( new Message( "CA", sender,  ContentFactory.createErrorContent( content , "Received message has not valid digest" )  ) );
                     LOGGER.log("Received message has not valid digest", Optional.of(LogTypes.WARN));
                 }
             }
@@ -302,7 +354,7 @@ public class CertificateAuthority extends Server{
             {
                 if( sharedDHSecret == null)
                 {
-                    CLIENT_OUTPUT_STREAM.writeObject( new Message("CA", sender, ContentFactory.createErrorContent(content, "Invalid request:")));
+                    TRANSPORT.send( new Message("CA", sender, ContentFactory.createErrorContent(content, "Invalid request:")));
                     LOGGER.log("Client tried to signe without agreeing on a secret.", Optional.of(LogTypes.WARN));
                 }
                 else if ( content.hasValidMAC( sharedDHSecret.toByteArray() ) )
@@ -311,7 +363,7 @@ public class CertificateAuthority extends Server{
                 }
                 else
                 {
-                    CLIENT_OUTPUT_STREAM.writeObject( new Message( "CA", sender,  ContentFactory.createErrorContent( content , "Received message has not valid digest" )  ) );
+                    TRANSPORT.send( new Message( "CA", sender,  ContentFactory.createErrorContent( content , "Received message has not valid digest" )  ) );
                     LOGGER.log("Received message has not valid digest", Optional.of(LogTypes.WARN));
                 }
             }
@@ -333,13 +385,13 @@ public class CertificateAuthority extends Server{
             {
                 if( ! content.hasValidDigest() )
                 {
-                    CLIENT_OUTPUT_STREAM.writeObject( new Message( "CA", sender,  ContentFactory.createErrorContent( content , "Received message has not valid digest" )  ) );
+                    TRANSPORT.send( new Message( "CA", sender,  ContentFactory.createErrorContent( content , "Received message has not valid digest" )  ) );
                     LOGGER.log("Received message has not valid digest", Optional.of(LogTypes.WARN));
                     return;
                 }
 
                 MessageContent isRevokeContent = ContentFactory.createCertificateStateContent( content.getSerialNumber() , isValidCertificate( content.getSerialNumber() ) );
-                CLIENT_OUTPUT_STREAM.writeObject( new Message( "CA", sender, isRevokeContent) );
+                TRANSPORT.send( new Message( "CA", sender, isRevokeContent) );
             }
             catch (IOException e)
             {
@@ -347,6 +399,94 @@ public class CertificateAuthority extends Server{
             }
         }
 
+        /**
+         * Handles the request to check the validity of several certificates. The reply has a validity bit for each
+         * requested serial number and is authenticated with the agreed secret.
+         *
+         * @param content The CertificateStatesContent with the serial numbers of the certificates to be checked.
+         * @param sender  The sender of the request.
+         */
+        private void handleCheckCertificatesContent( CertificateStatesContent content, String sender )
+        {
+            try
+            {
+                if( sharedDHSecret == null)
+                {
+                    TRANSPORT.send( new Message("CA", sender, ContentFactory.createErrorContent(content, "Invalid request:")));
+                    LOGGER.log("Client tried to check certificates without agreeing on a secret.", Optional.of(LogTypes.WARN));
+                    return;
+                }
+
+                if ( !content.hasValidMAC( sharedDHSecret.toByteArray() ) )
+                {
+                    TRANSPORT.send( new Message( "CA", sender,  ContentFactory.createErrorContent( content , "Received message has not valid digest" )  ) );
+                    LOGGER.log("Received message has not valid digest", Optional.of(LogTypes.WARN));
+                    return;
+                }
+
+                int[] serialNumbers = content.getSerialNumbers();
+                BitSet states = new BitSet( serialNumbers.length );
+                for ( int i = 0; i < serialNumbers.length; i++ )
+                {
+                    CertificateEntry entry = certificateEntries.get( serialNumbers[i] );
+                    states.set( i, entry != null && entry.isApproved() );
+                }
+
+                TRANSPORT.send( new Message( "CA", sender, ContentFactory.createCertificateStatesContent( serialNumbers, states, sharedDHSecret ) ) );
+            }
+            catch (IOException e)
+            {
+                LOGGER.log( "Couldn't send object: " + e.getMessage() , Optional.of(LogTypes.ERROR) );
+            }
+        }
+
+        /**
+         * Subscribes the client to the revocation feed. The client receives the changes after the version it knows, or
+         * the full revocation list if they are no longer kept, and then every new change as it happens.
+         *
+         * @param content The RevocationContent with the revocation list version known by the client.
+         * @param sender  The sender of the request.
+         */
+        private void handleRevocationSubscribe( RevocationContent content, String sender )
+        {
+            synchronized ( REVOCATIONS )
+            {
+                try
+                {
+                    Optional< List<RevocationEvent> > events = REVOCATIONS.eventsSince( content.getVersion() );
+                    if ( events.isPresent() && !events.get().isEmpty() )
+                    {
+                        for ( RevocationEvent event : events.get() )
+                            TRANSPORT.send( new Message( "CA", sender, ContentFactory.createRevocationEventContent( event, privateRSAKey ) ) );
+                    }
+                    else
+                    {
+                        MessageContent list = ContentFactory.createRevocationListContent( REVOCATIONS.getVersion(), REVOCATIONS.getRevoked(), privateRSAKey );
+                        TRANSPORT.send( new Message( "CA", sender, list ) );
+                    }
+                    SUBSCRIBERS.add( this );
+                }
+                catch (IOException e)
+                {
+                    LOGGER.log( "Couldn't send object: " + e.getMessage() , Optional.of(LogTypes.ERROR) );
+                }
+            }
+        }
+
+        @Override
+        public void onDisconnect( IOException cause )
+        {
+            SUBSCRIBERS.remove( this );
+            super.onDisconnect( cause );
+        }
+
+        @Override
+        public void close()
+        {
+            SUBSCRIBERS.remove( this );
+            super.close();
+        }
+
         /**
          * Handles the request for a public key.
          *
@@ -358,7 +498,7 @@ public class CertificateAuthority extends Server{
             try
             {
                 MessageContent publicKeyContent = ContentFactory.createPublicKeyContent( publicRSAKey, sharedDHSecret );
-                CLIENT_OUTPUT_STREAM.writeObject( new Message( "CA" , sender, publicKeyContent ));
+                TRANSPORT.send( new Message( "CA" , sender, publicKeyContent ));
             }
             catch (IOException e)
             {
@@ -402,7 +542,7 @@ public class CertificateAuthority extends Server{
             if ( !entry.isApproved() )
             {
                 MessageContent errorContent = ContentFactory.createErrorContent( content , "The certificate has not pass the validate check.");
-                CLIENT_OUTPUT_STREAM.writeObject( new Message("CA", sender, errorContent ) );
+                TRANSPORT.send( new Message("CA", sender, errorContent ) );
                 return;
             }
 
@@ -413,7 +553,7 @@ public class CertificateAuthority extends Server{
             LOGGER.log(String.format("New certificate Signed:%d for %s", certificate.getSerialNumber(), certificate.getSubject()  ) , Optional.of(LogTypes.INFO ) );
 
             MessageContent signedContent = ContentFactory.createSigneContent( encoder.encode( certificate ) ,sharedDHSecret );
-            CLIENT_OUTPUT_STREAM.writeObject( new Message("CA", certificate.getSubject(), signedContent ) );
+            TRANSPORT.send( new Message("CA", certificate.getSubject(), signedContent ) );
 
         }
 
@@ -454,7 +594,17 @@ public class CertificateAuthority extends Server{
          */
         private void revokeCertificate( int serialNumber)
         {
-            certificateEntries.get( serialNumber ).revoke();
+            CertificateEntry entry = certificateEntries.get( serialNumber );
+            if ( entry == null )
+            {
+                LOGGER.log("Serial number not regestered.", Optional.of(LogTypes.ERROR));
+                return;
+            }
+
+            entry.revoke();
+            BitSet revoked = new BitSet();
+            revoked.set( serialNumber );
+            publishRevocations( revoked );
         }
 
         /**
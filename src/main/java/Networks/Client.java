@@ -1,42 +1,69 @@
 package Networks;
 
 import Utils.Certificate.CertificateGenerator;
+import Utils.Certificate.CertificateReference;
+import Utils.Certificate.CertificateStore;
+import Utils.Certificate.CertificateValidationCache;
 import Utils.Certificate.CustomCertificate;
 import Utils.Certificate.PEMCertificateEncoder;
+import Utils.Certificate.RevocationEvent;
+import Utils.Certificate.RevocationList;
+import Utils.Concurrency.Enums.ExecutorTypes;
+import Utils.Concurrency.Enums.LockStrategies;
+import Utils.Concurrency.HandlerExecutors;
 import Utils.Concurrency.VarSync;
 import Utils.Config.Config;
 import Utils.Logger.Enums.LogTypes;
 import Utils.Logger.Logger;
+import Utils.Message.Codec.Enums.CodecTypes;
 import Utils.Message.Contents.*;
 import Utils.Message.Contents.Interfaces.MessageContent;
 import Utils.Message.Contents.Interfaces.MessageContentIntegrityHash;
 import Utils.Message.EnumTypes.*;
 import Utils.Message.Message;
+import Utils.History.HistoryPage;
+import Utils.History.HistoryStore;
 import Utils.Message.MessageRecord;
+import Utils.Presence.PresenceDelta;
+import Utils.Presence.PresenceListener;
+import Utils.Presence.PresenceTracker;
 import Utils.Security.DiffieHellman;
-import Utils.Security.Encryption.AES;
+import Utils.Security.Encryption.AESCipher;
+import Utils.Security.Encryption.Enums.CipherLayouts;
+import Utils.Security.Encryption.FanOutEncryption;
 import Utils.Security.Encryption.RSA;
 import Utils.Security.Integrity.HASH;
 import Utils.UserInputs.Command;
 import Utils.UserInputs.UserInput;
 
+import Utils.Transport.CodecNegotiation;
+import Utils.Transport.EncodedMessage;
+import Utils.Transport.Enums.OverflowPolicies;
+import Utils.Transport.Enums.ServerModes;
+import Utils.Transport.FramedTransport;
+import Utils.Transport.MessageTransport;
+import Utils.Transport.ObjectStreamTransport;
+import Utils.Transport.OutboundQueue;
+import Utils.Transport.PullTransport;
+import Utils.Transport.QueuedTransport;
+import Utils.Transport.StreamResetPolicy;
+
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.math.BigInteger;
 import java.net.ConnectException;
 import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.PublicKey;
-import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ExecutorService;
 
 import static Utils.Message.EnumTypes.AccountMessageTypes.LOGOUT;
 
@@ -45,6 +72,9 @@ import static Utils.Message.EnumTypes.AccountMessageTypes.LOGOUT;
  */
 public class Client
 {
+    /** The maximum number of serial numbers in a certificate states request to the CA. */
+    private static final int MAX_STATES_PER_REQUEST = 1024;
+
     /** The logger for logging client events. */
     private final Logger LOGGER;
 
@@ -56,8 +86,8 @@ public class Client
     /** The key pair for the client. */
     private KeyPair clientKeyPair;
 
-    /** The public key of the Certificate Authority (CA). */
-    private PublicKey caPublicKey;
+    /** The public key of the Certificate Authority (CA), refreshed by the revocation feed thread. */
+    private volatile PublicKey caPublicKey;
 
     /** The shared Diffie-Hellman secret with the CA. */
     private BigInteger sharedDHSecretCA;
@@ -65,19 +95,44 @@ public class Client
     /** The map of connected users. */
     private ConcurrentHashMap< String, ClientUser > connectedUsers;
 
+    /** Applies the roster snapshot and changes received from the messaging server in version order. */
+    private final PresenceTracker PRESENCE;
+
+    /** The certificates of the connected users by fingerprint, fetched from the messaging server when first referred. */
+    private final CertificateStore CERTIFICATES;
+
+    /** The references of the users that joined, by username, whose certificate is being fetched. */
+    private final ConcurrentHashMap< String, CertificateReference > pendingCertificates;
+
+    /** The fingerprints requested to the messaging server and not yet received. */
+    private final Set<String> requestedFingerprints;
+
+    /** The usernames of the connected users by the serial number of their certificate, to find a revoked user. */
+    private final ConcurrentHashMap< Integer, String > usernamesBySerial;
+
+    /** The certificates of other users that passed validation, reused until they expire or are reported invalid. */
+    private final CertificateValidationCache VALIDATIONS;
+
+    /** The states of certificates checked with the CA in a batch, by serial number, used once by the next validation. */
+    private final ConcurrentHashMap< Integer, Boolean > prefetchedStates;
+
+    /** The replica of the revocation list of the CA, updated with the changes pushed by the CA. */
+    private final RevocationList REVOCATIONS;
+
+    /** True while the revocation replica is up to date, then certificate states are answered without asking the CA. */
+    private volatile boolean revocationsSynced;
+
     /** The client user. */
     private ClientUser client;
 
-    /** The blocking queue for storing all received messages. */
-    private BlockingQueue<MessageRecord> messages;
+    /** The history of the received messages, opened for the username after the registration. Null if it could not be opened. */
+    private HistoryStore history;
 
-    /** The lock for agreeing on a secret with the CA. */
-    private final ReentrantLock AGREE_ON_SECRETE_LOCK;
+    /** The secret agreements started with other users, completed when the users answer. */
+    private final HandshakeManager HANDSHAKES;
 
-    /** The condition for agreeing on a secret with the CA.
-     * this is used to signal the main tread when the secret is acquired
-     * */
-    private final Condition AGREE_ON_SECRETE_LOCK_CONDITION;
+    /** Encrypts a message for several users in parallel. */
+    private final FanOutEncryption ENCRYPTION;
 
     /** The synchronization variable for exiting the client. */
     private VarSync<Boolean> exit;
@@ -85,20 +140,20 @@ public class Client
     /** The user input prompt */
     private final UserInput USER_INPUT;
 
-    /**Server Msg Connection*/
-    private final Socket MSG_SERVER_CONNECTION;
+    /**Server Msg Connection transport, the messages are queued and written by a writer thread.*/
+    private final QueuedTransport MSG_SERVER_CONNECTION;
 
-    /**Server Msg Connection ObjectInputStream*/
-    private final ObjectInputStream MSG_SERVER_CONNECTION_INPUT;
-    /**Server Msg Connection ObjectOutputStream*/
-    private final ObjectOutputStream MSG_SERVER_CONNECTION_OUTPUT;
+    /**Runs the writer of the messaging server connection.*/
+    private final ExecutorService WRITER;
 
-    /**Server CA Connection*/
-    private final Socket CA_SERVER_CONNECTION;
-    /**Server CA Connection ObjectInputStream*/
-    private final ObjectInputStream CA_SERVER_CONNECTION_INPUT;
-    /**Server CA Connection ObjectOutputStream*/
-    private final ObjectOutputStream CA_SERVER_CONNECTION_OUTPUT;
+    /**Server CA Connection transport*/
+    private final PullTransport CA_SERVER_CONNECTION;
+
+    /** Held for each request and reply pair on the CA server connection, so the replies of the listener threads asking the CA do not interleave. */
+    private final Object CA_LOCK = new Object();
+
+    /**Server CA Connection transport that receives the revocation feed.*/
+    private final PullTransport CA_FEED_CONNECTION;
 
     /** The synchronization variable for checking if the client is logged in. */
     private VarSync<Boolean> isLogged;
@@ -121,28 +176,35 @@ public class Client
     {
         LOGGER = logger;
         CONFIG = config;
-        messages = new LinkedBlockingQueue<>();
         SCANNER = new Scanner( System.in );
-        AGREE_ON_SECRETE_LOCK = new ReentrantLock();
-        AGREE_ON_SECRETE_LOCK_CONDITION = AGREE_ON_SECRETE_LOCK.newCondition();
+        ENCRYPTION = new FanOutEncryption();
+        HANDSHAKES = new HandshakeManager( this::sendSecretOffer, CONFIG.getHandshakeTimeout(), CONFIG.getHandshakeAttempts() );
         exit = new VarSync<>(false);
         USER_INPUT = createUserInput();
         isLogged = new VarSync<>(false);
         isWaitingForCertificate = new VarSync<>(false);
-
+        connectedUsers = new ConcurrentHashMap<>();
+        PRESENCE = new PresenceTracker( new ClientPresenceListener() );
+        CERTIFICATES = new CertificateStore();
+        pendingCertificates = new ConcurrentHashMap<>();
+        requestedFingerprints = ConcurrentHashMap.newKeySet();
+        usernamesBySerial = new ConcurrentHashMap<>();
+        VALIDATIONS = new CertificateValidationCache( CONFIG.getValidationCacheTTL() * 1000L );
+        prefetchedStates = new ConcurrentHashMap<>();
+        REVOCATIONS = new RevocationList( 0 );
+
+        WRITER = HandlerExecutors.createPerConnection( ExecutorTypes.THREAD, "client-writer", LOGGER );
         try
         {
-            MSG_SERVER_CONNECTION = connect( CONFIG.getMsgServerPort() );
-            MSG_SERVER_CONNECTION_OUTPUT = new ObjectOutputStream( MSG_SERVER_CONNECTION.getOutputStream() );
-            MSG_SERVER_CONNECTION_INPUT = new ObjectInputStream( MSG_SERVER_CONNECTION.getInputStream() );
+            OutboundQueue<EncodedMessage> queue = new OutboundQueue<>( CONFIG.getOutboundQueueCapacity(), OverflowPolicies.BLOCK, CONFIG.getOverflowTimeout() );
+            MSG_SERVER_CONNECTION = new QueuedTransport( openTransport( connect( CONFIG.getMsgServerPort() ), CONFIG.getServerMode() ), queue, WRITER );
         }
         catch (RuntimeException e) { throw new ConnectException("Could not connect to MSGServer");}
 
         try
         {
-            CA_SERVER_CONNECTION = connect( CONFIG.getCaServerPort() );
-            CA_SERVER_CONNECTION_OUTPUT = new ObjectOutputStream( CA_SERVER_CONNECTION.getOutputStream() );
-            CA_SERVER_CONNECTION_INPUT = new ObjectInputStream( CA_SERVER_CONNECTION.getInputStream() );
+            CA_SERVER_CONNECTION = openTransport( connect( CONFIG.getCaServerPort() ), ServerModes.BLOCKING );
+            CA_FEED_CONNECTION = openTransport( connect( CONFIG.getCaServerPort() ), ServerModes.BLOCKING );
         }
         catch (RuntimeException e) { throw new ConnectException("Could not connect to CAServer");}
 
@@ -161,10 +223,11 @@ public class Client
             "Show all commands. (No Arguments)" )
         );
         userInput.addCommand( new Command( "listUsers", args -> { ListUsers(); } , "List the connected and authenticated users. (no arguments)" ) );
-        userInput.addCommand( new Command( "listMsg", this::ListMessages , "List all received messages. List <username1> <username2> ... " ) );
+        userInput.addCommand( new Command( "listMsg", this::ListMessages , "List the received messages, most recent page first. listMsg (Optional)<username1> <username2> ... (Optional)-p <page> (Optional)-since <minutes>" ) );
         userInput.addCommand( new Command( "msg", this::sendCommunicationCommandHandler, "Send a message. msg (Optional)< @<username> @<username> ... > <Message>" ) );
         userInput.addCommand( new Command( "revoke", this::revokeCertificate  , "Revoke the certificate of the user.To this is user if user is omitted. revoke (Optional)<user>"  ) );
         userInput.addCommand( new Command( "exit", args -> { logOut(); } , "Exit the program. (no arguments)" ) );
+        userInput.setBackPressure( this::awaitOutboundRoom );
 
         return userInput;
     }
@@ -172,6 +235,9 @@ public class Client
     /**The listener to the incoming messages.*/
     private ClientListener listener ;
 
+    /**The listener to the revocation feed of the CA.*/
+    private RevocationFeedListener revocationListener;
+
     /**
      * Starts the client.
      * This method registers the client, obtains a signed certificate, logs in, and starts listening for messages.
@@ -181,18 +247,19 @@ public class Client
     public void start() throws IOException
     {
         client = register();
+        history = openHistory();
         CustomCertificate certificate = createCertificate( client.getUsername() );
 
         client.setCertificate( askSigneCertificate( certificate ) );
-        caPublicKey = askPublicKey();
+        updateCaPublicKey();
 
         if (caPublicKey == null)
             logOut();
         else
         {
+            subscribeRevocations();
             logIn();
-            connectedUsers = askConnectedUsers();
-            validateConnectedUsers();
+            receiveRoster();
             listener = new ClientListener();
             listener.start();
 
@@ -200,12 +267,34 @@ public class Client
                 USER_INPUT.executeFromInput();
 
 
-            CloseConnections();
             listener.close();
+            revocationListener.close();
+            HANDSHAKES.close();
+            closeHistory();
+            CloseConnections();
         }
 
     }
 
+    /**
+     * Waits until at most half of the outbound queue of the messaging server connection is used, so a new command
+     * does not start while the messages of the previous commands are still being written.
+     *
+     * @return false if the queue did not drain before the overflow timeout, true otherwise.
+     */
+    private boolean awaitOutboundRoom()
+    {
+        try
+        {
+            return MSG_SERVER_CONNECTION.awaitQueued( CONFIG.getOutboundQueueCapacity() / 2, CONFIG.getOverflowTimeout() );
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     /**
      * Closes the connections to the messaging server and the CA server.
      *
@@ -214,40 +303,298 @@ public class Client
     private void CloseConnections() throws IOException
     {
         MSG_SERVER_CONNECTION.close();
+        WRITER.shutdown();
         CA_SERVER_CONNECTION.close();
+        CA_FEED_CONNECTION.close();
+    }
+
+    /**
+     * Subscribes to the revocation feed of the CA and starts listening to it. Until the revocation list is received
+     * the certificate states are checked with the CA.
+     */
+    private void subscribeRevocations()
+    {
+        sendMessage( new Message( client.getUsername(), "CA", ContentFactory.createRevocationSubscribeContent( REVOCATIONS.getVersion() ) ), CA_FEED_CONNECTION );
+        revocationListener = new RevocationFeedListener();
+        revocationListener.start();
     }
 
     /**
-     * Validates the connected users' certificates.
-     * if a user certificate fails the validation a msg to that user is sent.
+     * Applies revocations received from the CA. The certificates are no longer validated, the users holding them are
+     * removed from the connected users, and the certificate of this client is renewed if it was revoked.
+     *
+     * @param serialNumbers The revoked serial numbers.
      */
-    private void validateConnectedUsers()
+    private void onRevoked( BitSet serialNumbers )
     {
-        Iterator<ClientUser> userIterator = connectedUsers.values().iterator();
-        ClientUser user;
-        PEMCertificateEncoder encoder = new PEMCertificateEncoder();
-        while( userIterator.hasNext() )
+        int ownSerialNumber = -1;
+        try
+        {
+            ownSerialNumber = client.getDecodedCertificate().getSerialNumber();
+        }
+        catch (IOException | ClassNotFoundException e)
+        {
+            LOGGER.log("Error when decoding certificate." + e.getMessage(), Optional.of(LogTypes.ERROR) );
+        }
+
+        for ( int serialNumber = serialNumbers.nextSetBit( 0 ); serialNumber >= 0; serialNumber = serialNumbers.nextSetBit( serialNumber + 1 ) )
         {
-            user = userIterator.next();
-            if( ! isValidUserCertificate( user ) )
+            VALIDATIONS.invalidate( serialNumber );
+            prefetchedStates.remove( serialNumber );
+
+            String username = usernamesBySerial.get( serialNumber );
+            ClientUser user = username == null ? null : forgetConnectedUser( username );
+            if ( user != null )
+                LOGGER.log("User '"+user.getUsername()+"' is disconnected from de chat because of revoked certificate", Optional.of(LogTypes.INFO));
+        }
+
+        if ( ownSerialNumber >= 0 && serialNumbers.get( ownSerialNumber ) )
+            renewCertificate( ownSerialNumber );
+    }
+
+    /**
+     * Creates a new certificate for this client, has it signed by the CA and sends it to the messaging server.
+     * The renewals asked by the revocation feed and the listener are serialized, and the certificate is only renewed
+     * if it is still the revoked one, so a revocation received twice renews it once.
+     *
+     * @param serialNumber The serial number of the revoked certificate.
+     */
+    private void renewCertificate( int serialNumber )
+    {
+        try
+        {
+            synchronized ( CA_LOCK )
             {
-                try
-                {
-                    connectedUsers.remove( user.getUsername() );
-                    CustomCertificate certificate = encoder.decode( user.getCertificate() ) ;
-                    sendInvalidCertificateMessage( user, certificate );
-                }
-                catch (ClassNotFoundException | IOException e)
+                if ( client.getDecodedCertificate().getSerialNumber() != serialNumber )
+                    return;
+
+                LOGGER.log("Renovating invalid certificate: " + serialNumber,Optional.of(LogTypes.INFO ));
+
+                CustomCertificate certificate = createCertificate( client.getUsername() );
+                client.setCertificate( askSigneCertificate( certificate ) );
+                updateCaPublicKey();
+            }
+
+            sendMessage( new Message( client.getUsername(), "Server",
+                    ContentFactory.createLoginRenovateContent( client.getCertificate(), client.getUsername() )
+                    ), MSG_SERVER_CONNECTION
+            );
+        }
+        catch (IOException | ClassNotFoundException e)
+        {
+            LOGGER.log("Error when decoding certificate." + e.getMessage(), Optional.of(LogTypes.ERROR) );
+        }
+    }
+
+    /**
+     * Adds or replaces a connected user with the referred certificate. If the certificate is not cached it is
+     * requested to the messaging server, and the user is added when it is received.
+     *
+     * @param username    The username of the user.
+     * @param reference   The reference to the certificate of the user.
+     */
+    private void addConnectedUser( String username, CertificateReference reference )
+    {
+        Optional<String> certificate = CERTIFICATES.get( reference.getFingerprint() );
+        if ( certificate.isPresent() )
+        {
+            pendingCertificates.remove( username );
+            addConnectedUser( username, reference, certificate.get() );
+            return;
+        }
+
+        pendingCertificates.put( username, reference );
+        if ( requestedFingerprints.add( reference.getFingerprint() ) )
+            sendMessage( new Message( client.getUsername(), "MSGServer", ContentFactory.createCertificateFetchContent( reference.getFingerprint() ) ), MSG_SERVER_CONNECTION );
+    }
+
+    /**
+     * Adds or replaces a connected user if their certificate is valid.
+     * if the user certificate fails the validation a msg to that user is sent.
+     *
+     * @param username    The username of the user.
+     * @param reference   The reference to the certificate of the user.
+     * @param certificate The certificate of the user.
+     */
+    private void addConnectedUser( String username, CertificateReference reference, String certificate )
+    {
+        try
+        {
+            ClientUser user = new ClientUser( username );
+            user.setCertificate( certificate );
+            user.setCertificateReference( reference );
+            CustomCertificate decodedCertificate = user.getDecodedCertificate();
+
+            if( isValidUserCertificate( user , decodedCertificate ) )
+            {
+                ClientUser previous = connectedUsers.put( user.getUsername() , user);
+                if ( previous != null && !reference.equals( previous.getCertificateReference() ) )
                 {
-                    LOGGER.log("Could decode certificate.",Optional.of(LogTypes.ERROR));
+                    usernamesBySerial.remove( previous.getCertificateReference().getSerialNumber(), username );
+                    CERTIFICATES.remove( previous.getCertificateReference().getFingerprint() );
                 }
+                usernamesBySerial.put( reference.getSerialNumber(), username );
+                LOGGER.log( "The user '" + user.getUsername() + "' has been connected.", Optional.of(LogTypes.INFO));
             }
             else
-                LOGGER.log( "The user '" + user.getUsername() + "' has been connected.", Optional.of(LogTypes.INFO));
+            {
+                forgetConnectedUser( user.getUsername() );
+                sendInvalidCertificateMessage( user, decodedCertificate );
+            }
+        }
+        catch(IOException | ClassNotFoundException e )
+        {
+            LOGGER.log(e.getMessage()+ " when decoding certificate.", Optional.of(LogTypes.ERROR) );
+        }
+    }
+
+    /**
+     * Removes a disconnected user.
+     *
+     * @param username The username of the user.
+     */
+    private void removeConnectedUser( String username )
+    {
+        ClientUser user = forgetConnectedUser( username );
+
+        if( user != null)
+            LOGGER.log("User '" + user.getUsername() + "' has disconnected.",Optional.of(LogTypes.INFO));
+    }
+
+    /**
+     * Removes a connected user with their certificate and serial number index entry.
+     *
+     * @param username The username of the user.
+     * @return The removed user, or null if the user was not connected.
+     */
+    private ClientUser forgetConnectedUser( String username )
+    {
+        CertificateReference pending = pendingCertificates.remove( username );
+        if( pending != null)
+            prefetchedStates.remove( pending.getSerialNumber() );
+
+        ClientUser user = connectedUsers.remove( username );
+        HANDSHAKES.cancel( username );
 
+        if( user != null)
+        {
+            usernamesBySerial.remove( user.getCertificateReference().getSerialNumber(), username );
+            CERTIFICATES.remove( user.getCertificateReference().getFingerprint() );
         }
+        return user;
+    }
 
+    /**
+     * Handles a roster page or roster changes received from the messaging server.
+     *
+     * @param content The presence content received from the server.
+     */
+    private void handlePresence( PresenceContent content )
+    {
+        if ( !content.hasValidDigest() )
+        {
+            LOGGER.log( "Received presence message has invalid digest.", Optional.of(LogTypes.ERROR) );
+            return;
+        }
 
+        if ( content.getSubType() == AccountMessageTypes.PRESENCE_SNAPSHOT )
+            PRESENCE.receiveSnapshot( content.getVersion(), content.getDeltas(), content.isLast() );
+        else
+            PRESENCE.receiveDeltas( content.getDeltas() );
+    }
+
+    /**
+     * Handles a certificate received from the messaging server. The certificate is only kept if it matches the requested
+     * fingerprint, then the users waiting for it are added.
+     *
+     * @param content The certificate content received from the server.
+     */
+    private void handleCertificate( CertificateContent content )
+    {
+        if ( !content.hasValidDigest() )
+        {
+            LOGGER.log( "Received certificate message has invalid digest.", Optional.of(LogTypes.ERROR) );
+            return;
+        }
+
+        String fingerprint = content.getFingerprint();
+        requestedFingerprints.remove( fingerprint );
+        boolean stored = CERTIFICATES.putVerified( fingerprint, content.getCertificate() );
+        if ( !stored )
+            LOGGER.log( "Received certificate does not match the fingerprint " + fingerprint + ".", Optional.of(LogTypes.WARN) );
+
+        for ( Map.Entry< String, CertificateReference > pending : pendingCertificates.entrySet() )
+        {
+            CertificateReference reference = pending.getValue();
+            if ( !reference.getFingerprint().equals( fingerprint ) || !pendingCertificates.remove( pending.getKey(), reference ) )
+                continue;
+
+            if ( stored )
+                addConnectedUser( pending.getKey(), reference, content.getCertificate() );
+        }
+    }
+
+    /**
+     * Applies the roster received from the messaging server to the connected users.
+     */
+    private class ClientPresenceListener implements PresenceListener
+    {
+        @Override
+        public void onRoster( List<PresenceDelta> members )
+        {
+            prefetchedStates.clear();
+            List<Integer> unchecked = new ArrayList<>();
+            for ( PresenceDelta member : members )
+            {
+                ClientUser user = connectedUsers.get( member.getUsername() );
+                boolean changed = user == null || !Objects.equals( user.getCertificateReference(), member.getCertificate() );
+                if ( changed && !member.getUsername().equals( client.getUsername() ) && !VALIDATIONS.isValidated( member.getCertificate() ) )
+                    unchecked.add( member.getCertificate().getSerialNumber() );
+            }
+            if ( unchecked.size() > 1 && !revocationsSynced )
+                prefetchStatesWithCA( unchecked );
+
+            Set<String> usernames = new HashSet<>();
+            for ( PresenceDelta member : members )
+            {
+                if ( member.getUsername().equals( client.getUsername() ) )
+                    continue;
+
+                usernames.add( member.getUsername() );
+                ClientUser user = connectedUsers.get( member.getUsername() );
+                if ( user == null || !Objects.equals( user.getCertificateReference(), member.getCertificate() ) )
+                    addConnectedUser( member.getUsername(), member.getCertificate() );
+            }
+
+            for ( String username : connectedUsers.keySet() )
+            {
+                if ( !usernames.contains( username ) )
+                    removeConnectedUser( username );
+            }
+
+            pendingCertificates.keySet().retainAll( usernames );
+        }
+
+        @Override
+        public void onDelta( PresenceDelta delta )
+        {
+            if ( delta.getUsername().equals( client.getUsername() ) )
+                return;
+
+            switch ( delta.getEvent() )
+            {
+                case JOIN, RENEW -> { addConnectedUser( delta.getUsername(), delta.getCertificate() ); }
+
+                case LEAVE -> { removeConnectedUser( delta.getUsername() ); }
+            }
+        }
+
+        @Override
+        public void onGap( long knownVersion )
+        {
+            LOGGER.log( "Missed roster changes after version " + knownVersion + ", resuming.", Optional.of(LogTypes.DEBUG) );
+            sendMessage( new Message( client.getUsername(), "MSGServer", ContentFactory.createPresenceResumeContent( knownVersion ) ), MSG_SERVER_CONNECTION );
+        }
     }
 
     /**
@@ -256,11 +603,11 @@ public class Client
      * @param user The user whose certificate is to be checked.
      * @return True if the user's certificate is valid, otherwise false.
      */
-    private boolean isValidUserCertificate( User user )
+    private boolean isValidUserCertificate( ClientUser user )
     {
         try
         {
-            return isValidUserCertificate(user, new PEMCertificateEncoder().decode( user.getCertificate() ) );
+            return isValidUserCertificate(user, user.getDecodedCertificate() );
         }
         catch (IOException | ClassNotFoundException e)
         {
@@ -270,7 +617,8 @@ public class Client
     }
 
     /**
-     * Checks if a user's certificate is valid.
+     * Checks if a user's certificate is valid. A certificate that passed validation is not checked again until its
+     * validation expires, see {@link CertificateValidationCache}.
      *
      * @param user        The user whose certificate is to be checked.
      * @param certificate The certificate to be checked.
@@ -278,8 +626,13 @@ public class Client
      */
     private boolean isValidUserCertificate( User user , CustomCertificate certificate )
     {
+        CertificateReference reference = user.getCertificateReference();
+        if ( reference != null && VALIDATIONS.isValidated( reference ) )
+            return true;
+
         try
         {
+            int caKeyGeneration = VALIDATIONS.getCaKeyGeneration();
             boolean invalid = false;
             if(certificate.getValidTo().getTime() < System.currentTimeMillis())
             {
@@ -302,12 +655,17 @@ public class Client
 
             if(invalid)
             {
-                MessageContent content =  ContentFactory.createIntegrityContent( String.valueOf( certificate.getSerialNumber() ), sharedDHSecretCA, CACommunicationTypes.REVOKE );
-                sendMessage( new Message( client.getUsername(), "CA", content ), CA_SERVER_CONNECTION_OUTPUT );
+                synchronized ( CA_LOCK )
+                {
+                    MessageContent content =  ContentFactory.createIntegrityContent( String.valueOf( certificate.getSerialNumber() ), sharedDHSecretCA, CACommunicationTypes.REVOKE );
+                    sendMessage( new Message( client.getUsername(), "CA", content ), CA_SERVER_CONNECTION );
+                }
                 return false;
             }
-            else
-                return true;
+
+            if ( reference != null )
+                VALIDATIONS.validated( reference, certificate.getValidTo(), caKeyGeneration );
+            return true;
         }
         catch (IOException | ClassNotFoundException e)
         {
@@ -340,7 +698,7 @@ public class Client
                 if (newestKey) break;
 
                 LOGGER.log("Invalid certificate signature user " + user.getUsername() + " updating CA signature.", Optional.of(LogTypes.DEBUG) );
-                caPublicKey = askPublicKey();
+                updateCaPublicKey();
                 newestKey = true;
             }
         }
@@ -349,7 +707,64 @@ public class Client
     }
 
     /**
-     * Checks the state of a certificate with the CA.
+     * Asks the CA server for its public key. If the key changed, the certificates validated with the previous key are
+     * validated again when next used.
+     */
+    private void updateCaPublicKey()
+    {
+        PublicKey key = askPublicKey();
+        boolean changed = !Objects.equals( key, caPublicKey );
+        caPublicKey = key;
+        if ( changed )
+            VALIDATIONS.caKeyChanged();
+    }
+
+    /**
+     * Checks the state of several certificates with the CA, in requests of at most {@link #MAX_STATES_PER_REQUEST}
+     * serial numbers. The states are kept until the certificates are validated, see {@link #checkStateWithCA(int)}.
+     * If a reply is not valid, the remaining certificates are checked one by one when validated.
+     *
+     * @param serialNumbers The serial numbers of the certificates.
+     */
+    private void prefetchStatesWithCA( List<Integer> serialNumbers )
+    {
+        try
+        {
+            synchronized ( CA_LOCK )
+            {
+                for ( int start = 0; start < serialNumbers.size(); start += MAX_STATES_PER_REQUEST )
+                {
+                    int[] batch = serialNumbers.subList( start, Math.min( start + MAX_STATES_PER_REQUEST, serialNumbers.size() ) )
+                            .stream().mapToInt( Integer::intValue ).toArray();
+                    CA_SERVER_CONNECTION.send( new Message( client.getUsername(), "CA", ContentFactory.createCertificateStatesContent( batch, sharedDHSecretCA ) ) );
+                    Message msg = CA_SERVER_CONNECTION.receive();
+
+                    if ( !( msg.getContent() instanceof CertificateStatesContent states ) )
+                    {
+                        LOGGER.log( "Invalid certificate states reply: " + msg.getContent().getStringMessage(), Optional.of(LogTypes.ERROR) );
+                        return;
+                    }
+
+                    if ( !states.hasValidMAC( sharedDHSecretCA.toByteArray() ) || !states.hasStates() || !Arrays.equals( states.getSerialNumbers(), batch ) )
+                    {
+                        LOGGER.log( "Received certificate states have invalid MAC or do not match the request.", Optional.of(LogTypes.ERROR) );
+                        return;
+                    }
+
+                    for ( int i = 0; i < batch.length; i++ )
+                        prefetchedStates.put( batch[i], states.isValid( i ) );
+                }
+            }
+        }
+        catch (IOException | ClassNotFoundException e)
+        {
+            LOGGER.log( "Couldn't check certificate states: " + e.getMessage(), Optional.of(LogTypes.ERROR) );
+        }
+    }
+
+    /**
+     * Checks the state of a certificate. While the revocation replica is up to date it answers without asking the CA,
+     * otherwise the CA is asked unless the certificate was checked in a batch before.
      *
      * @param serialNUmber The serial number of the certificate.
      * @return True if the certificate is valid, otherwise false.
@@ -358,30 +773,40 @@ public class Client
      */
     private boolean checkStateWithCA( int serialNUmber ) throws IOException, ClassNotFoundException
     {
-        MessageContent isRevokeContent = ContentFactory.createCertificateStateContent( serialNUmber );
-        CA_SERVER_CONNECTION_OUTPUT.writeObject( new Message( client.getUsername(), "CA", isRevokeContent) );
-        Message msg = (Message) CA_SERVER_CONNECTION_INPUT.readObject();
+        if ( revocationsSynced )
+            return !REVOCATIONS.isRevoked( serialNUmber );
 
-        switch ( msg.getContent().getType() )
+        Boolean prefetched = prefetchedStates.remove( serialNUmber );
+        if ( prefetched != null )
+            return prefetched;
+
+        synchronized ( CA_LOCK )
         {
-            case ERROR -> { LOGGER.log(msg.getContent().getStringMessage(),Optional.of(LogTypes.ERROR)); }
+            MessageContent isRevokeContent = ContentFactory.createCertificateStateContent( serialNUmber );
+            CA_SERVER_CONNECTION.send( new Message( client.getUsername(), "CA", isRevokeContent) );
+            Message msg = CA_SERVER_CONNECTION.receive();
+
+            switch ( msg.getContent().getType() )
+            {
+                case ERROR -> { LOGGER.log(msg.getContent().getStringMessage(),Optional.of(LogTypes.ERROR)); }
 
-            case CA_COMMUNICATION -> {
+                case CA_COMMUNICATION -> {
 
-                if( ((MessageContentIntegrityHash)msg.getContent()).hasValidDigest() )
-                {
-                    if (msg.getContent().getSubType() == CACommunicationTypes.CERTIFICATE_STATE) {
-                        return ((CertificateState) msg.getContent()).isValid();
+                    if( ((MessageContentIntegrityHash)msg.getContent()).hasValidDigest() )
+                    {
+                        if (msg.getContent().getSubType() == CACommunicationTypes.CERTIFICATE_STATE) {
+                            return ((CertificateState) msg.getContent()).isValid();
+                        }
+                    }
+                    else
+                    {
+                        LOGGER.log( "received message has invalid digest.",Optional.of(LogTypes.ERROR));
+                        return false;
                     }
                 }
-                else
-                {
-                    LOGGER.log( "received message has invalid digest.",Optional.of(LogTypes.ERROR));
-                    return false;
-                }
-            }
 
-            default -> throw new RuntimeException("Invalid message received ");
+                default -> throw new RuntimeException("Invalid message received ");
+            }
         }
 
         return false;
@@ -405,6 +830,26 @@ public class Client
         }
     }
 
+    /**
+     * Creates the transport of a server connection. The binary codec is negotiated with the server, the Java codec
+     * uses the transport that the server mode expects without negotiating.
+     *
+     * @param connection The connection to the server.
+     * @param serverMode The mode of the server.
+     * @return The transport of the connection.
+     * @throws IOException If the transport could not be created.
+     */
+    private PullTransport openTransport( Socket connection, ServerModes serverMode ) throws IOException
+    {
+        if ( CONFIG.getCodec() == CodecTypes.BINARY )
+            return CodecNegotiation.connect( connection, CodecTypes.BINARY, CodecTypes.JAVA );
+
+        if ( serverMode == ServerModes.SELECTOR )
+            return new FramedTransport( connection );
+
+        return new ObjectStreamTransport( connection, new StreamResetPolicy( CONFIG.getStreamResetMessages(), CONFIG.getStreamResetBytes() ) );
+    }
+
     /**
      * Lists all connected users.
      */
@@ -423,58 +868,163 @@ public class Client
     }
 
     /**
-     * Lists messages received from specific users or from all.
+     * Opens the message history of the client, see {@link HistoryStore}. The history is kept in a directory per
+     * username, encrypted with a key kept in the same directory wrapped with the passphrase of the user. The passphrase
+     * is asked again until the history opens, an empty passphrase keeps no history.
      *
-     * @param args The usernames of users whose messages are to be listed.
+     * @return The history, or null if the user chose to keep no history.
      */
-    private void ListMessages( String args )
+    private HistoryStore openHistory()
     {
-        if(messages.isEmpty())
+        Path directory = Paths.get( CONFIG.getHistoryPath(), client.getUsername() );
+        while ( true )
         {
-            System.out.println("There is no messages.");
+            char[] passphrase = readHistoryPassphrase();
+            if ( passphrase.length == 0 )
+            {
+                LOGGER.log( "No message history is kept.", Optional.of(LogTypes.INFO) );
+                return null;
+            }
+
+            try
+            {
+                HistoryStore store = new HistoryStore( directory, HistoryStore.loadKey( directory.resolve( "history.key" ), passphrase ),
+                        CONFIG.getHistorySegmentSize(), CONFIG.getHistoryMaxSegments(), CONFIG.getHistoryRetention() * 24L * 60 * 60 * 1000 );
+                if ( store.getSkipped() > 0 )
+                    LOGGER.log( store.getSkipped() + " messages of the history could not be read.", Optional.of(LogTypes.WARN) );
+                return store;
+            }
+            catch (IOException | RuntimeException e)
+            {
+                LOGGER.log( "Could not open the message history: " + e.getMessage(), Optional.of(LogTypes.ERROR) );
+            }
+            finally
+            {
+                Arrays.fill( passphrase, '\0' );
+            }
         }
+    }
 
-        String[] userNames = args.split(" ");
+    /**
+     * Asks the user for the passphrase of the message history, without echoing it when the client runs in a console.
+     *
+     * @return The passphrase, empty if the user keeps no history.
+     */
+    private char[] readHistoryPassphrase()
+    {
+        System.out.println( "Set history passphrase (empty to keep no history):" );
+        if ( System.console() != null )
+        {
+            char[] passphrase = System.console().readPassword();
+            return passphrase == null ? new char[0] : passphrase;
+        }
 
-        if( args.isBlank() )
+        return SCANNER.hasNextLine() ? SCANNER.nextLine().toCharArray() : new char[0];
+    }
+
+    /**
+     * Closes the message history of the client.
+     */
+    private void closeHistory()
+    {
+        if ( history == null )
+            return;
+
+        try
         {
-            for ( MessageRecord msg : messages )
-            {
-                System.out.println( msg );
-            }
+            history.close();
         }
-        else
+        catch (IOException e)
         {
-            for (int i = 0; i < userNames.length ; i++) {
-                ListMessagesOfUser( userNames[i] );
-            }
+            LOGGER.log( "Could not close the message history: " + e.getMessage(), Optional.of(LogTypes.ERROR) );
         }
     }
 
     /**
-     * Lists messages received from a specific user.
+     * Adds a received message to the message history.
      *
-     * @param userName The username of the user whose messages are to be listed.
+     * @param sender  The username of the user that sent the message.
+     * @param message The decrypted message.
      */
-    private void ListMessagesOfUser( String userName )
+    private void recordMessage( String sender, String message )
     {
-        if( userName.isBlank() )
+        if ( history == null )
             return;
 
-        System.out.println( "Showing Messages of: " + userName );
+        try
+        {
+            history.append( new MessageRecord( sender, message, System.currentTimeMillis() ) );
+        }
+        catch (IOException e)
+        {
+            LOGGER.log( "Could not store message: " + e.getMessage(), Optional.of(LogTypes.ERROR) );
+        }
+    }
 
-        int messagesCount = 0;
-        for ( MessageRecord msg : messages ) {
+    /**
+     * Lists a page of the messages received from specific users or from all, the first page holds the most recent
+     * messages. The arguments are usernames, optionally followed by "-p page" and "-since minutes".
+     *
+     * @param args The usernames of users whose messages are to be listed, and the options.
+     */
+    private void ListMessages( String args )
+    {
+        if( history == null )
+        {
+            System.out.println("The message history is not available.");
+            return;
+        }
 
-            if( msg.getSender().equals( userName ) )
+        Set<String> userNames = new LinkedHashSet<>();
+        int page = 1;
+        long from = Long.MIN_VALUE;
+        String[] arguments = args.trim().split("\\s+");
+        try
+        {
+            for (int i = 0; i < arguments.length ; i++)
             {
-                System.out.println( msg );
-                messagesCount++;
+                switch ( arguments[i] )
+                {
+                    case "" -> { }
+                    case "-p" -> { page = Integer.parseInt( arguments[++i] ); }
+                    case "-since" -> { from = System.currentTimeMillis() - Long.parseLong( arguments[++i] ) * 60 * 1000; }
+                    default -> { userNames.add( arguments[i] ); }
+                }
             }
         }
+        catch (NumberFormatException | ArrayIndexOutOfBoundsException e)
+        {
+            System.out.println("Invalid arguments. listMsg (Optional)<username1> <username2> ... (Optional)-p <page> (Optional)-since <minutes>");
+            return;
+        }
+
+        HistoryPage messages;
+        try
+        {
+            messages = history.query( userNames, from, Long.MAX_VALUE, Math.max( page, 1 ), CONFIG.getHistoryPageSize() );
+        }
+        catch (IOException e)
+        {
+            LOGGER.log( "Could not read the message history: " + e.getMessage(), Optional.of(LogTypes.ERROR) );
+            return;
+        }
+
+        if( !userNames.isEmpty() )
+            System.out.println( "Showing Messages of: " + String.join( " ", userNames ) );
+
+        if( messages.getTotal() == 0 )
+        {
+            System.out.println( userNames.isEmpty() ? "There is no messages." : "No messages where found." );
+            return;
+        }
+
+        for ( MessageRecord msg : messages.getRecords() )
+        {
+            System.out.println( msg );
+        }
 
-        if( messagesCount == 0)
-            System.out.println("No messages where found.");
+        System.out.println( "Page " + messages.getPage() + " of " + messages.getPageCount() + " (" + messages.getTotal() + " messages)."
+                + ( messages.hasOlder() ? " Older messages: -p " + ( messages.getPage() + 1 ) : "" ) );
     }
 
     /**
@@ -523,13 +1073,18 @@ public class Client
 
 
     /**
-     * Sends a message to the specified users.
+     * Sends a message to the specified users. The secrets with the users that have none are agreed in parallel, and
+     * the message is encrypted for each user, in parallel with the other users, as soon as its secret is agreed.
+     * From {@link Config#getMulticastThreshold()} users the message is sent as one multicast envelope instead, see
+     * {@link #sendMulticast(Map, String)}.
+     * Returns when the message was sent to every user or the agreement with the user failed.
      *
      * @param usersToSend The iterator of usernames of users to whom the message is to be sent.
      * @param message     The message to be sent.
      */
     private void sendMessage( Iterator<String> usersToSend, String message )
     {
+        Map< ClientUser, CompletableFuture<AESCipher> > ciphers = new LinkedHashMap<>();
         ClientUser userToSend;
         String user;
         while ( usersToSend.hasNext() )
@@ -542,86 +1097,190 @@ public class Client
             }
             else
             {
-                if( !userToSend.hasAgreedOnSecret() )
-                    if ( isValidUserCertificate(userToSend) )
-                        startAgreeingOnSecret( userToSend );
+                if( !userToSend.hasAgreedOnSecret() && !isValidUserCertificate(userToSend) )
+                {
+                    sendInvalidCertificateMessage( userToSend );
+                    LOGGER.log("User '"+userToSend.getUsername()+"' is disconnected from de chat because of invalid certificate", Optional.of(LogTypes.INFO));
+                    continue;
+                }
+
+                ClientUser recipient = userToSend;
+                ciphers.put( recipient, startAgreeingOnSecret( recipient ).thenApply( secret -> recipient.getCipher() ) );
+            }
+        }
+
+        int threshold = CONFIG.getMulticastThreshold();
+        if ( threshold > 0 && ciphers.size() >= threshold )
+        {
+            sendMulticast( ciphers, message );
+            return;
+        }
+
+        List< CompletableFuture<Void> > sends = new ArrayList<>();
+        ENCRYPTION.encrypt( message.getBytes(), ciphers, ClientUser::getCipherLayout ).forEach( ( recipient, encrypted ) ->
+                sends.add( encrypted.handle( ( encryptedMessage, error ) -> {
+                    if ( error != null )
+                    {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        LOGGER.log("Couldn't send message to '" + recipient.getUsername() + "': " + cause.getMessage(), Optional.of(LogTypes.ERROR) );
+                    }
                     else
                     {
-                        connectedUsers.remove( userToSend.getUsername() );
-                        sendInvalidCertificateMessage( userToSend );
-                        LOGGER.log("User '"+userToSend.getUsername()+"' is disconnected from de chat because of invalid certificate", Optional.of(LogTypes.INFO));
-                        continue;
+                        LOGGER.log("Sending msg "+ message + " to:" + recipient.getUsername(), Optional.of(LogTypes.DEBUG) );
+                        sendCommunication( recipient, encryptedMessage );
                     }
+                    return null;
+                }))
+        );
+
+        CompletableFuture.allOf( sends.toArray( CompletableFuture[]::new ) ).join();
+    }
 
-                LOGGER.log("Sending msg "+ message + " to:" + user, Optional.of(LogTypes.DEBUG) );
-                sendCommunication(userToSend,message);
+    /**
+     * Sends a message to several users as one multicast envelope. The message is encrypted once under a random key,
+     * only the key is encrypted for each user, and the server splits the envelope into one message per user. Waits for
+     * the secrets with every user, the users whose agreement failed are skipped. The envelope is authenticated, so only
+     * the users that negotiated the GCM layout receive it, the others receive their own message.
+     *
+     * @param ciphers The futures of the ciphers of the users.
+     * @param message The message to be sent.
+     */
+    private void sendMulticast( Map< ClientUser, CompletableFuture<AESCipher> > ciphers, String message )
+    {
+        Map< ClientUser, AESCipher > ready = new LinkedHashMap<>();
+        ciphers.forEach( ( recipient, cipher ) -> {
+            try
+            {
+                ready.put( recipient, cipher.join() );
+            }
+            catch ( CompletionException | CancellationException e )
+            {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                LOGGER.log("Couldn't send message to '" + recipient.getUsername() + "': " + cause.getMessage(), Optional.of(LogTypes.ERROR) );
+            }
+        });
+
+        Map< ClientUser, AESCipher > authenticated = new LinkedHashMap<>();
+        ready.forEach( ( recipient, cipher ) -> {
+            if ( recipient.getCipherLayout() == CipherLayouts.GCM )
+                authenticated.put( recipient, cipher );
+        });
+        if ( authenticated.size() < 2 )
+            authenticated.clear();
+
+        for ( Map.Entry< ClientUser, AESCipher > entry : ready.entrySet() )
+        {
+            if ( authenticated.containsKey( entry.getKey() ) )
+                continue;
+
+            try
+            {
+                sendCommunication( entry.getKey(), entry.getValue().encrypt( message.getBytes(), entry.getKey().getCipherLayout() ) );
+            }
+            catch ( GeneralSecurityException e )
+            {
+                LOGGER.log( "Could not send message :" + e.getMessage(), Optional.of(LogTypes.ERROR) );
             }
         }
+
+        if ( authenticated.isEmpty() )
+            return;
+
+        try
+        {
+            FanOutEncryption.Envelope<ClientUser> envelope = ENCRYPTION.seal( message.getBytes(), authenticated );
+            String[] recipients = new String[authenticated.size()];
+            byte[][] keys = new byte[authenticated.size()][];
+            int i = 0;
+            for ( Map.Entry< ClientUser, byte[] > entry : envelope.getKeys().entrySet() )
+            {
+                recipients[i] = entry.getKey().getUsername();
+                keys[i++] = entry.getValue();
+            }
+
+            LOGGER.log("Sending msg "+ message + " to " + authenticated.size() + " users in one multicast", Optional.of(LogTypes.DEBUG) );
+            sendMessage(
+                    new Message( client.getUsername(), "", ContentFactory.createMulticastContent( recipients, keys, envelope.getBody() ) ),
+                    MSG_SERVER_CONNECTION
+            );
+        }
+        catch ( GeneralSecurityException e )
+        {
+            LOGGER.log( "Could not send message :" + e.getMessage(), Optional.of(LogTypes.ERROR) );
+        }
     }
 
     /**
-     * Initiates the process of agreeing on a secret with another user.
+     * Initiates the process of agreeing on a secret with another user, see {@link HandshakeManager}.
      *
      * @param userToSendAgreeSecret The user with whom the secret is to be agreed upon.
+     * @return The future of the agreed secret.
      */
-    private void startAgreeingOnSecret( ClientUser userToSendAgreeSecret )
+    private CompletableFuture<BigInteger> startAgreeingOnSecret( ClientUser userToSendAgreeSecret )
     {
-        userToSendAgreeSecret.setAgreeingOnSecret(true);
-        userToSendAgreeSecret.setGeneratedPrivateKey( DiffieHellman.generatePrivateKey() );
-        userToSendAgreeSecret.setGeneratedPublicKey( DiffieHellman.generatePublicKey( userToSendAgreeSecret.getGeneratedPrivateKey() ));
-        byte[] encryptedDHPublicKey = RSA.encryptRSA( userToSendAgreeSecret.getGeneratedPublicKey().toByteArray() , clientKeyPair.getPrivate() );
-        sendMessage(
-                new Message( client.getUsername(), userToSendAgreeSecret.getUsername(), ContentFactory.createDiffieHellmanRSAContent( encryptedDHPublicKey ) ),
-                MSG_SERVER_CONNECTION_OUTPUT
-        );
+        return HANDSHAKES.agree( userToSendAgreeSecret );
+    }
 
-        AGREE_ON_SECRETE_LOCK.lock();
-        try {
-            while ( !userToSendAgreeSecret.hasAgreedOnSecret() ) {
-                AGREE_ON_SECRETE_LOCK_CONDITION.await(1, TimeUnit.MILLISECONDS);
-            }
-        } catch (InterruptedException e) {
-            LOGGER.log(e.getMessage(), Optional.of(LogTypes.ERROR));
-        } finally {
-            AGREE_ON_SECRETE_LOCK.unlock(); // Always release the lock
+    /**
+     * Sends the Diffie-Hellman offer to agree on a secret with another user. The key pair is generated for the first
+     * offer and the same public key is sent again on a retry, so a late answer to an earlier offer is still valid.
+     *
+     * @param userToSendAgreeSecret The user with whom the secret is to be agreed upon.
+     */
+    private void sendSecretOffer( ClientUser userToSendAgreeSecret )
+    {
+        if ( !userToSendAgreeSecret.isAgreeingOnSecret() || userToSendAgreeSecret.getGeneratedPublicKey() == null )
+        {
+            userToSendAgreeSecret.setGeneratedPrivateKey( DiffieHellman.generatePrivateKey() );
+            userToSendAgreeSecret.setGeneratedPublicKey( DiffieHellman.generatePublicKey( userToSendAgreeSecret.getGeneratedPrivateKey() ));
+            userToSendAgreeSecret.setAgreeingOnSecret(true);
         }
+        byte[] encryptedDHPublicKey = DiffieHellman.signPublicKey( userToSendAgreeSecret.getGeneratedPublicKey(), CONFIG.getCipherLayout(), clientKeyPair.getPrivate() );
+        sendMessage(
+                new Message( client.getUsername(), userToSendAgreeSecret.getUsername(), ContentFactory.createDiffieHellmanRSAContent( encryptedDHPublicKey, CONFIG.getCipherLayout() ) ),
+                MSG_SERVER_CONNECTION
+        );
     }
 
     /**
      * Sends a communication (message) to a user.
      *
-     * @param recipient The user that the message is to be sent.
-     * @param msg       The message to be sent.
+     * @param recipient      The user that the message is to be sent.
+     * @param encryptMessage The message encrypted with the secret agreed with the user.
      */
-    private void sendCommunication( ClientUser recipient, String msg )
+    private void sendCommunication( ClientUser recipient, byte[] encryptMessage )
     {
         try
         {
-            byte[] encryptMessage = AES.encryptMessage(msg, recipient.getSharedSecret().toByteArray() );
+            CipherLayouts layout = recipient.getCipherLayout();
+            // a GCM message is authenticated by its tag, so it is sent without digest
+            MessageContent content = layout == CipherLayouts.GCM
+                    ? ContentFactory.createAuthenticatedMSGCommunicationContent( encryptMessage )
+                    : ContentFactory.createMSGCommunicationContent( encryptMessage );
 
             sendMessage(
-                    new Message( client.getUsername(), recipient.getUsername(), ContentFactory.createMSGCommunicationContent(encryptMessage) ),
-                    MSG_SERVER_CONNECTION_OUTPUT
+                    new Message( client.getUsername(), recipient.getUsername(), content ),
+                    MSG_SERVER_CONNECTION
                     );
 
         }
         catch (Exception e)
         {
-            LOGGER.log( "Could not encrypt message :" + e.getMessage(), Optional.of(LogTypes.ERROR) );
+            LOGGER.log( "Could not send message :" + e.getMessage(), Optional.of(LogTypes.ERROR) );
         }
     }
 
     /**
-     * Sends a message through the specified output stream.
+     * Sends a message through the specified transport.
      *
      * @param message The message to be sent.
-     * @param output  The output stream through which the message is to be sent.
+     * @param output  The transport through which the message is to be sent.
      */
-    public void sendMessage( Message message, ObjectOutputStream output )
+    public void sendMessage( Message message, MessageTransport output )
     {
         try
         {
-            output.writeObject( message );
+            output.send( message );
         }
         catch (IOException e)
         {
@@ -637,13 +1296,14 @@ public class Client
      */
     private void sendInvalidCertificateMessage( ClientUser user, CustomCertificate certificate )
     {
+        VALIDATIONS.invalidate( certificate.getSerialNumber() );
         sendMessage(
                 new Message(
                         client.getUsername(),
                         "", // send broadcast
                         ContentFactory.createCertificateStateInvalidContent( certificate.getSerialNumber() )
                 ),
-                MSG_SERVER_CONNECTION_OUTPUT
+                MSG_SERVER_CONNECTION
         );
     }
 
@@ -656,9 +1316,8 @@ public class Client
     {
         try
         {
-            connectedUsers.remove( user.getUsername() );
-            CustomCertificate certificate = new PEMCertificateEncoder().decode( user.getCertificate() ) ;
-            sendInvalidCertificateMessage( user, certificate );
+            forgetConnectedUser( user.getUsername() );
+            sendInvalidCertificateMessage( user, user.getDecodedCertificate() );
         }
         catch (ClassNotFoundException | IOException e)
         {
@@ -704,9 +1363,9 @@ public class Client
         try
         {
             MessageContent content = ContentFactory.createRegisterContent( username );
-            MSG_SERVER_CONNECTION_OUTPUT.writeObject( new Message( username, "Server", content ) );
+            MSG_SERVER_CONNECTION.send( new Message( username, "Server", content ) );
 
-            Message msg = (Message)MSG_SERVER_CONNECTION_INPUT.readObject();
+            Message msg = MSG_SERVER_CONNECTION.receive();
 
             switch ( msg.getContent().getType() )
             {
@@ -768,9 +1427,13 @@ public class Client
     {
         try
         {
-            MessageContent content = ContentFactory.createTypeContent( CACommunicationTypes.PUBLIC_KEY );
-            CA_SERVER_CONNECTION_OUTPUT.writeObject( new Message( client.getUsername(), "CA" , content  ));
-            Message msg = (Message)CA_SERVER_CONNECTION_INPUT.readObject();
+            Message msg;
+            synchronized ( CA_LOCK )
+            {
+                MessageContent content = ContentFactory.createTypeContent( CACommunicationTypes.PUBLIC_KEY );
+                CA_SERVER_CONNECTION.send( new Message( client.getUsername(), "CA" , content  ));
+                msg = CA_SERVER_CONNECTION.receive();
+            }
 
 
             if (msg.getContent().getType() == ContentTypes.CA_COMMUNICATION && msg.getContent().getSubType() == CACommunicationTypes.PUBLIC_KEY)
@@ -807,82 +1470,72 @@ public class Client
     private String askSigneCertificate( CustomCertificate certificate )
     {
         isWaitingForCertificate.syncSet(true);
-        String fileName = client.getUsername()+".pem" ;
-        try ( FileWriter fileWriter = new FileWriter( "src/data/Certificates/" + fileName) )
+        synchronized ( CA_LOCK )
         {
-            sharedDHSecretCA = agreeOnSecretWithCA(CA_SERVER_CONNECTION_OUTPUT,CA_SERVER_CONNECTION_INPUT,"CA");
-            PEMCertificateEncoder encoder = new PEMCertificateEncoder();
-            fileWriter.write( encoder.encode( certificate ) );
-            fileWriter.close();
+            String fileName = client.getUsername()+".pem" ;
+            try ( FileWriter fileWriter = new FileWriter( "src/data/Certificates/" + fileName) )
+            {
+                sharedDHSecretCA = agreeOnSecretWithCA(CA_SERVER_CONNECTION,"CA");
+                PEMCertificateEncoder encoder = new PEMCertificateEncoder();
+                fileWriter.write( encoder.encode( certificate ) );
+                fileWriter.close();
 
-            CA_SERVER_CONNECTION_OUTPUT.writeObject( new Message( client.getUsername(), "CA", ContentFactory.createSigneContent( fileName , sharedDHSecretCA ) ) );
-            Message msg = (Message)CA_SERVER_CONNECTION_INPUT.readObject();
+                CA_SERVER_CONNECTION.send( new Message( client.getUsername(), "CA", ContentFactory.createSigneContent( fileName , sharedDHSecretCA ) ) );
+                Message msg = CA_SERVER_CONNECTION.receive();
 
 
-            if ( ! (msg.getContent().getType() == ContentTypes.CA_COMMUNICATION && msg.getContent().getSubType() == CACommunicationTypes.SIGNE) )
-            {
-                if( msg.getContent().getType() == ContentTypes.ERROR )
+                if ( ! (msg.getContent().getType() == ContentTypes.CA_COMMUNICATION && msg.getContent().getSubType() == CACommunicationTypes.SIGNE) )
                 {
-                    LOGGER.log( String.format( "Can not login :%s", msg.getContent().getStringMessage() ), Optional.of(LogTypes.ERROR) );
-                    throw new RuntimeException("System need to terminate doe to error");
+                    if( msg.getContent().getType() == ContentTypes.ERROR )
+                    {
+                        LOGGER.log( String.format( "Can not login :%s", msg.getContent().getStringMessage() ), Optional.of(LogTypes.ERROR) );
+                        throw new RuntimeException("System need to terminate doe to error");
+                    }
+                    else
+                        throw new RuntimeException(  String.format( "Invalid response on login type:%s subtype:%s msg:%s", msg.getContent().getType(), msg.getContent().getSubType() , msg.getContent().getStringMessage() ) ) ;
                 }
-                else
-                    throw new RuntimeException(  String.format( "Invalid response on login type:%s subtype:%s msg:%s", msg.getContent().getType(), msg.getContent().getSubType() , msg.getContent().getStringMessage() ) ) ;
-            }
 
-            IntegrityContent content = (IntegrityContent) msg.getContent();
+                IntegrityContent content = (IntegrityContent) msg.getContent();
 
-            if( ! content.hasValidMAC( sharedDHSecretCA.toByteArray() ) )
-                throw new RuntimeException( "Compromised Message on login" ) ;
+                if( ! content.hasValidMAC( sharedDHSecretCA.toByteArray() ) )
+                    throw new RuntimeException( "Compromised Message on login" ) ;
 
-            LOGGER.log("Received Signed Certificate.", Optional.of(LogTypes.DEBUG ));
-            return content.getStringMessage();
+                LOGGER.log("Received Signed Certificate.", Optional.of(LogTypes.DEBUG ));
+                return content.getStringMessage();
 
-        }
-        catch ( Exception e )
-        {
-            throw new RuntimeException( e) ;
-        }
-        finally {
-            isWaitingForCertificate.syncSet(false);
+            }
+            catch ( Exception e )
+            {
+                throw new RuntimeException( e) ;
+            }
+            finally {
+                isWaitingForCertificate.syncSet(false);
+            }
         }
     }
 
     /**
-     * Requests the messaging server for the list of connected users.
+     * Receives the roster snapshot sent by the messaging server after the login, page by page.
+     * The changes received before the last page are applied after it.
      *
-     * @return The map of connected users.
      * @throws IOException            If an I/O error occurs.
      */
-    private ConcurrentHashMap<String,ClientUser> askConnectedUsers() throws IOException
+    private void receiveRoster() throws IOException
     {
         try
         {
-            Message msg = (Message)MSG_SERVER_CONNECTION_INPUT.readObject();
-
-            if ( msg.getContent().getType() == ContentTypes.ACCOUNT && msg.getContent().getSubType() == AccountMessageTypes.LOGGED_USERS)
+            while ( !PRESENCE.hasRoster() )
             {
-                if ( ( (AllLoggedInContent)msg.getContent() ).hasValidDigest() )
-                {
+                Message msg = MSG_SERVER_CONNECTION.receive();
 
-                    ArrayList<User> array =  ((AllLoggedInContent)msg.getContent()).getUsers();
-                    ConcurrentHashMap<String,ClientUser> clientUserList = new ConcurrentHashMap<>();
-
-                    for (User user : array) {
-
-                        ClientUser newUser = new ClientUser( user.getUsername() );
-                        newUser.setCertificate( user.getCertificate() );
-                        clientUserList.put( newUser.getUsername(), newUser );
-                    }
-
-                    return clientUserList;
+                if ( !( msg.getContent() instanceof PresenceContent ) )
+                {
+                    LOGGER.log( "Invalid message type received when waiting for users." , Optional.of(LogTypes.ERROR ));
+                    throw new RuntimeException("Invalid message");
                 }
-                else
-                    LOGGER.log( "Invalid Digest." , Optional.of(LogTypes.ERROR ));
-            }
 
-            LOGGER.log( "Invalid message type received when waiting for users." , Optional.of(LogTypes.ERROR ));
-            throw new RuntimeException("Invalid message");
+                handlePresence( (PresenceContent) msg.getContent() );
+            }
         }
         catch ( ClassNotFoundException e )
         {
@@ -893,20 +1546,19 @@ public class Client
     /**
      * Initiates the process of agreeing on a secret with the CA server.
      *
-     * @param outputStream The output stream to the CA server.
-     * @param inputStream  The input stream from the CA server.
-     * @param recipient    The recipient of the secret (CA server).
+     * @param transport The transport to the CA server.
+     * @param recipient The recipient of the secret (CA server).
      * @return The agreed secret.
      */
-    private BigInteger agreeOnSecretWithCA(ObjectOutputStream outputStream, ObjectInputStream inputStream, String recipient )
+    private BigInteger agreeOnSecretWithCA(PullTransport transport, String recipient )
     {
         try
         {
             BigInteger privateKey = DiffieHellman.generatePrivateKey();
             BigInteger publicKey = DiffieHellman.generatePublicKey( privateKey );
 
-            outputStream.writeObject( new Message( client.getUsername(), recipient, ContentFactory.createDiffieHellmanContent( publicKey )  ) );
-            Message msg =  (Message) inputStream.readObject();
+            transport.send( new Message( client.getUsername(), recipient, ContentFactory.createDiffieHellmanContent( publicKey )  ) );
+            Message msg = transport.receive();
 
             switch ( msg.getContent().getType() )
             {
@@ -959,18 +1611,9 @@ public class Client
     {
         try
         {
-            CustomCertificate clientCertificate = new PEMCertificateEncoder().decode( client.getCertificate() );
-            sendInvalidCertificateMessage(client, clientCertificate );
-
-            CustomCertificate certificate = createCertificate( client.getUsername() );
-            client.setCertificate( askSigneCertificate( certificate ) );
-            caPublicKey = askPublicKey();
-
-            sendMessage( new Message( client.getUsername(), "Server",
-                            ContentFactory.createLoginRenovateContent( client.getCertificate(), client.getUsername() )
-                    ), MSG_SERVER_CONNECTION_OUTPUT
-            );
-
+            CustomCertificate revoked = client.getDecodedCertificate();
+            sendInvalidCertificateMessage(client, revoked );
+            renewCertificate( revoked.getSerialNumber() );
         }
         catch (IOException |ClassNotFoundException e) {
             throw new RuntimeException(e);
@@ -986,14 +1629,17 @@ public class Client
     {
         try
         {
-            connectedUsers.remove( user.getUsername() );
+            forgetConnectedUser( user.getUsername() );
             LOGGER.log( String.format("Revoked certificate of user '%s'",user.getUsername()),Optional.of(LogTypes.INFO));
 
-            CustomCertificate certificate = new PEMCertificateEncoder().decode( user.getCertificate() );
+            CustomCertificate certificate = user.getDecodedCertificate();
             String serialNumber = String.valueOf(certificate.getSerialNumber());
 
-            MessageContent content =  ContentFactory.createIntegrityContent( serialNumber, sharedDHSecretCA, CACommunicationTypes.REVOKE );
-            sendMessage( new Message( client.getUsername(), "CA", content ), CA_SERVER_CONNECTION_OUTPUT );
+            synchronized ( CA_LOCK )
+            {
+                MessageContent content =  ContentFactory.createIntegrityContent( serialNumber, sharedDHSecretCA, CACommunicationTypes.REVOKE );
+                sendMessage( new Message( client.getUsername(), "CA", content ), CA_SERVER_CONNECTION );
+            }
 
             sendInvalidCertificateMessage( user, certificate );
         }
@@ -1013,9 +1659,9 @@ public class Client
         try
         {
             MessageContent loginContent = ContentFactory.createLoginContent( client.getCertificate() , client.getUsername() );
-            MSG_SERVER_CONNECTION_OUTPUT.writeObject( new Message( client.getUsername(), "MSGServer", loginContent  ));
+            MSG_SERVER_CONNECTION.send( new Message( client.getUsername(), "MSGServer", loginContent  ));
 
-            Message msg = (Message) MSG_SERVER_CONNECTION_INPUT.readObject();
+            Message msg = MSG_SERVER_CONNECTION.receive();
 
             switch ( msg.getContent().getType() ) {
                 case ERROR -> {
@@ -1055,7 +1701,7 @@ public class Client
         {
             LOGGER.log("Logging out...", Optional.of(LogTypes.WARN));
             exit.syncSet(true);
-            MSG_SERVER_CONNECTION_OUTPUT.writeObject( new Message(client.getUsername(), "server", ContentFactory.createTypeContent( LOGOUT )));
+            MSG_SERVER_CONNECTION.send( new Message(client.getUsername(), "server", ContentFactory.createTypeContent( LOGOUT )));
             isLogged.syncSet(false);
         }
         catch (IOException e)
@@ -1081,6 +1727,9 @@ public class Client
                 listener.close();
                 listener.join();
             }
+
+            if(revocationListener != null)
+                revocationListener.close();
         }
         else
             exit.syncSet(true);
@@ -1107,7 +1756,7 @@ public class Client
          */
         public ClientListener()
         {
-            this.isRunning = new VarSync<>(false);
+            this.isRunning = new VarSync<>( false, LockStrategies.NON_FAIR );
         }
 
         @Override
@@ -1127,15 +1776,15 @@ public class Client
         @Override
         public void run()
         {
-            while (this.isRunning.syncGet())
+            while (this.isRunning.optimisticGet())
             {
                 try
                 {
-                    handleMessage( (Message)MSG_SERVER_CONNECTION_INPUT.readObject() );
+                    handleMessage( MSG_SERVER_CONNECTION.receive() );
                 }
                 catch (IOException | ClassNotFoundException e)
                 {
-                    if( this.isRunning.syncGet() )
+                    if( this.isRunning.optimisticGet() )
                         LOGGER.log("Couldn't read object. " + e.getMessage(), Optional.of(LogTypes.ERROR));
                 }
             }
@@ -1172,11 +1821,9 @@ public class Client
         {
             switch ( (AccountMessageTypes)message.getContent().getSubType() )
             {
-                case LOGIN -> { userLogin( (LogInContent)message.getContent() ); }
+                case PRESENCE_SNAPSHOT, PRESENCE_DELTA -> { handlePresence( (PresenceContent)message.getContent() ); }
 
-                case LOGIN_RENOVATE -> { userLogin( (LogInRenovateContent)message.getContent() ) ;}
-
-                case LOGOUT -> { userLogout( (LogOutContent) message.getContent() ); }
+                case CERTIFICATE -> { handleCertificate( (CertificateContent)message.getContent() ); }
 
                 default -> { throw new RuntimeException("Invalid Message type.");}
             }
@@ -1193,6 +1840,8 @@ public class Client
             {
                 case MSG -> { handleMSGMessage( message ); }
 
+                case MULTICAST -> { handleMulticastMessage( message ); }
+
                 case INVALID_CERTIFICATE -> { handleInvalidCertificateMessage(message); }
 
                 default -> { throw new RuntimeException("Invalid Message type.");}
@@ -1213,7 +1862,10 @@ public class Client
                 return;
             }
 
-            if( ! ((MessageCommunicationContent)message.getContent()).hasValidDigest() )
+            // a GCM peer is only accepted in the authenticated layout, any other layout needs a valid digest
+            MessageCommunicationContent content = (MessageCommunicationContent)message.getContent();
+            boolean authenticated = fromUser.getCipherLayout() == CipherLayouts.GCM;
+            if( content.hasDigest() ? !content.hasValidDigest() : !authenticated )
             {
                 LOGGER.log( "Invalid Sender digest." + message.getSender(), Optional.of(LogTypes.ERROR) );
                 return;
@@ -1221,9 +1873,52 @@ public class Client
 
             try
             {
-                String msgDecrypted = new String( AES.decryptMessage( message.getContent().getByteMessage(), fromUser.getSharedSecret().toByteArray() ) );
+                byte[] encryptedMessage = message.getContent().getByteMessage();
+                String msgDecrypted = new String( authenticated
+                        ? fromUser.getCipher().decryptAuthenticated( encryptedMessage )
+                        : fromUser.getCipher().decrypt( encryptedMessage ) );
                 LOGGER.log(String.format("Message from: %s -> %s", message.getSender() ,msgDecrypted ), Optional.of(LogTypes.INFO));
-                messages.add(  new MessageRecord( fromUser.getUsername() , msgDecrypted , new SimpleDateFormat("HH:mm:ss").format(new Date()) ) );
+                recordMessage( fromUser.getUsername(), msgDecrypted );
+            }
+            catch (Exception e)
+            {
+                LOGGER.log( "Could not decrypt message" + e.getMessage(), Optional.of(LogTypes.ERROR) );
+            }
+        }
+
+        /**
+         * Handles incoming multicast messages from the server, the server sends only the key wrapped for this client.
+         *
+         * @param message The multicast message received from the server.
+         */
+        private void handleMulticastMessage( Message message )
+        {
+            ClientUser fromUser = connectedUsers.get( message.getSender() );
+            if (fromUser == null || fromUser.getCipher() == null)
+            {
+                LOGGER.log( "Invalid Sender (not connected)." + message.getSender(), Optional.of(LogTypes.ERROR) );
+                return;
+            }
+
+            if ( fromUser.getCipherLayout() != CipherLayouts.GCM )
+            {
+                LOGGER.log( "Received multicast from a sender without the authenticated layout: " + message.getSender(), Optional.of(LogTypes.ERROR) );
+                return;
+            }
+
+            MulticastContent content = (MulticastContent)message.getContent();
+            Optional<byte[]> key = content.getKey( client.getUsername() );
+            if ( key.isEmpty() )
+            {
+                LOGGER.log( "Received multicast without a key for this client from " + message.getSender(), Optional.of(LogTypes.ERROR) );
+                return;
+            }
+
+            try
+            {
+                String msgDecrypted = new String( FanOutEncryption.open( key.get(), content.getByteMessage(), fromUser.getCipher() ) );
+                LOGGER.log(String.format("Message from: %s -> %s", message.getSender() ,msgDecrypted ), Optional.of(LogTypes.INFO));
+                recordMessage( fromUser.getUsername(), msgDecrypted );
             }
             catch (Exception e)
             {
@@ -1247,35 +1942,20 @@ public class Client
                 return;
             }
 
+            VALIDATIONS.invalidate( content.getSerialNumber() );
+
             try
             {
-                PEMCertificateEncoder encoder = new PEMCertificateEncoder();
-                CustomCertificate clientCertificate =  encoder.decode( client.getCertificate() );
-
-                if ( content.getSerialNumber() == clientCertificate.getSerialNumber() && !isWaitingForCertificate.syncGet() )
-                {
-                    LOGGER.log("Renovating invalid certificate: " + clientCertificate.getSerialNumber(),Optional.of(LogTypes.INFO ));
+                CustomCertificate clientCertificate = client.getDecodedCertificate();
 
-                    CustomCertificate certificate = createCertificate( client.getUsername() );
-                    client.setCertificate( askSigneCertificate( certificate ) );
-                    caPublicKey = askPublicKey();
-
-                    sendMessage( new Message( client.getUsername(), "Server",
-                            ContentFactory.createLoginRenovateContent( client.getCertificate(), client.getUsername() )
-                            ), MSG_SERVER_CONNECTION_OUTPUT
-                    );
-                }
+                if ( content.getSerialNumber() == clientCertificate.getSerialNumber() )
+                    renewCertificate( content.getSerialNumber() );
                 else
                 {
-                    for (ClientUser user : connectedUsers.values() )
-                    {
-                        if ( encoder.decode(user.getCertificate()).getSerialNumber() == content.getSerialNumber() )
-                        {
-                            connectedUsers.remove( user.getUsername());
-                            LOGGER.log("User '"+user.getUsername()+"' is disconnected from de chat because of revoked certificate", Optional.of(LogTypes.INFO));
-                            break;
-                        }
-                    }
+                    String username = usernamesBySerial.get( content.getSerialNumber() );
+                    ClientUser user = username == null ? null : forgetConnectedUser( username );
+                    if ( user != null )
+                        LOGGER.log("User '"+user.getUsername()+"' is disconnected from de chat because of revoked certificate", Optional.of(LogTypes.INFO));
                 }
             }
             catch (IOException | ClassNotFoundException e)
@@ -1336,21 +2016,24 @@ public class Client
         {
             try
             {
+                //verify DHRSA key, the announced layout is signed with it
+                CipherLayouts peerLayout = ((DiffieHellmanKeyChangeContent)message.getContent()).getCipherLayout();
+                CustomCertificate fromUserCertificate = sender.getDecodedCertificate();
+                BigInteger peerDHPublicKey = DiffieHellman.verifyPublicKey( message.getContent().getByteMessage(), peerLayout, fromUserCertificate.getPublicKey() );
                 //createKey
                 sender.setAgreeingOnSecret(true);
                 sender.setGeneratedPrivateKey( DiffieHellman.generatePrivateKey() );
                 sender.setGeneratedPublicKey( DiffieHellman.generatePublicKey( sender.getGeneratedPrivateKey() ));
-                //decrypt DHRSA key
-                CustomCertificate fromUserCertificate = new PEMCertificateEncoder().decode( sender.getCertificate() );
-                byte[] decryptedDHPublicKey = RSA.decryptRSA( message.getContent().getByteMessage() , fromUserCertificate.getPublicKey() );
 
-                sender.setSharedSecret( DiffieHellman.computeSecret( new BigInteger(decryptedDHPublicKey) , sender.getGeneratedPrivateKey() ) );
+                sender.setCipherLayout( AESCipher.negotiate( CONFIG.getCipherLayout(), peerLayout ) );
+                sender.setSharedSecret( DiffieHellman.computeSecret( peerDHPublicKey , sender.getGeneratedPrivateKey() ) );
                 //send DHRSA key
-                byte[] encryptedDHPublicKey = RSA.encryptRSA( sender.getGeneratedPublicKey().toByteArray() , clientKeyPair.getPrivate() );
+                byte[] encryptedDHPublicKey = DiffieHellman.signPublicKey( sender.getGeneratedPublicKey(), CONFIG.getCipherLayout(), clientKeyPair.getPrivate() );
                 sendMessage(
-                        new Message( client.getUsername(), message.getSender(), ContentFactory.createDiffieHellmanRSAContent( encryptedDHPublicKey ) ),
-                        MSG_SERVER_CONNECTION_OUTPUT
+                        new Message( client.getUsername(), message.getSender(), ContentFactory.createDiffieHellmanRSAContent( encryptedDHPublicKey, CONFIG.getCipherLayout() ) ),
+                        MSG_SERVER_CONNECTION
                 );
+                HANDSHAKES.complete( sender, sender.getSharedSecret() );
             }
             catch (Exception e)
             {
@@ -1368,69 +2051,128 @@ public class Client
         {
             try
             {
-                CustomCertificate fromUserCertificate = new PEMCertificateEncoder().decode( sender.getCertificate() );
-                byte[] decryptedDHPublicKey = RSA.decryptRSA( message.getContent().getByteMessage() , fromUserCertificate.getPublicKey() );
-                sender.setSharedSecret( DiffieHellman.computeSecret( new BigInteger(decryptedDHPublicKey) , sender.getGeneratedPrivateKey() ) );
+                CipherLayouts peerLayout = ((DiffieHellmanKeyChangeContent)message.getContent()).getCipherLayout();
+                CustomCertificate fromUserCertificate = sender.getDecodedCertificate();
+                BigInteger peerDHPublicKey = DiffieHellman.verifyPublicKey( message.getContent().getByteMessage(), peerLayout, fromUserCertificate.getPublicKey() );
+                sender.setCipherLayout( AESCipher.negotiate( CONFIG.getCipherLayout(), peerLayout ) );
+                sender.setSharedSecret( DiffieHellman.computeSecret( peerDHPublicKey , sender.getGeneratedPrivateKey() ) );
                 LOGGER.log( "Secret agreed '" + sender.getSharedSecret() + "' with " + sender.getUsername(), Optional.of(LogTypes.DEBUG) );
                 sender.setAgreeingOnSecret(false);
+                HANDSHAKES.complete( sender, sender.getSharedSecret() );
             }
             catch (Exception e)
             {
                 LOGGER.log("Couldn't decrypt public key: " + e.getMessage() , Optional.of(LogTypes.ERROR) );
             }
-            finally {
-                //signal if main thread is waiting for secret;
-                AGREE_ON_SECRETE_LOCK.lock();
-                AGREE_ON_SECRETE_LOCK_CONDITION.signal();
-                AGREE_ON_SECRETE_LOCK.unlock();
-            }
         }
+    }
+
+    /**
+     * This class represents a thread responsible for listening to the revocation feed of the CA. The revocation list
+     * and its changes are only applied if they are signed by the CA. If a change is missed, the feed is subscribed
+     * again from the known version and the states are checked with the CA until the replica is up to date.
+     */
+    private class RevocationFeedListener extends Thread
+    {
+        /** Variable for synchronizing the thread's running status. */
+        private final VarSync<Boolean> isRunning;
 
         /**
-         * Handles the login of a user based on the received login message from the server.
-         *
-         * @param content The login content received from the server.
+         * Constructs a new RevocationFeedListener thread.
          */
-        private void userLogin( LogInContent content )
+        public RevocationFeedListener()
         {
-            try
-            {
-                ClientUser user = new ClientUser( content.getUSERNAME() );
-                user.setCertificate( content.getCertificate() );
-                CustomCertificate certificate = new PEMCertificateEncoder().decode( user.getCertificate() );
+            this.isRunning = new VarSync<>( false, LockStrategies.NON_FAIR );
+            setDaemon( true );
+        }
+
+        @Override
+        public void start()
+        {
+            this.isRunning.syncSet(true);
+            super.start();
+        }
+
+        /**
+         * Closes the thread by setting the isRunning variable to false.
+         */
+        public void close()
+        {
+            this.isRunning.syncSet(false);
+            revocationsSynced = false;
+        }
 
-                if( isValidUserCertificate( user , certificate ) )
+        @Override
+        public void run()
+        {
+            while (this.isRunning.optimisticGet())
+            {
+                try
                 {
-                    connectedUsers.put( user.getUsername() , user);
-                    LOGGER.log( "The user '" + user.getUsername() + "' has been connected.", Optional.of(LogTypes.INFO));
+                    Message message = CA_FEED_CONNECTION.receive();
+                    if ( message.getContent() instanceof RevocationContent content )
+                        handleRevocation( content );
+                    else
+                        LOGGER.log( "Invalid message in revocation feed: " + message.getContent().getStringMessage(), Optional.of(LogTypes.ERROR) );
+                }
+                catch (IOException | ClassNotFoundException e)
+                {
+                    revocationsSynced = false;
+                    if( this.isRunning.optimisticGet() )
+                        LOGGER.log("Revocation feed lost, checking certificates with the CA. " + e.getMessage(), Optional.of(LogTypes.WARN));
+                    return;
                 }
-                else
-                    sendInvalidCertificateMessage(user,certificate);
-            }
-            catch(IOException | ClassNotFoundException e )
-            {
-                LOGGER.log(e.getMessage()+ " when decoding certificate.", Optional.of(LogTypes.ERROR) );
             }
-
         }
 
         /**
-         * Handles the logout of a user based on the received logout message from the server.
+         * Applies a revocation list or change signed by the CA.
          *
-         * @param content The logout content received from the server.
+         * @param content The revocation list or change.
          */
-        private void userLogout( LogOutContent content )
+        private void handleRevocation( RevocationContent content )
         {
+            if ( !content.hasValidSignature( caPublicKey ) )
+            {
+                updateCaPublicKey();
+                if ( !content.hasValidSignature( caPublicKey ) )
+                {
+                    LOGGER.log( "Received revocation has invalid signature.", Optional.of(LogTypes.ERROR) );
+                    return;
+                }
+            }
 
-            if(content.hasValidDigest())
+            switch ( (CACommunicationTypes) content.getSubType() )
             {
-                ClientUser user = connectedUsers.remove( content.getStringMessage() );
+                case REVOCATION_LIST -> {
+                    if ( REVOCATIONS.replace( content.getVersion(), content.getRevoked() ) )
+                    {
+                        revocationsSynced = true;
+                        onRevoked( content.getRevoked() );
+                    }
+                }
 
-                if( user != null)
-                    LOGGER.log("User '" + user.getUsername() + "' has disconnected.",Optional.of(LogTypes.INFO));
+                case REVOCATION_EVENT -> {
+                    long replicaVersion = REVOCATIONS.getVersion();
+                    if ( REVOCATIONS.apply( new RevocationEvent( content.getVersion(), content.getRevoked() ) ) )
+                    {
+                        // a stale or repeated event changes nothing, only a new one is handled
+                        if ( content.getVersion() > replicaVersion )
+                        {
+                            revocationsSynced = true;
+                            onRevoked( content.getRevoked() );
+                        }
+                    }
+                    else
+                    {
+                        revocationsSynced = false;
+                        LOGGER.log( "Missed revocations after version " + REVOCATIONS.getVersion() + ", resuming.", Optional.of(LogTypes.DEBUG) );
+                        sendMessage( new Message( client.getUsername(), "CA", ContentFactory.createRevocationSubscribeContent( REVOCATIONS.getVersion() ) ), CA_FEED_CONNECTION );
+                    }
+                }
+
+                default -> LOGGER.log( "Invalid message in revocation feed: " + content.getStringMessage(), Optional.of(LogTypes.ERROR) );
             }
-            else
-                LOGGER.log( "Received logout message has invalid digest.",Optional.of(LogTypes.ERROR) );
         }
     }
 }
@@ -1,8 +1,15 @@
 package Networks;
 
+import Utils.Certificate.CertificateReference;
+import Utils.Certificate.CustomCertificate;
+import Utils.Certificate.PEMCertificateEncoder;
 import Utils.Concurrency.VarSync;
+import Utils.Security.Encryption.AESCipher;
+import Utils.Security.Encryption.Enums.CipherLayouts;
 
+import java.io.IOException;
 import java.math.BigInteger;
+import java.security.GeneralSecurityException;
 
 /**
  * Represents a client user in a network, extending the User class.
@@ -12,6 +19,15 @@ public class ClientUser extends User
     /** Variable to synchronize the shared secret. */
     private VarSync<BigInteger> sharedSecret = new VarSync<>(null);
 
+    /** The AES engine keyed with the shared secret, null until a secret is agreed. */
+    private volatile AESCipher cipher;
+
+    /** The cipher layout negotiated with the user in the key exchange. */
+    private volatile CipherLayouts cipherLayout = CipherLayouts.SINGLE;
+
+    /** The certificate decoded from the PEM of the user, null until it is first used. */
+    private CustomCertificate decodedCertificate;
+
     /** The private key generated by the client. */
     private BigInteger generatedPrivateKey;
 
@@ -30,6 +46,45 @@ public class ClientUser extends User
         super(username);
     }
 
+    /**
+     * Sets the certificate of the user, the decoded certificate is decoded again when next used.
+     *
+     * @param certificate The PEM encoded certificate to set.
+     */
+    @Override
+    public synchronized void setCertificate(String certificate)
+    {
+        super.setCertificate(certificate);
+        decodedCertificate = null;
+    }
+
+    /**
+     * Gets the certificate of the user decoded. It is decoded once per certificate set.
+     *
+     * @return The decoded certificate.
+     * @throws IOException            If the certificate could not be decoded.
+     * @throws ClassNotFoundException If the class of the decoded certificate is not known.
+     */
+    public synchronized CustomCertificate getDecodedCertificate() throws IOException, ClassNotFoundException
+    {
+        if ( decodedCertificate == null )
+            decodedCertificate = new PEMCertificateEncoder().decode( getCertificate() );
+        return decodedCertificate;
+    }
+
+    /**
+     * Gets the serial number of the certificate of the user, from the certificate reference if the user has one.
+     *
+     * @return The serial number of the certificate.
+     * @throws IOException            If the certificate had to be decoded and could not be.
+     * @throws ClassNotFoundException If the class of the decoded certificate is not known.
+     */
+    public int getSerialNumber() throws IOException, ClassNotFoundException
+    {
+        CertificateReference reference = getCertificateReference();
+        return reference != null ? reference.getSerialNumber() : getDecodedCertificate().getSerialNumber();
+    }
+
     /**
      * Gets the shared secret agreed upon by the client.
      *
@@ -40,13 +95,56 @@ public class ClientUser extends User
     }
 
     /**
-     * Sets the shared secret agreed upon by the client.
+     * Sets the shared secret agreed upon by the client and keys a new AES engine with it.
      *
      * @param sharedSecret The shared secret to set.
+     * @throws IllegalArgumentException if the shared secret is not a valid AES key.
      */
     public void setSharedSecret(BigInteger sharedSecret)
     {
-        this.sharedSecret.syncSet(sharedSecret);
+        this.sharedSecret.lock();
+        try
+        {
+            this.cipher = sharedSecret == null ? null : new AESCipher( sharedSecret.toByteArray() );
+            this.sharedSecret.asyncSet(sharedSecret);
+        }
+        catch ( GeneralSecurityException e )
+        {
+            throw new IllegalArgumentException( "Invalid shared secret.", e );
+        }
+        finally
+        {
+            this.sharedSecret.unlock();
+        }
+    }
+
+    /**
+     * Gets the AES engine keyed with the shared secret, it is created once per agreed secret.
+     *
+     * @return The AES engine, or null if no secret was agreed.
+     */
+    public AESCipher getCipher() {
+        return cipher;
+    }
+
+    /**
+     * Gets the cipher layout negotiated with the user, used to encrypt the messages sent to them.
+     *
+     * @return The negotiated cipher layout.
+     */
+    public CipherLayouts getCipherLayout() {
+        return cipherLayout;
+    }
+
+    /**
+     * Sets the cipher layout negotiated with the user. It must be set before the shared secret, so it is ready when the
+     * secret is.
+     *
+     * @param cipherLayout The negotiated cipher layout.
+     */
+    public void setCipherLayout(CipherLayouts cipherLayout)
+    {
+        this.cipherLayout = cipherLayout;
     }
 
     /**
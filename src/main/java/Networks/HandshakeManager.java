@@ -0,0 +1,211 @@
+package Networks;
+
+import java.math.BigInteger;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the secret agreements started by the client, one per peer. Each agreement has a future that is completed
+ * with the agreed secret when the peer answers, so the client can start agreements with several peers at once and send
+ * to each peer as soon as its secret is agreed.
+ * <p>
+ * The offer is sent again if the peer does not answer before the deadline, and the future fails with a
+ * {@link TimeoutException} after the last attempt.
+ */
+public class HandshakeManager
+{
+    /** The pending agreements by username. */
+    private final ConcurrentHashMap< String, Handshake > PENDING;
+
+    /** Sends the secret agreement offer to a peer. */
+    private final Consumer<ClientUser> OFFER;
+
+    /** The time to wait for an answer to each offer, in milliseconds. */
+    private final long TIMEOUT;
+
+    /** The number of offers sent before giving up. */
+    private final int ATTEMPTS;
+
+    /** Runs the deadlines of the offers. */
+    private final ScheduledExecutorService SCHEDULER;
+
+    /**
+     * Creates a handshake manager.
+     *
+     * @param offer    sends the secret agreement offer to a peer, it is called again with the same peer on a retry.
+     * @param timeout  the time to wait for an answer to each offer, in milliseconds.
+     * @param attempts the number of offers sent before giving up.
+     * @throws IllegalArgumentException if the timeout or the number of attempts is not positive.
+     */
+    public HandshakeManager( Consumer<ClientUser> offer, long timeout, int attempts )
+    {
+        if ( timeout <= 0 || attempts <= 0 )
+            throw new IllegalArgumentException( "The handshake timeout and attempts must be positive." );
+
+        PENDING = new ConcurrentHashMap<>();
+        OFFER = offer;
+        TIMEOUT = timeout;
+        ATTEMPTS = attempts;
+
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor( 1, runnable -> {
+            Thread thread = new Thread( runnable, "handshake-deadlines" );
+            thread.setDaemon( true );
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy( true );
+        SCHEDULER = scheduler;
+    }
+
+    /**
+     * Agrees on a secret with a peer. If the secret is already agreed the returned future is completed, if an
+     * agreement with the peer is pending its future is returned, otherwise the offer is sent. A pending agreement with
+     * a previous user of the same username is cancelled.
+     *
+     * @param user the peer.
+     * @return the future of the agreed secret.
+     */
+    public CompletableFuture<BigInteger> agree( ClientUser user )
+    {
+        BigInteger secret = user.getSharedSecret();
+        if ( secret != null )
+            return CompletableFuture.completedFuture( secret );
+
+        Handshake created = new Handshake( user );
+        Handshake[] replaced = new Handshake[1];
+        Handshake handshake = PENDING.compute( user.getUsername(), ( username, previous ) -> {
+            if ( previous != null && previous.USER == user )
+                return previous;
+            replaced[0] = previous;
+            return created;
+        });
+        if ( handshake != created )
+            return handshake.FUTURE;
+
+        if ( replaced[0] != null )
+            replaced[0].finish().completeExceptionally( new CancellationException( "Secret agreement with '" + user.getUsername() + "' replaced." ) );
+
+        created.attempt();
+        return created.FUTURE;
+    }
+
+    /**
+     * Completes the pending agreement with a peer.
+     *
+     * @param user   the peer.
+     * @param secret the agreed secret.
+     */
+    public void complete( ClientUser user, BigInteger secret )
+    {
+        Handshake handshake = PENDING.get( user.getUsername() );
+        if ( handshake != null && handshake.USER == user && PENDING.remove( user.getUsername(), handshake ) )
+            handshake.finish().complete( secret );
+    }
+
+    /**
+     * Fails the pending agreement with a peer, for example when the peer leaves.
+     *
+     * @param username the username of the peer.
+     */
+    public void cancel( String username )
+    {
+        Handshake handshake = PENDING.remove( username );
+        if ( handshake != null )
+            handshake.finish().completeExceptionally( new CancellationException( "Secret agreement with '" + username + "' cancelled." ) );
+    }
+
+    /**
+     * @return the number of pending agreements.
+     */
+    public int pending()
+    {
+        return PENDING.size();
+    }
+
+    /**
+     * Fails every pending agreement and stops the deadlines.
+     */
+    public void close()
+    {
+        for ( String username : PENDING.keySet() )
+            cancel( username );
+        SCHEDULER.shutdownNow();
+    }
+
+    /**
+     * A pending agreement with a peer.
+     */
+    private class Handshake
+    {
+        /** The peer. */
+        private final ClientUser USER;
+
+        /** The future of the agreed secret. */
+        private final CompletableFuture<BigInteger> FUTURE = new CompletableFuture<>();
+
+        /** The number of offers sent. */
+        private int attempts;
+
+        /** The deadline of the last offer. */
+        private ScheduledFuture<?> deadline;
+
+        /**
+         * @param user the peer.
+         */
+        private Handshake( ClientUser user )
+        {
+            USER = user;
+        }
+
+        /**
+         * Sends the offer and schedules its deadline.
+         */
+        private synchronized void attempt()
+        {
+            if ( FUTURE.isDone() )
+                return;
+
+            attempts++;
+            try
+            {
+                OFFER.accept( USER );
+                deadline = SCHEDULER.schedule( this::onDeadline, TIMEOUT, TimeUnit.MILLISECONDS );
+            }
+            catch ( RuntimeException e )
+            {
+                if ( PENDING.remove( USER.getUsername(), this ) )
+                    FUTURE.completeExceptionally( e );
+            }
+        }
+
+        /**
+         * Sends the offer again, or fails the agreement after the last attempt.
+         */
+        private synchronized void onDeadline()
+        {
+            if ( attempts < ATTEMPTS )
+                attempt();
+            else if ( PENDING.remove( USER.getUsername(), this ) )
+                FUTURE.completeExceptionally( new TimeoutException(
+                        "No secret agreed with '" + USER.getUsername() + "' after " + attempts + " attempts." ) );
+        }
+
+        /**
+         * Stops the deadline of the agreement.
+         *
+         * @return the future of the agreed secret.
+         */
+        private synchronized CompletableFuture<BigInteger> finish()
+        {
+            if ( deadline != null )
+                deadline.cancel( false );
+            return FUTURE;
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package Networks;
 
+import Utils.Certificate.CertificateReference;
+import Utils.Certificate.CertificateStore;
+import Utils.Concurrency.HandlerExecutors;
+import Utils.Concurrency.Enums.LockStrategies;
 import Utils.Concurrency.VarSync;
 import Utils.Config.Config;
 import Utils.Logger.Enums.LogTypes;
@@ -7,13 +11,25 @@ import Utils.Logger.Logger;
 import Utils.Message.Contents.*;
 import Utils.Message.Contents.Interfaces.MessageContent;
 import Utils.Message.EnumTypes.AccountMessageTypes;
+import Utils.Message.EnumTypes.CommunicationTypes;
+import Utils.Message.Codec.RoutingHeader;
 import Utils.Message.Message;
+import Utils.Presence.PresenceDelta;
+import Utils.Presence.PresenceRoster;
+import Utils.Presence.PresenceSnapshot;
+import Utils.Transport.ConnectionSettings;
+import Utils.Transport.EncodedMessage;
+import Utils.Transport.MessageTransport;
+import Utils.Transport.OutboundQueueSettings;
+import Utils.Transport.QueueMetrics;
+import Utils.Transport.StreamResetPolicy;
 
 import java.io.IOException;
-import java.net.Socket;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 
@@ -26,8 +42,17 @@ public class MSGServer extends Server
     /**To keep track of all connected users.*/
     private ConcurrentHashMap< String, VarSync<ClientHandler> > connectedUsers;
 
-    /**To keep track of all usernames that are in use.*/
-    private VarSync< ArrayList<String> > registeredUsernames;
+    /**To keep track of all usernames that are in use. A concurrent set, so a username is claimed atomically without a shared lock.*/
+    private final Set<String> registeredUsernames;
+
+    /**The versioned roster of the logged-in users, sent to clients as snapshot pages and deltas.*/
+    private final PresenceRoster ROSTER;
+
+    /**The number of users in each page of a roster snapshot.*/
+    private final int ROSTER_PAGE_SIZE;
+
+    /**The certificates of the logged-in users by fingerprint, the roster only carries references to them.*/
+    private final CertificateStore CERTIFICATES;
 
     /**
      * Constructs a new MSGServer with the given configuration and logger.
@@ -37,23 +62,50 @@ public class MSGServer extends Server
      */
     public MSGServer(Config config , Logger logger)
     {
-        super( config.getMsgServerPort(), logger );
+        this( config, logger, new CertificateStore() );
+    }
+
+    /**
+     * Constructs a new MSGServer that keeps the certificates of the users in the given store.
+     *
+     * @param config       The configuration for the server.
+     * @param logger       The logger for logging server events.
+     * @param certificates The certificate store of the connected users.
+     */
+    public MSGServer(Config config , Logger logger, CertificateStore certificates)
+    {
+        super( config.getMsgServerPort(), logger, config.getServerMode(), config.getSelectorThreads(),
+                HandlerExecutors.create( config.getHandlerExecutor(), config.getHandlerPoolSize(), "msg-handler", logger ),
+                new ConnectionSettings(
+                        new OutboundQueueSettings( config.getOutboundQueueCapacity(), config.getOverflowPolicy(), config.getOverflowTimeout() ),
+                        new StreamResetPolicy( config.getStreamResetMessages(), config.getStreamResetBytes() ) ),
+                HandlerExecutors.createPerConnection( config.getHandlerExecutor(), "msg-writer", logger ) );
 
         connectedUsers = new ConcurrentHashMap<>();
-        registeredUsernames = new VarSync<>( new ArrayList<>(5) );
+        registeredUsernames = ConcurrentHashMap.newKeySet();
+        ROSTER = new PresenceRoster( config.getPresenceHistory() );
+        ROSTER_PAGE_SIZE = Math.max( 1, config.getRosterPageSize() );
+        CERTIFICATES = certificates;
     }
 
     @Override
-    protected void handleNewConnection(Socket connection)
+    protected Server.ClientHandler createClientHandler( MessageTransport transport )
     {
-        ClientHandler clientHandler = new ClientHandler( connection );
-
-        currentClientHandlers.lock();
-        currentClientHandlers.asyncGet().add(clientHandler);
-        currentClientHandlers.unlock();
+        return new ClientHandler( transport );
+    }
 
-        clientHandler.start();
+    /**
+     * Gets the state of the outbound queue of every connected user.
+     *
+     * @return the outbound queue metrics by username.
+     */
+    public Map< String, QueueMetrics > getOutboundQueueMetrics()
+    {
+        Map< String, QueueMetrics > metrics = new HashMap<>();
+        for( Map.Entry< String, VarSync<ClientHandler> > entry : connectedUsers.entrySet() )
+            entry.getValue().asyncGet().TRANSPORT.getOutboundMetrics().ifPresent( queue -> metrics.put( entry.getKey(), queue ) );
 
+        return metrics;
     }
 
 
@@ -69,12 +121,12 @@ public class MSGServer extends Server
         /**
          * Constructs a new client handler with the specified client connection.
          *
-         * @param clientConnection The socket representing the client connection.
+         * @param transport The transport of the client connection.
          */
-        public ClientHandler( Socket clientConnection )
+        public ClientHandler( MessageTransport transport )
         {
-            super(clientConnection);
-            LOCK = new VarSync<>(this);
+            super(transport);
+            LOCK = new VarSync<>( this, LockStrategies.NON_FAIR );
         }
 
         @Override
@@ -83,6 +135,24 @@ public class MSGServer extends Server
             handleMessage( (Message)object );
         }
 
+        /**
+         * Routes the received message by its header. Account and error messages are decoded and handled by the server,
+         * the others are relayed with the received frame, without decoding their content.
+         *
+         * @param message The message received from the client.
+         * @throws IOException if an account or error message is not valid.
+         */
+        @Override
+        protected void handleEncodedRequest( EncodedMessage message ) throws IOException
+        {
+            switch ( message.getHeader().getType() )
+            {
+                case ACCOUNT, ERROR -> { handleMessage( message.getMessage() ); }
+
+                default -> { RedirectMessage( message ); }
+            }
+        }
+
         /**
          * Handles incoming messages from clients. Chooses the appropriate handler for the message.
          *
@@ -98,7 +168,7 @@ public class MSGServer extends Server
                     System.out.println("ERROR FROM CLIENT");
                 }
 
-                default -> { RedirectMessage( message ); }
+                default -> { RedirectMessage( new EncodedMessage( message ) ); }
             }
 
         }
@@ -120,6 +190,10 @@ public class MSGServer extends Server
 
                 case LOGOUT -> { close(); }
 
+                case PRESENCE_RESUME -> { resumePresence( (PresenceContent) message.getContent() ); }
+
+                case CERTIFICATE_FETCH -> { sendCertificate( (CertificateContent) message.getContent() ); }
+
                 default -> { throw new RuntimeException("InvalidContentType"); }
 
             }
@@ -127,31 +201,79 @@ public class MSGServer extends Server
         }
 
         /**
-         * Redirects messages sending directly to a specific recipient or broadcast if message sender is ""
+         * Redirects messages sending directly to a specific recipient or broadcast if message sender is "".
+         * Only the messages of a logged in user are redirected.
          *
          * @param message The message to redirect.
          */
-        private void RedirectMessage ( Message message ){
+        private void RedirectMessage ( EncodedMessage message ){
 
-            if ( message.getRecipient().isBlank() )
+            RoutingHeader header = message.getHeader();
+            if ( user == null || !connectedUsers.containsKey( user.getUsername() ) )
             {
-                LOGGER.log( String.format( "BroadCasting Msg from %s.", message.getSender() ), Optional.of(LogTypes.INFO));
+                LOGGER.log( "Not redirected!\nReceived redirect request from a not logged in connection: " + header.getSender(), Optional.of(LogTypes.WARN));
+                return;
+            }
+
+            if ( header.getSubType() == CommunicationTypes.MULTICAST )
+            {
+                LOGGER.log( String.format( "Multicasting Msg from %s.", header.getSender() ), Optional.of(LogTypes.INFO));
+                multicast( message );
+            }
+            else if ( header.getRecipient().isBlank() )
+            {
+                LOGGER.log( String.format( "BroadCasting Msg from %s.", header.getSender() ), Optional.of(LogTypes.INFO));
                 broadcast( message );
             }
             else
             {
-                LOGGER.log( String.format( "Redirection Msg type:%s from %s to %s", message.getContent().getSubType(), message.getSender() , message.getRecipient() ), Optional.of(LogTypes.INFO));
+                LOGGER.log( String.format( "Redirection Msg type:%s from %s to %s", header.getSubType(), header.getSender() , header.getRecipient() ), Optional.of(LogTypes.INFO));
                 sendDirectMessage( message );
             }
 
         }
 
         /**
-         * Broadcasts the message to all connected users except the user that sent the message.
+         * Splits a multicast envelope into one direct message per recipient. The envelope is decoded once and each
+         * recipient receives the shared body with only its own wrapped key.
+         *
+         * @param encodedMessage the multicast envelope.
+         */
+        private void multicast( EncodedMessage encodedMessage )
+        {
+            RoutingHeader header = encodedMessage.getHeader();
+            MulticastContent content;
+            try
+            {
+                content = (MulticastContent) encodedMessage.getMessage().getContent();
+            }
+            catch ( IOException | ClassCastException e )
+            {
+                LOGGER.log( "Received invalid multicast from " + header.getSender() + ": " + e.getMessage(), Optional.of(LogTypes.ERROR) );
+                return;
+            }
+
+            for ( int i = 0; i < content.size(); i++ )
+            {
+                String recipient = content.getRecipient( i );
+                if ( recipient.equals( user.getUsername() ) )
+                    continue;
+
+                VarSync<ClientHandler> connectedUser = connectedUsers.get( recipient );
+                if( connectedUser != null )
+                    sendDirectMessage( connectedUser, new EncodedMessage( new Message( header.getSender(), recipient, content.forRecipient( i ) ) ) );
+                else
+                    LOGGER.log("Not redirected!\nReceived multicast to a not connected user: " + recipient , Optional.of(LogTypes.WARN));
+            }
+        }
+
+        /**
+         * Broadcasts the shared message to all connected users except the user that sent the message.
+         * The message is encoded once and the same frame is written to every recipient.
          *
-         * @param message The message to broadcast.
+         * @param encodedMessage The message to broadcast.
          */
-        private void broadcast( Message message )
+        private void broadcast( EncodedMessage encodedMessage )
         {
             try
             {
@@ -163,7 +285,7 @@ public class MSGServer extends Server
 
                     connectedUser = entry.getValue();
 
-                    sendDirectMessage( connectedUser, message );
+                    sendDirectMessage( connectedUser, encodedMessage );
                 }
             }
             catch (Exception e)
@@ -178,13 +300,14 @@ public class MSGServer extends Server
          *
          * @param message the message to send.
          */
-        private void sendDirectMessage( Message message )
+        private void sendDirectMessage( EncodedMessage message )
         {
-            VarSync<ClientHandler> connectedUser = connectedUsers.get( message.getRecipient() );
+            String recipient = message.getHeader().getRecipient();
+            VarSync<ClientHandler> connectedUser = connectedUsers.get( recipient );
             if( connectedUser != null )
                 sendDirectMessage( connectedUser, message );
             else
-                LOGGER.log("Not redirected!\nReceived redirect request to a not connected user: " + message.getRecipient() , Optional.of(LogTypes.WARN));
+                LOGGER.log("Not redirected!\nReceived redirect request to a not connected user: " + recipient , Optional.of(LogTypes.WARN));
         }
 
         /**
@@ -194,12 +317,12 @@ public class MSGServer extends Server
          * @param message the message to send.
          * @param connectedUser the user to send the message.
          */
-        private void sendDirectMessage( VarSync<ClientHandler> connectedUser, Message message )
+        private void sendDirectMessage( VarSync<ClientHandler> connectedUser, EncodedMessage message )
         {
             try
             {
                 connectedUser.lock();
-                connectedUser.asyncGet().CLIENT_OUTPUT_STREAM.writeObject( message );
+                connectedUser.asyncGet().TRANSPORT.send( message );
             }
             catch (Exception e)
             {
@@ -224,17 +347,13 @@ public class MSGServer extends Server
                 return;
             }
 
-            registeredUsernames.lock();
-            if ( registeredUsernames.asyncGet().contains( content.getStringMessage() ) || connectedUsers.containsKey( content.getStringMessage() ) )
+            if ( !registeredUsernames.add( content.getStringMessage() ) )
             {
-                registeredUsernames.unlock();
                 sendError( content , "Username already is registered " );
             }
             else
             {
                 user = new User( content.getStringMessage() );
-                registeredUsernames.asyncGet().add( user.getUsername() );
-                registeredUsernames.unlock();
                 sendConfirmation( new Message( "Server", user.getUsername(), ContentFactory.createTypeContent( AccountMessageTypes.REGISTER) ) );
             }
         }
@@ -252,17 +371,23 @@ public class MSGServer extends Server
                 return;
             }
 
-            user.setCertificate( ((LogInRenovateContent)message.getContent()).getCertificate() );
-            MessageContent sendContent = ContentFactory.createLoginRenovateContent( user.getCertificate() , user.getUsername() );
-            broadcast( new Message( "Server", "", sendContent ) );
+            CertificateReference previous = user.getCertificateReference();
+            if ( !storeCertificate( ((LogInRenovateContent)message.getContent()).getCertificate() ) )
+            {
+                sendError( message.getContent(), "Invalid certificate" );
+                return;
+            }
+            ROSTER.renew( user.getUsername(), user.getCertificateReference() ).ifPresent( this::broadcastPresence );
+            if ( previous != null && !previous.equals( user.getCertificateReference() ) )
+                CERTIFICATES.remove( previous.getFingerprint() );
 
             LOGGER.log("User " + user.getUsername() + " renovated login .",Optional.of(LogTypes.INFO));
         }
 
         /**
          * Handles the login request. Checks if the user is already logged.
-         * If successfully login send a login confirmation message and a message with all current connected users.
-         * Finally broadcasts to the information of the recently connected users.
+         * If successfully login send a login confirmation message and the roster snapshot in pages.
+         * Finally broadcasts the join of the recently connected user.
          *
          * @param content the logInContent.
          */
@@ -276,28 +401,19 @@ public class MSGServer extends Server
 
             if(user != null)
             {
-                user.setCertificate( content.getCertificate() );
-                connectedUsers.put( user.getUsername() , LOCK);
-
-
-
-                ArrayList<User> usersLoggedIN = new ArrayList<>();
-                for ( Map.Entry<String , VarSync < ClientHandler > >  entry : connectedUsers.entrySet() )
+                if ( !storeCertificate( content.getCertificate() ) )
                 {
-                    if ( entry.getKey().equals( user.getUsername() ) )
-                        continue;
-
-                    entry.getValue().lock();
-                    usersLoggedIN.add( entry.getValue().asyncGet().user );
-                    entry.getValue().unlock();
+                    sendError( content , "Invalid certificate" );
+                    return;
                 }
-
                 sendConfirmation( new Message( "Server", user.getUsername(), ContentFactory.createTypeContent( AccountMessageTypes.LOGIN) ) );
 
-                sendConfirmation( new Message( "Server", user.getUsername(), ContentFactory.createAllLoggedInContent( usersLoggedIN ) ));
+                // connected before joining, so every delta after the snapshot reaches the user
+                connectedUsers.put( user.getUsername() , LOCK);
+                PresenceDelta joined = ROSTER.join( user.getUsername(), user.getCertificateReference() );
+                sendSnapshot();
 
-                MessageContent sendContent = ContentFactory.createLoginContent( user.getCertificate() , user.getUsername() );
-                broadcast( new Message( "Server", "", sendContent ) );
+                broadcastPresence( joined );
 
                 LOGGER.log("User " + user.getUsername() +" logged in.",Optional.of(LogTypes.INFO));
             }
@@ -308,6 +424,111 @@ public class MSGServer extends Server
 
         }
 
+        /**
+         * Keeps the certificate of the user in the certificate store, the user gets the reference to it.
+         *
+         * @param certificate the PEM encoded certificate of the user.
+         * @return true if the certificate was stored, false if it could not be decoded.
+         */
+        private boolean storeCertificate( String certificate )
+        {
+            try
+            {
+                user.setCertificateReference( CERTIFICATES.put( certificate ) );
+                return true;
+            }
+            catch ( IOException | ClassNotFoundException | IllegalArgumentException e )
+            {
+                LOGGER.log( "Couldn't decode certificate of " + user.getUsername() + ": " + e.getMessage(), Optional.of(LogTypes.ERROR) );
+                return false;
+            }
+        }
+
+        /**
+         * Handles the request of a user for the certificate of a fingerprint. The reply has no certificate if the
+         * fingerprint is not in the certificate store.
+         *
+         * @param content the certificate request.
+         */
+        private void sendCertificate( CertificateContent content )
+        {
+            if ( !content.hasValidDigest() )
+            {
+                LOGGER.log("Received certificate request has no valid digest.", Optional.of(LogTypes.ERROR));
+                return;
+            }
+
+            if ( user == null )
+                return;
+
+            String certificate = CERTIFICATES.get( content.getFingerprint() ).orElse( null );
+            sendConfirmation( new Message( "Server", user.getUsername(), ContentFactory.createCertificateContent( content.getFingerprint(), certificate ) ) );
+        }
+
+        /**
+         * Sends the roster snapshot to the user in pages of at most {@link #ROSTER_PAGE_SIZE} members.
+         */
+        private void sendSnapshot()
+        {
+            PresenceSnapshot snapshot = ROSTER.snapshot();
+            List<PresenceDelta> members = snapshot.getMembers();
+            int pageStart = 0;
+            do
+            {
+                int pageEnd = Math.min( pageStart + ROSTER_PAGE_SIZE, members.size() );
+                MessageContent page = ContentFactory.createPresenceSnapshotContent( snapshot.getVersion(), members.subList( pageStart, pageEnd ), pageEnd == members.size() );
+                sendConfirmation( new Message( "Server", user.getUsername(), page ) );
+                pageStart = pageEnd;
+            }
+            while ( pageStart < members.size() );
+        }
+
+        /**
+         * Handles the resume request of a user that missed roster changes. Sends the changes after the version the user
+         * knows, or the snapshot if they are no longer kept.
+         *
+         * @param content the resume request.
+         */
+        private void resumePresence( PresenceContent content )
+        {
+            if ( !content.hasValidDigest() )
+            {
+                LOGGER.log("Received presence resume request has no valid digest.", Optional.of(LogTypes.ERROR));
+                return;
+            }
+
+            if ( user == null || !connectedUsers.containsKey( user.getUsername() ) )
+                return;
+
+            Optional< List<PresenceDelta> > deltas = ROSTER.deltasSince( content.getVersion() );
+            if ( deltas.isEmpty() )
+            {
+                sendSnapshot();
+                return;
+            }
+
+            List<PresenceDelta> missed = deltas.get();
+            for ( int pageStart = 0; pageStart < missed.size(); pageStart += ROSTER_PAGE_SIZE )
+            {
+                int pageEnd = Math.min( pageStart + ROSTER_PAGE_SIZE, missed.size() );
+                MessageContent page = ContentFactory.createPresenceDeltaContent( missed.subList( pageStart, pageEnd ), pageEnd == missed.size() );
+                sendConfirmation( new Message( "Server", user.getUsername(), page ) );
+            }
+        }
+
+        /**
+         * Sends a roster change to every connected user, including the user it is about, so the roster version of each
+         * client follows every change.
+         *
+         * @param delta the roster change.
+         */
+        private void broadcastPresence( PresenceDelta delta )
+        {
+            EncodedMessage message = new EncodedMessage( new Message( "Server", "", ContentFactory.createPresenceDeltaContent( List.of( delta ), true ) ) );
+            for ( VarSync<ClientHandler> connectedUser : connectedUsers.values() )
+                sendDirectMessage( connectedUser, message );
+        }
+
         /**
          * Sends the specified error message to the user.
          *
@@ -320,7 +541,7 @@ public class MSGServer extends Server
             try
             {
                 LOCK.lock();
-                CLIENT_OUTPUT_STREAM.writeObject( new Message( "Server", "Sender", sendContent ) );
+                TRANSPORT.send( new Message( "Server", "Sender", sendContent ) );
 
             }
             catch (IOException e)
@@ -342,7 +563,7 @@ public class MSGServer extends Server
             try
             {
                 LOCK.lock();
-                CLIENT_OUTPUT_STREAM.writeObject( message );
+                TRANSPORT.send( message );
             }
             catch (IOException e)
             {
@@ -358,23 +579,30 @@ public class MSGServer extends Server
          */
         public void logOut()
         {
-            if( user != null && connectedUsers.containsKey( user.getUsername() ) )
+            if( user != null && connectedUsers.remove( user.getUsername(), LOCK ) )
             {
-                connectedUsers.remove( user.getUsername() );
-                registeredUsernames.lock();
-                registeredUsernames.asyncGet().remove( user.getUsername() );
-                registeredUsernames.unlock();
-                broadcast(new Message( "Sever", "", ContentFactory.createLogoutContent( user.getUsername() ) ) );
+                registeredUsernames.remove( user.getUsername() );
+                ROSTER.leave( user.getUsername() ).ifPresent( this::broadcastPresence );
+                if ( user.getCertificateReference() != null )
+                    CERTIFICATES.remove( user.getCertificateReference().getFingerprint() );
             }
 
         }
 
+        @Override
+        public void onDisconnect( IOException cause )
+        {
+            logOut();
+            super.onDisconnect( cause );
+        }
+
         @Override
         public void close()
         {
             logOut();
             super.close();
-            LOGGER.log("User '" + user.getUsername() + "' logged out.",Optional.of(LogTypes.INFO));
+            if ( user != null )
+                LOGGER.log("User '" + user.getUsername() + "' logged out.",Optional.of(LogTypes.INFO));
         }
     }
 
@@ -1,16 +1,37 @@
 package Networks;
 
+import Utils.Concurrency.Enums.LockStrategies;
 import Utils.Concurrency.VarSync;
 import Utils.Logger.Enums.LogTypes;
 import Utils.Logger.Logger;
+import Utils.Message.Message;
+import Utils.Transport.ChannelTransport;
+import Utils.Transport.CodecNegotiation;
+import Utils.Transport.Enums.ServerModes;
+import Utils.Transport.MessageTransport;
+import Utils.Transport.PullTransport;
+import Utils.Transport.ConnectionSettings;
+import Utils.Transport.EncodedMessage;
+import Utils.Transport.QueuedTransport;
+import Utils.Transport.SelectorLoop;
+import Utils.Transport.StreamMetrics;
+import Utils.Transport.TransportListener;
 
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Abstract class representing a server.
@@ -23,27 +44,93 @@ public abstract class Server extends Thread
     /**the socket that the clients can connect.*/
     protected ServerSocket socket;
 
+    /**the channel that the clients can connect when running in selector mode.*/
+    protected ServerSocketChannel serverChannel;
+
     /**the socket that the clients can connect.*/
     protected final Logger LOGGER;
 
+    /**How the client connections are handled.*/
+    protected final ServerModes MODE;
+
+    /**The selector threads that multiplex the client connections in selector mode.*/
+    private final SelectorLoop[] SELECTOR_LOOPS;
+
+    /**The executor that runs the client handlers in blocking mode.*/
+    private final ExecutorService HANDLER_EXECUTOR;
+
+    /**The settings shared by the client connections.*/
+    private final ConnectionSettings CONNECTIONS;
+
+    /**The executor that runs the writers of the outbound queues in blocking mode.*/
+    private final ExecutorService WRITER_EXECUTOR;
+
     /**Represents the current state of the server.*/
     protected VarSync<Boolean> isRunning;
 
-    /**To keep track of all current clients connected.*/
-    protected VarSync<ArrayList< ClientHandler >> currentClientHandlers;
+    /**To keep track of all current clients connected. A concurrent set, adding and removing a handler takes no lock.*/
+    protected final Set< ClientHandler > currentClientHandlers;
 
     /**
-     * Constructs a new server with the specified port and logger.
+     * Constructs a new server with the specified port and logger, running in blocking mode with one thread per client.
      *
      * @param port   The port to listen on.
      * @param logger The logger for logging server events.
      */
     public Server (int port, Logger logger)
+    {
+        this( port, logger, Executors.newCachedThreadPool() );
+    }
+
+    /**
+     * Constructs a new server with the specified port and logger, running in blocking mode.
+     *
+     * @param port            The port to listen on.
+     * @param logger          The logger for logging server events.
+     * @param handlerExecutor The executor that runs the client handlers.
+     */
+    public Server (int port, Logger logger, ExecutorService handlerExecutor)
+    {
+        this( port, logger, handlerExecutor, ConnectionSettings.DEFAULT );
+    }
+
+    /**
+     * Constructs a new server with the specified port, logger and connection settings, running in blocking mode.
+     * The connection settings must not use outbound queues.
+     *
+     * @param port            The port to listen on.
+     * @param logger          The logger for logging server events.
+     * @param handlerExecutor The executor that runs the client handlers.
+     * @param connections     The settings shared by the client connections.
+     */
+    public Server (int port, Logger logger, ExecutorService handlerExecutor, ConnectionSettings connections)
+    {
+        this( port, logger, ServerModes.BLOCKING, 0, handlerExecutor, connections, null );
+    }
+
+    /**
+     * Constructs a new server with the specified port, logger and mode.
+     *
+     * @param port            The port to listen on.
+     * @param logger          The logger for logging server events.
+     * @param mode            How the client connections are handled.
+     * @param selectorThreads The number of selector threads, only used in selector mode.
+     * @param handlerExecutor The executor that runs the client handlers, only used in blocking mode.
+     * @param connections     The settings shared by the client connections.
+     * @param writerExecutor  The executor that runs the writers of the outbound queues, only used in blocking mode.
+     */
+    public Server (int port, Logger logger, ServerModes mode, int selectorThreads, ExecutorService handlerExecutor,
+                   ConnectionSettings connections, ExecutorService writerExecutor)
     {
         PORT = port;
         LOGGER = logger;
+        MODE = mode;
+        HANDLER_EXECUTOR = handlerExecutor;
+        CONNECTIONS = connections;
+        WRITER_EXECUTOR = writerExecutor;
+        SELECTOR_LOOPS = new SelectorLoop[ mode == ServerModes.SELECTOR ? Math.max( 1, selectorThreads ) : 0 ];
         isRunning = new VarSync<>( false );
-        currentClientHandlers = new VarSync<>( new ArrayList<>() );
+        currentClientHandlers = ConcurrentHashMap.newKeySet();
     }
 
     @Override
@@ -56,7 +143,21 @@ public abstract class Server extends Thread
     @Override
     public void run()
     {
+        switch ( MODE )
+        {
+            case BLOCKING -> { runBlocking(); }
+
+            case SELECTOR -> { runSelector(); }
+        }
 
+        LOGGER.log("Server is closed !", Optional.of(LogTypes.INFO) );
+    }
+
+    /**
+     * Accepts the connections with a blocking server socket. Each connection is handled by its own client handler.
+     */
+    private void runBlocking()
+    {
         try (ServerSocket socket = new ServerSocket( PORT ))
         {
             this.socket = socket;
@@ -70,7 +171,7 @@ public abstract class Server extends Thread
                     LOGGER.log( "Client Connected", Optional.of(LogTypes.INFO) );
                     handleNewConnection( client );
                 }
-                while (isRunning.syncGet());
+                while (isRunning.optimisticGet());
             }
             catch (IOException e)
             {
@@ -81,19 +182,154 @@ public abstract class Server extends Thread
         {
             LOGGER.log("Server stopped listening !" + e.getMessage(), Optional.of(LogTypes.INFO) );
         }
+    }
 
-        LOGGER.log("Server is closed !", Optional.of(LogTypes.INFO) );
+    /**
+     * Accepts the connections with a server socket channel. The accepted connections are distributed between the
+     * selector loops, which read the requests and push them to the client handlers.
+     */
+    private void runSelector()
+    {
+        try (ServerSocketChannel channel = ServerSocketChannel.open())
+        {
+            this.serverChannel = channel;
+            channel.bind( new InetSocketAddress( PORT ) );
+            startSelectorLoops();
+
+            LOGGER.log("Server started listening with " + SELECTOR_LOOPS.length + " selector threads !", Optional.of(LogTypes.INFO) );
+            int nextLoop = 0;
+            do
+            {
+                SocketChannel client = channel.accept();
+                LOGGER.log( "Client Connected", Optional.of(LogTypes.INFO) );
+                handleNewConnection( client, SELECTOR_LOOPS[ nextLoop ] );
+                nextLoop = ( nextLoop + 1 ) % SELECTOR_LOOPS.length;
+            }
+            while (isRunning.optimisticGet());
+        }
+        catch (IOException e)
+        {
+            LOGGER.log("Server stopped listening !" + e.getMessage(), Optional.of(LogTypes.INFO) );
+        }
+        finally
+        {
+            closeSelectorLoops();
+        }
     }
 
     /**
-     * This method is the first handler of a connection. It is called always after an accept.
+     * Creates and starts the selector loops.
+     *
+     * @throws IOException if a selector could not be opened.
+     */
+    private void startSelectorLoops() throws IOException
+    {
+        for (int i = 0; i < SELECTOR_LOOPS.length; i++)
+        {
+            SELECTOR_LOOPS[i] = new SelectorLoop( getName() + "-selector-" + i, LOGGER );
+            SELECTOR_LOOPS[i].start();
+        }
+    }
+
+    /**
+     * Stops the started selector loops.
+     */
+    private void closeSelectorLoops()
+    {
+        for ( SelectorLoop loop : SELECTOR_LOOPS )
+        {
+            if ( loop != null )
+                loop.close();
+        }
+    }
+
+    /**
+     * This method is the first handler of a connection in blocking mode. It is called always after an accept.
+     * The codec of the connection is negotiated or detected, see {@link CodecNegotiation}.
      *
      * @param connection the accepted connection.
      */
-    protected abstract void handleNewConnection( Socket connection ) throws IOException ;
+    protected void handleNewConnection( Socket connection )
+    {
+        PullTransport transport;
+        try
+        {
+            transport = CodecNegotiation.accept( connection, CONNECTIONS.getResetPolicy() );
+            if ( CONNECTIONS.getOutboundQueues() != null )
+                transport = new QueuedTransport( transport, CONNECTIONS.getOutboundQueues().createQueue(), WRITER_EXECUTOR );
+        }
+        catch (IOException e)
+        {
+            LOGGER.log( "Can not create ClientHandler: " + e.getMessage(), Optional.of(LogTypes.WARN) );
+            return;
+        }
+
+        ClientHandler clientHandler = createClientHandler( transport );
+
+        currentClientHandlers.add( clientHandler );
+
+        clientHandler.start( transport );
+    }
+
+    /**
+     * This method is the first handler of a connection in selector mode. It is called always after an accept.
+     * The created client handler does not have its own thread, its requests are pushed by the selector loop.
+     *
+     * @param connection the accepted connection.
+     * @param loop       the selector loop that will own the connection.
+     */
+    protected void handleNewConnection( SocketChannel connection, SelectorLoop loop )
+    {
+        ChannelTransport transport;
+        try
+        {
+            transport = CONNECTIONS.getOutboundQueues() != null
+                    ? new ChannelTransport( connection, loop, CONNECTIONS.getOutboundQueues().createQueue() )
+                    : new ChannelTransport( connection, loop );
+        }
+        catch (IOException e)
+        {
+            LOGGER.log( "Can not create ClientHandler: " + e.getMessage(), Optional.of(LogTypes.WARN) );
+            return;
+        }
+
+        ClientHandler clientHandler = createClientHandler( transport );
+
+        currentClientHandlers.add( clientHandler );
+
+        clientHandler.isRunning.syncSet( true );
+        transport.open( clientHandler );
+    }
+
+    /**
+     * Creates the handler of a new connection.
+     *
+     * @param transport the transport of the accepted connection.
+     * @return the created client handler.
+     */
+    protected abstract ClientHandler createClientHandler( MessageTransport transport );
+
+    /**
+     * Gets the number of objects retained by the object streams of all connected clients.
+     * It should stay flat on a long running server, see {@link Utils.Transport.StreamResetPolicy}.
+     *
+     * @return the sum of the retained handles of the client connections.
+     */
+    public long getRetainedHandles()
+    {
+        long retainedHandles = 0;
+        for ( ClientHandler handler : currentClientHandlers )
+        {
+            retainedHandles += handler.TRANSPORT.getStreamMetrics()
+                    .map( StreamMetrics::getRetainedHandles )
+                    .orElse( 0L );
+        }
+        return retainedHandles;
+    }
 
     /**
      * Terminates the server, waiting for all client handles to close.
+     * All handlers are closed before waiting, so the handlers blocked reading their connections stop together.
      */
     public void close() throws InterruptedException, IOException
     {
@@ -101,95 +337,141 @@ public abstract class Server extends Thread
 
         isRunning.syncSet(false);
 
-        currentClientHandlers.lock();
+        List<ClientHandler> handlers = new ArrayList<>( currentClientHandlers );
 
-        while( !currentClientHandlers.asyncGet().isEmpty() )
-        {
-            ClientHandler handler = currentClientHandlers.asyncGet().remove(0);
-            currentClientHandlers.unlock();
+        for ( ClientHandler handler : handlers )
             handler.close();
-            synchronized (handler) {
-                while (handler.isAlive()) {
-                    handler.wait();
-                }
-            }
+
+        for ( ClientHandler handler : handlers )
+        {
+            handler.awaitTermination();
             LOGGER.log("Client connection closed !", Optional.of(LogTypes.INFO) );
-            currentClientHandlers.lock();
         }
 
-        currentClientHandlers.unlock();
+        HANDLER_EXECUTOR.shutdown();
+        if ( WRITER_EXECUTOR != null )
+            WRITER_EXECUTOR.shutdown();
 
         if( this.socket != null && !socket.isClosed() )
             this.socket.close();
 
+        if( this.serverChannel != null && serverChannel.isOpen() )
+            this.serverChannel.close();
+
     }
 
 
     /**
      * Represents a client connection, when running is listening for requests.
+     * In blocking mode the handler reads the requests on the server handler executor. In selector mode it is not
+     * executed, the requests are pushed by the selector loop instead.
      */
-    protected abstract class ClientHandler extends Thread
+    protected abstract class ClientHandler implements TransportListener
     {
         /**The connection to the client.*/
-        protected final Socket CLIENT_CONNECTION;
-        /**The connection inputStream to the client.*/
-        protected final ObjectInputStream CLIENT_INPUT_STREAM;
-        /**The connection outputStream to the client.*/
-        protected final ObjectOutputStream CLIENT_OUTPUT_STREAM;
+        protected final MessageTransport TRANSPORT;
         /**The state of the handler.*/
         protected VarSync<Boolean> isRunning;
+        /**Released when the handler stops running.*/
+        private final CountDownLatch TERMINATED;
+        /**If the handler was submitted to the executor.*/
+        private volatile boolean executed;
 
         /**
          * Constructs a new Client handle.
          *
-         * @param clientConnection the connection to the client.
+         * @param transport the connection to the client.
+         */
+        public ClientHandler( MessageTransport transport )
+        {
+            TRANSPORT = transport;
+            this.isRunning = new VarSync<>( false, LockStrategies.NON_FAIR );
+            TERMINATED = new CountDownLatch( 1 );
+            executed = false;
+        }
+
+        /**
+         * Submits the handler to the server handler executor, which reads the requests from the connection.
+         * If the executor has no free thread for it the connection is refused and closed.
+         *
+         * @param connection the connection the requests are read from, the transport of the handler or the one it wraps.
          */
-        public ClientHandler( Socket clientConnection )
+        public void start( PullTransport connection )
         {
+            this.isRunning.syncSet(true);
+            executed = true;
             try
             {
-                CLIENT_CONNECTION = clientConnection;
-                CLIENT_INPUT_STREAM = new ObjectInputStream( CLIENT_CONNECTION.getInputStream ( ) );
-                CLIENT_OUTPUT_STREAM = new ObjectOutputStream( CLIENT_CONNECTION.getOutputStream ( ) );
-                this.isRunning = new VarSync<>(false);
+                HANDLER_EXECUTOR.execute( () -> receive( connection ) );
             }
-            catch (IOException e)
+            catch ( RejectedExecutionException e )
             {
-                throw new RuntimeException("Can not create ClientHandler");
+                executed = false;
+                LOGGER.log( "Connection refused, there is no free handler thread.", Optional.of(LogTypes.WARN) );
+                close();
             }
         }
 
-        @Override
-        public void start()
-        {
-            this.isRunning.syncSet(true);
-            super.start();
-        }
-
-        @Override
-        public void run()
+        /**
+         * Reads and handles the requests until the handler stops running or the connection is lost.
+         *
+         * @param connection the connection the requests are read from.
+         */
+        private void receive( PullTransport connection )
         {
             try
             {
                 do
                 {
-                    handleRequest( CLIENT_INPUT_STREAM.readObject() );
+                    handleEncodedRequest( connection.receiveEncoded() );
                 }
-                while ( isRunning.syncGet() );
+                while ( isRunning.optimisticGet() );
             }
             catch( IOException e )
             {
-                LOGGER.log( "Connection Lost to client ! " + e.getMessage(), Optional.of(LogTypes.WARN) );
-                currentClientHandlers.lock();
-                currentClientHandlers.asyncGet().remove( this );
-                currentClientHandlers.unlock();
+                onDisconnect( e );
             }
             catch (ClassNotFoundException e)
             {
                 LOGGER.log( e.getMessage(), Optional.of(LogTypes.ERROR) );
             }
+            finally
+            {
+                TERMINATED.countDown();
+            }
 
+        }
 
+        /**
+         * Waits for the handler to stop running. Returns immediately if the handler was never executed.
+         *
+         * @throws InterruptedException if interrupted while waiting.
+         */
+        public void awaitTermination() throws InterruptedException
+        {
+            if ( executed )
+                TERMINATED.await();
+        }
+
+        @Override
+        public void onMessage( Message message )
+        {
+            if ( isRunning.optimisticGet() )
+                handleRequest( message );
+        }
+
+        @Override
+        public void onEncodedMessage( EncodedMessage message ) throws IOException
+        {
+            if ( isRunning.optimisticGet() )
+                handleEncodedRequest( message );
+        }
+
+        @Override
+        public void onDisconnect( IOException cause )
+        {
+            LOGGER.log( "Connection Lost to client ! " + cause.getMessage(), Optional.of(LogTypes.WARN) );
+            currentClientHandlers.remove( this );
         }
 
         /**
@@ -197,14 +479,11 @@ public abstract class Server extends Thread
          */
         public void close()
         {
-            ClientHandler clientHandler;
             this.isRunning.syncSet(false);
-            currentClientHandlers.lock();
-            currentClientHandlers.asyncGet().remove( this );
-            currentClientHandlers.unlock();
+            currentClientHandlers.remove( this );
             try
             {
-                CLIENT_CONNECTION.close();
+                TRANSPORT.close();
             }
             catch (IOException e )
             {
@@ -217,11 +496,23 @@ public abstract class Server extends Thread
         }
 
         /**
-         * The firs method called after reading an object (request) from the client objectInputStream
+         * The firs method called after reading an object (request) from the client transport
          *
-         * @param object the reade object from the objectInputStream.
+         * @param object the reade object from the transport.
          */
         protected abstract void handleRequest( Object object );
 
+        /**
+         * The first method called after reading a frame from the client transport. By default the message is decoded
+         * and handled by {@link #handleRequest(Object)}, handlers that relay messages route them by their header.
+         *
+         * @param message the read message.
+         * @throws IOException if the read frame is not a valid message.
+         */
+        protected void handleEncodedRequest( EncodedMessage message ) throws IOException
+        {
+            handleRequest( message.getMessage() );
+        }
+
     }
 }
@@ -1,5 +1,7 @@
 package Networks;
 
+import Utils.Certificate.CertificateReference;
+
 import java.io.Serializable;
 
 /**
@@ -13,6 +15,9 @@ public class User implements Serializable
     /** The certificate associated with the user. */
     private String certificate;
 
+    /** The reference to the certificate of the user, as sent in the roster. */
+    private CertificateReference certificateReference;
+
     /**
      * Constructs a new User object with the given username.
      *
@@ -49,6 +54,24 @@ public class User implements Serializable
         this.certificate = certificate;
     }
 
+    /**
+     * Gets the reference to the certificate of the user.
+     *
+     * @return The certificate reference, or null if it is not known.
+     */
+    public CertificateReference getCertificateReference() {
+        return certificateReference;
+    }
+
+    /**
+     * Sets the reference to the certificate of the user.
+     *
+     * @param certificateReference The certificate reference to set.
+     */
+    public void setCertificateReference(CertificateReference certificateReference) {
+        this.certificateReference = certificateReference;
+    }
+
     @Override
     public String toString() {
         return username + certificate;
@@ -0,0 +1,71 @@
+package Utils.Certificate;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A short reference to a certificate, sent instead of the PEM encoded certificate. The fingerprint addresses the
+ * certificate in a {@link CertificateStore}, the serial number identifies it with the certificate authority.
+ */
+public class CertificateReference implements Serializable
+{
+    /** The fingerprint of the PEM encoded certificate, see {@link CertificateStore#fingerprint(String)}. */
+    private final String FINGERPRINT;
+
+    /** The serial number of the certificate. */
+    private final int SERIAL_NUMBER;
+
+    /**
+     * Creates a certificate reference.
+     *
+     * @param fingerprint  the fingerprint of the PEM encoded certificate.
+     * @param serialNumber the serial number of the certificate.
+     * @throws IllegalArgumentException if the fingerprint is null.
+     */
+    public CertificateReference( String fingerprint, int serialNumber )
+    {
+        if ( fingerprint == null )
+            throw new IllegalArgumentException( "Invalid arguments: fingerprint cannot be null" );
+
+        FINGERPRINT = fingerprint;
+        SERIAL_NUMBER = serialNumber;
+    }
+
+    /**
+     * @return the fingerprint of the PEM encoded certificate.
+     */
+    public String getFingerprint()
+    {
+        return FINGERPRINT;
+    }
+
+    /**
+     * @return the serial number of the certificate.
+     */
+    public int getSerialNumber()
+    {
+        return SERIAL_NUMBER;
+    }
+
+    @Override
+    public boolean equals( Object other )
+    {
+        if ( this == other )
+            return true;
+        if ( !( other instanceof CertificateReference reference ) )
+            return false;
+        return SERIAL_NUMBER == reference.SERIAL_NUMBER && FINGERPRINT.equals( reference.FINGERPRINT );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash( FINGERPRINT, SERIAL_NUMBER );
+    }
+
+    @Override
+    public String toString()
+    {
+        return FINGERPRINT + ":" + SERIAL_NUMBER;
+    }
+}
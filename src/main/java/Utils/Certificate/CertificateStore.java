@@ -0,0 +1,116 @@
+package Utils.Certificate;
+
+import Utils.Security.Integrity.HASH;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A content-addressed cache of PEM encoded certificates. Each certificate is stored by its fingerprint, so the same
+ * certificate is kept once however many users or servers refer to it, and a certificate received for a fingerprint
+ * can be checked against it.
+ * <p>
+ * The store is thread-safe, it is shared by the handlers of a server and its entries are removed when the users that
+ * refer to them leave.
+ */
+public class CertificateStore
+{
+    /** The number of digest bytes kept in a fingerprint. */
+    private static final int FINGERPRINT_SIZE = 32;
+
+    /** The PEM encoded certificates by fingerprint. */
+    private final ConcurrentHashMap< String, String > CERTIFICATES = new ConcurrentHashMap<>();
+
+    /**
+     * Computes the fingerprint of a PEM encoded certificate, the Base64 URL encoding of the first
+     * {@value #FINGERPRINT_SIZE} bytes of its digest.
+     *
+     * @param certificate the PEM encoded certificate.
+     * @return the fingerprint.
+     */
+    public static String fingerprint( String certificate )
+    {
+        byte[] digest = HASH.generateDigest( certificate.getBytes( StandardCharsets.UTF_8 ) );
+        return Base64.getUrlEncoder().withoutPadding().encodeToString( Arrays.copyOf( digest, FINGERPRINT_SIZE ) );
+    }
+
+    /**
+     * Stores a PEM encoded certificate whose serial number is known.
+     *
+     * @param certificate  the PEM encoded certificate.
+     * @param serialNumber the serial number of the certificate.
+     * @return the reference to the stored certificate.
+     * @throws IllegalArgumentException if the certificate is null.
+     */
+    public CertificateReference put( String certificate, int serialNumber )
+    {
+        if ( certificate == null )
+            throw new IllegalArgumentException( "Certificate cannot be null." );
+
+        String fingerprint = fingerprint( certificate );
+        CERTIFICATES.putIfAbsent( fingerprint, certificate );
+        return new CertificateReference( fingerprint, serialNumber );
+    }
+
+    /**
+     * Stores a PEM encoded certificate, decoding it to read its serial number.
+     *
+     * @param certificate the PEM encoded certificate.
+     * @return the reference to the stored certificate.
+     * @throws IOException            if the certificate could not be decoded.
+     * @throws ClassNotFoundException if the class of the decoded certificate is not known.
+     */
+    public CertificateReference put( String certificate ) throws IOException, ClassNotFoundException
+    {
+        return put( certificate, new PEMCertificateEncoder().decode( certificate ).getSerialNumber() );
+    }
+
+    /**
+     * Stores a certificate received for a fingerprint, if it matches the fingerprint.
+     *
+     * @param fingerprint the fingerprint the certificate was requested for.
+     * @param certificate the received PEM encoded certificate.
+     * @return true if the certificate matches the fingerprint and was stored.
+     */
+    public boolean putVerified( String fingerprint, String certificate )
+    {
+        if ( fingerprint == null || certificate == null || !fingerprint.equals( fingerprint( certificate ) ) )
+            return false;
+
+        CERTIFICATES.putIfAbsent( fingerprint, certificate );
+        return true;
+    }
+
+    /**
+     * Gets a stored certificate.
+     *
+     * @param fingerprint the fingerprint of the certificate.
+     * @return the PEM encoded certificate, or empty if it is not stored.
+     */
+    public Optional<String> get( String fingerprint )
+    {
+        return Optional.ofNullable( CERTIFICATES.get( fingerprint ) );
+    }
+
+    /**
+     * Removes a stored certificate.
+     *
+     * @param fingerprint the fingerprint of the certificate.
+     */
+    public void remove( String fingerprint )
+    {
+        CERTIFICATES.remove( fingerprint );
+    }
+
+    /**
+     * @return the number of stored certificates.
+     */
+    public int size()
+    {
+        return CERTIFICATES.size();
+    }
+}
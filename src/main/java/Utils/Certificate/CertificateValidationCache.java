@@ -0,0 +1,117 @@
+package Utils.Certificate;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the certificates that passed validation, by serial number, so a certificate is not checked with the
+ * certificate authority and its signature verified every time it is used.
+ * <p>
+ * A validation is only reused for the same certificate, the one with the same fingerprint, and expires at the end of
+ * the certificate validity, after the time to live, or when the public key of the certificate authority changes.
+ * It is removed when the certificate is reported invalid, see {@link #invalidate(int)}.
+ */
+public class CertificateValidationCache
+{
+    /**
+     * A successful validation.
+     *
+     * @param fingerprint     the fingerprint of the validated certificate.
+     * @param expiresAt       the time the validation expires, in milliseconds since the epoch.
+     * @param caKeyGeneration the generation of the certificate authority key the signature was verified with.
+     */
+    private record Validation( String fingerprint, long expiresAt, int caKeyGeneration ) {}
+
+    /** The time a validation is reused, in milliseconds. */
+    private final long TIME_TO_LIVE;
+
+    /** The validations by certificate serial number. */
+    private final ConcurrentHashMap< Integer, Validation > VALIDATIONS = new ConcurrentHashMap<>();
+
+    /** The generation of the certificate authority public key, incremented when the key changes. */
+    private volatile int caKeyGeneration;
+
+    /**
+     * Creates a validation cache.
+     *
+     * @param timeToLive the time a validation is reused, in milliseconds.
+     * @throws IllegalArgumentException if the time to live is negative.
+     */
+    public CertificateValidationCache( long timeToLive )
+    {
+        if ( timeToLive < 0 )
+            throw new IllegalArgumentException( "The time to live cannot be negative." );
+
+        TIME_TO_LIVE = timeToLive;
+    }
+
+    /**
+     * Checks if a certificate passed validation and the validation did not expire.
+     *
+     * @param reference the reference to the certificate.
+     * @return true if the certificate can be used without validating it again.
+     */
+    public boolean isValidated( CertificateReference reference )
+    {
+        Validation validation = VALIDATIONS.get( reference.getSerialNumber() );
+        if ( validation == null )
+            return false;
+
+        if ( validation.caKeyGeneration() != caKeyGeneration || System.currentTimeMillis() >= validation.expiresAt() )
+        {
+            VALIDATIONS.remove( reference.getSerialNumber(), validation );
+            return false;
+        }
+        return validation.fingerprint().equals( reference.getFingerprint() );
+    }
+
+    /**
+     * Remembers a certificate that passed validation. It is not remembered if the certificate authority key changed
+     * since the validation started.
+     *
+     * @param reference       the reference to the certificate.
+     * @param validTo         the end of the certificate validity.
+     * @param caKeyGeneration the key generation read before the validation started, see {@link #getCaKeyGeneration()}.
+     */
+    public void validated( CertificateReference reference, Date validTo, int caKeyGeneration )
+    {
+        long expiresAt = Math.min( validTo.getTime(), System.currentTimeMillis() + TIME_TO_LIVE );
+        if ( caKeyGeneration == this.caKeyGeneration && expiresAt > System.currentTimeMillis() )
+            VALIDATIONS.put( reference.getSerialNumber(), new Validation( reference.getFingerprint(), expiresAt, caKeyGeneration ) );
+    }
+
+    /**
+     * Forgets the validation of a certificate reported invalid.
+     *
+     * @param serialNumber the serial number of the certificate.
+     */
+    public void invalidate( int serialNumber )
+    {
+        VALIDATIONS.remove( serialNumber );
+    }
+
+    /**
+     * @return the generation of the certificate authority public key.
+     */
+    public int getCaKeyGeneration()
+    {
+        return caKeyGeneration;
+    }
+
+    /**
+     * Forgets every validation because the public key of the certificate authority changed.
+     */
+    public synchronized void caKeyChanged()
+    {
+        caKeyGeneration++;
+        VALIDATIONS.clear();
+    }
+
+    /**
+     * @return the number of remembered validations, including expired ones not yet removed.
+     */
+    public int size()
+    {
+        return VALIDATIONS.size();
+    }
+}
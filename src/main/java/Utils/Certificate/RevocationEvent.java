@@ -0,0 +1,44 @@
+package Utils.Certificate;
+
+import java.util.BitSet;
+
+/**
+ * The certificates revoked together in one change of a {@link RevocationList}. Each change has the list version it
+ * leads to, one more than the version of the previous change, so a receiver can tell if it missed a change.
+ */
+public class RevocationEvent
+{
+    /** The list version after the change. */
+    private final long VERSION;
+
+    /** The serial numbers revoked by the change, one bit per serial number. */
+    private final BitSet SERIAL_NUMBERS;
+
+    /**
+     * Creates a revocation change.
+     *
+     * @param version       the list version after the change.
+     * @param serialNumbers the revoked serial numbers.
+     */
+    public RevocationEvent( long version, BitSet serialNumbers )
+    {
+        VERSION = version;
+        SERIAL_NUMBERS = (BitSet) serialNumbers.clone();
+    }
+
+    /**
+     * @return the list version after the change.
+     */
+    public long getVersion()
+    {
+        return VERSION;
+    }
+
+    /**
+     * @return a copy of the revoked serial numbers.
+     */
+    public BitSet getSerialNumbers()
+    {
+        return (BitSet) SERIAL_NUMBERS.clone();
+    }
+}
@@ -0,0 +1,156 @@
+package Utils.Certificate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A versioned list of revoked certificate serial numbers, kept as a bitmap. The certificate authority revokes
+ * certificates in it and keeps the last changes, so a subscriber that missed changes gets only the changes after the
+ * version it knows. A client keeps a replica of the list, updated with the changes it receives, to answer if a
+ * certificate is revoked without asking the authority.
+ * <p>
+ * Every method is synchronized.
+ */
+public class RevocationList
+{
+    /** The revoked serial numbers. */
+    private final BitSet REVOKED = new BitSet();
+
+    /** The last changes, oldest first. */
+    private final ArrayDeque<RevocationEvent> HISTORY = new ArrayDeque<>();
+
+    /** The maximum number of changes kept in the history. */
+    private final int HISTORY_CAPACITY;
+
+    /** The version of the list, the number of changes applied. */
+    private long version;
+
+    /**
+     * Creates an empty revocation list at version 0.
+     *
+     * @param historyCapacity the maximum number of changes kept to answer {@link #eventsSince(long)}.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public RevocationList( int historyCapacity )
+    {
+        if ( historyCapacity < 0 )
+            throw new IllegalArgumentException( "The history capacity cannot be negative." );
+
+        HISTORY_CAPACITY = historyCapacity;
+    }
+
+    /**
+     * Revokes certificates.
+     *
+     * @param serialNumbers the serial numbers to revoke.
+     * @return the change, empty if every serial number was already revoked.
+     */
+    public synchronized Optional<RevocationEvent> revoke( BitSet serialNumbers )
+    {
+        BitSet revoked = (BitSet) serialNumbers.clone();
+        revoked.andNot( REVOKED );
+        if ( revoked.isEmpty() )
+            return Optional.empty();
+
+        REVOKED.or( revoked );
+        RevocationEvent event = new RevocationEvent( ++version, revoked );
+        HISTORY.addLast( event );
+        while ( HISTORY.size() > HISTORY_CAPACITY )
+            HISTORY.removeFirst();
+        return Optional.of( event );
+    }
+
+    /**
+     * Applies a change received from the certificate authority to a replica.
+     *
+     * @param event the change.
+     * @return false if changes before it were missed and it was not applied, true otherwise.
+     */
+    public synchronized boolean apply( RevocationEvent event )
+    {
+        if ( event.getVersion() <= version )
+            return true;
+
+        if ( event.getVersion() != version + 1 )
+            return false;
+
+        REVOKED.or( event.getSerialNumbers() );
+        version = event.getVersion();
+        return true;
+    }
+
+    /**
+     * Replaces a replica with the full list received from the certificate authority. A list older than the replica is
+     * not applied, so a replayed list cannot undo revocations.
+     *
+     * @param version the version of the list.
+     * @param revoked the revoked serial numbers.
+     * @return false if the list is older than the replica and was not applied, true otherwise.
+     */
+    public synchronized boolean replace( long version, BitSet revoked )
+    {
+        if ( version < this.version )
+            return false;
+
+        REVOKED.clear();
+        REVOKED.or( revoked );
+        HISTORY.clear();
+        this.version = version;
+        return true;
+    }
+
+    /**
+     * @param serialNumber the serial number of a certificate.
+     * @return true if the certificate is revoked.
+     */
+    public synchronized boolean isRevoked( int serialNumber )
+    {
+        return serialNumber >= 0 && REVOKED.get( serialNumber );
+    }
+
+    /**
+     * @return the version of the list.
+     */
+    public synchronized long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * @return a copy of the revoked serial numbers.
+     */
+    public synchronized BitSet getRevoked()
+    {
+        return (BitSet) REVOKED.clone();
+    }
+
+    /**
+     * Gets the changes after a version.
+     *
+     * @param knownVersion the version the subscriber knows.
+     * @return the changes in version order, empty if the version is not valid or the changes after it are no longer
+     * kept, in which case the subscriber needs the full list.
+     */
+    public synchronized Optional< List<RevocationEvent> > eventsSince( long knownVersion )
+    {
+        if ( knownVersion < 0 || knownVersion > version )
+            return Optional.empty();
+
+        if ( knownVersion == version )
+            return Optional.of( List.of() );
+
+        if ( HISTORY.isEmpty() || HISTORY.peekFirst().getVersion() > knownVersion + 1 )
+            return Optional.empty();
+
+        List<RevocationEvent> events = new ArrayList<>();
+        for ( RevocationEvent event : HISTORY )
+        {
+            if ( event.getVersion() > knownVersion )
+                events.add( event );
+        }
+        return Optional.of( events );
+    }
+}
@@ -0,0 +1,16 @@
+package Utils.Concurrency.Enums;
+
+/**
+ * Represents the executors that can run the client handlers of a server.
+ *
+ * - {@code THREAD}: Each handler runs on its own platform thread.
+ * - {@code POOL}: The handlers run on a bounded pool of platform threads. A handler holds its thread for the whole
+ *   connection, so the connections that do not fit in the pool are refused and closed.
+ * - {@code VIRTUAL}: Each handler runs on its own virtual thread. Needs a Java runtime with virtual threads,
+ *   otherwise falls back to {@code THREAD}.
+ */
+public enum ExecutorTypes {
+    THREAD,
+    POOL,
+    VIRTUAL
+}
@@ -0,0 +1,13 @@
+package Utils.Concurrency.Enums;
+
+/**
+ * Represents the locks that can guard a {@link Utils.Concurrency.VarSync}.
+ *
+ * - {@code FAIR}: The lock is given to the threads in the order they asked for it. Slower under contention.
+ * - {@code NON_FAIR}: The lock may be given to the thread that asks for it while it is released, skipping the queue.
+ *   Much faster under contention, a waiting thread may wait longer.
+ */
+public enum LockStrategies {
+    FAIR,
+    NON_FAIR
+}
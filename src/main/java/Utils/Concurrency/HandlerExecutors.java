@@ -0,0 +1,121 @@
+package Utils.Concurrency;
+
+import Utils.Concurrency.Enums.ExecutorTypes;
+import Utils.Logger.Enums.LogTypes;
+import Utils.Logger.Logger;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory of the executors that run the client handlers of a server.
+ * Virtual threads are looked up at runtime, so the project still builds and runs on runtimes without them.
+ */
+public class HandlerExecutors
+{
+    /** Time an idle pooled thread is kept alive. */
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private HandlerExecutors(){}
+
+    /**
+     * Creates an executor of the given type.
+     *
+     * @param type     the type of the executor.
+     * @param poolSize the max number of threads, only used by {@link ExecutorTypes#POOL}, which rejects the tasks
+     *                 submitted while all its threads are busy with a {@link java.util.concurrent.RejectedExecutionException}.
+     * @param name     the prefix of the names of the created threads.
+     * @param logger   the logger used to warn when the executor type is not supported.
+     * @return the created executor.
+     */
+    public static ExecutorService create( ExecutorTypes type, int poolSize, String name, Logger logger )
+    {
+        switch ( type )
+        {
+            case POOL -> {
+                int size = Math.max( 1, poolSize );
+                ThreadPoolExecutor executor = new ThreadPoolExecutor( size, size, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                        new SynchronousQueue<>(), namedThreadFactory( name ) );
+                executor.allowCoreThreadTimeOut( true );
+                return executor;
+            }
+
+            case VIRTUAL -> {
+                ExecutorService executor = createVirtualThreadExecutor();
+                if ( executor != null )
+                    return executor;
+
+                logger.log( "Virtual threads are not supported by this runtime, using one thread per handler.", Optional.of(LogTypes.WARN) );
+                return Executors.newCachedThreadPool( namedThreadFactory( name ) );
+            }
+
+            default -> { return Executors.newCachedThreadPool( namedThreadFactory( name ) ); }
+        }
+    }
+
+    /**
+     * Creates an executor for tasks that last as long as a connection, such as the writers of the outbound queues.
+     * Those tasks can not wait for a free pooled thread, so the {@link ExecutorTypes#POOL} type uses one thread per task.
+     *
+     * @param type   the type of the executor.
+     * @param name   the prefix of the names of the created threads.
+     * @param logger the logger used to warn when the executor type is not supported.
+     * @return the created executor.
+     */
+    public static ExecutorService createPerConnection( ExecutorTypes type, String name, Logger logger )
+    {
+        return create( type == ExecutorTypes.POOL ? ExecutorTypes.THREAD : type, 0, name, logger );
+    }
+
+    /**
+     * Checks if the runtime supports virtual threads.
+     *
+     * @return true if virtual thread executors can be created, false otherwise.
+     */
+    public static boolean isVirtualThreadSupported()
+    {
+        ExecutorService executor = createVirtualThreadExecutor();
+        if ( executor == null )
+            return false;
+
+        executor.shutdown();
+        return true;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     *
+     * @return the created executor, or null if the runtime does not support virtual threads.
+     */
+    private static ExecutorService createVirtualThreadExecutor()
+    {
+        try
+        {
+            Method factory = Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" );
+            return (ExecutorService) factory.invoke( null );
+        }
+        catch ( ReflectiveOperationException | UnsupportedOperationException e )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a thread factory that names the threads with the given prefix and a sequence number.
+     *
+     * @param name the prefix of the thread names.
+     * @return the created thread factory.
+     */
+    private static ThreadFactory namedThreadFactory( String name )
+    {
+        AtomicInteger count = new AtomicInteger( 0 );
+        return runnable -> new Thread( runnable, name + "-" + count.getAndIncrement() );
+    }
+}
@@ -1,15 +1,18 @@
 package Utils.Concurrency;
 
+import Utils.Concurrency.Enums.LockStrategies;
+
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Generic Class that merges a var and a lock. Util when we need to sync a single variable.
  * Useful when synchronization of a single variable is required.
+ * The variable is volatile, so {@link #optimisticGet()} can read it without the lock.
  * @param <T> Type of the variable.
  */
 public class VarSync<T>{
 
-    private T value;
+    private volatile T value;
     private final ReentrantLock lock;
 
     /**
@@ -23,6 +26,16 @@ public class VarSync<T>{
         this.lock = new ReentrantLock(fair);
     }
 
+    /**
+     * Creates an instance of VarSync guarded by a lock of the given strategy.
+     *
+     * @param value variable to sync
+     * @param strategy the strategy of the lock.
+     */
+    public VarSync(T value, LockStrategies strategy ){
+        this( value, strategy == LockStrategies.FAIR );
+    }
+
     /**
      * Creates an instance of VarSync with the default value of fair as true
      *
@@ -60,6 +73,17 @@ public class VarSync<T>{
         return var;
     }
 
+    /**
+     * Retrieves the last set value of the variable without acquiring the lock.
+     * Never blocks, even while another thread holds the lock. Only the reference is read atomically, so it should be
+     * used for immutable values such as flags, or where a value that is about to change is acceptable.
+     *
+     * @return The last set value of the stored variable.
+     */
+    public T optimisticGet(){
+        return this.value;
+    }
+
     /**
      * Sets the value of the variable to the specified newValue after acquiring the lock.
      *
@@ -1,5 +1,11 @@
 package Utils.Config;
 
+import Utils.Concurrency.Enums.ExecutorTypes;
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Security.Encryption.Enums.CipherLayouts;
+import Utils.Transport.Enums.OverflowPolicies;
+import Utils.Transport.Enums.ServerModes;
+
 import java.nio.file.Paths;
 
 /**
@@ -19,7 +25,29 @@ public class Config {
     private int msgServerPort;
     private int caServerPort;
     private int certificateValidityPeriod;
+    private int validationCacheTTL = 60;
+    private ServerModes serverMode = ServerModes.BLOCKING;
+    private int selectorThreads = 2;
+    private ExecutorTypes handlerExecutor = ExecutorTypes.THREAD;
+    private int handlerPoolSize = 64;
+    private int outboundQueueCapacity = 256;
+    private OverflowPolicies overflowPolicy = OverflowPolicies.DISCONNECT;
+    private int overflowTimeout = 1000;
+    private CodecTypes codec = CodecTypes.BINARY;
+    private int streamResetMessages = 1000;
+    private int streamResetBytes = 1024 * 1024;
+    private int rosterPageSize = 64;
+    private int presenceHistory = 1024;
+    private CipherLayouts cipherLayout = CipherLayouts.SINGLE;
+    private int handshakeTimeout = 2000;
+    private int handshakeAttempts = 3;
+    private int multicastThreshold = 2;
+    private int historySegmentSize = 1024 * 1024;
+    private int historyMaxSegments = 64;
+    private int historyRetention = 30;
+    private int historyPageSize = 20;
     private final String savePath = Paths.get("src", "results").toString();
+    private final String historyPath = Paths.get("src", "data", "History").toString();
 
     /**
      * Creates a new instance of {@code Config} with default values. This
@@ -96,6 +124,391 @@ public class Config {
         this.certificateValidityPeriod = certificateValidityPeriod;
     }
 
+    /**
+     * Gets how the message server handles the client connections.
+     *
+     * @return the server mode
+     */
+    public ServerModes getServerMode() {
+        return serverMode;
+    }
+
+    /**
+     * Sets how the message server handles the client connections.
+     *
+     * @param serverMode the server mode to set
+     */
+    public void setServerMode(ServerModes serverMode) {
+        this.serverMode = serverMode;
+    }
+
+    /**
+     * Gets the number of selector threads used by the message server in selector mode.
+     *
+     * @return the number of selector threads
+     */
+    public int getSelectorThreads() {
+        return selectorThreads;
+    }
+
+    /**
+     * Sets the number of selector threads used by the message server in selector mode.
+     *
+     * @param selectorThreads the number of selector threads to set
+     */
+    public void setSelectorThreads(int selectorThreads) {
+        this.selectorThreads = selectorThreads;
+    }
+
+    /**
+     * Gets the executor type that runs the client handlers of the servers in blocking mode.
+     *
+     * @return the handler executor type
+     */
+    public ExecutorTypes getHandlerExecutor() {
+        return handlerExecutor;
+    }
+
+    /**
+     * Sets the executor type that runs the client handlers of the servers in blocking mode.
+     *
+     * @param handlerExecutor the handler executor type to set
+     */
+    public void setHandlerExecutor(ExecutorTypes handlerExecutor) {
+        this.handlerExecutor = handlerExecutor;
+    }
+
+    /**
+     * Gets the maximum number of client handlers served at the same time by the pool executor, the connections over it are refused.
+     *
+     * @return the handler pool size
+     */
+    public int getHandlerPoolSize() {
+        return handlerPoolSize;
+    }
+
+    /**
+     * Sets the maximum number of client handlers served at the same time by the pool executor, the connections over it are refused.
+     *
+     * @param handlerPoolSize the handler pool size to set
+     */
+    public void setHandlerPoolSize(int handlerPoolSize) {
+        this.handlerPoolSize = handlerPoolSize;
+    }
+
+    /**
+     * Gets the max number of messages queued for each client of the message server.
+     *
+     * @return the outbound queue capacity
+     */
+    public int getOutboundQueueCapacity() {
+        return outboundQueueCapacity;
+    }
+
+    /**
+     * Sets the max number of messages queued for each client of the message server.
+     *
+     * @param outboundQueueCapacity the outbound queue capacity to set
+     */
+    public void setOutboundQueueCapacity(int outboundQueueCapacity) {
+        this.outboundQueueCapacity = outboundQueueCapacity;
+    }
+
+    /**
+     * Gets what the message server does when the outbound queue of a client is full.
+     *
+     * @return the overflow policy
+     */
+    public OverflowPolicies getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Sets what the message server does when the outbound queue of a client is full.
+     *
+     * @param overflowPolicy the overflow policy to set
+     */
+    public void setOverflowPolicy(OverflowPolicies overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Gets how many milliseconds a sender waits for room in a full outbound queue with the block policy.
+     *
+     * @return the overflow timeout in milliseconds
+     */
+    public int getOverflowTimeout() {
+        return overflowTimeout;
+    }
+
+    /**
+     * Sets how many milliseconds a sender waits for room in a full outbound queue with the block policy.
+     *
+     * @param overflowTimeout the overflow timeout in milliseconds to set
+     */
+    public void setOverflowTimeout(int overflowTimeout) {
+        this.overflowTimeout = overflowTimeout;
+    }
+
+    /**
+     * Gets the codec preferred by the clients. With the Java codec the clients do not negotiate and use the
+     * object streams of the servers.
+     *
+     * @return the preferred codec
+     */
+    public CodecTypes getCodec() {
+        return codec;
+    }
+
+    /**
+     * Sets the codec preferred by the clients.
+     *
+     * @param codec the preferred codec to set
+     */
+    public void setCodec(CodecTypes codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Gets the number of messages written to an object stream before it is reset, 0 to not reset by count.
+     *
+     * @return the stream reset message count
+     */
+    public int getStreamResetMessages() {
+        return streamResetMessages;
+    }
+
+    /**
+     * Sets the number of messages written to an object stream before it is reset, 0 to not reset by count.
+     *
+     * @param streamResetMessages the stream reset message count to set
+     */
+    public void setStreamResetMessages(int streamResetMessages) {
+        this.streamResetMessages = streamResetMessages;
+    }
+
+    /**
+     * Gets the number of bytes written to an object stream before it is reset, 0 to not reset by size.
+     *
+     * @return the stream reset byte count
+     */
+    public int getStreamResetBytes() {
+        return streamResetBytes;
+    }
+
+    /**
+     * Sets the number of bytes written to an object stream before it is reset, 0 to not reset by size.
+     *
+     * @param streamResetBytes the stream reset byte count to set
+     */
+    public void setStreamResetBytes(int streamResetBytes) {
+        this.streamResetBytes = streamResetBytes;
+    }
+
+    /**
+     * Gets the number of users in each page of a roster snapshot sent by the messaging server.
+     *
+     * @return the roster page size
+     */
+    public int getRosterPageSize() {
+        return rosterPageSize;
+    }
+
+    /**
+     * Sets the number of users in each page of a roster snapshot sent by the messaging server.
+     *
+     * @param rosterPageSize the roster page size to set
+     */
+    public void setRosterPageSize(int rosterPageSize) {
+        this.rosterPageSize = rosterPageSize;
+    }
+
+    /**
+     * Gets the time a successful certificate validation is reused by the client before checking the certificate with
+     * the certificate authority again, in seconds.
+     *
+     * @return the validation cache time to live in seconds
+     */
+    public int getValidationCacheTTL() {
+        return validationCacheTTL;
+    }
+
+    /**
+     * Sets the time a successful certificate validation is reused by the client, in seconds.
+     *
+     * @param validationCacheTTL the validation cache time to live to set, in seconds
+     */
+    public void setValidationCacheTTL(int validationCacheTTL) {
+        this.validationCacheTTL = validationCacheTTL;
+    }
+
+    /**
+     * Gets the number of roster changes kept by the messaging server to resume clients without a snapshot.
+     *
+     * @return the presence history length
+     */
+    public int getPresenceHistory() {
+        return presenceHistory;
+    }
+
+    /**
+     * Sets the number of roster changes kept by the messaging server to resume clients without a snapshot.
+     *
+     * @param presenceHistory the presence history length to set
+     */
+    public void setPresenceHistory(int presenceHistory) {
+        this.presenceHistory = presenceHistory;
+    }
+
+    /**
+     * Gets the layout of the messages encrypted by the client. {@code GCM} is only used with peers that announce it too.
+     *
+     * @return the cipher layout
+     */
+    public CipherLayouts getCipherLayout() {
+        return cipherLayout;
+    }
+
+    /**
+     * Sets the layout of the messages encrypted by the client.
+     *
+     * @param cipherLayout the cipher layout to set
+     */
+    public void setCipherLayout(CipherLayouts cipherLayout) {
+        this.cipherLayout = cipherLayout;
+    }
+
+    /**
+     * Gets the time the client waits for a peer to answer a secret agreement offer before sending it again, in
+     * milliseconds.
+     *
+     * @return the handshake timeout in milliseconds
+     */
+    public int getHandshakeTimeout() {
+        return handshakeTimeout;
+    }
+
+    /**
+     * Sets the time the client waits for a peer to answer a secret agreement offer, in milliseconds.
+     *
+     * @param handshakeTimeout the handshake timeout to set, in milliseconds
+     */
+    public void setHandshakeTimeout(int handshakeTimeout) {
+        this.handshakeTimeout = handshakeTimeout;
+    }
+
+    /**
+     * Gets the number of times the client sends a secret agreement offer before giving up on the peer.
+     *
+     * @return the handshake attempts
+     */
+    public int getHandshakeAttempts() {
+        return handshakeAttempts;
+    }
+
+    /**
+     * Sets the number of times the client sends a secret agreement offer before giving up on the peer.
+     *
+     * @param handshakeAttempts the handshake attempts to set
+     */
+    public void setHandshakeAttempts(int handshakeAttempts) {
+        this.handshakeAttempts = handshakeAttempts;
+    }
+
+    /**
+     * Gets the number of recipients from which a message is sent as one multicast envelope instead of one message per
+     * recipient. Zero disables the multicast.
+     *
+     * @return the multicast threshold
+     */
+    public int getMulticastThreshold() {
+        return multicastThreshold;
+    }
+
+    /**
+     * Sets the number of recipients from which a message is sent as one multicast envelope instead of one message per
+     * recipient. Zero disables the multicast.
+     *
+     * @param multicastThreshold the multicast threshold to set
+     */
+    public void setMulticastThreshold(int multicastThreshold) {
+        this.multicastThreshold = multicastThreshold;
+    }
+
+    /**
+     * Gets the size in bytes of a new segment of the client message history.
+     *
+     * @return the history segment size
+     */
+    public int getHistorySegmentSize() {
+        return historySegmentSize;
+    }
+
+    /**
+     * Sets the size in bytes of a new segment of the client message history.
+     *
+     * @param historySegmentSize the history segment size to set
+     */
+    public void setHistorySegmentSize(int historySegmentSize) {
+        this.historySegmentSize = historySegmentSize;
+    }
+
+    /**
+     * Gets the maximum number of segments kept in the client message history, zero for no maximum.
+     *
+     * @return the history max segments
+     */
+    public int getHistoryMaxSegments() {
+        return historyMaxSegments;
+    }
+
+    /**
+     * Sets the maximum number of segments kept in the client message history, zero for no maximum.
+     *
+     * @param historyMaxSegments the history max segments to set
+     */
+    public void setHistoryMaxSegments(int historyMaxSegments) {
+        this.historyMaxSegments = historyMaxSegments;
+    }
+
+    /**
+     * Gets the number of days a segment of the client message history is kept after its last message, zero to keep
+     * the messages forever.
+     *
+     * @return the history retention
+     */
+    public int getHistoryRetention() {
+        return historyRetention;
+    }
+
+    /**
+     * Sets the number of days a segment of the client message history is kept after its last message, zero to keep
+     * the messages forever.
+     *
+     * @param historyRetention the history retention to set
+     */
+    public void setHistoryRetention(int historyRetention) {
+        this.historyRetention = historyRetention;
+    }
+
+    /**
+     * Gets the number of messages listed in a page of the client message history.
+     *
+     * @return the history page size
+     */
+    public int getHistoryPageSize() {
+        return historyPageSize;
+    }
+
+    /**
+     * Sets the number of messages listed in a page of the client message history.
+     *
+     * @param historyPageSize the history page size to set
+     */
+    public void setHistoryPageSize(int historyPageSize) {
+        this.historyPageSize = historyPageSize;
+    }
+
     /**
      * Gets the save path that image is going to be saved.
      *
@@ -104,4 +517,13 @@ public class Config {
     public String getSavePath() {
         return savePath;
     }
+
+    /**
+     * Gets the directory where the clients keep their message history, one directory per username.
+     *
+     * @return The history path;
+     */
+    public String getHistoryPath() {
+        return historyPath;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package Utils.Config;
 
 import java.io.IOException;
+
 import org.ini4j.Ini;
 
 /**
@@ -58,6 +59,30 @@ public class ConfigParser {
 
         validateSectionExists(configFile, "certificate");
         config.setCertificateValidityPeriod(parseInteger(configFile, "certificate", "CertificateValidityPeriod"));
+        config.setValidationCacheTTL(parseInteger(configFile, "certificate", "ValidationCacheTTL", config.getValidationCacheTTL()));
+
+        config.setServerMode(parseEnum(configFile, "server", "Mode", config.getServerMode()));
+        config.setSelectorThreads(parseInteger(configFile, "server", "SelectorThreads", config.getSelectorThreads()));
+        config.setHandlerExecutor(parseEnum(configFile, "server", "HandlerExecutor", config.getHandlerExecutor()));
+        config.setHandlerPoolSize(parseInteger(configFile, "server", "HandlerPoolSize", config.getHandlerPoolSize()));
+        config.setOutboundQueueCapacity(parseInteger(configFile, "server", "OutboundQueueCapacity", config.getOutboundQueueCapacity()));
+        config.setOverflowPolicy(parseEnum(configFile, "server", "OverflowPolicy", config.getOverflowPolicy()));
+        config.setOverflowTimeout(parseInteger(configFile, "server", "OverflowTimeout", config.getOverflowTimeout()));
+        config.setCodec(parseEnum(configFile, "server", "Codec", config.getCodec()));
+        config.setStreamResetMessages(parseInteger(configFile, "server", "StreamResetMessages", config.getStreamResetMessages()));
+        config.setStreamResetBytes(parseInteger(configFile, "server", "StreamResetBytes", config.getStreamResetBytes()));
+        config.setRosterPageSize(parseInteger(configFile, "server", "RosterPageSize", config.getRosterPageSize()));
+        config.setPresenceHistory(parseInteger(configFile, "server", "PresenceHistory", config.getPresenceHistory()));
+
+        config.setCipherLayout(parseEnum(configFile, "security", "CipherLayout", config.getCipherLayout()));
+        config.setHandshakeTimeout(parseInteger(configFile, "security", "HandshakeTimeout", config.getHandshakeTimeout()));
+        config.setHandshakeAttempts(parseInteger(configFile, "security", "HandshakeAttempts", config.getHandshakeAttempts()));
+        config.setMulticastThreshold(parseInteger(configFile, "security", "MulticastThreshold", config.getMulticastThreshold()));
+
+        config.setHistorySegmentSize(parseInteger(configFile, "history", "SegmentSize", config.getHistorySegmentSize()));
+        config.setHistoryMaxSegments(parseInteger(configFile, "history", "MaxSegments", config.getHistoryMaxSegments()));
+        config.setHistoryRetention(parseInteger(configFile, "history", "Retention", config.getHistoryRetention()));
+        config.setHistoryPageSize(parseInteger(configFile, "history", "PageSize", config.getHistoryPageSize()));
 
         return config;
     }
@@ -97,6 +122,46 @@ public class ConfigParser {
         }
     }
 
+    /**
+     * Parses an optional integer value from a specified section and key within the INI file.
+     *
+     * @param configFile   The INI configuration file.
+     * @param section      The section from which to parse the integer.
+     * @param key          The key corresponding to the integer value.
+     * @param defaultValue The value returned when the section or key is missing.
+     * @return The parsed integer value, or the default value.
+     * @throws IllegalArgumentException If the value is not a valid integer.
+     */
+    private int parseInteger(Ini configFile, String section, String key, int defaultValue) {
+        if (configFile.get(section, key) == null) {
+            return defaultValue;
+        }
+        return parseInteger(configFile, section, key);
+    }
+
+    /**
+     * Parses an optional enum constant from a specified section and key within the INI file.
+     *
+     * @param configFile   The INI configuration file.
+     * @param section      The section from which to parse the constant.
+     * @param key          The key corresponding to the constant name.
+     * @param defaultValue The value returned when the section or key is missing.
+     * @param <E>          The type of the enum.
+     * @return The parsed constant, or the default value.
+     * @throws IllegalArgumentException If the value is not a constant of the enum.
+     */
+    private <E extends Enum<E>> E parseEnum(Ini configFile, String section, String key, E defaultValue) {
+        String valueStr = configFile.get(section, key);
+        if (valueStr == null) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(defaultValue.getDeclaringClass(), valueStr.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value '" + valueStr + "' for '" + key + "' in [" + section + "] section.");
+        }
+    }
+
     /**
      * Retrieves the singleton instance of the {@code ConfigParser}.
      *
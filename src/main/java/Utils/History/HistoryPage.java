@@ -0,0 +1,73 @@
+package Utils.History;
+
+import Utils.Message.MessageRecord;
+
+import java.util.List;
+
+/**
+ * A page of the message history. The pages are numbered from 1, the first page holds the most recent messages, and the
+ * messages of a page are in the order they were received.
+ */
+public class HistoryPage
+{
+    /** The messages of the page. */
+    private final List<MessageRecord> RECORDS;
+
+    /** The number of the page. */
+    private final int PAGE;
+
+    /** The number of pages of the query. */
+    private final int PAGE_COUNT;
+
+    /** The number of messages matching the query. */
+    private final int TOTAL;
+
+    /**
+     * @param records   the messages of the page.
+     * @param page      the number of the page.
+     * @param pageCount the number of pages of the query.
+     * @param total     the number of messages matching the query.
+     */
+    public HistoryPage( List<MessageRecord> records, int page, int pageCount, int total )
+    {
+        RECORDS = List.copyOf( records );
+        PAGE = page;
+        PAGE_COUNT = pageCount;
+        TOTAL = total;
+    }
+
+    /**
+     * @return the messages of the page, in the order they were received.
+     */
+    public List<MessageRecord> getRecords() {
+        return RECORDS;
+    }
+
+    /**
+     * @return the number of the page.
+     */
+    public int getPage() {
+        return PAGE;
+    }
+
+    /**
+     * @return the number of pages of the query.
+     */
+    public int getPageCount() {
+        return PAGE_COUNT;
+    }
+
+    /**
+     * @return the number of messages matching the query.
+     */
+    public int getTotal() {
+        return TOTAL;
+    }
+
+    /**
+     * @return true if a page with older messages exists.
+     */
+    public boolean hasOlder() {
+        return PAGE < PAGE_COUNT;
+    }
+}
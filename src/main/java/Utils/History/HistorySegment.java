@@ -0,0 +1,175 @@
+package Utils.History;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One file of the history log, mapped in memory. Records are only appended, each one as its payload length, the time
+ * it was received and the payload. The length is written after the rest of the record, so a record interrupted by a
+ * crash is not read when the segment is opened again, the unused part of the file is zeros and a zero length ends the
+ * segment.
+ * <p>
+ * The segment is not thread-safe, it is used under the lock of its {@link HistoryStore}.
+ */
+public class HistorySegment implements Closeable
+{
+    /** The size of the record header, the payload length and the time. */
+    public static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+    /** The file of the segment. */
+    private final Path FILE;
+
+    /** The channel of the file. */
+    private final FileChannel CHANNEL;
+
+    /** The mapped file. */
+    private final MappedByteBuffer BUFFER;
+
+    /** The offsets of the records, in the order they were appended. */
+    private final List<Integer> OFFSETS;
+
+    /** The offset of the next record. */
+    private int end;
+
+    /**
+     * Opens a segment, creating the file if it does not exist, and finds its records.
+     *
+     * @param file     the file of the segment.
+     * @param capacity the size of a new segment in bytes. An existing segment keeps the size of its file.
+     * @throws IOException if the file can not be opened or mapped.
+     */
+    public HistorySegment( Path file, int capacity ) throws IOException
+    {
+        FILE = file;
+        CHANNEL = FileChannel.open( file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE );
+        try
+        {
+            long size = Math.max( CHANNEL.size(), capacity );
+            if ( size > Integer.MAX_VALUE )
+                throw new IOException( "History segment too large: " + file );
+            BUFFER = CHANNEL.map( FileChannel.MapMode.READ_WRITE, 0, size );
+        }
+        catch ( IOException e )
+        {
+            CHANNEL.close();
+            throw e;
+        }
+
+        OFFSETS = new ArrayList<>();
+        end = 0;
+        while ( end + HEADER_SIZE <= BUFFER.capacity() )
+        {
+            int length = BUFFER.getInt( end );
+            if ( length <= 0 || length > BUFFER.capacity() - end - HEADER_SIZE )
+                break;
+            OFFSETS.add( end );
+            end += HEADER_SIZE + length;
+        }
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param time    the time the record was received, in milliseconds since the epoch.
+     * @param payload the payload of the record.
+     * @return the offset of the record, or -1 if it does not fit in the segment.
+     * @throws IllegalArgumentException if the payload is empty.
+     */
+    public int append( long time, byte[] payload )
+    {
+        if ( payload.length == 0 )
+            throw new IllegalArgumentException( "A history record can not be empty." );
+        if ( payload.length > BUFFER.capacity() - end - HEADER_SIZE )
+            return -1;
+
+        int offset = end;
+        BUFFER.putLong( offset + Integer.BYTES, time );
+        BUFFER.put( offset + HEADER_SIZE, payload );
+        BUFFER.putInt( offset, payload.length );
+        OFFSETS.add( offset );
+        end += HEADER_SIZE + payload.length;
+        return offset;
+    }
+
+    /**
+     * @param offset the offset of a record.
+     * @return the time the record was received, in milliseconds since the epoch.
+     */
+    public long getTime( int offset )
+    {
+        return BUFFER.getLong( offset + Integer.BYTES );
+    }
+
+    /**
+     * @param offset the offset of a record.
+     * @return a copy of the payload of the record.
+     */
+    public byte[] getPayload( int offset )
+    {
+        byte[] payload = new byte[BUFFER.getInt( offset )];
+        BUFFER.get( offset + HEADER_SIZE, payload );
+        return payload;
+    }
+
+    /**
+     * @return the offsets of the records, in the order they were appended. The list must not be modified.
+     */
+    public List<Integer> getOffsets()
+    {
+        return OFFSETS;
+    }
+
+    /**
+     * @return the time of the last record, or {@link Long#MIN_VALUE} if the segment is empty.
+     */
+    public long getLastTime()
+    {
+        return OFFSETS.isEmpty() ? Long.MIN_VALUE : getTime( OFFSETS.get( OFFSETS.size() - 1 ) );
+    }
+
+    /**
+     * @return the file of the segment.
+     */
+    public Path getFile()
+    {
+        return FILE;
+    }
+
+    /**
+     * Writes the appended records to the file.
+     */
+    public void force()
+    {
+        BUFFER.force();
+    }
+
+    /**
+     * Writes the appended records to the file and closes it. The mapping is released by the garbage collector.
+     *
+     * @throws IOException if the file can not be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        force();
+        CHANNEL.close();
+    }
+
+    /**
+     * Closes the segment and deletes its file.
+     *
+     * @throws IOException if the file can not be deleted.
+     */
+    public void delete() throws IOException
+    {
+        CHANNEL.close();
+        Files.deleteIfExists( FILE );
+    }
+}
@@ -0,0 +1,550 @@
+package Utils.History;
+
+import Utils.Message.MessageRecord;
+import Utils.Security.Encryption.AESCipher;
+import Utils.Security.Encryption.Enums.CipherLayouts;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The message history of a client, kept on disk as an append-only log of encrypted {@link MessageRecord}s split in
+ * memory mapped {@link HistorySegment}s. The sender and the message of a record are encrypted in the
+ * {@link CipherLayouts#GCM} layout, the time it was received is kept in clear so the log is searched and aged without
+ * decrypting it.
+ * <p>
+ * The records are indexed in memory by sender and by time, the index is rebuilt from the segments when the store is
+ * opened. The times of the records never decrease, a record received while the clock went back takes the time of the
+ * previous record, so a time range is found by a binary search.
+ * <p>
+ * Whole segments are dropped when their last record is older than the retention, or when there are more segments than
+ * the maximum, oldest first. The segment being appended is never dropped.
+ * <p>
+ * The store is thread-safe.
+ */
+public class HistoryStore implements Closeable
+{
+    /** The extension of the segment files. */
+    private static final String SEGMENT_EXTENSION = ".log";
+
+    /** The size of the key of the history, an AES-128 key. */
+    private static final int KEY_SIZE = 16;
+
+    /** The size of the salt of the key derived from the passphrase. */
+    private static final int SALT_SIZE = 16;
+
+    /** The size of a key file: the salt and the history key wrapped in the {@link CipherLayouts#GCM} layout. */
+    private static final int KEY_FILE_SIZE = SALT_SIZE + AESCipher.GCM_OVERHEAD + KEY_SIZE;
+
+    /** The algorithm that derives the key wrapping the history key from the passphrase. */
+    private static final String KEY_DERIVATION = "PBKDF2WithHmacSHA256";
+
+    /** The iterations of the key derivation, they make guessing the passphrase slow. */
+    private static final int KEY_DERIVATION_ITERATIONS = 310_000;
+
+    /** The source of the keys and salts. */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /** The directory of the segments. */
+    private final Path DIRECTORY;
+
+    /** Encrypts the records. */
+    private final AESCipher CIPHER;
+
+    /** The size of a new segment in bytes. */
+    private final int SEGMENT_SIZE;
+
+    /** The maximum number of segments, 0 for no maximum. */
+    private final int MAX_SEGMENTS;
+
+    /** The time a segment is kept after its last record, in milliseconds, 0 to keep it forever. */
+    private final long RETENTION;
+
+    /** The segments by id, in the order they were created. */
+    private final TreeMap< Long, HistorySegment > SEGMENTS;
+
+    /** The index of all the records, in the order they were appended. */
+    private final List<Entry> ENTRIES;
+
+    /** The index of the records by sender, in the order they were appended. */
+    private final Map< String, List<Entry> > BY_SENDER;
+
+    /** The number of unreadable records skipped while opening the store. */
+    private int skipped;
+
+    /** The sequence number of the next record. */
+    private long sequence;
+
+    /**
+     * Opens the history in a directory, creating the directory if it does not exist, and drops the expired segments.
+     * The records that can not be decrypted with the cipher are not indexed, see {@link #getSkipped()}.
+     *
+     * @param directory   the directory of the segments.
+     * @param cipher      encrypts the records.
+     * @param segmentSize the size of a new segment in bytes.
+     * @param maxSegments the maximum number of segments, 0 for no maximum.
+     * @param retention   the time a segment is kept after its last record, in milliseconds, 0 to keep it forever.
+     * @throws IOException              if the directory or a segment can not be opened.
+     * @throws IllegalArgumentException if the segment size is not larger than a record header or a limit is negative.
+     */
+    public HistoryStore( Path directory, AESCipher cipher, int segmentSize, int maxSegments, long retention ) throws IOException
+    {
+        if ( segmentSize <= HistorySegment.HEADER_SIZE || maxSegments < 0 || retention < 0 )
+            throw new IllegalArgumentException( "Invalid history segment size or retention." );
+
+        DIRECTORY = directory;
+        CIPHER = cipher;
+        SEGMENT_SIZE = segmentSize;
+        MAX_SEGMENTS = maxSegments;
+        RETENTION = retention;
+        SEGMENTS = new TreeMap<>();
+        ENTRIES = new ArrayList<>();
+        BY_SENDER = new HashMap<>();
+
+        Files.createDirectories( directory );
+        try ( DirectoryStream<Path> files = Files.newDirectoryStream( directory, "*" + SEGMENT_EXTENSION ) )
+        {
+            for ( Path file : files )
+            {
+                String name = file.getFileName().toString();
+                try
+                {
+                    SEGMENTS.put( Long.parseLong( name.substring( 0, name.length() - SEGMENT_EXTENSION.length() ) ), null );
+                }
+                catch ( NumberFormatException ignored ) { }
+            }
+        }
+
+        try
+        {
+            for ( Map.Entry< Long, HistorySegment > entry : SEGMENTS.entrySet() )
+            {
+                HistorySegment segment = new HistorySegment( segmentFile( entry.getKey() ), SEGMENT_SIZE );
+                entry.setValue( segment );
+                for ( int offset : segment.getOffsets() )
+                    index( segment, offset );
+            }
+            compact( System.currentTimeMillis() );
+        }
+        catch ( IOException e )
+        {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Loads the key of a history from its file, or creates the file with a new random key. The file only holds the key
+     * wrapped with a key derived from the passphrase and a random salt, so reading the file and the segments is not
+     * enough to read the history. The file is only readable by its owner where the file system supports it.
+     * <p>
+     * A key file of an earlier version, holding the key in clear, is wrapped with the passphrase and replaced.
+     *
+     * @param file       the file of the key.
+     * @param passphrase the passphrase of the history.
+     * @return the cipher of the history.
+     * @throws IOException if the file can not be read or written, does not hold a key, or the passphrase is wrong.
+     */
+    public static AESCipher loadKey( Path file, char[] passphrase ) throws IOException
+    {
+        try
+        {
+            if ( !Files.exists( file ) )
+            {
+                byte[] key = new byte[KEY_SIZE];
+                RANDOM.nextBytes( key );
+                Files.createDirectories( file.toAbsolutePath().getParent() );
+                try
+                {
+                    Files.createFile( file, PosixFilePermissions.asFileAttribute( PosixFilePermissions.fromString( "rw-------" ) ) );
+                }
+                catch ( UnsupportedOperationException e )
+                {
+                    Files.createFile( file );
+                }
+                Files.write( file, wrapKey( key, passphrase ) );
+                return new AESCipher( key );
+            }
+
+            byte[] stored = Files.readAllBytes( file );
+            if ( stored.length == KEY_SIZE )
+            {
+                Files.write( file, wrapKey( stored, passphrase ) );
+                return new AESCipher( stored );
+            }
+
+            if ( stored.length != KEY_FILE_SIZE )
+                throw new IOException( "Invalid history key: " + file );
+
+            byte[] salt = Arrays.copyOf( stored, SALT_SIZE );
+            byte[] wrapped = Arrays.copyOfRange( stored, SALT_SIZE, stored.length );
+            return new AESCipher( deriveKey( passphrase, salt ).decryptAuthenticated( wrapped ) );
+        }
+        catch ( GeneralSecurityException e )
+        {
+            throw new IOException( "Wrong passphrase or invalid history key: " + file, e );
+        }
+    }
+
+    /**
+     * Wraps a history key with a key derived from the passphrase and a new salt.
+     *
+     * @param key        the history key.
+     * @param passphrase the passphrase of the history.
+     * @return the salt followed by the wrapped key.
+     * @throws GeneralSecurityException if the key can not be derived or wrapped.
+     */
+    private static byte[] wrapKey( byte[] key, char[] passphrase ) throws GeneralSecurityException
+    {
+        byte[] salt = new byte[SALT_SIZE];
+        RANDOM.nextBytes( salt );
+        byte[] wrapped = deriveKey( passphrase, salt ).encrypt( key, CipherLayouts.GCM );
+
+        byte[] stored = Arrays.copyOf( salt, SALT_SIZE + wrapped.length );
+        System.arraycopy( wrapped, 0, stored, SALT_SIZE, wrapped.length );
+        return stored;
+    }
+
+    /**
+     * Derives the key that wraps the history key.
+     *
+     * @param passphrase the passphrase of the history.
+     * @param salt       the salt of the key file.
+     * @return the cipher of the derived key.
+     * @throws GeneralSecurityException if the key can not be derived.
+     */
+    private static AESCipher deriveKey( char[] passphrase, byte[] salt ) throws GeneralSecurityException
+    {
+        PBEKeySpec spec = new PBEKeySpec( passphrase, salt, KEY_DERIVATION_ITERATIONS, KEY_SIZE * 8 );
+        try
+        {
+            return new AESCipher( SecretKeyFactory.getInstance( KEY_DERIVATION ).generateSecret( spec ).getEncoded() );
+        }
+        finally
+        {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Appends a message to the history, creating a new segment if the last one is full.
+     *
+     * @param record the message, its received time must be set.
+     * @throws IOException if the message can not be encrypted or a new segment can not be created.
+     */
+    public synchronized void append( MessageRecord record ) throws IOException
+    {
+        byte[] payload = encode( record );
+        long time = ENTRIES.isEmpty() ? record.getReceivedAt() : Math.max( record.getReceivedAt(), ENTRIES.get( ENTRIES.size() - 1 ).TIME );
+
+        HistorySegment segment = SEGMENTS.isEmpty() ? null : SEGMENTS.lastEntry().getValue();
+        int offset = segment == null ? -1 : segment.append( time, payload );
+        if ( offset < 0 )
+        {
+            long id = SEGMENTS.isEmpty() ? 0 : SEGMENTS.lastKey() + 1;
+            segment = new HistorySegment( segmentFile( id ), Math.max( SEGMENT_SIZE, HistorySegment.HEADER_SIZE + payload.length ) );
+            SEGMENTS.put( id, segment );
+            offset = segment.append( time, payload );
+            compact( System.currentTimeMillis() );
+        }
+
+        Entry entry = new Entry( segment, offset, time, sequence++ );
+        ENTRIES.add( entry );
+        BY_SENDER.computeIfAbsent( record.getSender(), sender -> new ArrayList<>() ).add( entry );
+    }
+
+    /**
+     * Finds the messages received from some senders in a time range, a page at a time.
+     *
+     * @param senders  the senders, all the senders if empty.
+     * @param from     the start of the time range, inclusive, in milliseconds since the epoch.
+     * @param to       the end of the time range, exclusive, in milliseconds since the epoch.
+     * @param page     the number of the page, the first page holds the most recent messages.
+     * @param pageSize the number of messages in a page.
+     * @return the page, with no messages if the page does not exist.
+     * @throws IOException              if a message can not be decrypted.
+     * @throws IllegalArgumentException if the page number or the page size is not positive.
+     */
+    public synchronized HistoryPage query( Collection<String> senders, long from, long to, int page, int pageSize ) throws IOException
+    {
+        if ( page <= 0 || pageSize <= 0 )
+            throw new IllegalArgumentException( "The page and the page size must be positive." );
+
+        List<Entry> entries;
+        if ( senders.isEmpty() )
+            entries = ENTRIES;
+        else if ( senders.size() == 1 )
+            entries = BY_SENDER.getOrDefault( senders.iterator().next(), List.of() );
+        else
+        {
+            entries = new ArrayList<>();
+            for ( String sender : senders )
+                entries.addAll( BY_SENDER.getOrDefault( sender, List.of() ) );
+            entries.sort( Comparator.comparingLong( entry -> entry.SEQUENCE ) );
+        }
+
+        int first = lowerBound( entries, from );
+        int last = lowerBound( entries, to );
+        int total = Math.max( 0, last - first );
+        int pageCount = ( total + pageSize - 1 ) / pageSize;
+
+        List<MessageRecord> records = new ArrayList<>();
+        int pageEnd = last - ( page - 1 ) * pageSize;
+        for ( int i = Math.max( first, pageEnd - pageSize ); i < pageEnd; i++ )
+            records.add( decode( entries.get( i ) ) );
+
+        return new HistoryPage( records, page, pageCount, total );
+    }
+
+    /**
+     * Drops the segments whose last record is older than the retention, and the oldest segments over the maximum.
+     *
+     * @param now the current time, in milliseconds since the epoch.
+     * @return the number of dropped segments.
+     */
+    public synchronized int compact( long now )
+    {
+        int dropped = 0;
+        while ( SEGMENTS.size() > 1 )
+        {
+            HistorySegment oldest = SEGMENTS.firstEntry().getValue();
+            boolean expired = RETENTION > 0 && oldest.getLastTime() < now - RETENTION;
+            boolean overflow = MAX_SEGMENTS > 0 && SEGMENTS.size() > MAX_SEGMENTS;
+            if ( !expired && !overflow )
+                break;
+
+            SEGMENTS.pollFirstEntry();
+            drop( oldest );
+            dropped++;
+        }
+        return dropped;
+    }
+
+    /**
+     * @return the number of messages in the history.
+     */
+    public synchronized int size()
+    {
+        return ENTRIES.size();
+    }
+
+    /**
+     * @return the number of segments of the history.
+     */
+    public synchronized int getSegmentCount()
+    {
+        return SEGMENTS.size();
+    }
+
+    /**
+     * @return the number of records that could not be decrypted when the store was opened.
+     */
+    public synchronized int getSkipped()
+    {
+        return skipped;
+    }
+
+    /**
+     * Writes the segments to disk and closes them.
+     *
+     * @throws IOException if a segment can not be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        IOException error = null;
+        for ( HistorySegment segment : SEGMENTS.values() )
+        {
+            try
+            {
+                if ( segment != null )
+                    segment.close();
+            }
+            catch ( IOException e )
+            {
+                error = e;
+            }
+        }
+        SEGMENTS.clear();
+        if ( error != null )
+            throw error;
+    }
+
+    /**
+     * Removes the records of a dropped segment from the index and deletes its file.
+     *
+     * @param segment the dropped segment, the oldest one.
+     */
+    private void drop( HistorySegment segment )
+    {
+        int count = 0;
+        while ( count < ENTRIES.size() && ENTRIES.get( count ).SEGMENT == segment )
+            count++;
+        ENTRIES.subList( 0, count ).clear();
+        BY_SENDER.values().removeIf( entries -> {
+            entries.removeIf( entry -> entry.SEGMENT == segment );
+            return entries.isEmpty();
+        });
+
+        try
+        {
+            segment.delete();
+        }
+        catch ( IOException ignored )
+        {
+            // a file still mapped can not be deleted on some platforms, it is dropped again when the history is opened
+        }
+    }
+
+    /**
+     * Indexes a record read from a segment, the unreadable records are skipped.
+     *
+     * @param segment the segment of the record.
+     * @param offset  the offset of the record.
+     */
+    private void index( HistorySegment segment, int offset )
+    {
+        Entry entry = new Entry( segment, offset, segment.getTime( offset ), sequence );
+        try
+        {
+            String sender = decode( entry ).getSender();
+            ENTRIES.add( entry );
+            BY_SENDER.computeIfAbsent( sender, key -> new ArrayList<>() ).add( entry );
+            sequence++;
+        }
+        catch ( IOException e )
+        {
+            skipped++;
+        }
+    }
+
+    /**
+     * Encrypts the sender and the message of a record.
+     *
+     * @param record the record.
+     * @return the payload of the record.
+     * @throws IOException if the record can not be encrypted.
+     */
+    private byte[] encode( MessageRecord record ) throws IOException
+    {
+        byte[] sender = record.getSender().getBytes( StandardCharsets.UTF_8 );
+        byte[] message = record.getMessage().getBytes( StandardCharsets.UTF_8 );
+        ByteBuffer plain = ByteBuffer.allocate( Integer.BYTES + sender.length + message.length );
+        plain.putInt( sender.length ).put( sender ).put( message );
+        try
+        {
+            return CIPHER.encrypt( plain.array(), CipherLayouts.GCM );
+        }
+        catch ( GeneralSecurityException e )
+        {
+            throw new IOException( "Could not encrypt history record: " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Decrypts a record.
+     *
+     * @param entry the index entry of the record.
+     * @return the record.
+     * @throws IOException if the record can not be decrypted.
+     */
+    private MessageRecord decode( Entry entry ) throws IOException
+    {
+        try
+        {
+            ByteBuffer plain = ByteBuffer.wrap( CIPHER.decryptAuthenticated( entry.SEGMENT.getPayload( entry.OFFSET ) ) );
+            int senderLength = plain.getInt();
+            if ( senderLength < 0 || senderLength > plain.remaining() )
+                throw new IOException( "Invalid history record." );
+
+            String sender = new String( plain.array(), plain.position(), senderLength, StandardCharsets.UTF_8 );
+            String message = new String( plain.array(), plain.position() + senderLength, plain.remaining() - senderLength, StandardCharsets.UTF_8 );
+            return new MessageRecord( sender, message, entry.TIME );
+        }
+        catch ( GeneralSecurityException | RuntimeException e )
+        {
+            throw new IOException( "Could not decrypt history record: " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * @param id the id of a segment.
+     * @return the file of the segment.
+     */
+    private Path segmentFile( long id )
+    {
+        return DIRECTORY.resolve( String.format( "%020d%s", id, SEGMENT_EXTENSION ) );
+    }
+
+    /**
+     * Finds the first entry received at or after a time.
+     *
+     * @param entries the entries, by received time.
+     * @param time    the time.
+     * @return the index of the first entry received at or after the time, the size of the list if none.
+     */
+    private static int lowerBound( List<Entry> entries, long time )
+    {
+        int low = 0;
+        int high = entries.size();
+        while ( low < high )
+        {
+            int middle = ( low + high ) >>> 1;
+            if ( entries.get( middle ).TIME < time )
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * The index entry of a record.
+     */
+    private static class Entry
+    {
+        /** The segment of the record. */
+        private final HistorySegment SEGMENT;
+
+        /** The offset of the record in the segment. */
+        private final int OFFSET;
+
+        /** The time the record was received. */
+        private final long TIME;
+
+        /** The position of the record in the history, the records of several senders are merged by it. */
+        private final long SEQUENCE;
+
+        /**
+         * @param segment  the segment of the record.
+         * @param offset   the offset of the record in the segment.
+         * @param time     the time the record was received.
+         * @param sequence the position of the record in the history.
+         */
+        private Entry( HistorySegment segment, int offset, long time, long sequence )
+        {
+            SEGMENT = segment;
+            OFFSET = offset;
+            TIME = time;
+            SEQUENCE = sequence;
+        }
+    }
+}
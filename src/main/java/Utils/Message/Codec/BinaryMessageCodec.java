@@ -0,0 +1,52 @@
+package Utils.Message.Codec;
+
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Message.Contents.Interfaces.MessageContent;
+import Utils.Message.Message;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+
+/**
+ * Codec that writes the message as its {@link RoutingHeader} followed by its content, with the content encoded by the
+ * {@link ContentRegistry}. No class descriptors are sent and no reflection is used to decode the known contents.
+ */
+public class BinaryMessageCodec implements MessageCodec
+{
+    @Override
+    public CodecTypes getType()
+    {
+        return CodecTypes.BINARY;
+    }
+
+    @Override
+    public void encode( Message message, OutputStream output ) throws IOException
+    {
+        DataOutputStream dataOutputStream = new DataOutputStream( output );
+        RoutingHeader.of( message ).write( dataOutputStream );
+        ContentRegistry.writeContent( message.getContent(), dataOutputStream );
+        dataOutputStream.flush();
+    }
+
+    @Override
+    public Message decode( byte[] payload, int offset, int length ) throws IOException, ClassNotFoundException
+    {
+        DataInputStream input = new DataInputStream( new ByteArrayInputStream( payload, offset, length ) );
+        RoutingHeader header = RoutingHeader.read( input );
+        MessageContent content = ContentRegistry.readContent( input );
+        if ( input.available() != 0 )
+            throw new IOException( "Unexpected bytes after the message content." );
+
+        return new Message( header.getSender(), header.getRecipient(), content );
+    }
+
+    @Override
+    public Optional<RoutingHeader> readRoutingHeader( byte[] payload, int offset, int length ) throws IOException
+    {
+        return Optional.of( RoutingHeader.read( payload, offset, length ) );
+    }
+}
@@ -0,0 +1,35 @@
+package Utils.Message.Codec;
+
+import Utils.Message.Contents.Interfaces.MessageContent;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The ContentCodec interface represents the binary encoding of the fields of one {@link MessageContent} class.
+ * The content tag is written by the {@link ContentRegistry}, the codec only writes and reads the fields.
+ *
+ * @param <T> the class of the content.
+ */
+public interface ContentCodec< T extends MessageContent >
+{
+    /**
+     * Writes the fields of the content.
+     *
+     * @param content the content to write.
+     * @param output  the output to write to.
+     * @throws IOException if the content could not be written.
+     */
+    void write( T content, DataOutputStream output ) throws IOException;
+
+    /**
+     * Reads the fields of a content and restores it.
+     *
+     * @param input the input to read from.
+     * @return the restored content.
+     * @throws IOException            if the bytes are not a valid content.
+     * @throws ClassNotFoundException if the class of a serialized object is not known.
+     */
+    T read( DataInputStream input ) throws IOException, ClassNotFoundException;
+}
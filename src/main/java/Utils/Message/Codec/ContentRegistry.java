@@ -0,0 +1,688 @@
+package Utils.Message.Codec;
+
+import Networks.User;
+import Utils.Certificate.CertificateReference;
+import Utils.Message.Contents.*;
+import Utils.Message.Contents.Interfaces.MessageContent;
+import Utils.Message.EnumTypes.*;
+import Utils.Presence.Enums.PresenceEvents;
+import Utils.Presence.PresenceDelta;
+import Utils.Security.Encryption.Enums.CipherLayouts;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The type-tag registry of the binary codec.
+ * Each content class has a tag followed by its fields, and each subtype is written as the ordinal of its
+ * {@link ContentTypes} followed by its position in the subtypes of that type.
+ * A content class without a registered codec is written with the {@link #SERIALIZED_TAG} and Java serialization.
+ */
+public class ContentRegistry
+{
+    /** The tag of a content written with Java serialization. */
+    public static final byte SERIALIZED_TAG = 0;
+
+    /** The wire value of a key change without cipher layout. */
+    private static final int NO_CIPHER_LAYOUT = 0xFF;
+
+    /** The subtypes of each content type, the position in the array is the subtype wire value. */
+    private static final Map< ContentTypes, ContentSubtype[] > SUBTYPES = new EnumMap<>( ContentTypes.class );
+
+    /** The registered codecs by tag. */
+    private static final Map< Byte, ContentCodec<?> > CODECS_BY_TAG = new HashMap<>();
+
+    /** The registered tags by content class. */
+    private static final Map< Class<?>, Byte > TAGS_BY_CLASS = new HashMap<>();
+
+    static
+    {
+        SUBTYPES.put( ContentTypes.ERROR, new ContentSubtype[0] );
+        SUBTYPES.put( ContentTypes.ACCOUNT, AccountMessageTypes.values() );
+        SUBTYPES.put( ContentTypes.CA_COMMUNICATION, CACommunicationTypes.values() );
+        SUBTYPES.put( ContentTypes.DIFFIE_HELLMAN, DiffieHellmanTypes.values() );
+        SUBTYPES.put( ContentTypes.COMMUNICATION, CommunicationTypes.values() );
+
+        register( (byte) 1, TypeContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( TypeContent content, DataOutputStream output ) throws IOException
+            {
+                writeSubtype( content.getSubType(), output );
+            }
+
+            @Override
+            public TypeContent read( DataInputStream input ) throws IOException
+            {
+                return new TypeContent( readSubtype( input ) );
+            }
+        });
+
+        register( (byte) 2, IntegrityContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( IntegrityContent content, DataOutputStream output ) throws IOException
+            {
+                writeSubtype( content.getSubType(), output );
+                WireFields.writeString( content.getStringMessage(), output );
+                WireFields.writeBytes( content.getMAC(), output );
+            }
+
+            @Override
+            public IntegrityContent read( DataInputStream input ) throws IOException
+            {
+                ContentSubtype type = readSubtype( input );
+                return new IntegrityContent( WireFields.readString( input ), type, WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 3, PublicKeyContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( PublicKeyContent content, DataOutputStream output ) throws IOException
+            {
+                WireFields.writeString( content.getPublicKey().getAlgorithm(), output );
+                WireFields.writeBytes( content.getPublicKey().getEncoded(), output );
+                WireFields.writeBytes( content.getMAC(), output );
+            }
+
+            @Override
+            public PublicKeyContent read( DataInputStream input ) throws IOException
+            {
+                PublicKey publicKey = readPublicKey( WireFields.readString( input ), WireFields.readBytes( input ) );
+                return new PublicKeyContent( publicKey, WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 4, ErrorContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( ErrorContent content, DataOutputStream output ) throws IOException
+            {
+                writeContent( content.getErrorContent(), output );
+                WireFields.writeString( content.getStringMessage(), output );
+            }
+
+            @Override
+            public ErrorContent read( DataInputStream input ) throws IOException, ClassNotFoundException
+            {
+                MessageContent errorContent = readContent( input );
+                return new ErrorContent( errorContent, WireFields.readString( input ) );
+            }
+        });
+
+        register( (byte) 5, RegisterContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( RegisterContent content, DataOutputStream output ) throws IOException
+            {
+                WireFields.writeString( content.getStringMessage(), output );
+                WireFields.writeBytes( content.getDigest(), output );
+            }
+
+            @Override
+            public RegisterContent read( DataInputStream input ) throws IOException
+            {
+                return new RegisterContent( WireFields.readString( input ), WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 6, LogInContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( LogInContent content, DataOutputStream output ) throws IOException
+            {
+                WireFields.writeString( content.getCertificate(), output );
+                WireFields.writeString( content.getUSERNAME(), output );
+                WireFields.writeBytes( content.getDigest(), output );
+            }
+
+            @Override
+            public LogInContent read( DataInputStream input ) throws IOException
+            {
+                return new LogInContent( WireFields.readString( input ), WireFields.readString( input ), WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 7, LogInRenovateContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( LogInRenovateContent content, DataOutputStream output ) throws IOException
+            {
+                WireFields.writeString( content.getCertificate(), output );
+                WireFields.writeString( content.getUSERNAME(), output );
+                WireFields.writeBytes( content.getDigest(), output );
+            }
+
+            @Override
+            public LogInRenovateContent read( DataInputStream input ) throws IOException
+            {
+                return new LogInRenovateContent( WireFields.readString( input ), WireFields.readString( input ), WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 8, CertificateState.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( CertificateState content, DataOutputStream output ) throws IOException
+            {
+                output.writeInt( content.getSerialNumber() );
+                output.writeBoolean( content.isValid() );
+                WireFields.writeBytes( content.getDigest(), output );
+            }
+
+            @Override
+            public CertificateState read( DataInputStream input ) throws IOException
+            {
+                int serialNumber = input.readInt();
+                boolean isValid = input.readBoolean();
+                return new CertificateState( isValid, serialNumber, WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 9, CertificateStateInvalid.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( CertificateStateInvalid content, DataOutputStream output ) throws IOException
+            {
+                output.writeInt( content.getSerialNumber() );
+                WireFields.writeBytes( content.getDigest(), output );
+            }
+
+            @Override
+            public CertificateStateInvalid read( DataInputStream input ) throws IOException
+            {
+                return new CertificateStateInvalid( input.readInt(), WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 10, LogOutContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( LogOutContent content, DataOutputStream output ) throws IOException
+            {
+                WireFields.writeString( content.getStringMessage(), output );
+                WireFields.writeBytes( content.getDigest(), output );
+            }
+
+            @Override
+            public LogOutContent read( DataInputStream input ) throws IOException
+            {
+                return new LogOutContent( WireFields.readString( input ), WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 11, DiffieHellmanKeyChangeContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( DiffieHellmanKeyChangeContent content, DataOutputStream output ) throws IOException
+            {
+                WireFields.writeBytes( content.getByteMessage(), output );
+                output.writeByte( content.getCipherLayout() == null ? NO_CIPHER_LAYOUT : content.getCipherLayout().ordinal() );
+                WireFields.writeBytes( content.getDigest(), output );
+            }
+
+            @Override
+            public DiffieHellmanKeyChangeContent read( DataInputStream input ) throws IOException
+            {
+                byte[] publicKey = WireFields.readBytes( input );
+                int layoutOrdinal = input.readUnsignedByte();
+                CipherLayouts[] layouts = CipherLayouts.values();
+                if ( layoutOrdinal != NO_CIPHER_LAYOUT && layoutOrdinal >= layouts.length )
+                    throw new IOException( "Unknown cipher layout: " + layoutOrdinal );
+
+                CipherLayouts layout = layoutOrdinal == NO_CIPHER_LAYOUT ? null : layouts[layoutOrdinal];
+                return new DiffieHellmanKeyChangeContent( publicKey, layout, WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 12, AllLoggedInContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( AllLoggedInContent content, DataOutputStream output ) throws IOException
+            {
+                output.writeInt( content.getUsers().size() );
+                for ( User user : content.getUsers() )
+                {
+                    WireFields.writeString( user.getUsername(), output );
+                    WireFields.writeString( user.getCertificate(), output );
+                }
+                WireFields.writeBytes( content.getDigest(), output );
+            }
+
+            @Override
+            public AllLoggedInContent read( DataInputStream input ) throws IOException
+            {
+                int count = input.readInt();
+                if ( count < 0 || count > input.available() )
+                    throw new IOException( "Invalid number of users: " + count );
+
+                ArrayList<User> users = new ArrayList<>( count );
+                for ( int i = 0; i < count; i++ )
+                {
+                    User user = new User( WireFields.readString( input ) );
+                    user.setCertificate( WireFields.readString( input ) );
+                    users.add( user );
+                }
+                return new AllLoggedInContent( users, WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 13, MessageCommunicationContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( MessageCommunicationContent content, DataOutputStream output ) throws IOException
+            {
+                writeSubtype( content.getSubType(), output );
+                WireFields.writeBytes( content.getByteMessage(), output );
+                WireFields.writeBytes( content.getDigest(), output );
+            }
+
+            @Override
+            public MessageCommunicationContent read( DataInputStream input ) throws IOException
+            {
+                ContentSubtype type = readSubtype( input );
+                if ( !( type instanceof CommunicationTypes ) )
+                    throw new IOException( "Invalid communication subtype: " + type );
+
+                return new MessageCommunicationContent( (CommunicationTypes) type, WireFields.readBytes( input ), WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 14, PresenceContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( PresenceContent content, DataOutputStream output ) throws IOException
+            {
+                writeSubtype( content.getSubType(), output );
+                output.writeLong( content.getVersion() );
+                output.writeBoolean( content.isLast() );
+                output.writeInt( content.getDeltas().size() );
+                for ( PresenceDelta delta : content.getDeltas() )
+                {
+                    output.writeByte( delta.getEvent().ordinal() );
+                    WireFields.writeString( delta.getUsername(), output );
+                    writeCertificateReference( delta.getCertificate(), output );
+                    output.writeLong( delta.getVersion() );
+                }
+                WireFields.writeBytes( content.getDigest(), output );
+            }
+
+            @Override
+            public PresenceContent read( DataInputStream input ) throws IOException
+            {
+                ContentSubtype type = readSubtype( input );
+                if ( type != AccountMessageTypes.PRESENCE_SNAPSHOT && type != AccountMessageTypes.PRESENCE_DELTA && type != AccountMessageTypes.PRESENCE_RESUME )
+                    throw new IOException( "Invalid presence subtype: " + type );
+
+                long version = input.readLong();
+                boolean last = input.readBoolean();
+                int count = input.readInt();
+                if ( count < 0 || count > input.available() )
+                    throw new IOException( "Invalid number of presence deltas: " + count );
+
+                PresenceEvents[] events = PresenceEvents.values();
+                ArrayList<PresenceDelta> deltas = new ArrayList<>( count );
+                for ( int i = 0; i < count; i++ )
+                {
+                    int event = input.readUnsignedByte();
+                    if ( event >= events.length )
+                        throw new IOException( "Unknown presence event: " + event );
+
+                    String username = WireFields.readString( input );
+                    if ( username == null )
+                        throw new IOException( "Presence delta without username." );
+
+                    deltas.add( new PresenceDelta( events[event], username, readCertificateReference( input ), input.readLong() ) );
+                }
+                return new PresenceContent( (AccountMessageTypes) type, version, last, deltas, WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 15, CertificateContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( CertificateContent content, DataOutputStream output ) throws IOException
+            {
+                writeSubtype( content.getSubType(), output );
+                WireFields.writeString( content.getFingerprint(), output );
+                WireFields.writeString( content.getCertificate(), output );
+                WireFields.writeBytes( content.getDigest(), output );
+            }
+
+            @Override
+            public CertificateContent read( DataInputStream input ) throws IOException
+            {
+                ContentSubtype type = readSubtype( input );
+                if ( type != AccountMessageTypes.CERTIFICATE_FETCH && type != AccountMessageTypes.CERTIFICATE )
+                    throw new IOException( "Invalid certificate subtype: " + type );
+
+                String fingerprint = WireFields.readString( input );
+                if ( fingerprint == null )
+                    throw new IOException( "Certificate content without fingerprint." );
+
+                return new CertificateContent( (AccountMessageTypes) type, fingerprint, WireFields.readString( input ), WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 16, CertificateStatesContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( CertificateStatesContent content, DataOutputStream output ) throws IOException
+            {
+                int[] serialNumbers = content.getSerialNumbers();
+                output.writeInt( serialNumbers.length );
+                for ( int serialNumber : serialNumbers )
+                    output.writeInt( serialNumber );
+                WireFields.writeBytes( content.getStates(), output );
+                WireFields.writeBytes( content.getMAC(), output );
+            }
+
+            @Override
+            public CertificateStatesContent read( DataInputStream input ) throws IOException
+            {
+                int count = input.readInt();
+                if ( count < 0 || count > input.available() / Integer.BYTES )
+                    throw new IOException( "Invalid number of serial numbers: " + count );
+
+                int[] serialNumbers = new int[count];
+                for ( int i = 0; i < count; i++ )
+                    serialNumbers[i] = input.readInt();
+
+                byte[] states = WireFields.readBytes( input );
+                if ( states != null && states.length != ( count + 7 ) / 8 )
+                    throw new IOException( "Invalid certificate states bitmap length: " + states.length );
+
+                return new CertificateStatesContent( serialNumbers, states, WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 17, RevocationContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( RevocationContent content, DataOutputStream output ) throws IOException
+            {
+                writeSubtype( content.getSubType(), output );
+                output.writeLong( content.getVersion() );
+                WireFields.writeBytes( content.getRevoked().toByteArray(), output );
+                WireFields.writeBytes( content.getSignature(), output );
+            }
+
+            @Override
+            public RevocationContent read( DataInputStream input ) throws IOException
+            {
+                ContentSubtype type = readSubtype( input );
+                if ( type != CACommunicationTypes.REVOCATION_SUBSCRIBE && type != CACommunicationTypes.REVOCATION_LIST && type != CACommunicationTypes.REVOCATION_EVENT )
+                    throw new IOException( "Invalid revocation subtype: " + type );
+
+                long version = input.readLong();
+                byte[] revoked = WireFields.readBytes( input );
+                if ( revoked == null )
+                    throw new IOException( "Revocation content without bitmap." );
+
+                return new RevocationContent( (CACommunicationTypes) type, version, revoked, WireFields.readBytes( input ) );
+            }
+        });
+
+        register( (byte) 18, MulticastContent.class, new ContentCodec<>()
+        {
+            @Override
+            public void write( MulticastContent content, DataOutputStream output ) throws IOException
+            {
+                output.writeInt( content.size() );
+                for ( int i = 0; i < content.size(); i++ )
+                {
+                    WireFields.writeString( content.getRecipient( i ), output );
+                    WireFields.writeBytes( content.getKey( i ), output );
+                }
+                WireFields.writeBytes( content.getByteMessage(), output );
+            }
+
+            @Override
+            public MulticastContent read( DataInputStream input ) throws IOException
+            {
+                int count = input.readInt();
+                if ( count <= 0 || count > input.available() )
+                    throw new IOException( "Invalid number of recipients: " + count );
+
+                String[] recipients = new String[count];
+                byte[][] keys = new byte[count][];
+                for ( int i = 0; i < count; i++ )
+                {
+                    recipients[i] = WireFields.readString( input );
+                    keys[i] = WireFields.readBytes( input );
+                    if ( recipients[i] == null || keys[i] == null )
+                        throw new IOException( "Multicast recipient without username or key." );
+                }
+
+                byte[] body = WireFields.readBytes( input );
+                if ( body == null )
+                    throw new IOException( "Multicast without body." );
+
+                return new MulticastContent( recipients, keys, body );
+            }
+        });
+    }
+
+    private ContentRegistry(){}
+
+    /**
+     * Registers the codec of a content class.
+     *
+     * @param tag          the tag written before the fields of the content.
+     * @param contentClass the content class, subclasses must be registered on their own.
+     * @param codec        the codec of the content fields.
+     * @param <T>          the class of the content.
+     */
+    public static synchronized < T extends MessageContent > void register( byte tag, Class<T> contentClass, ContentCodec<T> codec )
+    {
+        if ( tag == SERIALIZED_TAG || CODECS_BY_TAG.containsKey( tag ) )
+            throw new IllegalArgumentException( "The tag " + tag + " is already in use." );
+
+        CODECS_BY_TAG.put( tag, codec );
+        TAGS_BY_CLASS.put( contentClass, tag );
+    }
+
+    /**
+     * Writes the content tag and fields.
+     *
+     * @param content the content to write.
+     * @param output  the output to write to.
+     * @throws IOException if the content could not be written.
+     */
+    @SuppressWarnings("unchecked")
+    public static void writeContent( MessageContent content, DataOutputStream output ) throws IOException
+    {
+        Byte tag = TAGS_BY_CLASS.get( content.getClass() );
+        if ( tag == null )
+        {
+            output.writeByte( SERIALIZED_TAG );
+            WireFields.writeBytes( serialize( content ), output );
+            return;
+        }
+
+        output.writeByte( tag );
+        ( (ContentCodec<MessageContent>) CODECS_BY_TAG.get( tag ) ).write( content, output );
+    }
+
+    /**
+     * Reads a content written by {@link #writeContent(MessageContent, DataOutputStream)}.
+     *
+     * @param input the input to read from.
+     * @return the read content.
+     * @throws IOException            if the tag is not known or the fields are not valid.
+     * @throws ClassNotFoundException if the class of a serialized content is not known.
+     */
+    public static MessageContent readContent( DataInputStream input ) throws IOException, ClassNotFoundException
+    {
+        byte tag = input.readByte();
+        if ( tag == SERIALIZED_TAG )
+            return deserialize( WireFields.readBytes( input ) );
+
+        ContentCodec<?> codec = CODECS_BY_TAG.get( tag );
+        if ( codec == null )
+            throw new IOException( "Unknown content tag: " + tag );
+
+        return codec.read( input );
+    }
+
+    /**
+     * Writes the subtype as its content type ordinal followed by its position in the subtypes of that type.
+     *
+     * @param subtype the subtype to write.
+     * @param output  the output to write to.
+     * @throws IOException if the subtype is not registered or could not be written.
+     */
+    public static void writeSubtype( ContentSubtype subtype, DataOutputStream output ) throws IOException
+    {
+        ContentSubtype[] subtypes = SUBTYPES.get( subtype.getSuperType() );
+        for ( int i = 0; i < subtypes.length; i++ )
+        {
+            if ( subtypes[i] == subtype )
+            {
+                output.writeByte( subtype.getSuperType().ordinal() );
+                output.writeByte( i );
+                return;
+            }
+        }
+        throw new IOException( "Unknown content subtype: " + subtype );
+    }
+
+    /**
+     * Reads a subtype written by {@link #writeSubtype(ContentSubtype, DataOutputStream)}.
+     *
+     * @param input the input to read from.
+     * @return the read subtype.
+     * @throws IOException if the subtype is not known.
+     */
+    public static ContentSubtype readSubtype( DataInputStream input ) throws IOException
+    {
+        return subtypeOf( input.readUnsignedByte(), input.readUnsignedByte() );
+    }
+
+    /**
+     * Gets the subtype written as the given content type ordinal and position.
+     *
+     * @param typeOrdinal  the ordinal of the content type of the subtype.
+     * @param subtypeIndex the position of the subtype in the subtypes of that type.
+     * @return the subtype.
+     * @throws IOException if the subtype is not known.
+     */
+    static ContentSubtype subtypeOf( int typeOrdinal, int subtypeIndex ) throws IOException
+    {
+        ContentTypes[] types = ContentTypes.values();
+        if ( typeOrdinal >= types.length || subtypeIndex >= SUBTYPES.get( types[typeOrdinal] ).length )
+            throw new IOException( "Unknown content subtype: " + typeOrdinal + "/" + subtypeIndex );
+
+        return SUBTYPES.get( types[typeOrdinal] )[subtypeIndex];
+    }
+
+    /**
+     * Restores an encoded public key.
+     *
+     * @param algorithm the key algorithm.
+     * @param encoded   the X.509 encoded key.
+     * @return the public key.
+     * @throws IOException if the key is not valid.
+     */
+    private static PublicKey readPublicKey( String algorithm, byte[] encoded ) throws IOException
+    {
+        if ( algorithm == null || encoded == null )
+            throw new IOException( "Missing public key." );
+
+        try
+        {
+            return KeyFactory.getInstance( algorithm ).generatePublic( new X509EncodedKeySpec( encoded ) );
+        }
+        catch ( NoSuchAlgorithmException | InvalidKeySpecException e )
+        {
+            throw new IOException( "Invalid public key: " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Writes a certificate reference as its fingerprint followed by its serial number, or a null fingerprint.
+     *
+     * @param reference the certificate reference, or null.
+     * @param output    the output to write to.
+     * @throws IOException if the reference could not be written.
+     */
+    private static void writeCertificateReference( CertificateReference reference, DataOutputStream output ) throws IOException
+    {
+        if ( reference == null )
+        {
+            WireFields.writeString( null, output );
+            return;
+        }
+
+        WireFields.writeString( reference.getFingerprint(), output );
+        output.writeInt( reference.getSerialNumber() );
+    }
+
+    /**
+     * Reads a certificate reference written by {@link #writeCertificateReference(CertificateReference, DataOutputStream)}.
+     *
+     * @param input the input to read from.
+     * @return the certificate reference, or null.
+     * @throws IOException if the reference could not be read.
+     */
+    private static CertificateReference readCertificateReference( DataInputStream input ) throws IOException
+    {
+        String fingerprint = WireFields.readString( input );
+        return fingerprint == null ? null : new CertificateReference( fingerprint, input.readInt() );
+    }
+
+    /**
+     * Serializes a content without a registered codec.
+     *
+     * @param content the content.
+     * @return the serialized content.
+     * @throws IOException if the content is not serializable.
+     */
+    private static byte[] serialize( MessageContent content ) throws IOException
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try ( ObjectOutputStream objectOutputStream = new ObjectOutputStream( outputStream ) )
+        {
+            objectOutputStream.writeObject( content );
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Deserializes a content without a registered codec.
+     *
+     * @param bytes the serialized content.
+     * @return the content.
+     * @throws IOException            if the bytes are not a serialized content.
+     * @throws ClassNotFoundException if the class of the content is not known.
+     */
+    private static MessageContent deserialize( byte[] bytes ) throws IOException, ClassNotFoundException
+    {
+        if ( bytes == null )
+            throw new IOException( "Missing serialized content." );
+
+        try ( ObjectInputStream objectInputStream = new ObjectInputStream( new ByteArrayInputStream( bytes ) ) )
+        {
+            Object object = objectInputStream.readObject();
+            if ( !( object instanceof MessageContent ) )
+                throw new IOException( "Serialized object is not a message content." );
+
+            return (MessageContent) object;
+        }
+    }
+}
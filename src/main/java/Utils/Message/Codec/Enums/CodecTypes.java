@@ -0,0 +1,41 @@
+package Utils.Message.Codec.Enums;
+
+/**
+ * Represents the encodings of a message on the wire. Each codec has the id used to negotiate it when connecting.
+ *
+ * - {@code JAVA}: The message is written with Java serialization.
+ * - {@code BINARY}: The message is written with the compact binary format of {@link Utils.Message.Codec.BinaryMessageCodec}.
+ */
+public enum CodecTypes {
+    JAVA((byte) 1),
+    BINARY((byte) 2);
+
+    private final byte ID;
+
+    CodecTypes(byte id) {
+        ID = id;
+    }
+
+    /**
+     * Gets the id of the codec used in the negotiation.
+     *
+     * @return the codec id
+     */
+    public byte getId() {
+        return ID;
+    }
+
+    /**
+     * Gets the codec with the given id.
+     *
+     * @param id the codec id
+     * @return the codec, or null if the id is not known
+     */
+    public static CodecTypes fromId(byte id) {
+        for (CodecTypes type : values()) {
+            if (type.ID == id)
+                return type;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,43 @@
+package Utils.Message.Codec;
+
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Message.Message;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Codec that writes the message with its own Java serialization stream.
+ */
+public class JavaSerializationCodec implements MessageCodec
+{
+    @Override
+    public CodecTypes getType()
+    {
+        return CodecTypes.JAVA;
+    }
+
+    @Override
+    public void encode( Message message, OutputStream output ) throws IOException
+    {
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream( output );
+        objectOutputStream.writeObject( message );
+        objectOutputStream.flush();
+    }
+
+    @Override
+    public Message decode( byte[] payload, int offset, int length ) throws IOException, ClassNotFoundException
+    {
+        try ( ObjectInputStream objectInputStream = new ObjectInputStream( new ByteArrayInputStream( payload, offset, length ) ) )
+        {
+            Object object = objectInputStream.readObject();
+            if ( !( object instanceof Message ) )
+                throw new IOException( "Received bytes do not contain a message." );
+
+            return (Message) object;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package Utils.Message.Codec;
+
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Message.Message;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+
+/**
+ * The MessageCodec interface represents an encoding of {@link Message} objects to bytes.
+ * A codec is stateless, every encoded message can be decoded on its own.
+ */
+public interface MessageCodec
+{
+    /**
+     * Returns the type of the codec.
+     *
+     * @return the codec type.
+     */
+    CodecTypes getType();
+
+    /**
+     * Writes the encoded message to the output.
+     *
+     * @param message the message to encode.
+     * @param output  the output to write to.
+     * @throws IOException if the message could not be encoded.
+     */
+    void encode( Message message, OutputStream output ) throws IOException;
+
+    /**
+     * Decodes a message.
+     *
+     * @param payload the array containing the encoded message.
+     * @param offset  the position of the first byte of the encoded message.
+     * @param length  the length of the encoded message.
+     * @return the decoded message.
+     * @throws IOException            if the bytes are not a valid encoded message.
+     * @throws ClassNotFoundException if the class of a serialized object is not known.
+     */
+    Message decode( byte[] payload, int offset, int length ) throws IOException, ClassNotFoundException;
+
+    /**
+     * Reads the routing header of an encoded message without decoding its content.
+     *
+     * @param payload the array containing the encoded message.
+     * @param offset  the position of the first byte of the encoded message.
+     * @param length  the length of the encoded message.
+     * @return the routing header, or empty if the codec can only read it by decoding the whole message.
+     * @throws IOException if the header is not valid.
+     */
+    default Optional<RoutingHeader> readRoutingHeader( byte[] payload, int offset, int length ) throws IOException
+    {
+        return Optional.empty();
+    }
+}
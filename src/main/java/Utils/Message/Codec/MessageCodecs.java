@@ -0,0 +1,30 @@
+package Utils.Message.Codec;
+
+import Utils.Message.Codec.Enums.CodecTypes;
+
+/**
+ * Provides the shared instance of each codec.
+ */
+public class MessageCodecs
+{
+    private static final MessageCodec JAVA = new JavaSerializationCodec();
+
+    private static final MessageCodec BINARY = new BinaryMessageCodec();
+
+    private MessageCodecs(){}
+
+    /**
+     * Gets the codec of the given type.
+     *
+     * @param type the codec type.
+     * @return the codec.
+     */
+    public static MessageCodec get( CodecTypes type )
+    {
+        return switch ( type )
+        {
+            case JAVA -> JAVA;
+            case BINARY -> BINARY;
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package Utils.Message.Codec;
+
+import Utils.Message.EnumTypes.ContentSubtype;
+import Utils.Message.EnumTypes.ContentTypes;
+import Utils.Message.Message;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The fields needed to route a message: its sender, its recipient and the type and subtype of its content.
+ * The {@link BinaryMessageCodec} writes the header at the start of every payload, so a relay can read it without
+ * decoding the content. The type and subtype come first, at fixed positions, followed by the sender and the recipient.
+ */
+public class RoutingHeader
+{
+    /** The value written instead of a subtype when the content has none. */
+    private static final int NO_SUBTYPE = 0xFF;
+
+    /** The sender of the message. */
+    private final String SENDER;
+
+    /** The recipient of the message, blank for a broadcast. */
+    private final String RECIPIENT;
+
+    /** The type of the message content. */
+    private final ContentTypes TYPE;
+
+    /** The subtype of the message content, may be null. */
+    private final ContentSubtype SUBTYPE;
+
+    /**
+     * Creates a routing header.
+     *
+     * @param sender    the sender of the message.
+     * @param recipient the recipient of the message, blank for a broadcast.
+     * @param type      the type of the message content.
+     * @param subtype   the subtype of the message content, may be null.
+     */
+    public RoutingHeader( String sender, String recipient, ContentTypes type, ContentSubtype subtype )
+    {
+        SENDER = sender;
+        RECIPIENT = recipient;
+        TYPE = type;
+        SUBTYPE = subtype;
+    }
+
+    /**
+     * Creates the routing header of a message.
+     *
+     * @param message the message.
+     * @return the routing header of the message.
+     */
+    public static RoutingHeader of( Message message )
+    {
+        return new RoutingHeader( message.getSender(), message.getRecipient(), message.getContent().getType(), message.getContent().getSubType() );
+    }
+
+    /**
+     * Writes the header.
+     *
+     * @param output the output to write to.
+     * @throws IOException if the subtype is not registered or the header could not be written.
+     */
+    public void write( DataOutputStream output ) throws IOException
+    {
+        output.writeByte( TYPE.ordinal() );
+        if ( SUBTYPE == null )
+        {
+            output.writeByte( NO_SUBTYPE );
+            output.writeByte( NO_SUBTYPE );
+        }
+        else
+        {
+            ContentRegistry.writeSubtype( SUBTYPE, output );
+        }
+        WireFields.writeString( SENDER, output );
+        WireFields.writeString( RECIPIENT, output );
+    }
+
+    /**
+     * Reads a header written by {@link #write(DataOutputStream)}.
+     *
+     * @param input the input to read from.
+     * @return the read header.
+     * @throws IOException if the header is not valid.
+     */
+    public static RoutingHeader read( DataInputStream input ) throws IOException
+    {
+        int typeOrdinal = input.readUnsignedByte();
+        ContentTypes[] types = ContentTypes.values();
+        if ( typeOrdinal >= types.length )
+            throw new IOException( "Unknown content type: " + typeOrdinal );
+
+        int subtypeTypeOrdinal = input.readUnsignedByte();
+        int subtypeIndex = input.readUnsignedByte();
+        ContentSubtype subtype = subtypeTypeOrdinal == NO_SUBTYPE ? null : ContentRegistry.subtypeOf( subtypeTypeOrdinal, subtypeIndex );
+
+        String sender = WireFields.readString( input );
+        String recipient = WireFields.readString( input );
+        return new RoutingHeader( sender, recipient, types[typeOrdinal], subtype );
+    }
+
+    /**
+     * Reads the header at the start of a payload.
+     *
+     * @param payload the array containing the payload.
+     * @param offset  the position of the first byte of the payload.
+     * @param length  the length of the payload.
+     * @return the read header.
+     * @throws IOException if the header is not valid.
+     */
+    public static RoutingHeader read( byte[] payload, int offset, int length ) throws IOException
+    {
+        return read( new DataInputStream( new ByteArrayInputStream( payload, offset, length ) ) );
+    }
+
+    /**
+     * @return the sender of the message.
+     */
+    public String getSender()
+    {
+        return SENDER;
+    }
+
+    /**
+     * @return the recipient of the message, blank for a broadcast.
+     */
+    public String getRecipient()
+    {
+        return RECIPIENT;
+    }
+
+    /**
+     * @return the type of the message content.
+     */
+    public ContentTypes getType()
+    {
+        return TYPE;
+    }
+
+    /**
+     * @return the subtype of the message content, may be null.
+     */
+    public ContentSubtype getSubType()
+    {
+        return SUBTYPE;
+    }
+}
@@ -0,0 +1,79 @@
+package Utils.Message.Codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class implements the encoding of the field types shared by the binary content codecs.
+ * Strings and byte arrays are written with an int length prefix, a negative length represents null.
+ */
+public class WireFields
+{
+    private WireFields(){}
+
+    /**
+     * Writes a byte array that can be null.
+     *
+     * @param bytes  the bytes to write.
+     * @param output the output to write to.
+     * @throws IOException if the bytes could not be written.
+     */
+    public static void writeBytes( byte[] bytes, DataOutputStream output ) throws IOException
+    {
+        if ( bytes == null )
+        {
+            output.writeInt( -1 );
+            return;
+        }
+        output.writeInt( bytes.length );
+        output.write( bytes );
+    }
+
+    /**
+     * Reads a byte array written by {@link #writeBytes(byte[], DataOutputStream)}.
+     *
+     * @param input the input to read from, its available bytes must be the remaining bytes of the message.
+     * @return the read bytes, or null.
+     * @throws IOException if the length is bigger than the remaining bytes.
+     */
+    public static byte[] readBytes( DataInputStream input ) throws IOException
+    {
+        int length = input.readInt();
+        if ( length < 0 )
+            return null;
+
+        if ( length > input.available() )
+            throw new IOException( "Invalid field length: " + length );
+
+        byte[] bytes = new byte[length];
+        input.readFully( bytes );
+        return bytes;
+    }
+
+    /**
+     * Writes a string that can be null, encoded in UTF-8.
+     *
+     * @param string the string to write.
+     * @param output the output to write to.
+     * @throws IOException if the string could not be written.
+     */
+    public static void writeString( String string, DataOutputStream output ) throws IOException
+    {
+        writeBytes( string == null ? null : string.getBytes( StandardCharsets.UTF_8 ), output );
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(String, DataOutputStream)}.
+     *
+     * @param input the input to read from.
+     * @return the read string, or null.
+     * @throws IOException if the string could not be read.
+     */
+    public static String readString( DataInputStream input ) throws IOException
+    {
+        byte[] bytes = readBytes( input );
+        return bytes == null ? null : new String( bytes, StandardCharsets.UTF_8 );
+    }
+}
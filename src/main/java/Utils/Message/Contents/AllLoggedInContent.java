@@ -16,6 +16,12 @@ public class AllLoggedInContent implements MessageContentIntegrityHash
     private final byte[] DIGEST;
     private final ArrayList<User> USERS ;
 
+    /** The bytes of the content, computed in the first use. */
+    private transient volatile byte[] byteMessage;
+
+    /** The result of the digest verification, null until the digest is verified. */
+    private transient volatile Boolean validDigest;
+
     public AllLoggedInContent( ArrayList<User> users )
     {
         if (users == null)
@@ -26,6 +32,19 @@ public class AllLoggedInContent implements MessageContentIntegrityHash
         DIGEST = HASH.generateDigest( getByteMessage() );
     }
 
+    /**
+     * Restores a received content with its transmitted digest.
+     *
+     * @param users  the logged-in users.
+     * @param digest the transmitted digest.
+     */
+    public AllLoggedInContent( ArrayList<User> users, byte[] digest )
+    {
+        USERS = users;
+        TYPE = AccountMessageTypes.LOGGED_USERS;
+        DIGEST = digest;
+    }
+
 
     public ArrayList<User> getUsers()
     {
@@ -34,7 +53,10 @@ public class AllLoggedInContent implements MessageContentIntegrityHash
 
     @Override
     public byte[] getByteMessage() {
-        return getStringMessage().getBytes() ;
+        byte[] bytes = byteMessage;
+        if ( bytes == null )
+            byteMessage = bytes = getStringMessage().getBytes();
+        return bytes;
     }
 
     @Override
@@ -59,6 +81,9 @@ public class AllLoggedInContent implements MessageContentIntegrityHash
 
     @Override
     public boolean hasValidDigest() {
-        return HASH.verifyDigest( HASH.generateDigest( getByteMessage() ) , DIGEST );
+        Boolean valid = validDigest;
+        if ( valid == null )
+            validDigest = valid = HASH.verifyDigest( HASH.generateDigest( getByteMessage() ) , DIGEST );
+        return valid;
     }
 }
@@ -0,0 +1,111 @@
+package Utils.Message.Contents;
+
+import Utils.Message.Contents.Interfaces.MessageContentIntegrityHash;
+import Utils.Message.EnumTypes.AccountMessageTypes;
+import Utils.Message.EnumTypes.ContentSubtype;
+import Utils.Message.EnumTypes.ContentTypes;
+import Utils.Security.Integrity.HASH;
+
+/**
+ * Carries a certificate addressed by its fingerprint, by subtype:
+ * the request of a client for the certificate of a fingerprint ({@link AccountMessageTypes#CERTIFICATE_FETCH}),
+ * or the reply with the PEM encoded certificate ({@link AccountMessageTypes#CERTIFICATE}), without certificate if the
+ * server does not have it.
+ */
+public class CertificateContent implements MessageContentIntegrityHash
+{
+    private final AccountMessageTypes TYPE;
+
+    /** The fingerprint of the certificate. */
+    private final String FINGERPRINT;
+
+    /** The PEM encoded certificate, null in a request or if the certificate is not known. */
+    private final String CERTIFICATE;
+
+    private final byte[] DIGEST;
+
+    /** The bytes of the content, computed in the first use. */
+    private transient volatile byte[] byteMessage;
+
+    /** The result of the digest verification, null until the digest is verified. */
+    private transient volatile Boolean validDigest;
+
+    public CertificateContent( AccountMessageTypes type, String fingerprint, String certificate )
+    {
+        if ( type != AccountMessageTypes.CERTIFICATE_FETCH && type != AccountMessageTypes.CERTIFICATE )
+            throw new IllegalArgumentException( "Invalid certificate subtype: " + type );
+
+        TYPE = type;
+        FINGERPRINT = fingerprint;
+        CERTIFICATE = certificate;
+        DIGEST = HASH.generateDigest( getByteMessage() );
+    }
+
+    /**
+     * Restores a received content with its transmitted digest.
+     *
+     * @param type        the certificate subtype.
+     * @param fingerprint the fingerprint of the certificate.
+     * @param certificate the PEM encoded certificate, or null.
+     * @param digest      the transmitted digest.
+     */
+    public CertificateContent( AccountMessageTypes type, String fingerprint, String certificate, byte[] digest )
+    {
+        TYPE = type;
+        FINGERPRINT = fingerprint;
+        CERTIFICATE = certificate;
+        DIGEST = digest;
+    }
+
+    /**
+     * @return the fingerprint of the certificate.
+     */
+    public String getFingerprint()
+    {
+        return FINGERPRINT;
+    }
+
+    /**
+     * @return the PEM encoded certificate, null in a request or if the certificate is not known.
+     */
+    public String getCertificate()
+    {
+        return CERTIFICATE;
+    }
+
+    @Override
+    public byte[] getByteMessage() {
+        byte[] bytes = byteMessage;
+        if ( bytes == null )
+            byteMessage = bytes = getStringMessage().getBytes();
+        return bytes;
+    }
+
+    @Override
+    public String getStringMessage() {
+        return TYPE + " " + FINGERPRINT + " " + CERTIFICATE;
+    }
+
+    @Override
+    public ContentTypes getType() {
+        return TYPE.getSuperType();
+    }
+
+    @Override
+    public ContentSubtype getSubType() {
+        return TYPE;
+    }
+
+    @Override
+    public byte[] getDigest() {
+        return DIGEST;
+    }
+
+    @Override
+    public boolean hasValidDigest() {
+        Boolean valid = validDigest;
+        if ( valid == null )
+            validDigest = valid = HASH.verifyDigest( HASH.generateDigest( getByteMessage() ), DIGEST );
+        return valid;
+    }
+}
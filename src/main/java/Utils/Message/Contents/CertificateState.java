@@ -14,6 +14,12 @@ public class CertificateState implements MessageContentIntegrityHash
     private final boolean IS_VALID;
     private final int SERIAL_NUMBER;
 
+    /** The bytes of the content, computed in the first use. */
+    private transient volatile byte[] byteMessage;
+
+    /** The result of the digest verification, null until the digest is verified. */
+    private transient volatile Boolean validDigest;
+
     public CertificateState( boolean isValid, int serialNumber)
     {
         this( isValid, serialNumber, CACommunicationTypes.CERTIFICATE_STATE );
@@ -27,6 +33,26 @@ public class CertificateState implements MessageContentIntegrityHash
         this.DIGEST = HASH.generateDigest( getByteMessage() );
     }
 
+    /**
+     * Restores a received content with its transmitted digest.
+     *
+     * @param isValid      the state of the certificate.
+     * @param serialNumber the serial number of the certificate.
+     * @param digest       the transmitted digest.
+     */
+    public CertificateState( boolean isValid, int serialNumber, byte[] digest )
+    {
+        this( isValid, serialNumber, CACommunicationTypes.CERTIFICATE_STATE, digest );
+    }
+
+    protected CertificateState( boolean isValid, int serialNumber, ContentSubtype type, byte[] digest )
+    {
+        this.TYPE = type;
+        this.IS_VALID = isValid;
+        this.SERIAL_NUMBER = serialNumber;
+        this.DIGEST = digest;
+    }
+
     public boolean isValid()
     {
         return IS_VALID;
@@ -38,7 +64,10 @@ public class CertificateState implements MessageContentIntegrityHash
     }
     @Override
     public byte[] getByteMessage() {
-        return getStringMessage().getBytes();
+        byte[] bytes = byteMessage;
+        if ( bytes == null )
+            byteMessage = bytes = getStringMessage().getBytes();
+        return bytes;
     }
 
     @Override
@@ -63,6 +92,9 @@ public class CertificateState implements MessageContentIntegrityHash
 
     @Override
     public boolean hasValidDigest() {
-        return HASH.verifyDigest( HASH.generateDigest( getByteMessage() ), DIGEST );
+        Boolean valid = validDigest;
+        if ( valid == null )
+            validDigest = valid = HASH.verifyDigest( HASH.generateDigest( getByteMessage() ), DIGEST );
+        return valid;
     }
 }
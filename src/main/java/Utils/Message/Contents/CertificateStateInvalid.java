@@ -7,4 +7,14 @@ public class CertificateStateInvalid extends CertificateState
     public CertificateStateInvalid( int serialNumber) {
         super(false, serialNumber, CommunicationTypes.INVALID_CERTIFICATE);
     }
+
+    /**
+     * Restores a received content with its transmitted digest.
+     *
+     * @param serialNumber the serial number of the invalid certificate.
+     * @param digest       the transmitted digest.
+     */
+    public CertificateStateInvalid( int serialNumber, byte[] digest ) {
+        super(false, serialNumber, CommunicationTypes.INVALID_CERTIFICATE, digest);
+    }
 }
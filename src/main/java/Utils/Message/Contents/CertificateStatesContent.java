@@ -0,0 +1,139 @@
+package Utils.Message.Contents;
+
+import Utils.Message.Contents.Interfaces.MessageContentIntegrityMAC;
+import Utils.Message.EnumTypes.CACommunicationTypes;
+import Utils.Message.EnumTypes.ContentSubtype;
+import Utils.Message.EnumTypes.ContentTypes;
+import Utils.Security.Integrity.MAC;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Carries the states of several certificates in one message to or from the certificate authority.
+ * A request only has the serial numbers, the reply has them with a bitmap where the bit of each position is set if the
+ * certificate at that position is valid. Both are authenticated with the MAC of the secret agreed with the authority.
+ */
+public class CertificateStatesContent implements MessageContentIntegrityMAC
+{
+    private final ContentSubtype TYPE = CACommunicationTypes.CERTIFICATE_STATES;
+
+    private final int[] SERIAL_NUMBERS;
+
+    /** The validity bitmap, one bit per serial number, null in a request. */
+    private final byte[] STATES;
+
+    private final byte[] MAC_CODE;
+
+    /** The bytes of the content, computed in the first use. */
+    private transient volatile byte[] byteMessage;
+
+    /** A copy of the secret the MAC was last found valid with, null until then. */
+    private transient volatile byte[] validSecret;
+
+    public CertificateStatesContent( int[] serialNumbers, BitSet states, BigInteger secret )
+    {
+        this.SERIAL_NUMBERS = serialNumbers.clone();
+        this.STATES = states == null ? null : Arrays.copyOf( states.toByteArray(), ( serialNumbers.length + 7 ) / 8 );
+        this.MAC_CODE = MAC.generateMAC( getByteMessage(), secret.toByteArray() );
+    }
+
+    /**
+     * Restores a received content with its transmitted MAC.
+     *
+     * @param serialNumbers the serial numbers of the certificates.
+     * @param states        the validity bitmap, or null in a request.
+     * @param mac           the transmitted MAC.
+     */
+    public CertificateStatesContent( int[] serialNumbers, byte[] states, byte[] mac )
+    {
+        this.SERIAL_NUMBERS = serialNumbers;
+        this.STATES = states;
+        this.MAC_CODE = mac;
+    }
+
+    /**
+     * @return the serial numbers of the certificates.
+     */
+    public int[] getSerialNumbers()
+    {
+        return SERIAL_NUMBERS.clone();
+    }
+
+    /**
+     * @return true if the content is a reply with the states of the certificates.
+     */
+    public boolean hasStates()
+    {
+        return STATES != null;
+    }
+
+    /**
+     * Gets the state of the certificate at a position of the reply.
+     *
+     * @param index the position of the serial number.
+     * @return true if the certificate is valid, false if it is not valid or the content is a request.
+     */
+    public boolean isValid( int index )
+    {
+        return STATES != null && index >= 0 && index / 8 < STATES.length && ( STATES[index / 8] & ( 1 << ( index % 8 ) ) ) != 0;
+    }
+
+    /**
+     * @return the validity bitmap, or null in a request. The array must not be modified.
+     */
+    public byte[] getStates()
+    {
+        return STATES;
+    }
+
+    @Override
+    public byte[] getByteMessage() {
+        byte[] bytes = byteMessage;
+        if ( bytes == null )
+        {
+            int statesLength = STATES == null ? 0 : STATES.length;
+            ByteBuffer buffer = ByteBuffer.allocate( Integer.BYTES * ( SERIAL_NUMBERS.length + 1 ) + statesLength );
+            buffer.putInt( SERIAL_NUMBERS.length );
+            for ( int serialNumber : SERIAL_NUMBERS )
+                buffer.putInt( serialNumber );
+            if ( STATES != null )
+                buffer.put( STATES );
+            byteMessage = bytes = buffer.array();
+        }
+        return bytes;
+    }
+
+    @Override
+    public String getStringMessage() {
+        return Arrays.toString( SERIAL_NUMBERS ) + " " + ( STATES == null ? "" : BitSet.valueOf( STATES ).toString() );
+    }
+
+    @Override
+    public ContentTypes getType() {
+        return TYPE.getSuperType();
+    }
+
+    @Override
+    public ContentSubtype getSubType() {
+        return TYPE;
+    }
+
+    @Override
+    public byte[] getMAC() {
+        return MAC_CODE;
+    }
+
+    @Override
+    public boolean hasValidMAC(byte[] secret) {
+        if ( Arrays.equals( validSecret, secret ) )
+            return true;
+
+        boolean valid = MAC.verifyMAC( MAC.generateMAC( getByteMessage(), secret ), MAC_CODE );
+        if ( valid )
+            validSecret = secret.clone();
+        return valid;
+    }
+}
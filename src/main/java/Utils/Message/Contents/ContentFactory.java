@@ -1,14 +1,21 @@
 package Utils.Message.Contents;
 
 import Networks.User;
+import Utils.Certificate.RevocationEvent;
 import Utils.Message.Contents.Interfaces.MessageContent;
+import Utils.Message.EnumTypes.AccountMessageTypes;
 import Utils.Message.EnumTypes.CACommunicationTypes;
 import Utils.Message.EnumTypes.CommunicationTypes;
 import Utils.Message.EnumTypes.ContentSubtype;
+import Utils.Presence.PresenceDelta;
+import Utils.Security.Encryption.Enums.CipherLayouts;
 
 import java.math.BigInteger;
+import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 public class ContentFactory
 {
@@ -79,6 +86,38 @@ public class ContentFactory
         return new CertificateState(false,serialNumber);
     }
 
+    public static MessageContent createCertificateStatesContent( int[] serialNumbers, BigInteger secret ) {
+        if (serialNumbers == null || secret == null) {
+            throw new IllegalArgumentException("Invalid arguments: serial numbers and secret cannot be null");
+        }
+        return new CertificateStatesContent(serialNumbers, null, secret);
+    }
+
+    public static MessageContent createCertificateStatesContent( int[] serialNumbers, BitSet states, BigInteger secret ) {
+        if (serialNumbers == null || states == null || secret == null) {
+            throw new IllegalArgumentException("Invalid arguments: serial numbers, states and secret cannot be null");
+        }
+        return new CertificateStatesContent(serialNumbers, states, secret);
+    }
+
+    public static MessageContent createRevocationSubscribeContent( long knownVersion ) {
+        return new RevocationContent(CACommunicationTypes.REVOCATION_SUBSCRIBE, knownVersion, new BitSet(), null);
+    }
+
+    public static MessageContent createRevocationListContent( long version, BitSet revoked, PrivateKey key ) {
+        if (revoked == null || key == null) {
+            throw new IllegalArgumentException("Invalid arguments: revoked serial numbers and key cannot be null");
+        }
+        return new RevocationContent(CACommunicationTypes.REVOCATION_LIST, version, revoked, key);
+    }
+
+    public static MessageContent createRevocationEventContent( RevocationEvent event, PrivateKey key ) {
+        if (event == null || key == null) {
+            throw new IllegalArgumentException("Invalid arguments: event and key cannot be null");
+        }
+        return new RevocationContent(CACommunicationTypes.REVOCATION_EVENT, event.getVersion(), event.getSerialNumbers(), key);
+    }
+
     public static MessageContent createCertificateStateInvalidContent( int serialNumber )
     {
         return new CertificateStateInvalid( serialNumber );
@@ -105,6 +144,13 @@ public class ContentFactory
         return new DiffieHellmanKeyChangeContent(publicKey);
     }
 
+    public static MessageContent createDiffieHellmanRSAContent( byte[] publicKey, CipherLayouts cipherLayout ) {
+        if (publicKey == null || cipherLayout == null) {
+            throw new IllegalArgumentException("Invalid arguments: public key and cipher layout cannot be null");
+        }
+        return new DiffieHellmanKeyChangeContent(publicKey, cipherLayout);
+    }
+
     public static MessageContent createAllLoggedInContent(ArrayList<User> users) {
         if (users == null) {
             throw new IllegalArgumentException("Invalid argument: users cannot be null");
@@ -112,6 +158,38 @@ public class ContentFactory
         return new AllLoggedInContent(users);
     }
 
+    public static MessageContent createPresenceSnapshotContent( long version, List<PresenceDelta> members, boolean last ) {
+        if (members == null) {
+            throw new IllegalArgumentException("Invalid argument: members cannot be null");
+        }
+        return new PresenceContent(AccountMessageTypes.PRESENCE_SNAPSHOT, version, last, members);
+    }
+
+    public static MessageContent createPresenceDeltaContent( List<PresenceDelta> deltas, boolean last ) {
+        if (deltas == null || deltas.isEmpty()) {
+            throw new IllegalArgumentException("Invalid argument: deltas cannot be null or empty");
+        }
+        return new PresenceContent(AccountMessageTypes.PRESENCE_DELTA, deltas.get(deltas.size() - 1).getVersion(), last, deltas);
+    }
+
+    public static MessageContent createPresenceResumeContent( long knownVersion ) {
+        return new PresenceContent(AccountMessageTypes.PRESENCE_RESUME, knownVersion, true, List.of());
+    }
+
+    public static MessageContent createCertificateFetchContent( String fingerprint ) {
+        if (fingerprint == null) {
+            throw new IllegalArgumentException("Invalid argument: fingerprint cannot be null");
+        }
+        return new CertificateContent(AccountMessageTypes.CERTIFICATE_FETCH, fingerprint, null);
+    }
+
+    public static MessageContent createCertificateContent( String fingerprint, String certificate ) {
+        if (fingerprint == null) {
+            throw new IllegalArgumentException("Invalid argument: fingerprint cannot be null");
+        }
+        return new CertificateContent(AccountMessageTypes.CERTIFICATE, fingerprint, certificate);
+    }
+
     public static MessageContent createMSGCommunicationContent( byte[] message )
     {
         if ( message == null) {
@@ -120,4 +198,20 @@ public class ContentFactory
         return new MessageCommunicationContent(CommunicationTypes.MSG,message);
     }
 
+    public static MessageContent createAuthenticatedMSGCommunicationContent( byte[] message )
+    {
+        if ( message == null) {
+            throw new IllegalArgumentException("Invalid argument: message cannot be null");
+        }
+        return MessageCommunicationContent.withoutDigest(CommunicationTypes.MSG,message);
+    }
+
+    public static MessageContent createMulticastContent( String[] recipients, byte[][] keys, byte[] body )
+    {
+        if ( recipients == null || keys == null || body == null ) {
+            throw new IllegalArgumentException("Invalid arguments: recipients, keys and body cannot be null");
+        }
+        return new MulticastContent(recipients, keys, body);
+    }
+
 }
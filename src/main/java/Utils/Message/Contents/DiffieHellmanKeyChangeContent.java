@@ -4,22 +4,90 @@ import Utils.Message.Contents.Interfaces.MessageContentIntegrityHash;
 import Utils.Message.EnumTypes.ContentSubtype;
 import Utils.Message.EnumTypes.ContentTypes;
 import Utils.Message.EnumTypes.DiffieHellmanTypes;
+import Utils.Security.Encryption.Enums.CipherLayouts;
 import Utils.Security.Integrity.HASH;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 
 public class DiffieHellmanKeyChangeContent implements MessageContentIntegrityHash
 {
 
     private final ContentSubtype TYPE;
     private final byte[] PUBLIC_KEY;
+    /** The cipher layout the sender wants to use, null if it does not take part in the negotiation. */
+    private final CipherLayouts CIPHER_LAYOUT;
     private final byte[] DIGEST;
 
+    /** The result of the digest verification, null until the digest is verified. */
+    private transient volatile Boolean validDigest;
+
     public DiffieHellmanKeyChangeContent( byte[] publicKey )
+    {
+        this( publicKey, (CipherLayouts) null );
+    }
+
+    /**
+     * Creates a key change that also announces the cipher layout of the sender.
+     *
+     * @param publicKey    the public key.
+     * @param cipherLayout the cipher layout the sender wants to use, may be null.
+     */
+    public DiffieHellmanKeyChangeContent( byte[] publicKey, CipherLayouts cipherLayout )
+    {
+        TYPE = DiffieHellmanTypes.KEY_CHANGE;
+        PUBLIC_KEY = publicKey;
+        CIPHER_LAYOUT = cipherLayout;
+        DIGEST = HASH.generateDigest( getDigestedBytes() );
+    }
+
+    /**
+     * Restores a received content with its transmitted digest.
+     *
+     * @param publicKey the public key.
+     * @param digest    the transmitted digest.
+     */
+    public DiffieHellmanKeyChangeContent( byte[] publicKey, byte[] digest )
+    {
+        this( publicKey, null, digest );
+    }
+
+    /**
+     * Restores a received content with its announced cipher layout and transmitted digest.
+     *
+     * @param publicKey    the public key.
+     * @param cipherLayout the cipher layout announced by the sender, may be null.
+     * @param digest       the transmitted digest.
+     */
+    public DiffieHellmanKeyChangeContent( byte[] publicKey, CipherLayouts cipherLayout, byte[] digest )
     {
         TYPE = DiffieHellmanTypes.KEY_CHANGE;
         PUBLIC_KEY = publicKey;
-        DIGEST = HASH.generateDigest( getByteMessage() );
+        CIPHER_LAYOUT = cipherLayout;
+        DIGEST = digest;
+    }
+
+    /**
+     * Gets the bytes covered by the digest, the public key followed by the cipher layout if there is one.
+     *
+     * @return the digested bytes.
+     */
+    private byte[] getDigestedBytes()
+    {
+        if ( CIPHER_LAYOUT == null )
+            return PUBLIC_KEY;
+
+        byte[] layout = CIPHER_LAYOUT.name().getBytes();
+        byte[] digested = Arrays.copyOf( PUBLIC_KEY, PUBLIC_KEY.length + layout.length );
+        System.arraycopy( layout, 0, digested, PUBLIC_KEY.length, layout.length );
+        return digested;
+    }
+
+    /**
+     * @return the cipher layout the sender wants to use, null if it was not announced.
+     */
+    public CipherLayouts getCipherLayout() {
+        return CIPHER_LAYOUT;
     }
 
     public BigInteger getPublic_key() {
@@ -51,6 +119,9 @@ public class DiffieHellmanKeyChangeContent implements MessageContentIntegrityHas
 
     @Override
     public boolean hasValidDigest() {
-        return HASH.verifyDigest( DIGEST , HASH.generateDigest( getByteMessage() ));
+        Boolean valid = validDigest;
+        if ( valid == null )
+            validDigest = valid = HASH.verifyDigest( DIGEST , HASH.generateDigest( getDigestedBytes() ));
+        return valid;
     }
 }
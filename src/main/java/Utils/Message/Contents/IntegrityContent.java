@@ -7,6 +7,7 @@ import Utils.Message.EnumTypes.ContentTypes;
 import Utils.Security.Integrity.MAC;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 
 public class IntegrityContent implements MessageContentIntegrityMAC
 {
@@ -14,6 +15,12 @@ public class IntegrityContent implements MessageContentIntegrityMAC
     private final String FILENAME;
     private final byte[] MAC_CODE;
 
+    /** The bytes of the content, computed in the first use. */
+    private transient volatile byte[] byteMessage;
+
+    /** A copy of the secret the MAC was last found valid with, null until then. */
+    private transient volatile byte[] validSecret;
+
     public IntegrityContent( String content , BigInteger secret , ContentSubtype type)
     {
         this.FILENAME = content;
@@ -21,9 +28,26 @@ public class IntegrityContent implements MessageContentIntegrityMAC
         TYPE = type;
     }
 
+    /**
+     * Restores a received content with its transmitted MAC.
+     *
+     * @param content the content.
+     * @param type    the subtype of the content.
+     * @param mac     the transmitted MAC.
+     */
+    public IntegrityContent( String content, ContentSubtype type, byte[] mac )
+    {
+        this.FILENAME = content;
+        this.MAC_CODE = mac;
+        TYPE = type;
+    }
+
     @Override
     public byte[] getByteMessage() {
-        return getStringMessage().getBytes();
+        byte[] bytes = byteMessage;
+        if ( bytes == null )
+            byteMessage = bytes = getStringMessage().getBytes();
+        return bytes;
     }
 
     @Override
@@ -48,6 +72,12 @@ public class IntegrityContent implements MessageContentIntegrityMAC
 
     @Override
     public boolean hasValidMAC(byte[] secret) {
-        return MAC.verifyMAC( MAC.generateMAC(  getByteMessage() , secret ) , MAC_CODE );
+        if ( Arrays.equals( validSecret, secret ) )
+            return true;
+
+        boolean valid = MAC.verifyMAC( MAC.generateMAC(  getByteMessage() , secret ) , MAC_CODE );
+        if ( valid )
+            validSecret = secret.clone();
+        return valid;
     }
 }
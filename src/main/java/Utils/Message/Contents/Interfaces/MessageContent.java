@@ -12,6 +12,7 @@ public interface MessageContent extends Serializable {
 
     /**
      * Returns the byte representation of the message content.
+     * The array may be cached by the content, so it must not be modified.
      *
      * @return byte array representing the message content.
      */
@@ -17,6 +17,12 @@ public class LogInContent implements MessageContentIntegrityHash
 
     private final String USERNAME;
 
+    /** The bytes of the content, computed in the first use. */
+    private transient volatile byte[] byteMessage;
+
+    /** The result of the digest verification, null until the digest is verified. */
+    private transient volatile Boolean validDigest;
+
     public LogInContent( String certificate, String username )
     {
         this( certificate , username , AccountMessageTypes.LOGIN );
@@ -30,6 +36,26 @@ public class LogInContent implements MessageContentIntegrityHash
         this.DIGEST = HASH.generateDigest(getByteMessage());
     }
 
+    /**
+     * Restores a received content with its transmitted digest.
+     *
+     * @param certificate the certificate of the user.
+     * @param username    the username.
+     * @param digest      the transmitted digest.
+     */
+    public LogInContent( String certificate, String username, byte[] digest )
+    {
+        this( certificate, username, AccountMessageTypes.LOGIN, digest );
+    }
+
+    protected LogInContent( String certificate, String username, AccountMessageTypes type, byte[] digest )
+    {
+        this.CERTIFICATE = certificate;
+        this.TYPE = type;
+        this.USERNAME = username;
+        this.DIGEST = digest;
+    }
+
     public String getUSERNAME() {
         return USERNAME;
     }
@@ -41,7 +67,10 @@ public class LogInContent implements MessageContentIntegrityHash
     @Override
     public byte[] getByteMessage()
     {
-        return getStringMessage().getBytes();
+        byte[] bytes = byteMessage;
+        if ( bytes == null )
+            byteMessage = bytes = getStringMessage().getBytes();
+        return bytes;
     }
 
     @Override
@@ -69,6 +98,9 @@ public class LogInContent implements MessageContentIntegrityHash
 
     @Override
     public boolean hasValidDigest() {
-        return HASH.verifyDigest( HASH.generateDigest( getByteMessage() ) ,DIGEST);
+        Boolean valid = validDigest;
+        if ( valid == null )
+            validDigest = valid = HASH.verifyDigest( HASH.generateDigest( getByteMessage() ) ,DIGEST);
+        return valid;
     }
 }
@@ -8,4 +8,16 @@ public class LogInRenovateContent extends LogInContent
     {
         super(certificate, username, AccountMessageTypes.LOGIN_RENOVATE);
     }
+
+    /**
+     * Restores a received content with its transmitted digest.
+     *
+     * @param certificate the renovated certificate of the user.
+     * @param username    the username.
+     * @param digest      the transmitted digest.
+     */
+    public LogInRenovateContent( String certificate, String username, byte[] digest )
+    {
+        super(certificate, username, AccountMessageTypes.LOGIN_RENOVATE, digest);
+    }
 }
@@ -13,6 +13,11 @@ public class LogOutContent implements MessageContentIntegrityHash
     private final byte[] DIGEST;
     private final String USERNAME;
 
+    /** The bytes of the content, computed in the first use. */
+    private transient volatile byte[] byteMessage;
+
+    /** The result of the digest verification, null until the digest is verified. */
+    private transient volatile Boolean validDigest;
 
     public LogOutContent( String username )
     {
@@ -21,9 +26,25 @@ public class LogOutContent implements MessageContentIntegrityHash
         DIGEST = HASH.generateDigest( getByteMessage() );
     }
 
+    /**
+     * Restores a received content with its transmitted digest.
+     *
+     * @param username the username of the user that logged out.
+     * @param digest   the transmitted digest.
+     */
+    public LogOutContent( String username, byte[] digest )
+    {
+        TYPE = AccountMessageTypes.LOGOUT;
+        USERNAME = username;
+        DIGEST = digest;
+    }
+
     @Override
     public byte[] getByteMessage() {
-        return getStringMessage().getBytes() ;
+        byte[] bytes = byteMessage;
+        if ( bytes == null )
+            byteMessage = bytes = getStringMessage().getBytes();
+        return bytes;
     }
 
     @Override
@@ -48,6 +69,9 @@ public class LogOutContent implements MessageContentIntegrityHash
 
     @Override
     public boolean hasValidDigest() {
-        return HASH.verifyDigest( HASH.generateDigest( getByteMessage() ), DIGEST);
+        Boolean valid = validDigest;
+        if ( valid == null )
+            validDigest = valid = HASH.verifyDigest( HASH.generateDigest( getByteMessage() ), DIGEST);
+        return valid;
     }
 }
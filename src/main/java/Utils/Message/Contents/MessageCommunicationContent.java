@@ -13,12 +13,41 @@ public class MessageCommunicationContent implements MessageContentIntegrityHash
     private final CommunicationTypes TYPE;
 
     private final byte[] MESSAGE;
+    /** The digest of the message, null when the message is authenticated by its cipher. */
     private final byte[] DIGEST;
+
+    /** The result of the digest verification, null until the digest is verified. */
+    private transient volatile Boolean validDigest;
+
     public MessageCommunicationContent( CommunicationTypes type , byte[] message )
+    {
+        this( type, message, HASH.generateDigest( message ) );
+    }
+
+    /**
+     * Creates a content without digest, for a message authenticated by its cipher, such as AES-GCM.
+     *
+     * @param type    the subtype of the content.
+     * @param message the authenticated encrypted message.
+     * @return the content.
+     */
+    public static MessageCommunicationContent withoutDigest( CommunicationTypes type, byte[] message )
+    {
+        return new MessageCommunicationContent( type, message, null );
+    }
+
+    /**
+     * Restores a received content with its transmitted digest.
+     *
+     * @param type    the subtype of the content.
+     * @param message the message.
+     * @param digest  the transmitted digest, null if the message is authenticated by its cipher.
+     */
+    public MessageCommunicationContent( CommunicationTypes type, byte[] message, byte[] digest )
     {
         TYPE = type;
         MESSAGE = message;
-        DIGEST = HASH.generateDigest( getByteMessage() );
+        DIGEST = digest;
     }
 
     @Override
@@ -46,9 +75,20 @@ public class MessageCommunicationContent implements MessageContentIntegrityHash
         return DIGEST;
     }
 
+    /**
+     * @return true if the content carries a digest, false if the message must be authenticated by its cipher.
+     */
+    public boolean hasDigest()
+    {
+        return DIGEST != null;
+    }
+
     @Override
     public boolean hasValidDigest()
     {
-        return HASH.verifyDigest( HASH.generateDigest( getByteMessage() ) , DIGEST );
+        Boolean valid = validDigest;
+        if ( valid == null )
+            validDigest = valid = DIGEST != null && HASH.verifyDigest( HASH.generateDigest( getByteMessage() ) , DIGEST );
+        return valid;
     }
 }
@@ -0,0 +1,116 @@
+package Utils.Message.Contents;
+
+import Utils.Message.Contents.Interfaces.MessageContent;
+import Utils.Message.EnumTypes.CommunicationTypes;
+import Utils.Message.EnumTypes.ContentSubtype;
+import Utils.Message.EnumTypes.ContentTypes;
+
+import java.util.Optional;
+
+/**
+ * A message for several users, sent once to the messaging server. The body is encrypted once under a random content
+ * key, and the content key is wrapped for each recipient with the secret agreed with the recipient. The server splits
+ * the envelope into one delivery per recipient, see {@link #forRecipient(int)}, without decrypting it.
+ * <p>
+ * The body is authenticated by its cipher, so the content has no digest.
+ */
+public class MulticastContent implements MessageContent
+{
+    /** The usernames of the recipients. */
+    private final String[] RECIPIENTS;
+
+    /** The content key wrapped for each recipient, in the order of the recipients. */
+    private final byte[][] KEYS;
+
+    /** The message encrypted under the content key. */
+    private final byte[] BODY;
+
+    /**
+     * Creates an envelope. Also restores a received envelope.
+     *
+     * @param recipients the usernames of the recipients.
+     * @param keys       the content key wrapped for each recipient, in the order of the recipients.
+     * @param body       the message encrypted under the content key.
+     * @throws IllegalArgumentException if there are no recipients or the number of keys does not match.
+     */
+    public MulticastContent( String[] recipients, byte[][] keys, byte[] body )
+    {
+        if ( recipients.length == 0 || recipients.length != keys.length )
+            throw new IllegalArgumentException( "A multicast needs one wrapped key for each recipient." );
+
+        RECIPIENTS = recipients;
+        KEYS = keys;
+        BODY = body;
+    }
+
+    /**
+     * Creates the delivery of the envelope to one recipient, with the shared body and the key of the recipient only.
+     *
+     * @param index the index of the recipient.
+     * @return the delivery.
+     */
+    public MulticastContent forRecipient( int index )
+    {
+        return new MulticastContent( new String[]{ RECIPIENTS[index] }, new byte[][]{ KEYS[index] }, BODY );
+    }
+
+    /**
+     * @return the number of recipients.
+     */
+    public int size()
+    {
+        return RECIPIENTS.length;
+    }
+
+    /**
+     * @param index the index of the recipient.
+     * @return the username of the recipient.
+     */
+    public String getRecipient( int index )
+    {
+        return RECIPIENTS[index];
+    }
+
+    /**
+     * @param index the index of the recipient.
+     * @return the content key wrapped for the recipient. The array must not be modified.
+     */
+    public byte[] getKey( int index )
+    {
+        return KEYS[index];
+    }
+
+    /**
+     * @param recipient the username of a recipient.
+     * @return the content key wrapped for the recipient, empty if the user is not a recipient.
+     */
+    public Optional<byte[]> getKey( String recipient )
+    {
+        for ( int i = 0; i < RECIPIENTS.length; i++ )
+        {
+            if ( RECIPIENTS[i].equals( recipient ) )
+                return Optional.of( KEYS[i] );
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public byte[] getByteMessage() {
+        return BODY;
+    }
+
+    @Override
+    public String getStringMessage() {
+        return "Multicast to " + RECIPIENTS.length + " recipients.";
+    }
+
+    @Override
+    public ContentTypes getType() {
+        return CommunicationTypes.MULTICAST.getSuperType();
+    }
+
+    @Override
+    public ContentSubtype getSubType() {
+        return CommunicationTypes.MULTICAST;
+    }
+}
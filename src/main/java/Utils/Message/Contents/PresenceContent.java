@@ -0,0 +1,127 @@
+package Utils.Message.Contents;
+
+import Utils.Message.Contents.Interfaces.MessageContentIntegrityHash;
+import Utils.Message.EnumTypes.AccountMessageTypes;
+import Utils.Message.EnumTypes.ContentSubtype;
+import Utils.Message.EnumTypes.ContentTypes;
+import Utils.Presence.PresenceDelta;
+import Utils.Security.Integrity.HASH;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Carries the roster of connected users, by subtype:
+ * a page of a snapshot ({@link AccountMessageTypes#PRESENCE_SNAPSHOT}), roster changes
+ * ({@link AccountMessageTypes#PRESENCE_DELTA}), or the request of a client for the changes after the version it knows
+ * ({@link AccountMessageTypes#PRESENCE_RESUME}).
+ */
+public class PresenceContent implements MessageContentIntegrityHash
+{
+    private final AccountMessageTypes TYPE;
+
+    /** The roster version of a snapshot page or resume request, or the version after the last delta. */
+    private final long VERSION;
+
+    /** True if it is the last page of a snapshot or of a resume reply. */
+    private final boolean LAST;
+
+    private final ArrayList<PresenceDelta> DELTAS;
+    private final byte[] DIGEST;
+
+    /** The bytes of the content, computed in the first use. */
+    private transient volatile byte[] byteMessage;
+
+    /** The result of the digest verification, null until the digest is verified. */
+    private transient volatile Boolean validDigest;
+
+    public PresenceContent( AccountMessageTypes type, long version, boolean last, List<PresenceDelta> deltas )
+    {
+        if ( type != AccountMessageTypes.PRESENCE_SNAPSHOT && type != AccountMessageTypes.PRESENCE_DELTA && type != AccountMessageTypes.PRESENCE_RESUME )
+            throw new IllegalArgumentException( "Invalid presence subtype: " + type );
+
+        TYPE = type;
+        VERSION = version;
+        LAST = last;
+        DELTAS = new ArrayList<>( deltas );
+        DIGEST = HASH.generateDigest( getByteMessage() );
+    }
+
+    /**
+     * Restores a received content with its transmitted digest.
+     *
+     * @param type    the presence subtype.
+     * @param version the roster version.
+     * @param last    true if it is the last page.
+     * @param deltas  the members or changes.
+     * @param digest  the transmitted digest.
+     */
+    public PresenceContent( AccountMessageTypes type, long version, boolean last, ArrayList<PresenceDelta> deltas, byte[] digest )
+    {
+        TYPE = type;
+        VERSION = version;
+        LAST = last;
+        DELTAS = deltas;
+        DIGEST = digest;
+    }
+
+    /**
+     * @return the roster version of a snapshot page or resume request, or the version after the last delta.
+     */
+    public long getVersion()
+    {
+        return VERSION;
+    }
+
+    /**
+     * @return true if it is the last page of a snapshot or of a resume reply.
+     */
+    public boolean isLast()
+    {
+        return LAST;
+    }
+
+    /**
+     * @return the members of a snapshot page or the changes, in version order.
+     */
+    public ArrayList<PresenceDelta> getDeltas()
+    {
+        return DELTAS;
+    }
+
+    @Override
+    public byte[] getByteMessage() {
+        byte[] bytes = byteMessage;
+        if ( bytes == null )
+            byteMessage = bytes = getStringMessage().getBytes();
+        return bytes;
+    }
+
+    @Override
+    public String getStringMessage() {
+        return TYPE + " " + VERSION + " " + LAST + " " + DELTAS;
+    }
+
+    @Override
+    public ContentTypes getType() {
+        return TYPE.getSuperType();
+    }
+
+    @Override
+    public ContentSubtype getSubType() {
+        return TYPE;
+    }
+
+    @Override
+    public byte[] getDigest() {
+        return DIGEST;
+    }
+
+    @Override
+    public boolean hasValidDigest() {
+        Boolean valid = validDigest;
+        if ( valid == null )
+            validDigest = valid = HASH.verifyDigest( HASH.generateDigest( getByteMessage() ), DIGEST );
+        return valid;
+    }
+}
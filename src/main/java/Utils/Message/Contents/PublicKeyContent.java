@@ -8,6 +8,7 @@ import Utils.Security.Integrity.MAC;
 
 import java.math.BigInteger;
 import java.security.PublicKey;
+import java.util.Arrays;
 
 public class PublicKeyContent implements MessageContentIntegrityMAC
 {
@@ -15,6 +16,11 @@ public class PublicKeyContent implements MessageContentIntegrityMAC
     private final byte[] MAC_CODE;
     private final PublicKey PUBLIC_KEY;
 
+    /** The bytes of the content, computed in the first use. */
+    private transient volatile byte[] byteMessage;
+
+    /** A copy of the secret the MAC was last found valid with, null until then. */
+    private transient volatile byte[] validSecret;
 
     public PublicKeyContent( PublicKey publicKey , BigInteger secret )
     {
@@ -23,6 +29,19 @@ public class PublicKeyContent implements MessageContentIntegrityMAC
         MAC_CODE = MAC.generateMAC( getByteMessage(), secret.toByteArray() );
     }
 
+    /**
+     * Restores a received content with its transmitted MAC.
+     *
+     * @param publicKey the public key.
+     * @param mac       the transmitted MAC.
+     */
+    public PublicKeyContent( PublicKey publicKey, byte[] mac )
+    {
+        TYPE = CACommunicationTypes.PUBLIC_KEY;
+        PUBLIC_KEY = publicKey;
+        MAC_CODE = mac;
+    }
+
     public PublicKey getPublicKey()
     {
         return PUBLIC_KEY;
@@ -30,7 +49,10 @@ public class PublicKeyContent implements MessageContentIntegrityMAC
 
     @Override
     public byte[] getByteMessage() {
-        return getStringMessage().getBytes() ;
+        byte[] bytes = byteMessage;
+        if ( bytes == null )
+            byteMessage = bytes = getStringMessage().getBytes();
+        return bytes;
     }
 
     @Override
@@ -55,6 +77,12 @@ public class PublicKeyContent implements MessageContentIntegrityMAC
 
     @Override
     public boolean hasValidMAC(byte[] secret) {
-        return MAC.verifyMAC( MAC.generateMAC( getByteMessage() , secret) , MAC_CODE);
+        if ( Arrays.equals( validSecret, secret ) )
+            return true;
+
+        boolean valid = MAC.verifyMAC( MAC.generateMAC( getByteMessage() , secret) , MAC_CODE);
+        if ( valid )
+            validSecret = secret.clone();
+        return valid;
     }
 }
@@ -13,15 +13,36 @@ public class RegisterContent implements MessageContentIntegrityHash
     private final byte[] DIGEST;
     private final String USERNAME;
 
+    /** The bytes of the content, computed in the first use. */
+    private transient volatile byte[] byteMessage;
+
+    /** The result of the digest verification, null until the digest is verified. */
+    private transient volatile Boolean validDigest;
+
     public RegisterContent( String userName ){
         this.USERNAME = userName;
         type = AccountMessageTypes.REGISTER;
         this.DIGEST = HASH.generateDigest( getByteMessage() );
     }
 
+    /**
+     * Restores a received content with its transmitted digest.
+     *
+     * @param userName the username to register.
+     * @param digest   the transmitted digest.
+     */
+    public RegisterContent( String userName, byte[] digest ){
+        this.USERNAME = userName;
+        type = AccountMessageTypes.REGISTER;
+        this.DIGEST = digest;
+    }
+
     @Override
     public byte[] getByteMessage() {
-        return USERNAME.getBytes();
+        byte[] bytes = byteMessage;
+        if ( bytes == null )
+            byteMessage = bytes = USERNAME.getBytes();
+        return bytes;
     }
 
     @Override
@@ -46,6 +67,9 @@ public class RegisterContent implements MessageContentIntegrityHash
 
     @Override
     public boolean hasValidDigest() {
-        return HASH.verifyDigest( DIGEST, HASH.generateDigest(getByteMessage()) );
+        Boolean valid = validDigest;
+        if ( valid == null )
+            validDigest = valid = HASH.verifyDigest( DIGEST, HASH.generateDigest(getByteMessage()) );
+        return valid;
     }
 }
@@ -0,0 +1,141 @@
+package Utils.Message.Contents;
+
+import Utils.Message.Contents.Interfaces.MessageContent;
+import Utils.Message.EnumTypes.CACommunicationTypes;
+import Utils.Message.EnumTypes.ContentSubtype;
+import Utils.Message.EnumTypes.ContentTypes;
+import Utils.Security.Encryption.RSA;
+import Utils.Security.Integrity.HASH;
+
+import java.nio.ByteBuffer;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Carries the revocation feed of the certificate authority, by subtype:
+ * the subscription of a client with the list version it knows ({@link CACommunicationTypes#REVOCATION_SUBSCRIBE}),
+ * the full list of revoked serial numbers ({@link CACommunicationTypes#REVOCATION_LIST}),
+ * or the serial numbers revoked in one change ({@link CACommunicationTypes#REVOCATION_EVENT}).
+ * <p>
+ * The serial numbers are sent as a bitmap. A list or a change is signed with the private key of the authority, the
+ * digest of the content encrypted with it, as a certificate is.
+ */
+public class RevocationContent implements MessageContent
+{
+    private final CACommunicationTypes TYPE;
+
+    /** The known version of a subscription, or the list version of a list or after a change. */
+    private final long VERSION;
+
+    /** The bitmap of the serial numbers. */
+    private final byte[] REVOKED;
+
+    /** The signature of the authority, null in a subscription. */
+    private final byte[] SIGNATURE;
+
+    /** The bytes of the content, computed in the first use. */
+    private transient volatile byte[] byteMessage;
+
+    public RevocationContent( CACommunicationTypes type, long version, BitSet revoked, PrivateKey key )
+    {
+        if ( type != CACommunicationTypes.REVOCATION_SUBSCRIBE && type != CACommunicationTypes.REVOCATION_LIST && type != CACommunicationTypes.REVOCATION_EVENT )
+            throw new IllegalArgumentException( "Invalid revocation subtype: " + type );
+
+        TYPE = type;
+        VERSION = version;
+        REVOKED = revoked.toByteArray();
+        SIGNATURE = key == null ? null : RSA.encryptRSA( HASH.generateDigest( getByteMessage() ), key );
+    }
+
+    /**
+     * Restores a received content with its transmitted signature.
+     *
+     * @param type      the revocation subtype.
+     * @param version   the list version.
+     * @param revoked   the bitmap of the serial numbers.
+     * @param signature the transmitted signature, or null.
+     */
+    public RevocationContent( CACommunicationTypes type, long version, byte[] revoked, byte[] signature )
+    {
+        TYPE = type;
+        VERSION = version;
+        REVOKED = revoked;
+        SIGNATURE = signature;
+    }
+
+    /**
+     * @return the known version of a subscription, or the list version of a list or after a change.
+     */
+    public long getVersion()
+    {
+        return VERSION;
+    }
+
+    /**
+     * @return the serial numbers of the list or change.
+     */
+    public BitSet getRevoked()
+    {
+        return BitSet.valueOf( REVOKED );
+    }
+
+    /**
+     * @return the signature of the authority, null in a subscription. The array must not be modified.
+     */
+    public byte[] getSignature()
+    {
+        return SIGNATURE;
+    }
+
+    /**
+     * Checks the signature of the content with the public key of the certificate authority.
+     *
+     * @param key the public key of the certificate authority.
+     * @return true if the content was signed with the matching private key.
+     */
+    public boolean hasValidSignature( PublicKey key )
+    {
+        if ( SIGNATURE == null || key == null )
+            return false;
+
+        try
+        {
+            return Arrays.equals( RSA.decryptRSA( SIGNATURE, key ), HASH.generateDigest( getByteMessage() ) );
+        }
+        catch ( RuntimeException e )
+        {
+            return false;
+        }
+    }
+
+    @Override
+    public byte[] getByteMessage() {
+        byte[] bytes = byteMessage;
+        if ( bytes == null )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( 1 + Long.BYTES + REVOKED.length );
+            buffer.put( (byte) TYPE.ordinal() );
+            buffer.putLong( VERSION );
+            buffer.put( REVOKED );
+            byteMessage = bytes = buffer.array();
+        }
+        return bytes;
+    }
+
+    @Override
+    public String getStringMessage() {
+        return TYPE + " " + VERSION + " " + getRevoked();
+    }
+
+    @Override
+    public ContentTypes getType() {
+        return TYPE.getSuperType();
+    }
+
+    @Override
+    public ContentSubtype getSubType() {
+        return TYPE;
+    }
+}
@@ -6,7 +6,12 @@ public enum AccountMessageTypes implements ContentSubtype
     LOGIN(ContentTypes.ACCOUNT),
     LOGIN_RENOVATE(ContentTypes.ACCOUNT),
     LOGGED_USERS(ContentTypes.ACCOUNT),
-    LOGOUT(ContentTypes.ACCOUNT);
+    LOGOUT(ContentTypes.ACCOUNT),
+    PRESENCE_SNAPSHOT(ContentTypes.ACCOUNT),
+    PRESENCE_DELTA(ContentTypes.ACCOUNT),
+    PRESENCE_RESUME(ContentTypes.ACCOUNT),
+    CERTIFICATE_FETCH(ContentTypes.ACCOUNT),
+    CERTIFICATE(ContentTypes.ACCOUNT);
 
     private final ContentTypes TYPE;
     AccountMessageTypes(ContentTypes type){
@@ -5,7 +5,11 @@ public enum CACommunicationTypes implements ContentSubtype
     SIGNE(ContentTypes.CA_COMMUNICATION),
     REVOKE(ContentTypes.CA_COMMUNICATION),
     CERTIFICATE_STATE(ContentTypes.CA_COMMUNICATION),
-    PUBLIC_KEY(ContentTypes.CA_COMMUNICATION);
+    PUBLIC_KEY(ContentTypes.CA_COMMUNICATION),
+    CERTIFICATE_STATES(ContentTypes.CA_COMMUNICATION),
+    REVOCATION_SUBSCRIBE(ContentTypes.CA_COMMUNICATION),
+    REVOCATION_LIST(ContentTypes.CA_COMMUNICATION),
+    REVOCATION_EVENT(ContentTypes.CA_COMMUNICATION);
 
     private final ContentTypes TYPE;
     CACommunicationTypes(ContentTypes type){
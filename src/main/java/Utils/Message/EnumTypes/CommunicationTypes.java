@@ -8,7 +8,11 @@ public enum CommunicationTypes implements ContentSubtype {
      * Represents a complete encrypted message.
      */
     MSG(ContentTypes.COMMUNICATION),
-    INVALID_CERTIFICATE(ContentTypes.COMMUNICATION);
+    INVALID_CERTIFICATE(ContentTypes.COMMUNICATION),
+    /**
+     * Represents one encrypted message for several users, split by the server, see {@link Utils.Message.Contents.MulticastContent}.
+     */
+    MULTICAST(ContentTypes.COMMUNICATION);
 
     private final ContentTypes TYPE;
 
@@ -1,5 +1,6 @@
 package Utils.Message;
 
+import java.text.SimpleDateFormat;
 import java.util.Date;
 
 /**
@@ -18,6 +19,8 @@ public class MessageRecord
 
     private final String RECEIVE_DATE;
 
+    private final long RECEIVED_AT;
+
     /**
      * Constructs a new {@code MessageRecord} with the specified sender, message content, and the
      * received date.
@@ -30,6 +33,22 @@ public class MessageRecord
         this.SENDER = SENDER;
         this.MESSAGE = MESSAGE;
         this.RECEIVE_DATE = RECEIVE_DATE;
+        this.RECEIVED_AT = 0;
+    }
+
+    /**
+     * Constructs a new {@code MessageRecord} with the specified sender, message content, and the
+     * time when the message was received. The received date is formatted from the time.
+     *
+     * @param SENDER the sender of the message
+     * @param MESSAGE the content of the message
+     * @param RECEIVED_AT the time when the message was received, in milliseconds since the epoch
+     */
+    public MessageRecord(String SENDER, String MESSAGE, long RECEIVED_AT) {
+        this.SENDER = SENDER;
+        this.MESSAGE = MESSAGE;
+        this.RECEIVE_DATE = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(RECEIVED_AT));
+        this.RECEIVED_AT = RECEIVED_AT;
     }
 
     /**
@@ -59,6 +78,15 @@ public class MessageRecord
         return RECEIVE_DATE;
     }
 
+    /**
+     * Returns the time when the message was received.
+     *
+     * @return the received time in milliseconds since the epoch, or 0 if the record was created from a formatted date
+     */
+    public long getReceivedAt() {
+        return RECEIVED_AT;
+    }
+
     /**
      * Provides a string representation of this message record, formatted to show the received date,
      * sender, and the message content in a readable form.
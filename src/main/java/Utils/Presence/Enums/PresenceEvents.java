@@ -0,0 +1,14 @@
+package Utils.Presence.Enums;
+
+/**
+ * Represents the changes of the roster of connected users.
+ *
+ * - {@code JOIN}: A user logged in, the delta carries their certificate.
+ * - {@code RENEW}: A connected user renewed their certificate, the delta carries the new certificate.
+ * - {@code LEAVE}: A user logged out, the delta carries no certificate.
+ */
+public enum PresenceEvents {
+    JOIN,
+    RENEW,
+    LEAVE
+}
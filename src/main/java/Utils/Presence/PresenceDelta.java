@@ -0,0 +1,83 @@
+package Utils.Presence;
+
+import Utils.Certificate.CertificateReference;
+import Utils.Presence.Enums.PresenceEvents;
+
+import java.io.Serializable;
+
+/**
+ * A change of the roster of connected users. Each change has the roster version it leads to, one more than the
+ * version of the previous change, so a receiver can tell if it missed a change.
+ * A roster snapshot is sent as the {@link PresenceEvents#JOIN} deltas of its members.
+ */
+public class PresenceDelta implements Serializable
+{
+    /** The kind of change. */
+    private final PresenceEvents EVENT;
+
+    /** The username of the user that changed. */
+    private final String USERNAME;
+
+    /** The reference to the certificate of the user, null for a {@link PresenceEvents#LEAVE}. */
+    private final CertificateReference CERTIFICATE;
+
+    /** The roster version after the change. */
+    private final long VERSION;
+
+    /**
+     * Creates a roster change.
+     *
+     * @param event       the kind of change.
+     * @param username    the username of the user that changed.
+     * @param certificate the reference to the certificate of the user, null for a {@link PresenceEvents#LEAVE}.
+     * @param version     the roster version after the change.
+     */
+    public PresenceDelta( PresenceEvents event, String username, CertificateReference certificate, long version )
+    {
+        if ( event == null || username == null )
+            throw new IllegalArgumentException( "Invalid arguments: event and username cannot be null" );
+
+        EVENT = event;
+        USERNAME = username;
+        CERTIFICATE = certificate;
+        VERSION = version;
+    }
+
+    /**
+     * @return the kind of change.
+     */
+    public PresenceEvents getEvent()
+    {
+        return EVENT;
+    }
+
+    /**
+     * @return the username of the user that changed.
+     */
+    public String getUsername()
+    {
+        return USERNAME;
+    }
+
+    /**
+     * @return the reference to the certificate of the user, null for a {@link PresenceEvents#LEAVE}.
+     */
+    public CertificateReference getCertificate()
+    {
+        return CERTIFICATE;
+    }
+
+    /**
+     * @return the roster version after the change.
+     */
+    public long getVersion()
+    {
+        return VERSION;
+    }
+
+    @Override
+    public String toString()
+    {
+        return EVENT + " " + USERNAME + " " + VERSION + " " + CERTIFICATE;
+    }
+}
@@ -0,0 +1,30 @@
+package Utils.Presence;
+
+import java.util.List;
+
+/**
+ * Receives the roster changes applied by a {@link PresenceTracker}, in version order.
+ */
+public interface PresenceListener
+{
+    /**
+     * Called when a complete snapshot replaces the roster.
+     *
+     * @param members the JOIN delta of every member of the snapshot.
+     */
+    void onRoster( List<PresenceDelta> members );
+
+    /**
+     * Called for each change applied after the roster.
+     *
+     * @param delta the change.
+     */
+    void onDelta( PresenceDelta delta );
+
+    /**
+     * Called when a change was missed, the changes after the version should be requested again.
+     *
+     * @param knownVersion the version of the roster of the tracker.
+     */
+    void onGap( long knownVersion );
+}
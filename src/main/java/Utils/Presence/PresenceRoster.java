@@ -0,0 +1,155 @@
+package Utils.Presence;
+
+import Utils.Certificate.CertificateReference;
+import Utils.Presence.Enums.PresenceEvents;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The versioned roster of the connected users kept by the messaging server.
+ * Every change increments the version and is kept in a bounded history, so a client that knows a recent version
+ * receives only the changes after it, and a client that knows no version, or a version older than the history,
+ * receives a snapshot.
+ */
+public class PresenceRoster
+{
+    /** A JOIN delta with the current certificate of each member, in joining order. */
+    private final Map< String, PresenceDelta > MEMBERS = new LinkedHashMap<>();
+
+    /** The latest changes, oldest first. */
+    private final ArrayDeque<PresenceDelta> HISTORY = new ArrayDeque<>();
+
+    /** The maximum number of changes kept in the history. */
+    private final int HISTORY_CAPACITY;
+
+    /** The current version, 0 for the empty roster before any change. */
+    private long version = 0;
+
+    /**
+     * Creates an empty roster.
+     *
+     * @param historyCapacity the maximum number of changes kept to resume clients, 0 to always send snapshots.
+     */
+    public PresenceRoster( int historyCapacity )
+    {
+        if ( historyCapacity < 0 )
+            throw new IllegalArgumentException( "The history capacity cannot be negative." );
+
+        HISTORY_CAPACITY = historyCapacity;
+    }
+
+    /**
+     * Adds a user to the roster.
+     *
+     * @param username    the username of the user.
+     * @param certificate the reference to the certificate of the user.
+     * @return the JOIN delta.
+     */
+    public synchronized PresenceDelta join( String username, CertificateReference certificate )
+    {
+        PresenceDelta delta = record( PresenceEvents.JOIN, username, certificate );
+        MEMBERS.put( username, delta );
+        return delta;
+    }
+
+    /**
+     * Replaces the certificate of a member.
+     *
+     * @param username    the username of the member.
+     * @param certificate the reference to the renewed certificate.
+     * @return the RENEW delta, empty if the user is not a member.
+     */
+    public synchronized Optional<PresenceDelta> renew( String username, CertificateReference certificate )
+    {
+        if ( !MEMBERS.containsKey( username ) )
+            return Optional.empty();
+
+        PresenceDelta delta = record( PresenceEvents.RENEW, username, certificate );
+        MEMBERS.put( username, new PresenceDelta( PresenceEvents.JOIN, username, certificate, delta.getVersion() ) );
+        return Optional.of( delta );
+    }
+
+    /**
+     * Removes a member from the roster.
+     *
+     * @param username the username of the member.
+     * @return the LEAVE delta, empty if the user is not a member.
+     */
+    public synchronized Optional<PresenceDelta> leave( String username )
+    {
+        if ( MEMBERS.remove( username ) == null )
+            return Optional.empty();
+
+        return Optional.of( record( PresenceEvents.LEAVE, username, null ) );
+    }
+
+    /**
+     * Creates the delta of a change with the next version and keeps it in the history.
+     *
+     * @param event       the kind of change.
+     * @param username    the username of the user that changed.
+     * @param certificate the certificate of the user.
+     * @return the delta.
+     */
+    private PresenceDelta record( PresenceEvents event, String username, CertificateReference certificate )
+    {
+        PresenceDelta delta = new PresenceDelta( event, username, certificate, ++version );
+        if ( HISTORY_CAPACITY > 0 )
+        {
+            if ( HISTORY.size() == HISTORY_CAPACITY )
+                HISTORY.removeFirst();
+            HISTORY.addLast( delta );
+        }
+        return delta;
+    }
+
+    /**
+     * @return the current version of the roster.
+     */
+    public synchronized long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Gets the members of the roster at the current version, each as a JOIN delta with their current certificate.
+     *
+     * @return the snapshot.
+     */
+    public synchronized PresenceSnapshot snapshot()
+    {
+        return new PresenceSnapshot( version, new ArrayList<>( MEMBERS.values() ) );
+    }
+
+    /**
+     * Gets the changes after a version, to bring a client that knows that version to the current one.
+     *
+     * @param knownVersion the version known by the client.
+     * @return the changes after the version, oldest first, or empty if the history does not have them all or the
+     *         version is not a version of this roster.
+     */
+    public synchronized Optional< List<PresenceDelta> > deltasSince( long knownVersion )
+    {
+        if ( knownVersion < 0 || knownVersion > version )
+            return Optional.empty();
+
+        if ( knownVersion == version )
+            return Optional.of( List.of() );
+
+        if ( HISTORY.isEmpty() || HISTORY.getFirst().getVersion() > knownVersion + 1 )
+            return Optional.empty();
+
+        List<PresenceDelta> deltas = new ArrayList<>( (int) ( version - knownVersion ) );
+        for ( PresenceDelta delta : HISTORY )
+        {
+            if ( delta.getVersion() > knownVersion )
+                deltas.add( delta );
+        }
+        return Optional.of( deltas );
+    }
+}
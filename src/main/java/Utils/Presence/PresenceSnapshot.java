@@ -0,0 +1,43 @@
+package Utils.Presence;
+
+import java.util.List;
+
+/**
+ * The members of the roster at a version, as the {@link Utils.Presence.Enums.PresenceEvents#JOIN} delta of each member.
+ */
+public class PresenceSnapshot
+{
+    /** The roster version of the snapshot. */
+    private final long VERSION;
+
+    /** The members of the roster. */
+    private final List<PresenceDelta> MEMBERS;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param version the roster version of the snapshot.
+     * @param members the members of the roster.
+     */
+    public PresenceSnapshot( long version, List<PresenceDelta> members )
+    {
+        VERSION = version;
+        MEMBERS = List.copyOf( members );
+    }
+
+    /**
+     * @return the roster version of the snapshot.
+     */
+    public long getVersion()
+    {
+        return VERSION;
+    }
+
+    /**
+     * @return the members of the roster, an unmodifiable list.
+     */
+    public List<PresenceDelta> getMembers()
+    {
+        return MEMBERS;
+    }
+}
@@ -0,0 +1,133 @@
+package Utils.Presence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the roster version of a client and applies the received snapshot pages and deltas in version order.
+ * <p>
+ * A snapshot is collected page by page and replaces the roster when its last page arrives. Deltas received before
+ * the first snapshot, or ahead of the roster version, are kept until the missing versions arrive. Deltas at or below
+ * the roster version are already applied and are ignored, so the replies of a resume may overlap the live deltas.
+ */
+public class PresenceTracker
+{
+    /** The maximum number of deltas kept while waiting for missing versions. */
+    private static final int MAX_PENDING_DELTAS = 4096;
+
+    /** The listener of the applied changes. */
+    private final PresenceListener LISTENER;
+
+    /** The deltas ahead of the roster version, by version. */
+    private final TreeMap< Long, PresenceDelta > PENDING = new TreeMap<>();
+
+    /** The members of the snapshot being received. */
+    private final List<PresenceDelta> SNAPSHOT_MEMBERS = new ArrayList<>();
+
+    /** The version of the snapshot being received, -1 if none. */
+    private long snapshotVersion = -1;
+
+    /** The roster version, -1 until the first snapshot. */
+    private long version = -1;
+
+    /** The version the missing changes were last requested from, so a gap is only reported once. */
+    private long requestedVersion = -1;
+
+    /**
+     * Creates a tracker without roster.
+     *
+     * @param listener the listener of the applied changes.
+     */
+    public PresenceTracker( PresenceListener listener )
+    {
+        LISTENER = listener;
+    }
+
+    /**
+     * @return the roster version, -1 until the first snapshot.
+     */
+    public synchronized long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * @return true once a complete snapshot was received.
+     */
+    public synchronized boolean hasRoster()
+    {
+        return version >= 0;
+    }
+
+    /**
+     * Receives a page of a snapshot. A page of another version discards the pages received before it.
+     *
+     * @param snapshotVersion the roster version of the snapshot.
+     * @param members         the members in the page.
+     * @param last            true if it is the last page.
+     */
+    public synchronized void receiveSnapshot( long snapshotVersion, List<PresenceDelta> members, boolean last )
+    {
+        if ( this.snapshotVersion != snapshotVersion )
+        {
+            SNAPSHOT_MEMBERS.clear();
+            this.snapshotVersion = snapshotVersion;
+        }
+        SNAPSHOT_MEMBERS.addAll( members );
+        if ( !last )
+            return;
+
+        version = snapshotVersion;
+        this.snapshotVersion = -1;
+        LISTENER.onRoster( List.copyOf( SNAPSHOT_MEMBERS ) );
+        SNAPSHOT_MEMBERS.clear();
+
+        PENDING.headMap( version, true ).clear();
+        applyPending();
+    }
+
+    /**
+     * Receives deltas, they are applied in version order once the roster has every version before them.
+     *
+     * @param deltas the received deltas.
+     */
+    public synchronized void receiveDeltas( List<PresenceDelta> deltas )
+    {
+        for ( PresenceDelta delta : deltas )
+        {
+            if ( version < 0 || delta.getVersion() > version )
+                PENDING.put( delta.getVersion(), delta );
+        }
+
+        while ( PENDING.size() > MAX_PENDING_DELTAS )
+            PENDING.pollLastEntry();
+
+        if ( version >= 0 )
+            applyPending();
+    }
+
+    /**
+     * Applies the pending deltas that follow the roster version, and reports a gap if deltas are still waiting.
+     */
+    private void applyPending()
+    {
+        Map.Entry< Long, PresenceDelta > next;
+        while ( ( next = PENDING.firstEntry() ) != null && next.getKey() <= version + 1 )
+        {
+            PENDING.pollFirstEntry();
+            if ( next.getKey() == version + 1 )
+            {
+                version++;
+                LISTENER.onDelta( next.getValue() );
+            }
+        }
+
+        if ( !PENDING.isEmpty() && requestedVersion != version )
+        {
+            requestedVersion = version;
+            LISTENER.onGap( version );
+        }
+    }
+}
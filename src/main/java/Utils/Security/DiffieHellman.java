@@ -1,8 +1,15 @@
 package Utils.Security;
 
+import Utils.Security.Encryption.Enums.CipherLayouts;
+import Utils.Security.Encryption.RSA;
+
 import java.math.BigInteger;
+import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -61,6 +68,62 @@ public class DiffieHellman {
         return publicKey.modPow ( privateKey , N );
     }
 
+    /**
+     * Signs a public key together with the cipher layout announced with it, so the layout can not be changed by the
+     * relay without breaking the signature.
+     *
+     * @param publicKey  the Diffie-Hellman public key
+     * @param layout     the announced cipher layout
+     * @param privateKey the RSA private key of the sender
+     *
+     * @return the signed public key
+     */
+    public static byte[] signPublicKey ( BigInteger publicKey , CipherLayouts layout , PrivateKey privateKey )
+    {
+        if ( layout == null )
+            throw new IllegalArgumentException ( "A signed public key must announce a cipher layout." );
+
+        byte[] key = publicKey.toByteArray ( );
+        byte[] signed = new byte[ key.length + 1 ];
+        signed[0] = (byte) layout.ordinal ( );
+        System.arraycopy ( key , 0 , signed , 1 , key.length );
+        return RSA.encryptRSA ( signed , privateKey );
+    }
+
+    /**
+     * Verifies a public key signed by {@link #signPublicKey(BigInteger, CipherLayouts, PrivateKey)} and the cipher layout
+     * announced with it.
+     *
+     * @param signedPublicKey the signed public key
+     * @param layout          the announced cipher layout
+     * @param publicKey       the RSA public key of the sender
+     *
+     * @return the Diffie-Hellman public key
+     *
+     * @throws GeneralSecurityException if no layout is announced, the signature is not valid or the announced layout is
+     *                                  not the signed one
+     */
+    public static BigInteger verifyPublicKey ( byte[] signedPublicKey , CipherLayouts layout , PublicKey publicKey ) throws GeneralSecurityException
+    {
+        if ( layout == null )
+            throw new GeneralSecurityException ( "The key change does not announce a cipher layout." );
+
+        byte[] signed;
+        try
+        {
+            signed = RSA.decryptRSA ( signedPublicKey , publicKey );
+        }
+        catch ( RuntimeException e )
+        {
+            throw new GeneralSecurityException ( "Invalid public key signature." , e );
+        }
+
+        if ( signed.length < 2 || signed[0] != (byte) layout.ordinal ( ) )
+            throw new GeneralSecurityException ( "The announced cipher layout is not the signed one." );
+
+        return new BigInteger ( Arrays.copyOfRange ( signed , 1 , signed.length ) );
+    }
+
     public static int getNumBits() {
         return NUM_BITS;
     }
@@ -0,0 +1,309 @@
+package Utils.Security.Encryption;
+
+import Utils.Security.Encryption.Enums.CipherLayouts;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * AES engine bound to one secret key, see {@link AES} for the static helpers.
+ * Each thread gets its own encrypt and decrypt {@link Cipher}, initialized once with the key, and a message is
+ * encrypted or decrypted with a single {@code doFinal}. Messages in the {@link CipherLayouts#BLOCKS} layout of the
+ * {@link AES} helpers are recognized and decrypted too, the {@link CipherLayouts#SINGLE} and {@link CipherLayouts#GCM}
+ * layouts start with a tag byte.
+ */
+public class AESCipher
+{
+    /** The AES block size in bytes. */
+    private static final int BLOCK_SIZE = 16;
+
+    /** The size of an encrypted block in the {@link CipherLayouts#BLOCKS} layout. */
+    private static final int ENCRYPTED_BLOCK_SIZE = 2 * BLOCK_SIZE;
+
+    /** The first byte of a message in the {@link CipherLayouts#SINGLE} layout. Makes its length one more than a multiple of 16, so it is never taken for the other layout. */
+    private static final byte SINGLE_LAYOUT_TAG = 1;
+
+    /** The first byte of a message in the {@link CipherLayouts#GCM} layout. */
+    private static final byte GCM_LAYOUT_TAG = 2;
+
+    /** The size of the nonce of a message in the {@link CipherLayouts#GCM} layout. */
+    private static final int GCM_NONCE_SIZE = 12;
+
+    /** The size of the authentication tag of a message in the {@link CipherLayouts#GCM} layout, in bits. */
+    private static final int GCM_TAG_BITS = 128;
+
+    /** The size added to a message in the {@link CipherLayouts#GCM} layout: the tag byte, the nonce and the authentication tag. */
+    public static final int GCM_OVERHEAD = 1 + GCM_NONCE_SIZE + GCM_TAG_BITS / 8;
+
+    /** The transformation of the ciphers, the padding is added by the engine so both block layouts share the ciphers. */
+    private static final String TRANSFORMATION = "AES/ECB/NoPadding";
+
+    /** The transformation of the {@link CipherLayouts#GCM} ciphers. */
+    private static final String GCM_TRANSFORMATION = "AES/GCM/NoPadding";
+
+    /** The source of the nonces. */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /** The key of the engine. */
+    private final SecretKeySpec KEY;
+
+    /** The encrypt cipher of each thread. */
+    private final ThreadLocal<Cipher> ENCRYPT_CIPHER;
+
+    /** The decrypt cipher of each thread. */
+    private final ThreadLocal<Cipher> DECRYPT_CIPHER;
+
+    /** The AES-GCM cipher of each thread, initialized with a new nonce for every message. */
+    private final ThreadLocal<Cipher> GCM_CIPHER;
+
+    /** The encrypted padding block written after every block in the {@link CipherLayouts#BLOCKS} layout. */
+    private final byte[] PADDING_BLOCK;
+
+    /**
+     * Creates an engine for the secret key. The key is zero padded to 16 bytes, as in {@link AES#encryptAES(byte[], byte[])}.
+     *
+     * @param secretKey the secret key, at most 16 bytes.
+     * @throws GeneralSecurityException if the key is not a valid AES key.
+     */
+    public AESCipher( byte[] secretKey ) throws GeneralSecurityException
+    {
+        KEY = new SecretKeySpec( ByteBuffer.allocate( BLOCK_SIZE ).put( secretKey ).array(), "AES" );
+        ENCRYPT_CIPHER = ThreadLocal.withInitial( () -> createCipher( Cipher.ENCRYPT_MODE ) );
+        DECRYPT_CIPHER = ThreadLocal.withInitial( () -> createCipher( Cipher.DECRYPT_MODE ) );
+        GCM_CIPHER = ThreadLocal.withInitial( AESCipher::createGCMCipher );
+
+        byte[] padding = new byte[BLOCK_SIZE];
+        Arrays.fill( padding, (byte) BLOCK_SIZE );
+        PADDING_BLOCK = cipher( ENCRYPT_CIPHER ).doFinal( padding );
+    }
+
+    /**
+     * Creates a cipher initialized with the key.
+     *
+     * @param mode the cipher mode.
+     * @return the initialized cipher.
+     */
+    private Cipher createCipher( int mode )
+    {
+        try
+        {
+            Cipher cipher = Cipher.getInstance( TRANSFORMATION );
+            cipher.init( mode, KEY );
+            return cipher;
+        }
+        catch ( GeneralSecurityException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * Creates an AES-GCM cipher, it is initialized for each message.
+     *
+     * @return the cipher.
+     */
+    private static Cipher createGCMCipher()
+    {
+        try
+        {
+            return Cipher.getInstance( GCM_TRANSFORMATION );
+        }
+        catch ( GeneralSecurityException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * Chooses the layout used with a peer. {@link CipherLayouts#GCM} is only used when both peers want it, otherwise the
+     * block layout of the peer is used.
+     *
+     * @param own  the layout of this client.
+     * @param peer the layout announced by the peer.
+     * @return the layout to use with the peer.
+     */
+    public static CipherLayouts negotiate( CipherLayouts own, CipherLayouts peer )
+    {
+        if ( own != CipherLayouts.GCM )
+            return own;
+
+        return peer;
+    }
+
+    /**
+     * Gets the cipher of the current thread.
+     *
+     * @param ciphers the ciphers by thread.
+     * @return the cipher of the current thread.
+     * @throws GeneralSecurityException if the cipher could not be created.
+     */
+    private static Cipher cipher( ThreadLocal<Cipher> ciphers ) throws GeneralSecurityException
+    {
+        try
+        {
+            return ciphers.get();
+        }
+        catch ( IllegalStateException e )
+        {
+            throw (GeneralSecurityException) e.getCause();
+        }
+    }
+
+    /**
+     * Encrypts a message with PKCS#5 padding.
+     *
+     * @param message the message to encrypt.
+     * @param layout  the layout of the encrypted message.
+     * @return the encrypted message.
+     * @throws GeneralSecurityException if the encryption fails.
+     */
+    public byte[] encrypt( byte[] message, CipherLayouts layout ) throws GeneralSecurityException
+    {
+        if ( layout == CipherLayouts.GCM )
+            return encryptGCM( message );
+
+        int paddingLength = BLOCK_SIZE - ( message.length % BLOCK_SIZE );
+        byte[] paddedMessage = Arrays.copyOf( message, message.length + paddingLength );
+        Arrays.fill( paddedMessage, message.length, paddedMessage.length, (byte) paddingLength );
+
+        Cipher cipher = cipher( ENCRYPT_CIPHER );
+        if ( layout == CipherLayouts.SINGLE )
+        {
+            byte[] encrypted = new byte[ 1 + paddedMessage.length ];
+            encrypted[0] = SINGLE_LAYOUT_TAG;
+            cipher.doFinal( paddedMessage, 0, paddedMessage.length, encrypted, 1 );
+            return encrypted;
+        }
+
+        byte[] encrypted = cipher.doFinal( paddedMessage );
+        byte[] blocks = new byte[ ( encrypted.length / BLOCK_SIZE ) * ENCRYPTED_BLOCK_SIZE ];
+        for ( int i = 0, j = 0; i < encrypted.length; i += BLOCK_SIZE, j += ENCRYPTED_BLOCK_SIZE )
+        {
+            System.arraycopy( encrypted, i, blocks, j, BLOCK_SIZE );
+            System.arraycopy( PADDING_BLOCK, 0, blocks, j + BLOCK_SIZE, BLOCK_SIZE );
+        }
+        return blocks;
+    }
+
+    /**
+     * Encrypts a message with AES-GCM under a new random nonce.
+     *
+     * @param message the message to encrypt.
+     * @return the tag byte, the nonce, the encrypted message and the authentication tag.
+     * @throws GeneralSecurityException if the encryption fails.
+     */
+    private byte[] encryptGCM( byte[] message ) throws GeneralSecurityException
+    {
+        byte[] encrypted = new byte[ message.length + GCM_OVERHEAD ];
+        encrypted[0] = GCM_LAYOUT_TAG;
+        byte[] nonce = new byte[GCM_NONCE_SIZE];
+        RANDOM.nextBytes( nonce );
+        System.arraycopy( nonce, 0, encrypted, 1, GCM_NONCE_SIZE );
+
+        Cipher cipher = cipher( GCM_CIPHER );
+        cipher.init( Cipher.ENCRYPT_MODE, KEY, new GCMParameterSpec( GCM_TAG_BITS, nonce ) );
+        cipher.doFinal( message, 0, message.length, encrypted, 1 + GCM_NONCE_SIZE );
+        return encrypted;
+    }
+
+    /**
+     * Decrypts and authenticates a message in the {@link CipherLayouts#GCM} layout.
+     *
+     * @param encryptedMessage the encrypted message, starting with the tag byte.
+     * @return the decrypted message.
+     * @throws GeneralSecurityException if the message was modified or not encrypted with the key.
+     */
+    private byte[] decryptGCM( byte[] encryptedMessage ) throws GeneralSecurityException
+    {
+        Cipher cipher = cipher( GCM_CIPHER );
+        cipher.init( Cipher.DECRYPT_MODE, KEY, new GCMParameterSpec( GCM_TAG_BITS, encryptedMessage, 1, GCM_NONCE_SIZE ) );
+        return cipher.doFinal( encryptedMessage, 1 + GCM_NONCE_SIZE, encryptedMessage.length - 1 - GCM_NONCE_SIZE );
+    }
+
+    /**
+     * Decrypts and authenticates a message, only the {@link CipherLayouts#GCM} layout is accepted.
+     *
+     * @param encryptedMessage the encrypted message.
+     * @return the decrypted message.
+     * @throws GeneralSecurityException if the message is not in the GCM layout, was modified or not encrypted with the key.
+     */
+    public byte[] decryptAuthenticated( byte[] encryptedMessage ) throws GeneralSecurityException
+    {
+        if ( encryptedMessage.length < GCM_OVERHEAD || encryptedMessage[0] != GCM_LAYOUT_TAG )
+            throw new BadPaddingException( "The message is not authenticated." );
+
+        return decryptGCM( encryptedMessage );
+    }
+
+    /**
+     * Decrypts a message encrypted by {@link #encrypt(byte[], CipherLayouts)} in any layout.
+     * The layouts are told apart by their tag byte and length: a multiple of 16 plus the single tag byte, a multiple of 32
+     * of encrypted and padding blocks, or the GCM tag byte followed by at least a nonce and an authentication tag.
+     *
+     * @param encryptedMessage the encrypted message.
+     * @return the decrypted message.
+     * @throws GeneralSecurityException if the message is not a valid encrypted message.
+     */
+    public byte[] decrypt( byte[] encryptedMessage ) throws GeneralSecurityException
+    {
+        byte[] paddedMessage;
+        if ( encryptedMessage.length % BLOCK_SIZE == 1 && encryptedMessage[0] == SINGLE_LAYOUT_TAG && encryptedMessage.length > 1 )
+        {
+            paddedMessage = cipher( DECRYPT_CIPHER ).doFinal( encryptedMessage, 1, encryptedMessage.length - 1 );
+        }
+        else if ( encryptedMessage.length > 0 && isBlocksLayout( encryptedMessage ) )
+        {
+            byte[] encrypted = new byte[ encryptedMessage.length / 2 ];
+            for ( int i = 0, j = 0; i < encryptedMessage.length; i += ENCRYPTED_BLOCK_SIZE, j += BLOCK_SIZE )
+                System.arraycopy( encryptedMessage, i, encrypted, j, BLOCK_SIZE );
+
+            paddedMessage = cipher( DECRYPT_CIPHER ).doFinal( encrypted );
+        }
+        else if ( encryptedMessage.length >= GCM_OVERHEAD && encryptedMessage[0] == GCM_LAYOUT_TAG )
+        {
+            return decryptGCM( encryptedMessage );
+        }
+        else
+        {
+            throw new BadPaddingException( "Invalid encrypted message length: " + encryptedMessage.length );
+        }
+
+        int paddingLength = paddedMessage[ paddedMessage.length - 1 ];
+        if ( paddingLength < 1 || paddingLength > BLOCK_SIZE )
+            throw new BadPaddingException( "Invalid padding length: " + paddingLength );
+
+        // every padding byte is checked, without stopping at the first wrong one
+        int invalidPadding = 0;
+        for ( int i = paddedMessage.length - paddingLength; i < paddedMessage.length; i++ )
+            invalidPadding |= paddedMessage[i] ^ paddingLength;
+        if ( invalidPadding != 0 )
+            throw new BadPaddingException( "Invalid padding." );
+
+        return Arrays.copyOf( paddedMessage, paddedMessage.length - paddingLength );
+    }
+
+    /**
+     * Checks if every second block of the message is the encrypted padding block.
+     *
+     * @param encryptedMessage the encrypted message.
+     * @return true if the message is in the {@link CipherLayouts#BLOCKS} layout.
+     */
+    private boolean isBlocksLayout( byte[] encryptedMessage )
+    {
+        if ( encryptedMessage.length % ENCRYPTED_BLOCK_SIZE != 0 )
+            return false;
+
+        for ( int i = BLOCK_SIZE; i < encryptedMessage.length; i += ENCRYPTED_BLOCK_SIZE )
+        {
+            if ( !Arrays.equals( encryptedMessage, i, i + BLOCK_SIZE, PADDING_BLOCK, 0, BLOCK_SIZE ) )
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package Utils.Security.Encryption.Enums;
+
+/**
+ * Represents the layouts of a message encrypted with AES.
+ *
+ * - {@code SINGLE}: The padded message is encrypted as a whole, after a tag byte that identifies the layout.
+ * - {@code BLOCKS}: Each 16-byte block is encrypted on its own and followed by an encrypted padding block, 32 bytes
+ *   per block. The layout of the {@link Utils.Security.Encryption.AES} helpers.
+ * - {@code GCM}: The message is encrypted with AES-GCM under a random 12-byte nonce, written after a tag byte and
+ *   followed by the 16-byte authentication tag. The message is authenticated, so it needs no separate digest.
+ */
+public enum CipherLayouts {
+    SINGLE,
+    BLOCKS,
+    GCM
+}
@@ -0,0 +1,194 @@
+package Utils.Security.Encryption;
+
+import Utils.Security.Encryption.Enums.CipherLayouts;
+import Utils.Security.Integrity.HASH;
+
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Encrypts one message for several recipients, each under its own {@link AESCipher}. The encryption for a recipient
+ * runs on the pool as soon as its cipher is ready, so the recipients are encrypted in parallel and a recipient whose
+ * secret is still being agreed does not delay the others. A single recipient is encrypted in the thread that makes its
+ * cipher ready, a task would cost more than the encryption.
+ * <p>
+ * The ciphers keep one {@link javax.crypto.Cipher} per thread, so a cipher is safely used by several pool threads.
+ * <p>
+ * In the hybrid mode, see {@link #seal(byte[], Map)}, the message is encrypted once under a random content key and only
+ * the content key is encrypted for each recipient. The content key is wrapped together with the digest of the encrypted
+ * message, so a recipient, who knows the content key, can not replace the message for the other recipients.
+ */
+public class FanOutEncryption
+{
+    /** The size of a content key, an AES-128 key. */
+    private static final int CONTENT_KEY_SIZE = 16;
+
+    /** The source of the content keys. */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /** Runs the encryptions. */
+    private final Executor POOL;
+
+    /**
+     * Creates an engine running the encryptions on the common fork-join pool, sized to the available processors.
+     */
+    public FanOutEncryption()
+    {
+        this( ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Creates an engine running the encryptions on the given pool.
+     *
+     * @param pool runs the encryptions.
+     */
+    public FanOutEncryption( Executor pool )
+    {
+        POOL = pool;
+    }
+
+    /**
+     * Encrypts the message for every recipient once its cipher is ready.
+     *
+     * @param message the message to encrypt, it must not be modified until every encryption completed.
+     * @param ciphers the futures of the ciphers of the recipients, by recipient.
+     * @param layouts gives the layout of the message encrypted for a recipient.
+     * @param <R>     the type of the recipients.
+     * @return the futures of the encrypted messages by recipient, in the order of the ciphers. A future fails if the
+     * cipher of its recipient failed or the encryption failed.
+     */
+    public <R> Map< R, CompletableFuture<byte[]> > encrypt( byte[] message, Map< R, CompletableFuture<AESCipher> > ciphers, Function< R, CipherLayouts > layouts )
+    {
+        boolean parallel = ciphers.size() > 1;
+        Map< R, CompletableFuture<byte[]> > encrypted = new LinkedHashMap<>();
+        for ( Map.Entry< R, CompletableFuture<AESCipher> > entry : ciphers.entrySet() )
+        {
+            R recipient = entry.getKey();
+            Function< AESCipher, byte[] > encryption = cipher -> encrypt( message, cipher, layouts.apply( recipient ) );
+            encrypted.put( recipient, parallel
+                    ? entry.getValue().thenApplyAsync( encryption, POOL )
+                    : entry.getValue().thenApply( encryption ) );
+        }
+        return encrypted;
+    }
+
+    /**
+     * Encrypts the message once under a new random content key, in the {@link CipherLayouts#GCM} layout, and wraps the
+     * content key and the digest of the encrypted message for every recipient under its cipher, also in the GCM layout.
+     * The cost is one encryption of the message plus one encryption of a key and a digest per recipient.
+     *
+     * @param message the message to encrypt.
+     * @param ciphers the ciphers of the recipients, by recipient.
+     * @param <R>     the type of the recipients.
+     * @return the encrypted message and the wrapped keys.
+     * @throws GeneralSecurityException if an encryption fails.
+     */
+    public <R> Envelope<R> seal( byte[] message, Map< R, AESCipher > ciphers ) throws GeneralSecurityException
+    {
+        byte[] contentKey = new byte[CONTENT_KEY_SIZE];
+        RANDOM.nextBytes( contentKey );
+
+        byte[] body = new AESCipher( contentKey ).encrypt( message, CipherLayouts.GCM );
+        byte[] digest = HASH.generateDigest( body );
+        byte[] wrapped = Arrays.copyOf( contentKey, CONTENT_KEY_SIZE + digest.length );
+        System.arraycopy( digest, 0, wrapped, CONTENT_KEY_SIZE, digest.length );
+
+        Map< R, byte[] > keys = new LinkedHashMap<>();
+        for ( Map.Entry< R, AESCipher > entry : ciphers.entrySet() )
+            keys.put( entry.getKey(), entry.getValue().encrypt( wrapped, CipherLayouts.GCM ) );
+
+        return new Envelope<>( body, keys );
+    }
+
+    /**
+     * Decrypts a message sealed by {@link #seal(byte[], Map)}. The wrapped key is authenticated under the cipher shared
+     * with the sender, and the message must be the one whose digest the sender wrapped with the key.
+     *
+     * @param wrappedKey the content key wrapped for this recipient.
+     * @param body       the encrypted message.
+     * @param cipher     the cipher shared with the sender.
+     * @return the message.
+     * @throws GeneralSecurityException if the key or the message can not be decrypted, or the message was modified.
+     */
+    public static byte[] open( byte[] wrappedKey, byte[] body, AESCipher cipher ) throws GeneralSecurityException
+    {
+        byte[] wrapped = cipher.decryptAuthenticated( wrappedKey );
+        byte[] digest = HASH.generateDigest( body );
+        if ( wrapped.length != CONTENT_KEY_SIZE + digest.length )
+            throw new GeneralSecurityException( "Invalid wrapped key size: " + wrapped.length );
+        if ( !HASH.verifyDigest( Arrays.copyOfRange( wrapped, CONTENT_KEY_SIZE, wrapped.length ), digest ) )
+            throw new GeneralSecurityException( "The message is not the one sealed by the sender." );
+
+        return new AESCipher( Arrays.copyOf( wrapped, CONTENT_KEY_SIZE ) ).decryptAuthenticated( body );
+    }
+
+    /**
+     * Encrypts the message under the cipher.
+     *
+     * @param message the message to encrypt.
+     * @param cipher  the cipher of the recipient.
+     * @param layout  the layout of the encrypted message.
+     * @return the encrypted message.
+     * @throws CompletionException if the encryption fails.
+     */
+    private static byte[] encrypt( byte[] message, AESCipher cipher, CipherLayouts layout )
+    {
+        try
+        {
+            return cipher.encrypt( message, layout );
+        }
+        catch ( GeneralSecurityException e )
+        {
+            throw new CompletionException( e );
+        }
+    }
+
+    /**
+     * A message encrypted once for several recipients, with the content key wrapped for each recipient.
+     *
+     * @param <R> the type of the recipients.
+     */
+    public static class Envelope<R>
+    {
+        /** The message encrypted under the content key. */
+        private final byte[] BODY;
+
+        /** The wrapped content key by recipient. */
+        private final Map< R, byte[] > KEYS;
+
+        /**
+         * @param body the message encrypted under the content key.
+         * @param keys the wrapped content key by recipient.
+         */
+        private Envelope( byte[] body, Map< R, byte[] > keys )
+        {
+            BODY = body;
+            KEYS = Collections.unmodifiableMap( keys );
+        }
+
+        /**
+         * @return the message encrypted under the content key. The array must not be modified.
+         */
+        public byte[] getBody()
+        {
+            return BODY;
+        }
+
+        /**
+         * @return the wrapped content key by recipient, in the order of the ciphers.
+         */
+        public Map< R, byte[] > getKeys()
+        {
+            return KEYS;
+        }
+    }
+}
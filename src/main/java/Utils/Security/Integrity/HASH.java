@@ -1,35 +1,65 @@
 package Utils.Security.Integrity;
 
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 
 /**
  * This class implements the generation and verification of the message digest.
+ * Each thread reuses its own {@link MessageDigest}, which is reset after every digest.
  */
 public class HASH {
 
     private static final String DIGEST_ALGORITHM = "SHA-512";
 
+    /** The message digest of each thread. */
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial( HASH::createMessageDigest );
+
     /**
-     * Computes the message digest of the given message.
-     *
-     * @param message The message to be digested.
+     * Creates a message digest for the digest algorithm.
      *
-     * @return the message digest
+     * @return the message digest.
      */
-    public static byte[] generateDigest ( byte[] message )
+    private static MessageDigest createMessageDigest()
     {
         try
         {
-            MessageDigest messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
-            return messageDigest.digest(message);
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
         }
-        catch ( Exception e )
+        catch ( NoSuchAlgorithmException e )
         {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Computes the message digest of the given message.
+     *
+     * @param message The message to be digested.
+     *
+     * @return the message digest
+     */
+    public static byte[] generateDigest ( byte[] message )
+    {
+        return DIGESTS.get().digest(message);
+    }
+
+    /**
+     * Computes the message digest of the remaining bytes of the buffer, without copying them.
+     * The position of the buffer is not changed.
+     *
+     * @param message The buffer with the message to be digested.
+     *
+     * @return the message digest
+     */
+    public static byte[] generateDigest ( ByteBuffer message )
+    {
+        MessageDigest messageDigest = DIGESTS.get();
+        messageDigest.update(message.duplicate());
+        return messageDigest.digest();
+    }
+
     /**
      * Verifies the message digest of the given message.
      *
@@ -2,33 +2,55 @@ package Utils.Security.Integrity;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * This class implements the generation and verification of the message MAC.
+ * Each thread keeps its {@link Mac} objects initialized by key, so a key is only initialized once per thread.
  */
 public class MAC {
 
     private static final String MAC_ALGORITHM = "HmacSHA256";
 
+    /** The maximum number of initialized MACs kept by each thread, the least recently used is dropped. */
+    private static final int MAX_CACHED_KEYS = 32;
+
+    /** The initialized MACs of each thread, by key. */
+    private static final ThreadLocal< Map< ByteBuffer, Mac > > MACS = ThreadLocal.withInitial(
+            () -> new LinkedHashMap<>( 16, 0.75f, true )
+            {
+                @Override
+                protected boolean removeEldestEntry( Map.Entry< ByteBuffer, Mac > eldest )
+                {
+                    return size() > MAX_CACHED_KEYS;
+                }
+            }
+    );
+
     /**
-     * Computes the message MAC of the given message.
-     *
-     * @param message The message to be digested.
-     * @param macKey  the secret key for the MAC algorithm
+     * Gets the MAC of the current thread initialized with the key, initializing it in the first use of the key.
      *
-     * @return the message MAC
+     * @param macKey the secret key for the MAC algorithm
      *
+     * @return the initialized MAC
      */
-    public static byte[] generateMAC ( byte[] message , byte[] macKey )
+    private static Mac getMac ( byte[] macKey )
     {
+        Map< ByteBuffer, Mac > macs = MACS.get();
+        Mac mac = macs.get( ByteBuffer.wrap( macKey ) );
+        if ( mac != null )
+            return mac;
+
         try
         {
-            SecretKeySpec secretKeySpec = new SecretKeySpec ( macKey , MAC_ALGORITHM );
-            Mac mac = Mac.getInstance ( MAC_ALGORITHM );
-            mac.init ( secretKeySpec );
-            return mac.doFinal ( message );
+            byte[] key = macKey.clone();
+            mac = Mac.getInstance ( MAC_ALGORITHM );
+            mac.init ( new SecretKeySpec ( key , MAC_ALGORITHM ) );
+            macs.put( ByteBuffer.wrap( key ), mac );
+            return mac;
         }
         catch ( Exception e )
         {
@@ -36,6 +58,36 @@ public class MAC {
         }
     }
 
+    /**
+     * Computes the message MAC of the given message.
+     *
+     * @param message The message to be digested.
+     * @param macKey  the secret key for the MAC algorithm
+     *
+     * @return the message MAC
+     *
+     */
+    public static byte[] generateMAC ( byte[] message , byte[] macKey )
+    {
+        return getMac( macKey ).doFinal ( message );
+    }
+
+    /**
+     * Computes the message MAC of the remaining bytes of the buffer, without copying them.
+     * The position of the buffer is not changed.
+     *
+     * @param message The buffer with the message to be digested.
+     * @param macKey  the secret key for the MAC algorithm
+     *
+     * @return the message MAC
+     */
+    public static byte[] generateMAC ( ByteBuffer message , byte[] macKey )
+    {
+        Mac mac = getMac( macKey );
+        mac.update ( message.duplicate() );
+        return mac.doFinal();
+    }
+
     /**
      * Verifies the message authentication code (MAC) of the message.
      *
@@ -0,0 +1,374 @@
+package Utils.Transport;
+
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Message.Codec.MessageCodec;
+import Utils.Message.Codec.MessageCodecs;
+import Utils.Message.Message;
+import Utils.Transport.Enums.OverflowPolicies;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Optional;
+
+/**
+ * Transport over a non-blocking socket channel owned by a {@link SelectorLoop}.
+ * All reads and writes are done by the loop thread: sent frames are queued until the channel is writable, and
+ * received frames are pushed to the {@link TransportListener} of the transport, see {@link EncodedMessage#fromFrame(byte[], MessageCodec)}.
+ * The codec of the frames is chosen with the first received bytes, see {@link CodecNegotiation}.
+ */
+public class ChannelTransport implements PushTransport
+{
+    /** The initial size of the read buffer, it grows up to the size of the biggest received frame. */
+    private static final int INITIAL_READ_BUFFER_SIZE = 8 * 1024;
+
+    /** The connection. */
+    private final SocketChannel CHANNEL;
+
+    /** The loop that owns the connection. */
+    private final SelectorLoop LOOP;
+
+    /** The frames waiting for the channel to be writable. */
+    private final OutboundQueue<ByteBuffer> PENDING_WRITES;
+
+    /** The frame being written, kept out of the queue so a dropped frame is never a partially written one. Only accessed by the loop thread. */
+    private ByteBuffer currentWrite;
+
+    /** The received bytes not yet decoded. Only accessed by the loop thread. */
+    private ByteBuffer readBuffer;
+
+    /** The listener of the received messages. */
+    private TransportListener listener;
+
+    /** The key of the channel in the loop selector. Only accessed by the loop thread. */
+    private SelectionKey key;
+
+    /** The codec of the frame payloads, null until negotiated with the first received bytes. */
+    private volatile MessageCodec codec;
+
+    /** The state of the transport. */
+    private volatile boolean closed;
+
+    /** The reason the connection is closed once the pending frames are written, null while it is open. */
+    private volatile IOException closeCause;
+
+    /**
+     * Creates a transport for the channel with an unbounded write queue.
+     * The channel is only read after {@link #open(TransportListener)}.
+     *
+     * @param channel the accepted connection.
+     * @param loop    the loop that will own the connection.
+     * @throws IOException if the channel could not be configured as non-blocking.
+     */
+    public ChannelTransport( SocketChannel channel, SelectorLoop loop ) throws IOException
+    {
+        this( channel, loop, new OutboundQueue<>( Integer.MAX_VALUE, OverflowPolicies.DISCONNECT, 0 ) );
+    }
+
+    /**
+     * Creates a transport for the channel. The channel is only read after {@link #open(TransportListener)}.
+     *
+     * @param channel       the accepted connection.
+     * @param loop          the loop that will own the connection.
+     * @param pendingWrites the queue of the frames waiting for the channel to be writable.
+     * @throws IOException if the channel could not be configured as non-blocking.
+     */
+    public ChannelTransport( SocketChannel channel, SelectorLoop loop, OutboundQueue<ByteBuffer> pendingWrites ) throws IOException
+    {
+        CHANNEL = channel;
+        CHANNEL.configureBlocking( false );
+        LOOP = loop;
+        PENDING_WRITES = pendingWrites;
+        readBuffer = ByteBuffer.allocate( INITIAL_READ_BUFFER_SIZE );
+        closed = false;
+    }
+
+    /**
+     * Registers the channel in the loop. From now on all received messages are pushed to the listener.
+     *
+     * @param listener the listener of the received messages.
+     */
+    @Override
+    public void open( TransportListener listener )
+    {
+        this.listener = listener;
+        LOOP.register( this );
+    }
+
+    /**
+     * Queues the message to be written by the loop. If the queue rejects the message the connection is closed by the loop.
+     * A loop thread never waits for room, it could be the one that drains the queue, and waiting for the queue of another
+     * loop would stall every connection of its own loop.
+     *
+     * @param message the message to send.
+     * @throws IOException if the channel is closed or the queue overflowed.
+     */
+    @Override
+    public void send( Message message ) throws IOException
+    {
+        if ( closed || closeCause != null )
+            throw new IOException( "Channel is closed." );
+
+        write( MessageFrames.encode( message, negotiatedCodec() ) );
+    }
+
+    /**
+     * Queues the shared frame of the message to be written by the loop, see {@link #send(Message)}.
+     *
+     * @param message the message to send.
+     * @throws IOException if the channel is closed or the queue overflowed.
+     */
+    @Override
+    public void send( EncodedMessage message ) throws IOException
+    {
+        if ( closed || closeCause != null )
+            throw new IOException( "Channel is closed." );
+
+        write( message.getFrame( negotiatedCodec() ) );
+    }
+
+    /**
+     * Gets the codec of the connection.
+     *
+     * @return the negotiated codec.
+     * @throws IOException if the codec was not negotiated yet.
+     */
+    private MessageCodec negotiatedCodec() throws IOException
+    {
+        MessageCodec negotiated = codec;
+        if ( negotiated == null )
+            throw new IOException( "The codec of the connection is not negotiated yet." );
+
+        return negotiated;
+    }
+
+    /**
+     * Queues the frame to be written by the loop. The array is wrapped, not copied, it is never modified.
+     *
+     * @param bytes the frame to write.
+     * @throws IOException if the queue overflowed.
+     */
+    private void write( byte[] bytes ) throws IOException
+    {
+        ByteBuffer frame = ByteBuffer.wrap( bytes );
+        boolean queued = Thread.currentThread() instanceof SelectorLoop ? PENDING_WRITES.offerNow( frame ) : PENDING_WRITES.offer( frame );
+        if ( !queued )
+        {
+            IOException overflow = new IOException( "Outbound queue overflowed, connection closed. " + PENDING_WRITES.getMetrics() );
+            LOOP.requestDisconnect( this, overflow );
+            throw overflow;
+        }
+
+        LOOP.requestWrite( this );
+    }
+
+    @Override
+    public Optional<QueueMetrics> getOutboundMetrics()
+    {
+        return Optional.of( PENDING_WRITES.getMetrics() );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        PENDING_WRITES.close();
+        CHANNEL.close();
+    }
+
+    /**
+     * Registers the channel in the selector for reading. Called by the loop thread.
+     *
+     * @param selector the loop selector.
+     * @throws ClosedChannelException if the channel was closed before being registered.
+     */
+    void register( Selector selector ) throws ClosedChannelException
+    {
+        key = CHANNEL.register( selector, SelectionKey.OP_READ, this );
+    }
+
+    /**
+     * Adds the write interest to the channel key. Called by the loop thread.
+     */
+    void enableWrite()
+    {
+        if ( key != null && key.isValid() )
+            key.interestOps( closeCause == null ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_WRITE );
+    }
+
+    /**
+     * Stops reading the channel and closes it once the pending frames are written, like {@link OutboundQueue#finish()}
+     * for the queued transports. Called by the loop thread.
+     *
+     * @param cause the reason of the disconnection, given to the listener when the channel is closed.
+     */
+    private void closeAfterWrites( IOException cause )
+    {
+        closeCause = cause;
+        PENDING_WRITES.finish();
+        enableWrite();
+    }
+
+    /**
+     * Reads the available bytes and pushes every complete frame to the listener. Called by the loop thread.
+     *
+     * @throws IOException if the connection is lost or a received frame is invalid.
+     */
+    void handleRead() throws IOException
+    {
+        if ( CHANNEL.read( readBuffer ) == -1 )
+            throw new EOFException( "Connection closed by peer." );
+
+        readBuffer.flip();
+        int requiredCapacity;
+        try
+        {
+            requiredCapacity = deliverFrames();
+        }
+        finally
+        {
+            readBuffer.compact();
+        }
+
+        if ( requiredCapacity > readBuffer.capacity() )
+        {
+            ByteBuffer biggerBuffer = ByteBuffer.allocate( requiredCapacity );
+            readBuffer.flip();
+            biggerBuffer.put( readBuffer );
+            readBuffer = biggerBuffer;
+        }
+    }
+
+    /**
+     * Decodes and delivers the complete frames in the read buffer, the buffer must be in read mode.
+     *
+     * @return the size of the next incomplete frame, or 0 if there is none.
+     * @throws IOException if a received frame is invalid or the listener fails to handle it.
+     */
+    private int deliverFrames() throws IOException
+    {
+        if ( codec == null && !negotiateCodec() )
+            return 0;
+
+        while ( readBuffer.remaining() >= MessageFrames.LENGTH_PREFIX_SIZE )
+        {
+            int length = readBuffer.getInt( readBuffer.position() );
+            MessageFrames.validateLength( length );
+
+            int frameSize = MessageFrames.LENGTH_PREFIX_SIZE + length;
+            if ( readBuffer.remaining() < frameSize )
+                return frameSize;
+
+            byte[] frame = new byte[frameSize];
+            readBuffer.get( frame );
+            try
+            {
+                listener.onEncodedMessage( EncodedMessage.fromFrame( frame, codec ) );
+            }
+            catch ( ClassNotFoundException | RuntimeException e )
+            {
+                throw new IOException( "Could not handle received frame: " + e.getMessage(), e );
+            }
+
+            if ( closed )
+                return 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Chooses the codec with the first received bytes, the buffer must be in read mode.
+     * A hello is consumed and answered, any other bytes are the first frame of a client that does not negotiate.
+     * When there is no codec supported by both peers the answer is written and then the connection is closed.
+     *
+     * @return true if the codec was chosen, false if more bytes are needed or there is no common codec.
+     */
+    private boolean negotiateCodec()
+    {
+        int start = readBuffer.position();
+        if ( readBuffer.remaining() < MessageFrames.LENGTH_PREFIX_SIZE )
+            return false;
+
+        if ( readBuffer.getInt( start ) != CodecNegotiation.MAGIC )
+        {
+            codec = MessageCodecs.get( CodecTypes.JAVA );
+            return true;
+        }
+
+        if ( readBuffer.remaining() < CodecNegotiation.HELLO_HEADER_SIZE )
+            return false;
+
+        byte[] ids = new byte[ readBuffer.get( start + MessageFrames.LENGTH_PREFIX_SIZE ) & 0xFF ];
+        if ( readBuffer.remaining() < CodecNegotiation.HELLO_HEADER_SIZE + ids.length )
+            return false;
+
+        readBuffer.position( start + CodecNegotiation.HELLO_HEADER_SIZE );
+        readBuffer.get( ids );
+
+        CodecTypes chosen = CodecNegotiation.select( ids );
+        PENDING_WRITES.offerNow( ByteBuffer.wrap( CodecNegotiation.encodeReply( chosen ) ) );
+        if ( chosen == null )
+        {
+            closeAfterWrites( new IOException( "There is no codec supported by both peers." ) );
+            return false;
+        }
+
+        enableWrite();
+
+        codec = MessageCodecs.get( chosen );
+        return true;
+    }
+
+    /**
+     * Writes the pending frames until the channel stops accepting bytes, and closes the channel once they are written
+     * if it is closing, see {@link #closeAfterWrites(IOException)}. Called by the loop thread.
+     *
+     * @throws IOException if the connection is lost.
+     */
+    void handleWrite() throws IOException
+    {
+        if ( currentWrite == null )
+            currentWrite = PENDING_WRITES.poll();
+
+        while ( currentWrite != null )
+        {
+            CHANNEL.write( currentWrite );
+            if ( currentWrite.hasRemaining() )
+                return;
+
+            currentWrite = PENDING_WRITES.poll();
+        }
+
+        if ( closeCause != null )
+        {
+            disconnect( closeCause );
+            return;
+        }
+
+        key.interestOps( SelectionKey.OP_READ );
+    }
+
+    /**
+     * Closes the transport after the connection is lost and notifies the listener. Called by the loop thread.
+     *
+     * @param cause the reason of the disconnection.
+     */
+    void disconnect( IOException cause )
+    {
+        if ( closed )
+            return;
+
+        try
+        {
+            close();
+        }
+        catch ( IOException ignored ) {}
+
+        if ( listener != null )
+            listener.onDisconnect( cause );
+    }
+}
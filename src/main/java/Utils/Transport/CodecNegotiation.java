@@ -0,0 +1,175 @@
+package Utils.Transport;
+
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Message.Codec.MessageCodecs;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectStreamConstants;
+import java.io.OutputStream;
+import java.net.Socket;
+
+/**
+ * This class implements the choice of the message codec when a connection is opened.
+ * The client sends a hello with the {@link #MAGIC} and the ids of the codecs it supports, by order of preference,
+ * and the server answers with the {@link #MAGIC} and the id of the first codec it also supports.
+ * The messages are then exchanged as frames, see {@link MessageFrames}, encoded with the chosen codec.
+ * <p>
+ * Clients that do not negotiate are still accepted: a connection that starts with an object stream header uses
+ * {@link ObjectStreamTransport}, and one that starts with a frame uses Java serialized frames. The magic is bigger
+ * than {@link MessageFrames#MAX_PAYLOAD_SIZE}, so it is never a valid frame length.
+ * </p>
+ */
+public class CodecNegotiation
+{
+    /** The first int of a negotiation message. */
+    public static final int MAGIC = 0x53434831;
+
+    /** The size in bytes of the hello before the codec ids. */
+    public static final int HELLO_HEADER_SIZE = 5;
+
+    /** The id answered when there is no common codec. */
+    private static final byte NO_CODEC = 0;
+
+    private CodecNegotiation(){}
+
+    /**
+     * Negotiates the codec with the server and creates the transport of the connection.
+     *
+     * @param connection the connection to the server.
+     * @param codecs     the supported codecs by order of preference.
+     * @return the framed transport using the chosen codec.
+     * @throws IOException if the server does not negotiate or there is no common codec.
+     */
+    public static PullTransport connect( Socket connection, CodecTypes... codecs ) throws IOException
+    {
+        OutputStream output = connection.getOutputStream();
+        output.write( encodeHello( codecs ) );
+        output.flush();
+
+        DataInputStream input = new DataInputStream( connection.getInputStream() );
+        if ( input.readInt() != MAGIC )
+            throw new IOException( "The server does not support codec negotiation." );
+
+        CodecTypes chosen = CodecTypes.fromId( input.readByte() );
+        if ( chosen == null || !contains( codecs, chosen ) )
+            throw new IOException( "There is no codec supported by both peers." );
+
+        return new FramedTransport( connection.getInputStream(), output, connection, MessageCodecs.get( chosen ) );
+    }
+
+    /**
+     * Detects how the client talks, answering its hello if it negotiates, and creates the transport of the connection.
+     *
+     * @param connection  the accepted connection.
+     * @param resetPolicy decides when the output stream is reset if the client uses object streams.
+     * @return the transport of the connection.
+     * @throws IOException if the connection is lost or there is no common codec.
+     */
+    public static PullTransport accept( Socket connection, StreamResetPolicy resetPolicy ) throws IOException
+    {
+        BufferedInputStream input = new BufferedInputStream( connection.getInputStream() );
+        OutputStream output = connection.getOutputStream();
+        DataInputStream dataInput = new DataInputStream( input );
+
+        input.mark( MessageFrames.LENGTH_PREFIX_SIZE );
+        int header = dataInput.readInt();
+        if ( header == MAGIC )
+        {
+            byte[] ids = new byte[ dataInput.readUnsignedByte() ];
+            dataInput.readFully( ids );
+            CodecTypes chosen = select( ids );
+            output.write( encodeReply( chosen ) );
+            output.flush();
+            if ( chosen == null )
+                throw new IOException( "There is no codec supported by both peers." );
+
+            return new FramedTransport( input, output, connection, MessageCodecs.get( chosen ) );
+        }
+
+        input.reset();
+        if ( ( header >>> 16 ) == ( ObjectStreamConstants.STREAM_MAGIC & 0xFFFF ) )
+            return new ObjectStreamTransport( input, output, connection, resetPolicy );
+
+        return new FramedTransport( input, output, connection );
+    }
+
+    /**
+     * Chooses the first offered codec that is known.
+     *
+     * @param ids the ids of the offered codecs by order of preference.
+     * @return the chosen codec, or null if none is known.
+     */
+    public static CodecTypes select( byte[] ids )
+    {
+        for ( byte id : ids )
+        {
+            CodecTypes codec = CodecTypes.fromId( id );
+            if ( codec != null )
+                return codec;
+        }
+        return null;
+    }
+
+    /**
+     * Encodes the hello sent by a client.
+     *
+     * @param codecs the supported codecs by order of preference.
+     * @return the hello bytes.
+     */
+    public static byte[] encodeHello( CodecTypes... codecs )
+    {
+        byte[] hello = new byte[ HELLO_HEADER_SIZE + codecs.length ];
+        writeMagic( hello );
+        hello[4] = (byte) codecs.length;
+        for ( int i = 0; i < codecs.length; i++ )
+            hello[ HELLO_HEADER_SIZE + i ] = codecs[i].getId();
+
+        return hello;
+    }
+
+    /**
+     * Encodes the answer of the server to a hello.
+     *
+     * @param chosen the chosen codec, or null if there is no common codec.
+     * @return the answer bytes.
+     */
+    public static byte[] encodeReply( CodecTypes chosen )
+    {
+        byte[] reply = new byte[ HELLO_HEADER_SIZE ];
+        writeMagic( reply );
+        reply[4] = chosen == null ? NO_CODEC : chosen.getId();
+        return reply;
+    }
+
+    /**
+     * Writes the magic in the first bytes of the array.
+     *
+     * @param bytes the array to write to.
+     */
+    private static void writeMagic( byte[] bytes )
+    {
+        bytes[0] = (byte)( MAGIC >>> 24 );
+        bytes[1] = (byte)( MAGIC >>> 16 );
+        bytes[2] = (byte)( MAGIC >>> 8 );
+        bytes[3] = (byte) MAGIC;
+    }
+
+    /**
+     * Checks if the codec is one of the given codecs.
+     *
+     * @param codecs the codecs.
+     * @param codec  the codec to find.
+     * @return true if the codec was found.
+     */
+    private static boolean contains( CodecTypes[] codecs, CodecTypes codec )
+    {
+        for ( CodecTypes type : codecs )
+        {
+            if ( type == codec )
+                return true;
+        }
+        return false;
+    }
+}
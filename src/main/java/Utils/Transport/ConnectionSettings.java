@@ -0,0 +1,44 @@
+package Utils.Transport;
+
+/**
+ * The settings shared by the connections of a server.
+ */
+public class ConnectionSettings
+{
+    /** The settings without outbound queues and with the default reset policy. */
+    public static final ConnectionSettings DEFAULT = new ConnectionSettings( null, StreamResetPolicy.DEFAULT );
+
+    /** The settings of the outbound queue of each connection, null if the messages are written by the senders. */
+    private final OutboundQueueSettings OUTBOUND_QUEUES;
+
+    /** Decides when the object streams of the connections are reset. */
+    private final StreamResetPolicy RESET_POLICY;
+
+    /**
+     * Creates the settings.
+     *
+     * @param outboundQueues the settings of the outbound queue of each connection, null to write the messages directly.
+     * @param resetPolicy    decides when the object streams of the connections are reset.
+     */
+    public ConnectionSettings( OutboundQueueSettings outboundQueues, StreamResetPolicy resetPolicy )
+    {
+        OUTBOUND_QUEUES = outboundQueues;
+        RESET_POLICY = resetPolicy;
+    }
+
+    /**
+     * @return the settings of the outbound queues, or null if the messages are written by the senders.
+     */
+    public OutboundQueueSettings getOutboundQueues()
+    {
+        return OUTBOUND_QUEUES;
+    }
+
+    /**
+     * @return the policy that decides when the object streams are reset.
+     */
+    public StreamResetPolicy getResetPolicy()
+    {
+        return RESET_POLICY;
+    }
+}
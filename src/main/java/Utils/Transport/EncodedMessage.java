@@ -0,0 +1,143 @@
+package Utils.Transport;
+
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Message.Codec.MessageCodec;
+import Utils.Message.Codec.MessageCodecs;
+import Utils.Message.Codec.RoutingHeader;
+import Utils.Message.Message;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A message shared by several sends, for example a broadcast. The frame of the message is encoded by the first
+ * transport that needs it and the same bytes are written to every other connection using the same codec.
+ * <p>
+ * A received frame can also be wrapped without being decoded, see {@link #fromFrame(byte[], MessageCodec)}. If its codec
+ * has a {@link RoutingHeader} the message is only decoded when it is asked for, or when a connection with another codec
+ * sends it, so a relay forwards the received bytes as they are.
+ */
+public class EncodedMessage
+{
+    /** The routing fields of the message. */
+    private final RoutingHeader HEADER;
+
+    /** The encoded frames by codec, a frame is only encoded when the first transport using its codec sends the message. */
+    private final Map< CodecTypes, byte[] > FRAMES;
+
+    /** The message, null until a received frame is decoded. */
+    private Message message;
+
+    /**
+     * Creates a shared message, the frame is only encoded when needed.
+     *
+     * @param message the message.
+     */
+    public EncodedMessage( Message message )
+    {
+        this.message = message;
+        HEADER = RoutingHeader.of( message );
+        FRAMES = new EnumMap<>( CodecTypes.class );
+    }
+
+    /**
+     * Creates a shared message from a received frame.
+     *
+     * @param header the routing fields of the message.
+     * @param frame  the received frame, including the length prefix.
+     * @param codec  the codec of the frame payload.
+     */
+    private EncodedMessage( RoutingHeader header, byte[] frame, MessageCodec codec )
+    {
+        HEADER = header;
+        FRAMES = new EnumMap<>( CodecTypes.class );
+        FRAMES.put( codec.getType(), frame );
+    }
+
+    /**
+     * Wraps a received frame. Only the routing header is read if the codec supports it, otherwise the message is decoded.
+     * The frame is kept, so it is written as it is to connections with the same codec. The array must not be modified.
+     *
+     * @param frame the received frame, including the length prefix.
+     * @param codec the codec of the frame payload.
+     * @return the shared message.
+     * @throws IOException            if the frame is not valid.
+     * @throws ClassNotFoundException if the class of a serialized object is not known.
+     */
+    public static EncodedMessage fromFrame( byte[] frame, MessageCodec codec ) throws IOException, ClassNotFoundException
+    {
+        int length = frame.length - MessageFrames.LENGTH_PREFIX_SIZE;
+        Optional<RoutingHeader> header = codec.readRoutingHeader( frame, MessageFrames.LENGTH_PREFIX_SIZE, length );
+        if ( header.isPresent() )
+            return new EncodedMessage( header.get(), frame, codec );
+
+        Message message = MessageFrames.decode( frame, MessageFrames.LENGTH_PREFIX_SIZE, length, codec );
+        EncodedMessage encodedMessage = new EncodedMessage( RoutingHeader.of( message ), frame, codec );
+        encodedMessage.message = message;
+        return encodedMessage;
+    }
+
+    /**
+     * @return the routing fields of the message.
+     */
+    public RoutingHeader getHeader()
+    {
+        return HEADER;
+    }
+
+    /**
+     * Gets the message, decoding the received frame in the first call.
+     *
+     * @return the message.
+     * @throws IOException if the received frame is not a valid message.
+     */
+    public synchronized Message getMessage() throws IOException
+    {
+        if ( message == null )
+        {
+            Map.Entry< CodecTypes, byte[] > received = FRAMES.entrySet().iterator().next();
+            byte[] frame = received.getValue();
+            try
+            {
+                message = MessageFrames.decode( frame, MessageFrames.LENGTH_PREFIX_SIZE, frame.length - MessageFrames.LENGTH_PREFIX_SIZE,
+                        MessageCodecs.get( received.getKey() ) );
+            }
+            catch ( ClassNotFoundException e )
+            {
+                throw new IOException( "Could not decode received frame: " + e.getMessage(), e );
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Gets the Java serialized frame of the message, see {@link #getFrame(MessageCodec)}.
+     *
+     * @return the frame, including the length prefix.
+     * @throws IOException if the message could not be encoded.
+     */
+    public byte[] getFrame() throws IOException
+    {
+        return getFrame( MessageCodecs.get( CodecTypes.JAVA ) );
+    }
+
+    /**
+     * Gets the frame of the message for the codec, encoding it in the first call. The returned array must not be modified.
+     *
+     * @param codec the codec of the frame payload.
+     * @return the frame, including the length prefix.
+     * @throws IOException if the message could not be encoded.
+     */
+    public synchronized byte[] getFrame( MessageCodec codec ) throws IOException
+    {
+        byte[] frame = FRAMES.get( codec.getType() );
+        if ( frame == null )
+        {
+            frame = MessageFrames.encode( getMessage(), codec );
+            FRAMES.put( codec.getType(), frame );
+        }
+        return frame;
+    }
+}
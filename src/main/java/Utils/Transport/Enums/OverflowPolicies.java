@@ -0,0 +1,14 @@
+package Utils.Transport.Enums;
+
+/**
+ * Represents what an outbound queue does when a message is sent to a full queue.
+ *
+ * - {@code DROP_OLDEST}: The oldest queued message is discarded to make room for the new one.
+ * - {@code DISCONNECT}: The recipient is disconnected, it is not able to keep up with its messages.
+ * - {@code BLOCK}: The sender waits for room up to a timeout, and disconnects the recipient if the timeout expires.
+ */
+public enum OverflowPolicies {
+    DROP_OLDEST,
+    DISCONNECT,
+    BLOCK
+}
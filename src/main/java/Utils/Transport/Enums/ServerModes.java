@@ -0,0 +1,13 @@
+package Utils.Transport.Enums;
+
+/**
+ * Represents the ways a server can handle its client connections.
+ *
+ * - {@code BLOCKING}: Each connection uses blocking object streams and is read by its own handler.
+ * - {@code SELECTOR}: Every connection is non-blocking and a small set of selector threads multiplexes all of them.
+ *   Clients must use length-prefixed frames to talk to a server in this mode.
+ */
+public enum ServerModes {
+    BLOCKING,
+    SELECTOR
+}
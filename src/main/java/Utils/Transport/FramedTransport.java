@@ -0,0 +1,167 @@
+package Utils.Transport;
+
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Message.Codec.MessageCodec;
+import Utils.Message.Codec.MessageCodecs;
+import Utils.Message.Message;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Transport that writes and reads length-prefixed frames, see {@link MessageFrames}, over blocking streams.
+ * This is the transport used by the clients of a server running in selector mode.
+ */
+public class FramedTransport implements PullTransport
+{
+    /** The resource closed when the transport is closed. */
+    private final Closeable CONNECTION;
+
+    /** The connection output. */
+    private final OutputStream OUTPUT;
+
+    /** Serializes the writers, a lock instead of a monitor so virtual threads are not pinned while writing. */
+    private final ReentrantLock WRITE_LOCK = new ReentrantLock();
+
+    /** The connection input. */
+    private final DataInputStream INPUT;
+
+    /** The codec of the frame payloads. */
+    private final MessageCodec CODEC;
+
+    /**
+     * Creates a transport over the socket streams, with Java serialized payloads.
+     *
+     * @param connection the connection.
+     * @throws IOException if the socket streams are not available.
+     */
+    public FramedTransport( Socket connection ) throws IOException
+    {
+        this( connection.getInputStream(), connection.getOutputStream(), connection );
+    }
+
+    /**
+     * Creates a transport over the given streams, with Java serialized payloads.
+     *
+     * @param input      the stream to read the frames from.
+     * @param output     the stream to write the frames to.
+     * @param connection the resource closed when the transport is closed.
+     */
+    public FramedTransport( InputStream input, OutputStream output, Closeable connection )
+    {
+        this( input, output, connection, MessageCodecs.get( CodecTypes.JAVA ) );
+    }
+
+    /**
+     * Creates a transport over the given streams.
+     *
+     * @param input      the stream to read the frames from.
+     * @param output     the stream to write the frames to.
+     * @param connection the resource closed when the transport is closed.
+     * @param codec      the codec of the frame payloads.
+     */
+    public FramedTransport( InputStream input, OutputStream output, Closeable connection, MessageCodec codec )
+    {
+        CONNECTION = connection;
+        OUTPUT = output;
+        INPUT = new DataInputStream( input );
+        CODEC = codec;
+    }
+
+    @Override
+    public void send( Message message ) throws IOException
+    {
+        write( MessageFrames.encode( message, CODEC ) );
+    }
+
+    @Override
+    public void send( EncodedMessage message ) throws IOException
+    {
+        write( message.getFrame( CODEC ) );
+    }
+
+    /**
+     * Writes the frames of the messages to the connection with a single write.
+     *
+     * @param messages the messages to send.
+     * @throws IOException if the frames could not be written.
+     */
+    @Override
+    public void sendAll( List<EncodedMessage> messages ) throws IOException
+    {
+        byte[][] frames = new byte[ messages.size() ][];
+        int length = 0;
+        for ( int i = 0; i < frames.length; i++ )
+        {
+            frames[i] = messages.get( i ).getFrame( CODEC );
+            length += frames[i].length;
+        }
+
+        byte[] batch = new byte[ length ];
+        int offset = 0;
+        for ( byte[] frame : frames )
+        {
+            System.arraycopy( frame, 0, batch, offset, frame.length );
+            offset += frame.length;
+        }
+        write( batch );
+    }
+
+    /**
+     * Writes the frame to the connection.
+     *
+     * @param frame the frame to write.
+     * @throws IOException if the frame could not be written.
+     */
+    private void write( byte[] frame ) throws IOException
+    {
+        WRITE_LOCK.lock();
+        try
+        {
+            OUTPUT.write( frame );
+            OUTPUT.flush();
+        }
+        finally
+        {
+            WRITE_LOCK.unlock();
+        }
+    }
+
+    @Override
+    public Message receive() throws IOException, ClassNotFoundException
+    {
+        int length = INPUT.readInt();
+        MessageFrames.validateLength( length );
+
+        byte[] payload = new byte[length];
+        INPUT.readFully( payload );
+        return MessageFrames.decode( payload, 0, length, CODEC );
+    }
+
+    @Override
+    public EncodedMessage receiveEncoded() throws IOException, ClassNotFoundException
+    {
+        int length = INPUT.readInt();
+        MessageFrames.validateLength( length );
+
+        byte[] frame = new byte[ MessageFrames.LENGTH_PREFIX_SIZE + length ];
+        frame[0] = (byte)( length >>> 24 );
+        frame[1] = (byte)( length >>> 16 );
+        frame[2] = (byte)( length >>> 8 );
+        frame[3] = (byte) length;
+        INPUT.readFully( frame, MessageFrames.LENGTH_PREFIX_SIZE, length );
+        return EncodedMessage.fromFrame( frame, CODEC );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        CONNECTION.close();
+    }
+}
@@ -0,0 +1,104 @@
+package Utils.Transport;
+
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Message.Codec.MessageCodec;
+import Utils.Message.Codec.MessageCodecs;
+import Utils.Message.Message;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * This class implements the encoding and decoding of length-prefixed message frames.
+ * A frame is an int with the payload length followed by the payload, a message encoded by a {@link MessageCodec}.
+ * The codecs are stateless, so every frame can be decoded without the state of the previous frames.
+ */
+public class MessageFrames
+{
+    /** The size in bytes of the length prefix of a frame. */
+    public static final int LENGTH_PREFIX_SIZE = 4;
+
+    /** The max size in bytes of a frame payload. Protects the readers from corrupted lengths. */
+    public static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+
+    private MessageFrames(){}
+
+    /**
+     * Encodes the message to a frame with Java serialization, including the length prefix.
+     *
+     * @param message the message to encode.
+     * @return the frame ready to be written to a connection.
+     * @throws IOException if the message could not be serialized.
+     */
+    public static byte[] encode( Message message ) throws IOException
+    {
+        return encode( message, MessageCodecs.get( CodecTypes.JAVA ) );
+    }
+
+    /**
+     * Encodes the message to a frame, including the length prefix.
+     *
+     * @param message the message to encode.
+     * @param codec   the codec of the payload.
+     * @return the frame ready to be written to a connection.
+     * @throws IOException if the message could not be encoded.
+     */
+    public static byte[] encode( Message message, MessageCodec codec ) throws IOException
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream( 512 );
+        outputStream.write( new byte[LENGTH_PREFIX_SIZE] );
+        codec.encode( message, outputStream );
+
+        byte[] frame = outputStream.toByteArray();
+        int payloadLength = frame.length - LENGTH_PREFIX_SIZE;
+        validateLength( payloadLength );
+        frame[0] = (byte)( payloadLength >>> 24 );
+        frame[1] = (byte)( payloadLength >>> 16 );
+        frame[2] = (byte)( payloadLength >>> 8 );
+        frame[3] = (byte) payloadLength;
+        return frame;
+    }
+
+    /**
+     * Decodes the Java serialized payload of a frame, the length prefix must not be included.
+     *
+     * @param payload the array containing the payload.
+     * @param offset  the position of the first byte of the payload.
+     * @param length  the length of the payload.
+     * @return the decoded message.
+     * @throws IOException            if the payload is not a valid serialized message.
+     * @throws ClassNotFoundException if the class of the serialized object is not known.
+     */
+    public static Message decode( byte[] payload, int offset, int length ) throws IOException, ClassNotFoundException
+    {
+        return decode( payload, offset, length, MessageCodecs.get( CodecTypes.JAVA ) );
+    }
+
+    /**
+     * Decodes the payload of a frame, the length prefix must not be included.
+     *
+     * @param payload the array containing the payload.
+     * @param offset  the position of the first byte of the payload.
+     * @param length  the length of the payload.
+     * @param codec   the codec of the payload.
+     * @return the decoded message.
+     * @throws IOException            if the payload is not a valid encoded message.
+     * @throws ClassNotFoundException if the class of a serialized object is not known.
+     */
+    public static Message decode( byte[] payload, int offset, int length, MessageCodec codec ) throws IOException, ClassNotFoundException
+    {
+        return codec.decode( payload, offset, length );
+    }
+
+    /**
+     * Checks if the read payload length is valid.
+     *
+     * @param length the read payload length.
+     * @throws IOException if the length is negative or bigger than {@link #MAX_PAYLOAD_SIZE}.
+     */
+    public static void validateLength( int length ) throws IOException
+    {
+        if ( length < 0 || length > MAX_PAYLOAD_SIZE )
+            throw new IOException( "Invalid frame length: " + length );
+    }
+}
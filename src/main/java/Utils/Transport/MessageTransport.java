@@ -0,0 +1,77 @@
+package Utils.Transport;
+
+import Utils.Message.Message;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The MessageTransport interface represents a connection that is able to send {@link Message} objects.
+ * Implementations define how the messages are written to the underlying connection, the received messages are read
+ * with a {@link PullTransport} or pushed by a {@link PushTransport}.
+ */
+public interface MessageTransport extends Closeable
+{
+    /**
+     * Sends the message through the connection.
+     *
+     * @param message the message to send.
+     * @throws IOException if the message could not be written.
+     */
+    void send( Message message ) throws IOException;
+
+    /**
+     * Sends a message shared by several sends. Transports that write frames reuse the frame of the message instead of
+     * encoding it again.
+     *
+     * @param message the message to send.
+     * @throws IOException if the message could not be written.
+     */
+    default void send( EncodedMessage message ) throws IOException
+    {
+        send( message.getMessage() );
+    }
+
+    /**
+     * Sends several messages in order. Transports that write frames write the whole batch at once, instead of writing
+     * and flushing each message.
+     *
+     * @param messages the messages to send.
+     * @throws IOException if the messages could not be written.
+     */
+    default void sendAll( List<EncodedMessage> messages ) throws IOException
+    {
+        for ( EncodedMessage message : messages )
+            send( message );
+    }
+
+    /**
+     * Gets the state of the queue of the messages waiting to be written.
+     *
+     * @return the queue metrics, or empty if the transport writes the messages directly.
+     */
+    default Optional<QueueMetrics> getOutboundMetrics()
+    {
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the state of the object stream of the connection.
+     *
+     * @return the stream metrics, or empty if the transport does not keep stream state between messages.
+     */
+    default Optional<StreamMetrics> getStreamMetrics()
+    {
+        return Optional.empty();
+    }
+
+    /**
+     * Closes the connection.
+     *
+     * @throws IOException if an I/O error occurs when closing the connection.
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,104 @@
+package Utils.Transport;
+
+import Utils.Message.Message;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Transport that writes and reads messages with a pair of object streams over a blocking socket.
+ * The output stream is reset following a {@link StreamResetPolicy}, so neither peer retains every message ever sent.
+ */
+public class ObjectStreamTransport implements PullTransport
+{
+    /** The resource closed when the transport is closed. */
+    private final Closeable CONNECTION;
+
+    /** The connection ObjectOutputStream. */
+    private final ResettingObjectOutputStream OUTPUT;
+
+    /** Serializes the writers, a lock instead of a monitor so virtual threads are not pinned while writing. */
+    private final ReentrantLock WRITE_LOCK = new ReentrantLock();
+
+    /** The connection ObjectInputStream. */
+    private final ObjectInputStream INPUT;
+
+    /**
+     * Creates the object streams of the connection with the default reset policy.
+     * The output stream is created first, so both peers can create their transports at the same time.
+     *
+     * @param connection the connection.
+     * @throws IOException if the stream headers could not be exchanged.
+     */
+    public ObjectStreamTransport( Socket connection ) throws IOException
+    {
+        this( connection, StreamResetPolicy.DEFAULT );
+    }
+
+    /**
+     * Creates the object streams of the connection, see {@link #ObjectStreamTransport(Socket)}.
+     *
+     * @param connection  the connection.
+     * @param resetPolicy decides when the output stream is reset.
+     * @throws IOException if the stream headers could not be exchanged.
+     */
+    public ObjectStreamTransport( Socket connection, StreamResetPolicy resetPolicy ) throws IOException
+    {
+        this( connection.getInputStream(), connection.getOutputStream(), connection, resetPolicy );
+    }
+
+    /**
+     * Creates the object streams over the given streams, see {@link #ObjectStreamTransport(Socket)}.
+     *
+     * @param input       the stream to read the objects from.
+     * @param output      the stream to write the objects to.
+     * @param connection  the resource closed when the transport is closed.
+     * @param resetPolicy decides when the output stream is reset.
+     * @throws IOException if the stream headers could not be exchanged.
+     */
+    public ObjectStreamTransport( InputStream input, OutputStream output, Closeable connection, StreamResetPolicy resetPolicy ) throws IOException
+    {
+        CONNECTION = connection;
+        OUTPUT = new ResettingObjectOutputStream( output, resetPolicy );
+        OUTPUT.flush();
+        INPUT = new ObjectInputStream( input );
+    }
+
+    @Override
+    public void send( Message message ) throws IOException
+    {
+        WRITE_LOCK.lock();
+        try
+        {
+            OUTPUT.writeMessage( message );
+        }
+        finally
+        {
+            WRITE_LOCK.unlock();
+        }
+    }
+
+    @Override
+    public Optional<StreamMetrics> getStreamMetrics()
+    {
+        return Optional.of( OUTPUT.getMetrics() );
+    }
+
+    @Override
+    public Message receive() throws IOException, ClassNotFoundException
+    {
+        return (Message) INPUT.readObject();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        CONNECTION.close();
+    }
+}
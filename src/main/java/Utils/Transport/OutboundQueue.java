@@ -0,0 +1,355 @@
+package Utils.Transport;
+
+import Utils.Transport.Enums.OverflowPolicies;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue of the items waiting to be written to a connection.
+ * The senders add items and a single writer removes them, when the queue is full the {@link OverflowPolicies} decides
+ * if the sender waits, the oldest item is discarded, or the item is rejected.
+ *
+ * @param <T> the type of the queued items.
+ */
+public class OutboundQueue<T>
+{
+    /** The max number of queued items. */
+    private final int CAPACITY;
+
+    /** What is done when the queue is full. */
+    private final OverflowPolicies POLICY;
+
+    /** How long a sender waits for room with the {@link OverflowPolicies#BLOCK} policy. */
+    private final long BLOCK_TIMEOUT_MILLIS;
+
+    /** The queued items. */
+    private final ArrayDeque<T> ITEMS;
+
+    /** Guards the items and the counters. */
+    private final ReentrantLock LOCK;
+
+    /** Signaled when an item is added or the queue is closed or finished. */
+    private final Condition NOT_EMPTY;
+
+    /** Signaled to every waiter when items are removed or the queue is closed. */
+    private final Condition NOT_FULL;
+
+    /** The highest number of queued items. */
+    private int highWaterMark;
+
+    /** The number of accepted items. */
+    private long enqueued;
+
+    /** The number of items discarded by the drop-oldest policy. */
+    private long dropped;
+
+    /** The number of rejected items. */
+    private long rejected;
+
+    /** The state of the queue. */
+    private boolean closed;
+
+    /** If the queue stopped accepting items, the writer still removes the queued ones. */
+    private boolean finishing;
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param capacity           the max number of queued items.
+     * @param policy             what is done when the queue is full.
+     * @param blockTimeoutMillis how long a sender waits for room with the {@link OverflowPolicies#BLOCK} policy.
+     */
+    public OutboundQueue( int capacity, OverflowPolicies policy, long blockTimeoutMillis )
+    {
+        if ( capacity < 1 )
+            throw new IllegalArgumentException( "The capacity of the queue must be positive." );
+
+        CAPACITY = capacity;
+        POLICY = policy;
+        BLOCK_TIMEOUT_MILLIS = blockTimeoutMillis;
+        ITEMS = new ArrayDeque<>();
+        LOCK = new ReentrantLock();
+        NOT_EMPTY = LOCK.newCondition();
+        NOT_FULL = LOCK.newCondition();
+        closed = false;
+        finishing = false;
+    }
+
+    /**
+     * Adds the item to the queue applying the overflow policy if it is full.
+     *
+     * @param item the item to add.
+     * @return false if the item was rejected and the recipient must be disconnected, true otherwise.
+     */
+    public boolean offer( T item )
+    {
+        return offer( item, true );
+    }
+
+    /**
+     * Adds the item to the queue without waiting. When full, the {@link OverflowPolicies#BLOCK} policy behaves as
+     * {@link OverflowPolicies#DISCONNECT}. Used by the threads that are also the writer of the queue.
+     *
+     * @param item the item to add.
+     * @return false if the item was rejected and the recipient must be disconnected, true otherwise.
+     */
+    public boolean offerNow( T item )
+    {
+        return offer( item, false );
+    }
+
+    /**
+     * Adds the item to the queue.
+     *
+     * @param item     the item to add.
+     * @param mayBlock if the sender can wait for room.
+     * @return false if the item was rejected, true otherwise.
+     */
+    private boolean offer( T item, boolean mayBlock )
+    {
+        LOCK.lock();
+        try
+        {
+            if ( closed || finishing )
+                return false;
+
+            if ( ITEMS.size() >= CAPACITY && !makeRoom( mayBlock ) )
+            {
+                rejected++;
+                return false;
+            }
+
+            ITEMS.addLast( item );
+            enqueued++;
+            highWaterMark = Math.max( highWaterMark, ITEMS.size() );
+            NOT_EMPTY.signal();
+            return true;
+        }
+        finally
+        {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Applies the overflow policy to the full queue. Must be called holding the lock.
+     *
+     * @param mayBlock if the sender can wait for room.
+     * @return true if there is room for a new item.
+     */
+    private boolean makeRoom( boolean mayBlock )
+    {
+        switch ( POLICY )
+        {
+            case DROP_OLDEST -> {
+                ITEMS.pollFirst();
+                dropped++;
+                return true;
+            }
+
+            case BLOCK -> {
+                if ( !mayBlock )
+                    return false;
+
+                long remaining = TimeUnit.MILLISECONDS.toNanos( BLOCK_TIMEOUT_MILLIS );
+                try
+                {
+                    while ( ITEMS.size() >= CAPACITY && !closed && !finishing && remaining > 0 )
+                        remaining = NOT_FULL.awaitNanos( remaining );
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                return !closed && !finishing && ITEMS.size() < CAPACITY;
+            }
+
+            default -> { return false; }
+        }
+    }
+
+    /**
+     * Removes the oldest item, waiting until there is one.
+     *
+     * @return the removed item, or null if the queue was closed or finished and empty.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public T take() throws InterruptedException
+    {
+        LOCK.lock();
+        try
+        {
+            while ( ITEMS.isEmpty() && !closed && !finishing )
+                NOT_EMPTY.await();
+
+            if ( closed || ITEMS.isEmpty() )
+                return null;
+
+            T item = ITEMS.pollFirst();
+            NOT_FULL.signalAll();
+            return item;
+        }
+        finally
+        {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Removes the oldest items without waiting, so the writer can write them together.
+     *
+     * @param items    the collection the removed items are added to, in queue order.
+     * @param maxItems the max number of items to remove.
+     * @return the number of removed items, 0 if the queue is empty or closed.
+     */
+    public int drainTo( Collection<? super T> items, int maxItems )
+    {
+        LOCK.lock();
+        try
+        {
+            if ( closed )
+                return 0;
+
+            int count = 0;
+            while ( count < maxItems && !ITEMS.isEmpty() )
+            {
+                items.add( ITEMS.pollFirst() );
+                count++;
+            }
+            if ( count > 0 )
+                NOT_FULL.signalAll();
+            return count;
+        }
+        finally
+        {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Waits until the queue holds at most the given number of items.
+     *
+     * @param maxItems      the number of queued items to wait for.
+     * @param timeoutMillis how long to wait.
+     * @return true if the queue holds at most the given number of items or is closed, false if the time expired.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean awaitAtMost( int maxItems, long timeoutMillis ) throws InterruptedException
+    {
+        LOCK.lock();
+        try
+        {
+            long remaining = TimeUnit.MILLISECONDS.toNanos( timeoutMillis );
+            while ( ITEMS.size() > maxItems && !closed )
+            {
+                if ( remaining <= 0 )
+                    return false;
+                remaining = NOT_FULL.awaitNanos( remaining );
+            }
+            return true;
+        }
+        finally
+        {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Removes the oldest item without waiting.
+     *
+     * @return the removed item, or null if the queue is empty or closed.
+     */
+    public T poll()
+    {
+        LOCK.lock();
+        try
+        {
+            if ( closed )
+                return null;
+
+            T item = ITEMS.pollFirst();
+            if ( item != null )
+                NOT_FULL.signalAll();
+            return item;
+        }
+        finally
+        {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting items, the queued items can still be removed and {@link #take()} returns null once the queue is
+     * empty, so the writer ends after writing them.
+     */
+    public void finish()
+    {
+        LOCK.lock();
+        try
+        {
+            finishing = true;
+            NOT_EMPTY.signalAll();
+            NOT_FULL.signalAll();
+        }
+        finally
+        {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Closes the queue, discarding the queued items and waking up the waiting senders and writer.
+     */
+    public void close()
+    {
+        LOCK.lock();
+        try
+        {
+            closed = true;
+            ITEMS.clear();
+            NOT_EMPTY.signalAll();
+            NOT_FULL.signalAll();
+        }
+        finally
+        {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * @return the number of queued items.
+     */
+    public int size()
+    {
+        LOCK.lock();
+        try
+        {
+            return ITEMS.size();
+        }
+        finally
+        {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * @return a snapshot of the queue depth and counters.
+     */
+    public QueueMetrics getMetrics()
+    {
+        LOCK.lock();
+        try
+        {
+            return new QueueMetrics( ITEMS.size(), CAPACITY, highWaterMark, enqueued, dropped, rejected );
+        }
+        finally
+        {
+            LOCK.unlock();
+        }
+    }
+}
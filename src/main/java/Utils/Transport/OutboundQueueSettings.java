@@ -0,0 +1,43 @@
+package Utils.Transport;
+
+import Utils.Transport.Enums.OverflowPolicies;
+
+/**
+ * The settings shared by the outbound queues of the connections of a server.
+ */
+public class OutboundQueueSettings
+{
+    /** The max number of queued messages per connection. */
+    private final int CAPACITY;
+
+    /** What is done when a queue is full. */
+    private final OverflowPolicies POLICY;
+
+    /** How long a sender waits for room with the {@link OverflowPolicies#BLOCK} policy. */
+    private final long BLOCK_TIMEOUT_MILLIS;
+
+    /**
+     * Creates the settings.
+     *
+     * @param capacity           the max number of queued messages per connection.
+     * @param policy             what is done when a queue is full.
+     * @param blockTimeoutMillis how long a sender waits for room with the {@link OverflowPolicies#BLOCK} policy.
+     */
+    public OutboundQueueSettings( int capacity, OverflowPolicies policy, long blockTimeoutMillis )
+    {
+        CAPACITY = capacity;
+        POLICY = policy;
+        BLOCK_TIMEOUT_MILLIS = blockTimeoutMillis;
+    }
+
+    /**
+     * Creates an empty queue with these settings.
+     *
+     * @param <T> the type of the queued items.
+     * @return the created queue.
+     */
+    public <T> OutboundQueue<T> createQueue()
+    {
+        return new OutboundQueue<>( CAPACITY, POLICY, BLOCK_TIMEOUT_MILLIS );
+    }
+}
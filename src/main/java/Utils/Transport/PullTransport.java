@@ -0,0 +1,34 @@
+package Utils.Transport;
+
+import Utils.Message.Message;
+
+import java.io.IOException;
+
+/**
+ * A {@link MessageTransport} whose received messages are read by the application, one at a time, by the thread that
+ * owns the connection.
+ */
+public interface PullTransport extends MessageTransport
+{
+    /**
+     * Blocks until a message is received from the connection.
+     *
+     * @return the received message.
+     * @throws IOException            if the connection is lost or the message could not be read.
+     * @throws ClassNotFoundException if the class of the received object is not known.
+     */
+    Message receive() throws IOException, ClassNotFoundException;
+
+    /**
+     * Blocks until a message is received from the connection and wraps it with its frame. Transports that read frames
+     * whose codec has a routing header do not decode the message, so it can be relayed without being materialized.
+     *
+     * @return the received message.
+     * @throws IOException            if the connection is lost or the message could not be read.
+     * @throws ClassNotFoundException if the class of the received object is not known.
+     */
+    default EncodedMessage receiveEncoded() throws IOException, ClassNotFoundException
+    {
+        return new EncodedMessage( receive() );
+    }
+}
@@ -0,0 +1,15 @@
+package Utils.Transport;
+
+/**
+ * A {@link MessageTransport} whose received messages are pushed to a {@link TransportListener} by the thread that owns
+ * the connection, instead of being read by the application.
+ */
+public interface PushTransport extends MessageTransport
+{
+    /**
+     * Starts reading the connection. From now on all received messages are pushed to the listener.
+     *
+     * @param listener the listener of the received messages.
+     */
+    void open( TransportListener listener );
+}
@@ -0,0 +1,100 @@
+package Utils.Transport;
+
+/**
+ * Snapshot of the state of an {@link OutboundQueue}.
+ */
+public class QueueMetrics
+{
+    /** The number of queued items. */
+    private final int DEPTH;
+
+    /** The max number of queued items. */
+    private final int CAPACITY;
+
+    /** The highest depth reached by the queue. */
+    private final int HIGH_WATER_MARK;
+
+    /** The number of accepted items. */
+    private final long ENQUEUED;
+
+    /** The number of items discarded by the drop-oldest policy. */
+    private final long DROPPED;
+
+    /** The number of rejected items, each one disconnects the recipient. */
+    private final long REJECTED;
+
+    /**
+     * Creates a snapshot of the queue state.
+     *
+     * @param depth         the number of queued items.
+     * @param capacity      the max number of queued items.
+     * @param highWaterMark the highest depth reached by the queue.
+     * @param enqueued      the number of accepted items.
+     * @param dropped       the number of discarded items.
+     * @param rejected      the number of rejected items.
+     */
+    public QueueMetrics( int depth, int capacity, int highWaterMark, long enqueued, long dropped, long rejected )
+    {
+        DEPTH = depth;
+        CAPACITY = capacity;
+        HIGH_WATER_MARK = highWaterMark;
+        ENQUEUED = enqueued;
+        DROPPED = dropped;
+        REJECTED = rejected;
+    }
+
+    /**
+     * @return the number of queued items.
+     */
+    public int getDepth()
+    {
+        return DEPTH;
+    }
+
+    /**
+     * @return the max number of queued items.
+     */
+    public int getCapacity()
+    {
+        return CAPACITY;
+    }
+
+    /**
+     * @return the highest depth reached by the queue.
+     */
+    public int getHighWaterMark()
+    {
+        return HIGH_WATER_MARK;
+    }
+
+    /**
+     * @return the number of accepted items.
+     */
+    public long getEnqueued()
+    {
+        return ENQUEUED;
+    }
+
+    /**
+     * @return the number of items discarded by the drop-oldest policy.
+     */
+    public long getDropped()
+    {
+        return DROPPED;
+    }
+
+    /**
+     * @return the number of rejected items.
+     */
+    public long getRejected()
+    {
+        return REJECTED;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "depth=%d/%d highWaterMark=%d enqueued=%d dropped=%d rejected=%d",
+                DEPTH, CAPACITY, HIGH_WATER_MARK, ENQUEUED, DROPPED, REJECTED );
+    }
+}
@@ -0,0 +1,205 @@
+package Utils.Transport;
+
+import Utils.Message.Message;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport that queues the sent messages in a bounded {@link OutboundQueue}, a writer task drains the queue into the
+ * wrapped transport. Shared messages are queued as they are, so a framed wrapped transport encodes them only once. A sender never waits for a slow connection, unless the queue uses the block policy.
+ * <p>
+ * The messages queued while the writer is writing are written together in the next write, see
+ * {@link MessageTransport#sendAll(List)}.
+ * <p>
+ * Closing the transport lets the writer write the queued messages first, waiting at most {@link #CLOSE_TIMEOUT_MILLIS},
+ * so the last messages of a connection, like the logout, are not lost.
+ */
+public class QueuedTransport implements PullTransport
+{
+    /** The max number of messages written together. */
+    private static final int MAX_BATCH = 64;
+
+    /** How long closing waits for the writer to write the queued messages. */
+    public static final long CLOSE_TIMEOUT_MILLIS = 2000;
+
+    /** The transport that writes and reads the messages. */
+    private final PullTransport TRANSPORT;
+
+    /** The messages waiting to be written. */
+    private final OutboundQueue<EncodedMessage> QUEUE;
+
+    /** Released when the writer task ends. */
+    private final CountDownLatch WRITER_DONE;
+
+    /** The state of the transport. */
+    private volatile boolean closed;
+
+    /**
+     * Wraps the transport and submits its writer task to the executor.
+     *
+     * @param transport the transport that writes and reads the messages.
+     * @param queue     the queue of the messages waiting to be written.
+     * @param writers   the executor that runs the writer task.
+     */
+    public QueuedTransport( PullTransport transport, OutboundQueue<EncodedMessage> queue, Executor writers )
+    {
+        TRANSPORT = transport;
+        QUEUE = queue;
+        WRITER_DONE = new CountDownLatch( 1 );
+        closed = false;
+        writers.execute( this::write );
+    }
+
+    /**
+     * Queues the message to be written. If the queue rejects the message the connection is closed.
+     *
+     * @param message the message to send.
+     * @throws IOException if the transport is closed or the queue overflowed.
+     */
+    @Override
+    public void send( Message message ) throws IOException
+    {
+        send( new EncodedMessage( message ) );
+    }
+
+    /**
+     * Queues the shared message to be written, see {@link #send(Message)}.
+     *
+     * @param message the message to send.
+     * @throws IOException if the transport is closed or the queue overflowed.
+     */
+    @Override
+    public void send( EncodedMessage message ) throws IOException
+    {
+        if ( closed )
+            throw new IOException( "Transport is closed." );
+
+        if ( !QUEUE.offer( message ) )
+        {
+            if ( closed )
+                throw new IOException( "Transport is closed." );
+
+            abort();
+            throw new IOException( "Outbound queue overflowed, connection closed. " + QUEUE.getMetrics() );
+        }
+    }
+
+    @Override
+    public Message receive() throws IOException, ClassNotFoundException
+    {
+        return TRANSPORT.receive();
+    }
+
+    @Override
+    public EncodedMessage receiveEncoded() throws IOException, ClassNotFoundException
+    {
+        return TRANSPORT.receiveEncoded();
+    }
+
+    /**
+     * Waits until the writer has written enough messages to leave at most the given number queued, so a producer can
+     * slow down before the queue is full.
+     *
+     * @param maxQueued     the number of queued messages to wait for.
+     * @param timeoutMillis how long to wait.
+     * @return true if at most the given number of messages is queued or the transport is closed, false if the time expired.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean awaitQueued( int maxQueued, long timeoutMillis ) throws InterruptedException
+    {
+        return QUEUE.awaitAtMost( maxQueued, timeoutMillis );
+    }
+
+    @Override
+    public Optional<QueueMetrics> getOutboundMetrics()
+    {
+        return Optional.of( QUEUE.getMetrics() );
+    }
+
+    @Override
+    public Optional<StreamMetrics> getStreamMetrics()
+    {
+        return TRANSPORT.getStreamMetrics();
+    }
+
+    /**
+     * Stops accepting messages, waits at most {@link #CLOSE_TIMEOUT_MILLIS} for the writer to write the queued ones and
+     * closes the wrapped transport. The messages still queued when the time expires are discarded.
+     *
+     * @throws IOException if the wrapped transport can not be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        QUEUE.finish();
+        try
+        {
+            WRITER_DONE.await( CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        abort();
+    }
+
+    /**
+     * Closes the transport without writing the queued messages.
+     *
+     * @throws IOException if the wrapped transport can not be closed.
+     */
+    private void abort() throws IOException
+    {
+        closed = true;
+        QUEUE.close();
+        TRANSPORT.close();
+    }
+
+    /**
+     * Writes the queued messages until the transport is closed, a message with the messages queued after it. A failed
+     * write closes the connection without waiting, so the reader of the connection is also notified.
+     */
+    private void write()
+    {
+        try
+        {
+            List<EncodedMessage> batch = new ArrayList<>( MAX_BATCH );
+            EncodedMessage message;
+            while ( ( message = QUEUE.take() ) != null )
+            {
+                if ( QUEUE.drainTo( batch, MAX_BATCH - 1 ) == 0 )
+                {
+                    TRANSPORT.send( message );
+                    continue;
+                }
+
+                batch.add( 0, message );
+                TRANSPORT.sendAll( batch );
+                batch.clear();
+            }
+        }
+        catch ( IOException e )
+        {
+            try
+            {
+                abort();
+            }
+            catch ( IOException ignored ) {}
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            WRITER_DONE.countDown();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package Utils.Transport;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Object output stream that resets itself following a {@link StreamResetPolicy}, so the handle table of the stream,
+ * and of the stream reading it, only grows with the messages written since the last reset.
+ * The retained handles are counted with {@link #replaceObject(Object)}, which is only called for objects that get a
+ * new handle. The writes must be serialized by the caller, the metrics can be read by any thread.
+ */
+public class ResettingObjectOutputStream extends ObjectOutputStream
+{
+    /** Decides when the stream is reset. */
+    private final StreamResetPolicy POLICY;
+
+    /** Counts the bytes written to the connection. */
+    private final ByteCounter COUNTER;
+
+    /** The number of objects with a handle since the last reset. */
+    private volatile long retainedHandles;
+
+    /** The number of messages written since the last reset. */
+    private volatile int messagesSinceReset;
+
+    /** The value of the byte counter at the last reset. */
+    private volatile long bytesAtReset;
+
+    /** The number of resets. */
+    private volatile long resets;
+
+    /**
+     * Creates the stream and writes its header.
+     *
+     * @param output the stream to write to.
+     * @param policy decides when the stream is reset.
+     * @throws IOException if the header could not be written.
+     */
+    public ResettingObjectOutputStream( OutputStream output, StreamResetPolicy policy ) throws IOException
+    {
+        this( new ByteCounter( output ), policy );
+    }
+
+    /**
+     * Creates the stream over the byte counter.
+     *
+     * @param counter the counter of the written bytes.
+     * @param policy  decides when the stream is reset.
+     * @throws IOException if the header could not be written.
+     */
+    private ResettingObjectOutputStream( ByteCounter counter, StreamResetPolicy policy ) throws IOException
+    {
+        super( counter );
+        COUNTER = counter;
+        POLICY = policy;
+        enableReplaceObject( true );
+    }
+
+    /**
+     * Writes and flushes a message, resetting the stream before it if a threshold was reached.
+     *
+     * @param message the message to write.
+     * @throws IOException if the message could not be written.
+     */
+    public void writeMessage( Object message ) throws IOException
+    {
+        if ( POLICY.shouldReset( messagesSinceReset, COUNTER.count - bytesAtReset ) )
+            reset();
+
+        writeObject( message );
+        flush();
+        messagesSinceReset++;
+    }
+
+    @Override
+    public void reset() throws IOException
+    {
+        super.reset();
+        retainedHandles = 0;
+        messagesSinceReset = 0;
+        bytesAtReset = COUNTER.count;
+        resets++;
+    }
+
+    @Override
+    protected Object replaceObject( Object object )
+    {
+        retainedHandles++;
+        return object;
+    }
+
+    /**
+     * @return a snapshot of the retained handles and reset counters.
+     */
+    public StreamMetrics getMetrics()
+    {
+        return new StreamMetrics( retainedHandles, messagesSinceReset, COUNTER.count - bytesAtReset, resets );
+    }
+
+    /**
+     * Output stream that counts the written bytes.
+     */
+    private static class ByteCounter extends FilterOutputStream
+    {
+        /** The number of written bytes. */
+        private volatile long count;
+
+        /**
+         * Creates a counter over the stream.
+         *
+         * @param output the stream to write to.
+         */
+        ByteCounter( OutputStream output )
+        {
+            super( output );
+        }
+
+        @Override
+        public void write( int b ) throws IOException
+        {
+            out.write( b );
+            count++;
+        }
+
+        @Override
+        public void write( byte[] bytes, int offset, int length ) throws IOException
+        {
+            out.write( bytes, offset, length );
+            count += length;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package Utils.Transport;
+
+import Utils.Concurrency.VarSync;
+import Utils.Logger.Enums.LogTypes;
+import Utils.Logger.Logger;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread that multiplexes the reads and writes of many {@link ChannelTransport} with a single selector.
+ * Other threads interact with the loop by submitting tasks, which are executed by the loop thread after waking up.
+ */
+public class SelectorLoop extends Thread
+{
+    /** The selector of the registered channels. */
+    private final Selector SELECTOR;
+
+    /** The tasks submitted by other threads. */
+    private final Queue<Runnable> TASKS;
+
+    /** The logger for logging loop events. */
+    private final Logger LOGGER;
+
+    /** Represents the current state of the loop. */
+    private final VarSync<Boolean> isRunning;
+
+    /**
+     * Creates a loop with a new selector.
+     *
+     * @param name   the name of the loop thread.
+     * @param logger the logger for logging loop events.
+     * @throws IOException if the selector could not be opened.
+     */
+    public SelectorLoop( String name, Logger logger ) throws IOException
+    {
+        super( name );
+        SELECTOR = Selector.open();
+        TASKS = new ConcurrentLinkedQueue<>();
+        LOGGER = logger;
+        isRunning = new VarSync<>( false );
+    }
+
+    @Override
+    public void start()
+    {
+        isRunning.syncSet( true );
+        super.start();
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            while ( isRunning.syncGet() )
+            {
+                SELECTOR.select();
+                runTasks();
+                handleSelectedKeys();
+            }
+        }
+        catch ( IOException e )
+        {
+            LOGGER.log( "Selector loop stopped: " + e.getMessage(), Optional.of(LogTypes.ERROR) );
+        }
+        finally
+        {
+            closeSelector();
+        }
+    }
+
+    /**
+     * Registers the transport channel in this loop.
+     *
+     * @param transport the transport to register.
+     */
+    void register( ChannelTransport transport )
+    {
+        submit( () -> {
+            try
+            {
+                transport.register( SELECTOR );
+            }
+            catch ( IOException e )
+            {
+                transport.disconnect( e );
+            }
+        });
+    }
+
+    /**
+     * Requests the loop to write the pending frames of the transport.
+     *
+     * @param transport the transport with pending frames.
+     */
+    void requestWrite( ChannelTransport transport )
+    {
+        submit( transport::enableWrite );
+    }
+
+    /**
+     * Requests the loop to close the transport and notify its listener.
+     *
+     * @param transport the transport to disconnect.
+     * @param cause     the reason of the disconnection.
+     */
+    void requestDisconnect( ChannelTransport transport, IOException cause )
+    {
+        submit( () -> transport.disconnect( cause ) );
+    }
+
+    /**
+     * Stops the loop and closes all the channels registered in it.
+     */
+    public void close()
+    {
+        isRunning.syncSet( false );
+        SELECTOR.wakeup();
+    }
+
+    /**
+     * Adds a task to be executed by the loop thread and wakes the loop up.
+     *
+     * @param task the task to execute.
+     */
+    private void submit( Runnable task )
+    {
+        TASKS.add( task );
+        SELECTOR.wakeup();
+    }
+
+    /**
+     * Executes all submitted tasks.
+     */
+    private void runTasks()
+    {
+        Runnable task;
+        while ( ( task = TASKS.poll() ) != null )
+            task.run();
+    }
+
+    /**
+     * Handles the read and write events of the selected channels.
+     */
+    private void handleSelectedKeys()
+    {
+        Iterator<SelectionKey> keys = SELECTOR.selectedKeys().iterator();
+        while ( keys.hasNext() )
+        {
+            SelectionKey key = keys.next();
+            keys.remove();
+
+            ChannelTransport transport = (ChannelTransport) key.attachment();
+            try
+            {
+                if ( key.isValid() && key.isReadable() )
+                    transport.handleRead();
+
+                if ( key.isValid() && key.isWritable() )
+                    transport.handleWrite();
+            }
+            catch ( IOException e )
+            {
+                LOGGER.log( "Closing channel: " + e.getMessage(), Optional.of(LogTypes.DEBUG) );
+                transport.disconnect( e );
+            }
+            catch ( CancelledKeyException ignored ) {}
+        }
+    }
+
+    /**
+     * Closes the selector and every channel still registered in it.
+     */
+    private void closeSelector()
+    {
+        try
+        {
+            for ( SelectionKey key : SELECTOR.keys() )
+                key.channel().close();
+
+            SELECTOR.close();
+        }
+        catch ( IOException e )
+        {
+            LOGGER.log( e.getMessage(), Optional.of(LogTypes.WARN) );
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package Utils.Transport;
+
+/**
+ * Snapshot of the state of a {@link ResettingObjectOutputStream}.
+ */
+public class StreamMetrics
+{
+    /** The number of objects the stream keeps a handle to, class descriptors are not counted. */
+    private final long RETAINED_HANDLES;
+
+    /** The number of messages written since the last reset. */
+    private final int MESSAGES_SINCE_RESET;
+
+    /** The number of bytes written since the last reset. */
+    private final long BYTES_SINCE_RESET;
+
+    /** The number of resets. */
+    private final long RESETS;
+
+    /**
+     * Creates a snapshot of the stream state.
+     *
+     * @param retainedHandles    the number of objects the stream keeps a handle to.
+     * @param messagesSinceReset the number of messages written since the last reset.
+     * @param bytesSinceReset    the number of bytes written since the last reset.
+     * @param resets             the number of resets.
+     */
+    public StreamMetrics( long retainedHandles, int messagesSinceReset, long bytesSinceReset, long resets )
+    {
+        RETAINED_HANDLES = retainedHandles;
+        MESSAGES_SINCE_RESET = messagesSinceReset;
+        BYTES_SINCE_RESET = bytesSinceReset;
+        RESETS = resets;
+    }
+
+    /**
+     * @return the number of objects the stream keeps a handle to.
+     */
+    public long getRetainedHandles()
+    {
+        return RETAINED_HANDLES;
+    }
+
+    /**
+     * @return the number of messages written since the last reset.
+     */
+    public int getMessagesSinceReset()
+    {
+        return MESSAGES_SINCE_RESET;
+    }
+
+    /**
+     * @return the number of bytes written since the last reset.
+     */
+    public long getBytesSinceReset()
+    {
+        return BYTES_SINCE_RESET;
+    }
+
+    /**
+     * @return the number of resets.
+     */
+    public long getResets()
+    {
+        return RESETS;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "retainedHandles=%d messagesSinceReset=%d bytesSinceReset=%d resets=%d",
+                RETAINED_HANDLES, MESSAGES_SINCE_RESET, BYTES_SINCE_RESET, RESETS );
+    }
+}
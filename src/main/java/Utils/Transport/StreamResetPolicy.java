@@ -0,0 +1,42 @@
+package Utils.Transport;
+
+/**
+ * Decides when an object stream forgets the objects it already wrote.
+ * Java serialization keeps a handle to every written object so it can write back-references, so a long-lived stream
+ * must be reset to keep its memory bounded. A reset also clears the handles of the reading stream.
+ */
+public class StreamResetPolicy
+{
+    /** The policy used when none is configured. */
+    public static final StreamResetPolicy DEFAULT = new StreamResetPolicy( 1000, 1024 * 1024 );
+
+    /** The number of messages written before a reset, 0 to not reset by count. */
+    private final int MAX_MESSAGES;
+
+    /** The number of bytes written before a reset, 0 to not reset by size. */
+    private final long MAX_BYTES;
+
+    /**
+     * Creates a reset policy.
+     *
+     * @param maxMessages the number of messages written before a reset, 0 to not reset by count.
+     * @param maxBytes    the number of bytes written before a reset, 0 to not reset by size.
+     */
+    public StreamResetPolicy( int maxMessages, long maxBytes )
+    {
+        MAX_MESSAGES = maxMessages;
+        MAX_BYTES = maxBytes;
+    }
+
+    /**
+     * Checks if the stream must be reset before writing the next message.
+     *
+     * @param messages the number of messages written since the last reset.
+     * @param bytes    the number of bytes written since the last reset.
+     * @return true if one of the thresholds was reached.
+     */
+    public boolean shouldReset( int messages, long bytes )
+    {
+        return ( MAX_MESSAGES > 0 && messages >= MAX_MESSAGES ) || ( MAX_BYTES > 0 && bytes >= MAX_BYTES );
+    }
+}
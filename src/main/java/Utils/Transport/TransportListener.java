@@ -0,0 +1,38 @@
+package Utils.Transport;
+
+import Utils.Message.Message;
+
+import java.io.IOException;
+
+/**
+ * Receives the events of a transport whose messages are pushed to the application instead of being read with
+ * {@link PullTransport#receive()}.
+ */
+public interface TransportListener
+{
+    /**
+     * Called for each message received from the connection, in the order they were received.
+     *
+     * @param message the received message.
+     */
+    void onMessage( Message message );
+
+    /**
+     * Called for each received frame instead of {@link #onMessage(Message)}. By default the frame is decoded, relays
+     * override it to route the message by its header without decoding it.
+     *
+     * @param message the received message.
+     * @throws IOException if the received frame is not a valid message.
+     */
+    default void onEncodedMessage( EncodedMessage message ) throws IOException
+    {
+        onMessage( message.getMessage() );
+    }
+
+    /**
+     * Called once when the connection is lost.
+     *
+     * @param cause the reason of the disconnection.
+     */
+    void onDisconnect( IOException cause );
+}
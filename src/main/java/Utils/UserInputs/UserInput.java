@@ -3,6 +3,7 @@ package Utils.UserInputs;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.BooleanSupplier;
 
 /**
  * The UserInput class provides functionality to interactively receive user input
@@ -16,6 +17,9 @@ public class UserInput
     /** Scanner object to read user input */
     private final Scanner SCANNER;
 
+    /** Waits until the output of the previous commands leaves room for a new command, false if it gave up waiting. */
+    private BooleanSupplier backPressure;
+
     /**
      * Constructs a new UserInput object.
      */
@@ -23,6 +27,18 @@ public class UserInput
     {
         COMMANDS = new ArrayList<>();
         SCANNER = new Scanner(System.in);
+        backPressure = () -> true;
+    }
+
+    /**
+     * Sets the back-pressure of the commands. Before reading a command it waits until the output of the previous
+     * commands leaves room for a new one.
+     *
+     * @param backPressure Waits for room for a new command and returns false if it gave up waiting.
+     */
+    public void setBackPressure( BooleanSupplier backPressure )
+    {
+        this.backPressure = backPressure;
     }
 
     /**
@@ -87,6 +103,9 @@ public class UserInput
         Command command;
         int space;
         String args,commandName,input;
+        if ( !backPressure.getAsBoolean() )
+            System.out.println("Previous messages are still being sent, the next command may wait.");
+
         do
         {
             showOptions();
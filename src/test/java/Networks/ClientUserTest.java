@@ -1,9 +1,18 @@
 package Networks;
 
+import Utils.Certificate.CertificateGenerator;
+import Utils.Certificate.CertificateReference;
+import Utils.Certificate.CustomCertificate;
+import Utils.Certificate.PEMCertificateEncoder;
+import Utils.Security.Encryption.AES;
+import Utils.Security.Encryption.AESCipher;
+import Utils.Security.Encryption.Enums.CipherLayouts;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigInteger;
+import java.security.KeyPairGenerator;
+import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,4 +49,55 @@ public class ClientUserTest
         // Test hasAgreedOnSecret method
         assertTrue(clientUser.hasAgreedOnSecret());
     }
+
+    @Test
+    @DisplayName("Test the cipher follows the shared secret")
+    public void testCipher() throws Exception {
+        ClientUser clientUser = new ClientUser("Alice");
+        assertNull(clientUser.getCipher());
+
+        clientUser.setSharedSecret(new BigInteger("246813579"));
+        AESCipher cipher = clientUser.getCipher();
+        assertNotNull(cipher);
+        assertArrayEquals("Hello".getBytes(), cipher.decrypt(AES.encryptMessage("Hello", new BigInteger("246813579").toByteArray())));
+
+        clientUser.setSharedSecret(new BigInteger("135792468"));
+        assertNotSame(cipher, clientUser.getCipher());
+    }
+
+    @Test
+    public void testCipherLayout() {
+        ClientUser clientUser = new ClientUser("Alice");
+        assertEquals(CipherLayouts.SINGLE, clientUser.getCipherLayout());
+
+        clientUser.setCipherLayout(CipherLayouts.GCM);
+        assertEquals(CipherLayouts.GCM, clientUser.getCipherLayout());
+    }
+
+    @Test
+    @DisplayName("Test the certificate is decoded once per certificate")
+    public void testDecodedCertificate() throws Exception {
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        CustomCertificate certificate = new CertificateGenerator()
+                .withPublicKey(keyGen.generateKeyPair().getPublic())
+                .issuedBy("CA")
+                .forSubject("Alice")
+                .validFrom(new Date())
+                .validTo(new Date(System.currentTimeMillis() + 100000))
+                .generate();
+        ClientUser clientUser = new ClientUser("Alice");
+        clientUser.setCertificate(new PEMCertificateEncoder().encode(certificate));
+
+        CustomCertificate decoded = clientUser.getDecodedCertificate();
+        assertEquals(certificate.getSerialNumber(), decoded.getSerialNumber());
+        assertSame(decoded, clientUser.getDecodedCertificate());
+        assertEquals(certificate.getSerialNumber(), clientUser.getSerialNumber());
+
+        clientUser.setCertificateReference(new CertificateReference("fingerprint", 42));
+        assertEquals(42, clientUser.getSerialNumber());
+
+        clientUser.setCertificate(new PEMCertificateEncoder().encode(certificate));
+        assertNotSame(decoded, clientUser.getDecodedCertificate());
+    }
 }
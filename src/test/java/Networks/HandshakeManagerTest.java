@@ -0,0 +1,94 @@
+package Networks;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HandshakeManagerTest
+{
+    @Test
+    @DisplayName("Test agreed secret completes the future")
+    public void testComplete() throws Exception {
+        List<String> offers = new CopyOnWriteArrayList<>();
+        HandshakeManager handshakes = new HandshakeManager(user -> offers.add(user.getUsername()), 10_000, 1);
+        ClientUser alice = new ClientUser("Alice");
+
+        CompletableFuture<BigInteger> future = handshakes.agree(alice);
+        assertSame(future, handshakes.agree(alice));
+        assertEquals(List.of("Alice"), offers);
+        assertFalse(future.isDone());
+
+        handshakes.complete(alice, BigInteger.TEN);
+        assertEquals(BigInteger.TEN, future.get(1, TimeUnit.SECONDS));
+        assertEquals(0, handshakes.pending());
+        handshakes.close();
+    }
+
+    @Test
+    @DisplayName("Test agreements with several users are started at once")
+    public void testParallelAgreements() throws Exception {
+        List<String> offers = new CopyOnWriteArrayList<>();
+        HandshakeManager handshakes = new HandshakeManager(user -> offers.add(user.getUsername()), 10_000, 1);
+        ClientUser alice = new ClientUser("Alice");
+        ClientUser bob = new ClientUser("Bob");
+
+        CompletableFuture<BigInteger> toAlice = handshakes.agree(alice);
+        CompletableFuture<BigInteger> toBob = handshakes.agree(bob);
+        assertEquals(List.of("Alice", "Bob"), offers);
+
+        handshakes.complete(bob, BigInteger.TWO);
+        assertTrue(toBob.isDone());
+        assertFalse(toAlice.isDone());
+        handshakes.close();
+    }
+
+    @Test
+    @DisplayName("Test agreed user does not send an offer")
+    public void testAlreadyAgreed() throws Exception {
+        HandshakeManager handshakes = new HandshakeManager(user -> fail("Offer sent"), 10_000, 1);
+        ClientUser alice = new ClientUser("Alice");
+        alice.setSharedSecret(BigInteger.ONE);
+
+        assertEquals(BigInteger.ONE, handshakes.agree(alice).get());
+        handshakes.close();
+    }
+
+    @Test
+    @DisplayName("Test offer is retried until the last attempt")
+    public void testRetryAndTimeout() {
+        List<String> offers = new CopyOnWriteArrayList<>();
+        HandshakeManager handshakes = new HandshakeManager(user -> offers.add(user.getUsername()), 20, 3);
+
+        CompletableFuture<BigInteger> future = handshakes.agree(new ClientUser("Alice"));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+        assertEquals(3, offers.size());
+        assertEquals(0, handshakes.pending());
+        handshakes.close();
+    }
+
+    @Test
+    @DisplayName("Test cancel and replaced user")
+    public void testCancel() {
+        HandshakeManager handshakes = new HandshakeManager(user -> {}, 10_000, 1);
+        CompletableFuture<BigInteger> first = handshakes.agree(new ClientUser("Alice"));
+        CompletableFuture<BigInteger> second = handshakes.agree(new ClientUser("Alice"));
+        assertNotSame(first, second);
+        assertThrows(CancellationException.class, first::join);
+
+        handshakes.cancel("Alice");
+        assertThrows(CancellationException.class, second::join);
+        assertEquals(0, handshakes.pending());
+        handshakes.close();
+    }
+}
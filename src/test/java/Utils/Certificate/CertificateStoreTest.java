@@ -0,0 +1,72 @@
+package Utils.Certificate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPairGenerator;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CertificateStoreTest {
+
+    private CertificateStore store;
+    private CustomCertificate certificate;
+    private String pem;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new CertificateStore();
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        Date now = new Date();
+        certificate = new CertificateGenerator()
+                .withPublicKey(keyGen.generateKeyPair().getPublic())
+                .issuedBy("CA")
+                .forSubject("Subject")
+                .validFrom(now)
+                .validTo(new Date(now.getTime() + 1000000))
+                .generate();
+        certificate.setSignature(new byte[256]);
+        pem = new PEMCertificateEncoder().encode(certificate);
+    }
+
+    @Test
+    void testPutReturnsContentAddressedReference() throws Exception {
+        CertificateReference reference = store.put(pem);
+
+        assertEquals(certificate.getSerialNumber(), reference.getSerialNumber());
+        assertEquals(CertificateStore.fingerprint(pem), reference.getFingerprint());
+        assertEquals(pem, store.get(reference.getFingerprint()).orElseThrow());
+        assertEquals(reference, store.put(pem, certificate.getSerialNumber()));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testReferenceIsMuchSmallerThanCertificate() {
+        CertificateReference reference = store.put(pem, certificate.getSerialNumber());
+
+        assertTrue(reference.getFingerprint().length() + Integer.BYTES < pem.length() / 10);
+    }
+
+    @Test
+    void testPutVerifiedRejectsMismatchingCertificate() {
+        String fingerprint = CertificateStore.fingerprint(pem);
+
+        assertFalse(store.putVerified(fingerprint, pem + " "));
+        assertFalse(store.putVerified(fingerprint, null));
+        assertTrue(store.get(fingerprint).isEmpty());
+
+        assertTrue(store.putVerified(fingerprint, pem));
+        assertEquals(pem, store.get(fingerprint).orElseThrow());
+    }
+
+    @Test
+    void testRemove() {
+        CertificateReference reference = store.put(pem, certificate.getSerialNumber());
+        store.remove(reference.getFingerprint());
+
+        assertTrue(store.get(reference.getFingerprint()).isEmpty());
+        assertEquals(0, store.size());
+    }
+}
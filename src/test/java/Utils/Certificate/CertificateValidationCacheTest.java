@@ -0,0 +1,75 @@
+package Utils.Certificate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CertificateValidationCacheTest {
+
+    private static final CertificateReference REFERENCE = new CertificateReference("fingerprint", 7);
+
+    private static Date inOneHour() {
+        return new Date(System.currentTimeMillis() + 3600_000);
+    }
+
+    @Test
+    void testValidationIsReused() {
+        CertificateValidationCache cache = new CertificateValidationCache(60_000);
+        assertFalse(cache.isValidated(REFERENCE));
+
+        cache.validated(REFERENCE, inOneHour(), cache.getCaKeyGeneration());
+        assertTrue(cache.isValidated(REFERENCE));
+    }
+
+    @Test
+    void testOtherCertificateWithSameSerialIsNotValidated() {
+        CertificateValidationCache cache = new CertificateValidationCache(60_000);
+        cache.validated(REFERENCE, inOneHour(), cache.getCaKeyGeneration());
+
+        assertFalse(cache.isValidated(new CertificateReference("other", 7)));
+    }
+
+    @Test
+    void testValidationExpires() {
+        CertificateValidationCache expiredCertificate = new CertificateValidationCache(60_000);
+        expiredCertificate.validated(REFERENCE, new Date(System.currentTimeMillis() - 1), expiredCertificate.getCaKeyGeneration());
+        assertFalse(expiredCertificate.isValidated(REFERENCE));
+        assertEquals(0, expiredCertificate.size());
+
+        CertificateValidationCache withoutTimeToLive = new CertificateValidationCache(0);
+        withoutTimeToLive.validated(REFERENCE, inOneHour(), withoutTimeToLive.getCaKeyGeneration());
+        assertFalse(withoutTimeToLive.isValidated(REFERENCE));
+    }
+
+    @Test
+    void testInvalidate() {
+        CertificateValidationCache cache = new CertificateValidationCache(60_000);
+        cache.validated(REFERENCE, inOneHour(), cache.getCaKeyGeneration());
+
+        cache.invalidate(REFERENCE.getSerialNumber());
+        assertFalse(cache.isValidated(REFERENCE));
+    }
+
+    @Test
+    void testCaKeyChangeDropsValidations() {
+        CertificateValidationCache cache = new CertificateValidationCache(60_000);
+        int generation = cache.getCaKeyGeneration();
+        cache.validated(REFERENCE, inOneHour(), generation);
+
+        cache.caKeyChanged();
+        assertFalse(cache.isValidated(REFERENCE));
+
+        cache.validated(REFERENCE, inOneHour(), generation);
+        assertFalse(cache.isValidated(REFERENCE));
+
+        cache.validated(REFERENCE, inOneHour(), cache.getCaKeyGeneration());
+        assertTrue(cache.isValidated(REFERENCE));
+    }
+
+    @Test
+    void testNegativeTimeToLiveIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CertificateValidationCache(-1));
+    }
+}
@@ -0,0 +1,81 @@
+package Utils.Certificate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RevocationListTest {
+
+    private static BitSet serials(int... serialNumbers) {
+        BitSet bits = new BitSet();
+        for (int serialNumber : serialNumbers)
+            bits.set(serialNumber);
+        return bits;
+    }
+
+    @Test
+    public void testRevokeOnlyPublishesNewSerials() {
+        RevocationList list = new RevocationList(8);
+        RevocationEvent first = list.revoke(serials(1, 3)).orElseThrow();
+        assertEquals(1, first.getVersion());
+        assertTrue(list.isRevoked(1));
+        assertTrue(list.isRevoked(3));
+        assertFalse(list.isRevoked(2));
+
+        RevocationEvent second = list.revoke(serials(3, 4)).orElseThrow();
+        assertEquals(2, second.getVersion());
+        assertEquals(serials(4), second.getSerialNumbers());
+
+        assertTrue(list.revoke(serials(1, 4)).isEmpty());
+        assertEquals(2, list.getVersion());
+    }
+
+    @Test
+    public void testEventsSince() {
+        RevocationList list = new RevocationList(2);
+        list.revoke(serials(1));
+        list.revoke(serials(2));
+        list.revoke(serials(3));
+
+        assertEquals(List.of(), list.eventsSince(3).orElseThrow());
+        List<RevocationEvent> events = list.eventsSince(1).orElseThrow();
+        assertEquals(2, events.size());
+        assertEquals(2, events.get(0).getVersion());
+        assertEquals(3, events.get(1).getVersion());
+
+        assertEquals(Optional.empty(), list.eventsSince(0));
+        assertEquals(Optional.empty(), list.eventsSince(4));
+    }
+
+    @Test
+    public void testReplicaApply() {
+        RevocationList authority = new RevocationList(8);
+        RevocationList replica = new RevocationList(0);
+        RevocationEvent first = authority.revoke(serials(5)).orElseThrow();
+        RevocationEvent second = authority.revoke(serials(6)).orElseThrow();
+
+        assertFalse(replica.apply(second));
+        assertFalse(replica.isRevoked(6));
+
+        assertTrue(replica.apply(first));
+        assertTrue(replica.apply(second));
+        assertTrue(replica.apply(first));
+        assertEquals(2, replica.getVersion());
+        assertEquals(authority.getRevoked(), replica.getRevoked());
+    }
+
+    @Test
+    public void testReplaceIgnoresOlderList() {
+        RevocationList replica = new RevocationList(0);
+        assertTrue(replica.replace(3, serials(1, 2)));
+        assertTrue(replica.isRevoked(2));
+
+        assertFalse(replica.replace(2, serials(1)));
+        assertTrue(replica.isRevoked(2));
+        assertEquals(3, replica.getVersion());
+    }
+}
@@ -0,0 +1,74 @@
+package Utils.Concurrency;
+
+import Utils.Concurrency.Enums.ExecutorTypes;
+import Utils.Logger.Logger;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class HandlerExecutorsTest {
+
+    private final Logger logger = mock(Logger.class);
+
+    @Test
+    @DisplayName("Test thread executor runs tasks in named threads")
+    public void testThreadExecutor() throws InterruptedException {
+        ExecutorService executor = HandlerExecutors.create(ExecutorTypes.THREAD, 0, "handler", logger);
+        AtomicReference<String> threadName = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute(() -> {
+            threadName.set(Thread.currentThread().getName());
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(threadName.get().startsWith("handler-"));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test pool executor is bounded by the pool size and rejects the tasks that do not fit")
+    public void testPoolExecutor() throws InterruptedException {
+        ExecutorService executor = HandlerExecutors.create(ExecutorTypes.POOL, 2, "handler", logger);
+        assertInstanceOf(ThreadPoolExecutor.class, executor);
+        assertEquals(2, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        Runnable task = () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        };
+        executor.execute(task);
+        executor.execute(task);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(task));
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test virtual executor runs tasks, falling back when not supported")
+    public void testVirtualExecutor() throws InterruptedException {
+        ExecutorService executor = HandlerExecutors.create(ExecutorTypes.VIRTUAL, 0, "handler", logger);
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute(done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+}
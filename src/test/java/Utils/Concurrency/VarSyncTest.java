@@ -1,5 +1,6 @@
 package Utils.Concurrency;
 
+import Utils.Concurrency.Enums.LockStrategies;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -50,4 +51,27 @@ public class VarSyncTest {
         thread.join();
         assertEquals(51, varSync.syncGet()); // Value should be incremented by 1
     }
+
+    @Test
+    @DisplayName("Test lock strategies")
+    public void testLockStrategies() {
+        assertTrue(new VarSync<>(1, LockStrategies.FAIR).getLock().isFair());
+        assertFalse(new VarSync<>(1, LockStrategies.NON_FAIR).getLock().isFair());
+    }
+
+    @Test
+    @DisplayName("Test optimisticGet() does not wait for the lock")
+    public void testOptimisticGet() throws InterruptedException {
+        VarSync<Boolean> varSync = new VarSync<>(true, LockStrategies.NON_FAIR);
+
+        Thread thread = new Thread(() -> {
+            varSync.lock();
+            varSync.asyncSet(false);
+        });
+        thread.start();
+        thread.join();
+
+        assertTrue(varSync.getLock().isLocked());
+        assertFalse(varSync.optimisticGet());
+    }
 }
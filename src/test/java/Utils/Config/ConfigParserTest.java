@@ -8,6 +8,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import Utils.Concurrency.Enums.ExecutorTypes;
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Security.Encryption.Enums.CipherLayouts;
+import Utils.Transport.Enums.OverflowPolicies;
+import Utils.Transport.Enums.ServerModes;
 import org.ini4j.Ini;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -48,9 +53,85 @@ class ConfigParserTest {
         assertEquals(1025, result.getCaServerPort());
         assertEquals(1024, result.getMsgServerPort());
         assertEquals(10, result.getCertificateValidityPeriod());
+        assertEquals(ServerModes.BLOCKING, result.getServerMode(), "Missing server section should use the default mode");
+        assertEquals(ExecutorTypes.THREAD, result.getHandlerExecutor(), "Missing server section should use the default executor");
 
     }
 
+    @Test
+    public void parseFromIniToConfig_ServerSection_ReturnsConfiguredMode() throws IOException {
+
+        Ini mockIni = new Ini();
+        mockIni.put("ports", "ServerCAPort", "1025");
+        mockIni.put("ports", "ServerMSGPort", "1024");
+        mockIni.put("certificate", "CertificateValidityPeriod", "10");
+        mockIni.put("certificate", "ValidationCacheTTL", "5");
+        mockIni.put("server", "Mode", "selector");
+        mockIni.put("server", "SelectorThreads", "4");
+        mockIni.put("server", "HandlerExecutor", "pool");
+        mockIni.put("server", "HandlerPoolSize", "8");
+        mockIni.put("server", "OutboundQueueCapacity", "32");
+        mockIni.put("server", "OverflowPolicy", "drop_oldest");
+        mockIni.put("server", "OverflowTimeout", "250");
+        mockIni.put("server", "Codec", "java");
+        mockIni.put("server", "StreamResetMessages", "50");
+        mockIni.put("server", "StreamResetBytes", "4096");
+        mockIni.put("server", "RosterPageSize", "16");
+        mockIni.put("server", "PresenceHistory", "256");
+        mockIni.put("security", "CipherLayout", "blocks");
+        mockIni.put("security", "HandshakeTimeout", "500");
+        mockIni.put("security", "HandshakeAttempts", "2");
+        mockIni.put("security", "MulticastThreshold", "4");
+        mockIni.put("history", "SegmentSize", "4096");
+        mockIni.put("history", "MaxSegments", "8");
+        mockIni.put("history", "Retention", "7");
+        mockIni.put("history", "PageSize", "10");
+        when(mockIniFileReader.readIniFile("selectorConfig")).thenReturn(mockIni);
+
+        ConfigParser configParser = ConfigParser.getInstance();
+        configParser.setIniFileReader(mockIniFileReader);
+
+        Config result = configParser.parseFromIniToConfig("selectorConfig");
+
+        assertEquals(ServerModes.SELECTOR, result.getServerMode());
+        assertEquals(4, result.getSelectorThreads());
+        assertEquals(ExecutorTypes.POOL, result.getHandlerExecutor());
+        assertEquals(8, result.getHandlerPoolSize());
+        assertEquals(32, result.getOutboundQueueCapacity());
+        assertEquals(OverflowPolicies.DROP_OLDEST, result.getOverflowPolicy());
+        assertEquals(250, result.getOverflowTimeout());
+        assertEquals(CodecTypes.JAVA, result.getCodec());
+        assertEquals(50, result.getStreamResetMessages());
+        assertEquals(4096, result.getStreamResetBytes());
+        assertEquals(16, result.getRosterPageSize());
+        assertEquals(256, result.getPresenceHistory());
+        assertEquals(5, result.getValidationCacheTTL());
+        assertEquals(CipherLayouts.BLOCKS, result.getCipherLayout());
+        assertEquals(500, result.getHandshakeTimeout());
+        assertEquals(2, result.getHandshakeAttempts());
+        assertEquals(4, result.getMulticastThreshold());
+        assertEquals(4096, result.getHistorySegmentSize());
+        assertEquals(8, result.getHistoryMaxSegments());
+        assertEquals(7, result.getHistoryRetention());
+        assertEquals(10, result.getHistoryPageSize());
+    }
+
+    @Test
+    public void parseFromIniToConfig_InvalidMode_ThrowsIllegalArgumentException() throws IOException {
+
+        Ini mockIni = new Ini();
+        mockIni.put("ports", "ServerCAPort", "1025");
+        mockIni.put("ports", "ServerMSGPort", "1024");
+        mockIni.put("certificate", "CertificateValidityPeriod", "10");
+        mockIni.put("server", "Mode", "polling");
+        when(mockIniFileReader.readIniFile("invalidModeConfig")).thenReturn(mockIni);
+
+        ConfigParser configParser = ConfigParser.getInstance();
+        configParser.setIniFileReader(mockIniFileReader);
+
+        assertThrows(IllegalArgumentException.class, () -> configParser.parseFromIniToConfig("invalidModeConfig"));
+    }
+
     @Test
     public void parseFromIniToConfig_MissingSection_ThrowsIllegalArgumentException() throws IOException {
         Ini mockIniMissing = new Ini();
@@ -0,0 +1,62 @@
+package Utils.History;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistorySegmentTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendAndReopen() throws IOException {
+        Path file = directory.resolve("0.log");
+        HistorySegment segment = new HistorySegment(file, 64);
+        int first = segment.append(10, new byte[]{1, 2, 3});
+        int second = segment.append(20, new byte[]{4});
+        segment.close();
+
+        HistorySegment reopened = new HistorySegment(file, 64);
+        assertEquals(List.of(first, second), reopened.getOffsets());
+        assertEquals(10, reopened.getTime(first));
+        assertArrayEquals(new byte[]{4}, reopened.getPayload(second));
+        assertEquals(20, reopened.getLastTime());
+        reopened.close();
+    }
+
+    @Test
+    void testFullSegment() throws IOException {
+        HistorySegment segment = new HistorySegment(directory.resolve("0.log"), 2 * HistorySegment.HEADER_SIZE + 4);
+        assertEquals(0, segment.append(1, new byte[4]));
+        assertEquals(-1, segment.append(2, new byte[1]));
+        assertThrows(IllegalArgumentException.class, () -> segment.append(3, new byte[0]));
+        segment.close();
+    }
+
+    @Test
+    void testTornRecordIsNotRead() throws IOException {
+        Path file = directory.resolve("0.log");
+        HistorySegment segment = new HistorySegment(file, 64);
+        segment.append(10, new byte[]{1});
+        segment.close();
+
+        // a record whose length runs past the end of the file
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 1000), HistorySegment.HEADER_SIZE + 1);
+        }
+
+        HistorySegment reopened = new HistorySegment(file, 64);
+        assertEquals(1, reopened.getOffsets().size());
+        assertNotEquals(-1, reopened.append(20, new byte[]{2}));
+        reopened.close();
+    }
+}
@@ -0,0 +1,177 @@
+package Utils.History;
+
+import Utils.Message.MessageRecord;
+import Utils.Security.Encryption.AESCipher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryStoreTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    @TempDir
+    Path directory;
+
+    private static List<String> messages(HistoryPage page) {
+        return page.getRecords().stream().map(MessageRecord::getMessage).collect(Collectors.toList());
+    }
+
+    private static AESCipher cipher() throws GeneralSecurityException {
+        return new AESCipher("history-test-key".getBytes());
+    }
+
+    @Test
+    void testQueryBySenderAndTime() throws Exception {
+        try (HistoryStore store = new HistoryStore(directory, cipher(), 4096, 0, 0)) {
+            store.append(new MessageRecord("Alice", "a1", 100));
+            store.append(new MessageRecord("Bob", "b1", 200));
+            store.append(new MessageRecord("Alice", "a2", 300));
+            store.append(new MessageRecord("Carol", "c1", 400));
+
+            assertEquals(List.of("a1", "a2"), messages(store.query(Set.of("Alice"), Long.MIN_VALUE, Long.MAX_VALUE, 1, 10)));
+            assertEquals(List.of("b1", "a2", "c1"), messages(store.query(Set.of(), 200, Long.MAX_VALUE, 1, 10)));
+            assertEquals(List.of("a1", "b1", "a2"), messages(store.query(Set.of("Bob", "Alice"), 0, 400, 1, 10)));
+            assertEquals(0, store.query(Set.of("Dave"), 0, Long.MAX_VALUE, 1, 10).getTotal());
+            assertEquals(300, store.query(Set.of("Alice"), 0, Long.MAX_VALUE, 1, 1).getRecords().get(0).getReceivedAt());
+        }
+    }
+
+    @Test
+    void testPagesStartWithMostRecent() throws Exception {
+        try (HistoryStore store = new HistoryStore(directory, cipher(), 4096, 0, 0)) {
+            for (int i = 0; i < 5; i++)
+                store.append(new MessageRecord("Alice", "m" + i, i));
+
+            HistoryPage first = store.query(Set.of(), Long.MIN_VALUE, Long.MAX_VALUE, 1, 2);
+            assertEquals(List.of("m3", "m4"), messages(first));
+            assertEquals(3, first.getPageCount());
+            assertTrue(first.hasOlder());
+            assertEquals(List.of("m0"), messages(store.query(Set.of(), Long.MIN_VALUE, Long.MAX_VALUE, 3, 2)));
+            assertTrue(store.query(Set.of(), Long.MIN_VALUE, Long.MAX_VALUE, 4, 2).getRecords().isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> store.query(Set.of(), 0, 1, 0, 2));
+        }
+    }
+
+    @Test
+    void testTimesNeverDecrease() throws Exception {
+        try (HistoryStore store = new HistoryStore(directory, cipher(), 4096, 0, 0)) {
+            store.append(new MessageRecord("Alice", "late", 500));
+            store.append(new MessageRecord("Alice", "clock went back", 100));
+
+            assertEquals(List.of("late", "clock went back"), messages(store.query(Set.of(), 500, Long.MAX_VALUE, 1, 10)));
+        }
+    }
+
+    @Test
+    void testReopenRebuildsIndex() throws Exception {
+        try (HistoryStore store = new HistoryStore(directory, cipher(), 128, 0, 0)) {
+            for (int i = 0; i < 10; i++)
+                store.append(new MessageRecord(i % 2 == 0 ? "Alice" : "Bob", "message " + i, i));
+            assertTrue(store.getSegmentCount() > 1);
+        }
+
+        try (HistoryStore store = new HistoryStore(directory, cipher(), 128, 0, 0)) {
+            assertEquals(10, store.size());
+            assertEquals(List.of("message 1", "message 3", "message 5", "message 7", "message 9"),
+                    messages(store.query(Set.of("Bob"), Long.MIN_VALUE, Long.MAX_VALUE, 1, 10)));
+            store.append(new MessageRecord("Bob", "message 10", 10));
+            assertEquals(6, store.query(Set.of("Bob"), Long.MIN_VALUE, Long.MAX_VALUE, 1, 10).getTotal());
+        }
+    }
+
+    @Test
+    void testRecordsAreEncrypted() throws Exception {
+        try (HistoryStore store = new HistoryStore(directory, cipher(), 4096, 0, 0)) {
+            store.append(new MessageRecord("Alice", "a secret message", 1));
+        }
+
+        try (var files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                String content = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+                assertFalse(content.contains("secret") || content.contains("Alice"));
+            }
+        }
+
+        try (HistoryStore store = new HistoryStore(directory, new AESCipher("some-other-key!!".getBytes()), 4096, 0, 0)) {
+            assertEquals(0, store.size());
+            assertEquals(1, store.getSkipped());
+        }
+    }
+
+    @Test
+    void testRetentionDropsExpiredSegments() throws Exception {
+        long now = System.currentTimeMillis();
+        try (HistoryStore store = new HistoryStore(directory, cipher(), 128, 0, 0)) {
+            for (int i = 0; i < 6; i++)
+                store.append(new MessageRecord("Alice", "old " + i, now - 10 * DAY));
+            assertEquals(3, store.getSegmentCount());
+        }
+
+        try (HistoryStore store = new HistoryStore(directory, cipher(), 128, 0, 7 * DAY)) {
+            // the segment being appended is kept even if expired
+            assertEquals(1, store.getSegmentCount());
+            assertEquals(2, store.size());
+
+            store.append(new MessageRecord("Bob", "new", now));
+            assertEquals(1, store.getSegmentCount());
+            assertEquals(List.of("new"), messages(store.query(Set.of(), Long.MIN_VALUE, Long.MAX_VALUE, 1, 10)));
+            assertEquals(0, store.query(Set.of("Alice"), Long.MIN_VALUE, Long.MAX_VALUE, 1, 10).getTotal());
+            assertEquals(0, store.compact(now + 30 * DAY));
+        }
+    }
+
+    @Test
+    void testMaxSegments() throws Exception {
+        try (HistoryStore store = new HistoryStore(directory, cipher(), 128, 2, 0)) {
+            for (int i = 0; i < 20; i++)
+                store.append(new MessageRecord("Alice", "message " + i, i));
+
+            assertEquals(2, store.getSegmentCount());
+            HistoryPage page = store.query(Set.of(), Long.MIN_VALUE, Long.MAX_VALUE, 1, 20);
+            assertEquals("message 19", messages(page).get(page.getRecords().size() - 1));
+            assertTrue(page.getTotal() < 20);
+        }
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.filter(file -> file.toString().endsWith(".log")).count());
+        }
+    }
+
+    @Test
+    void testLoadKeyIsStable() throws IOException, GeneralSecurityException {
+        Path key = directory.resolve("keys").resolve("history.key");
+        byte[] encrypted = HistoryStore.loadKey(key, "secret".toCharArray()).encrypt("hello".getBytes(), Utils.Security.Encryption.Enums.CipherLayouts.GCM);
+
+        assertArrayEquals("hello".getBytes(), HistoryStore.loadKey(key, "secret".toCharArray()).decrypt(encrypted));
+        assertThrows(IOException.class, () -> HistoryStore.loadKey(key, "wrong".toCharArray()));
+        Files.write(key, new byte[3]);
+        assertThrows(IOException.class, () -> HistoryStore.loadKey(key, "secret".toCharArray()));
+    }
+
+    @Test
+    void testKeyInClearIsWrapped() throws IOException, GeneralSecurityException {
+        Path key = directory.resolve("history.key");
+        byte[] clear = new byte[16];
+        Arrays.fill(clear, (byte) 7);
+        Files.write(key, clear);
+        byte[] encrypted = new AESCipher(clear).encrypt("hello".getBytes(), Utils.Security.Encryption.Enums.CipherLayouts.GCM);
+
+        assertArrayEquals("hello".getBytes(), HistoryStore.loadKey(key, "secret".toCharArray()).decrypt(encrypted));
+        byte[] stored = Files.readAllBytes(key);
+        assertNotEquals(clear.length, stored.length);
+        for (int i = 0; i + clear.length <= stored.length; i++)
+            assertFalse(Arrays.equals(clear, 0, clear.length, stored, i, i + clear.length), "The key should not be kept in clear");
+        assertArrayEquals("hello".getBytes(), HistoryStore.loadKey(key, "secret".toCharArray()).decrypt(encrypted));
+    }
+}
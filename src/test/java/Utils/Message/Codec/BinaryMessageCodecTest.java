@@ -0,0 +1,241 @@
+package Utils.Message.Codec;
+
+import Networks.User;
+import Utils.Certificate.CertificateReference;
+import Utils.Certificate.RevocationEvent;
+import Utils.Message.Contents.*;
+import Utils.Message.Contents.Interfaces.MessageContent;
+import Utils.Message.Contents.Interfaces.MessageContentIntegrityHash;
+import Utils.Message.EnumTypes.AccountMessageTypes;
+import Utils.Message.EnumTypes.CACommunicationTypes;
+import Utils.Message.EnumTypes.CommunicationTypes;
+import Utils.Message.EnumTypes.ContentTypes;
+import Utils.Message.Message;
+import Utils.Presence.Enums.PresenceEvents;
+import Utils.Presence.PresenceDelta;
+import Utils.Security.Encryption.Enums.CipherLayouts;
+import Utils.Security.Encryption.RSA;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryMessageCodecTest {
+
+    private final BinaryMessageCodec codec = new BinaryMessageCodec();
+
+    private Message roundTrip(MessageContent content) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        codec.encode(new Message("Alice", "Bob", content), output);
+        byte[] bytes = output.toByteArray();
+
+        Message decoded = codec.decode(bytes, 0, bytes.length);
+        assertEquals("Alice", decoded.getSender());
+        assertEquals("Bob", decoded.getRecipient());
+        assertEquals(content.getClass(), decoded.getContent().getClass());
+        assertEquals(content.getSubType(), decoded.getContent().getSubType());
+        assertEquals(content.getStringMessage(), decoded.getContent().getStringMessage());
+        return decoded;
+    }
+
+    private void assertDigestPreserved(MessageContent content) throws IOException, ClassNotFoundException {
+        MessageContentIntegrityHash decoded = (MessageContentIntegrityHash) roundTrip(content).getContent();
+        assertArrayEquals(((MessageContentIntegrityHash) content).getDigest(), decoded.getDigest());
+        assertTrue(decoded.hasValidDigest());
+    }
+
+    @Test
+    public void testHashContents() throws IOException, ClassNotFoundException {
+        User user = new User("Carol");
+        user.setCertificate("CERT");
+        ArrayList<User> users = new ArrayList<>();
+        users.add(user);
+        users.add(new User("Dave"));
+
+        assertDigestPreserved(ContentFactory.createRegisterContent("Alice"));
+        assertDigestPreserved(ContentFactory.createLoginContent("CERT", "Alice"));
+        assertDigestPreserved(ContentFactory.createLoginRenovateContent("CERT", "Alice"));
+        assertDigestPreserved(ContentFactory.createLogoutContent("Alice"));
+        assertDigestPreserved(ContentFactory.createCertificateStateContent(7, true));
+        assertDigestPreserved(ContentFactory.createCertificateStateInvalidContent(7));
+        assertDigestPreserved(ContentFactory.createDiffieHellmanContent(BigInteger.valueOf(123456789)));
+        assertDigestPreserved(ContentFactory.createAllLoggedInContent(users));
+        assertDigestPreserved(ContentFactory.createMSGCommunicationContent(new byte[]{1, 2, 3}));
+        assertDigestPreserved(ContentFactory.createDiffieHellmanRSAContent(new byte[]{4, 5, 6}));
+        assertDigestPreserved(ContentFactory.createDiffieHellmanRSAContent(new byte[]{4, 5, 6}, CipherLayouts.GCM));
+    }
+
+    @Test
+    public void testPresenceContents() throws IOException, ClassNotFoundException {
+        List<PresenceDelta> members = List.of(
+                new PresenceDelta(PresenceEvents.JOIN, "Carol", new CertificateReference("CERT", 12), 3),
+                new PresenceDelta(PresenceEvents.LEAVE, "Dave", null, 4));
+        assertDigestPreserved(ContentFactory.createPresenceSnapshotContent(4, members, false));
+        assertDigestPreserved(ContentFactory.createPresenceDeltaContent(members, true));
+        assertDigestPreserved(ContentFactory.createPresenceResumeContent(7));
+
+        PresenceContent decoded = (PresenceContent) roundTrip(ContentFactory.createPresenceDeltaContent(members, true)).getContent();
+        assertEquals(4, decoded.getVersion());
+        assertTrue(decoded.isLast());
+        assertEquals(PresenceEvents.LEAVE, decoded.getDeltas().get(1).getEvent());
+        assertNull(decoded.getDeltas().get(1).getCertificate());
+        assertEquals(new CertificateReference("CERT", 12), decoded.getDeltas().get(0).getCertificate());
+    }
+
+    @Test
+    public void testCertificateContents() throws IOException, ClassNotFoundException {
+        assertDigestPreserved(ContentFactory.createCertificateFetchContent("fingerprint"));
+        assertDigestPreserved(ContentFactory.createCertificateContent("fingerprint", "PEM"));
+        assertDigestPreserved(ContentFactory.createCertificateContent("fingerprint", null));
+
+        CertificateContent decoded = (CertificateContent) roundTrip(ContentFactory.createCertificateContent("fingerprint", "PEM")).getContent();
+        assertEquals(AccountMessageTypes.CERTIFICATE, decoded.getSubType());
+        assertEquals("fingerprint", decoded.getFingerprint());
+        assertEquals("PEM", decoded.getCertificate());
+    }
+
+    @Test
+    public void testCipherNegotiationContents() throws IOException, ClassNotFoundException {
+        DiffieHellmanKeyChangeContent keyChange = (DiffieHellmanKeyChangeContent) roundTrip(ContentFactory.createDiffieHellmanRSAContent(new byte[]{4, 5, 6}, CipherLayouts.GCM)).getContent();
+        assertEquals(CipherLayouts.GCM, keyChange.getCipherLayout());
+        keyChange = (DiffieHellmanKeyChangeContent) roundTrip(ContentFactory.createDiffieHellmanRSAContent(new byte[]{4, 5, 6})).getContent();
+        assertNull(keyChange.getCipherLayout());
+
+        MessageCommunicationContent communication = (MessageCommunicationContent) roundTrip(ContentFactory.createAuthenticatedMSGCommunicationContent(new byte[]{1, 2, 3})).getContent();
+        assertFalse(communication.hasDigest());
+        assertArrayEquals(new byte[]{1, 2, 3}, communication.getByteMessage());
+    }
+
+    @Test
+    public void testMACContents() throws Exception {
+        BigInteger secret = BigInteger.valueOf(42);
+        IntegrityContent integrity = (IntegrityContent) roundTrip(ContentFactory.createIntegrityContent("file", secret, CACommunicationTypes.REVOKE)).getContent();
+        assertTrue(integrity.hasValidMAC(secret.toByteArray()));
+
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        PublicKey publicKey = generator.generateKeyPair().getPublic();
+        PublicKeyContent publicKeyContent = (PublicKeyContent) roundTrip(ContentFactory.createPublicKeyContent(publicKey, secret)).getContent();
+        assertEquals(publicKey, publicKeyContent.getPublicKey());
+        assertTrue(publicKeyContent.hasValidMAC(secret.toByteArray()));
+    }
+
+    @Test
+    public void testCertificateStatesContents() throws IOException, ClassNotFoundException {
+        BigInteger secret = BigInteger.valueOf(42);
+        CertificateStatesContent request = (CertificateStatesContent) roundTrip(ContentFactory.createCertificateStatesContent(new int[]{3, 4, 5}, secret)).getContent();
+        assertTrue(request.hasValidMAC(secret.toByteArray()));
+        assertFalse(request.hasStates());
+        assertArrayEquals(new int[]{3, 4, 5}, request.getSerialNumbers());
+
+        BitSet states = new BitSet();
+        states.set(2);
+        CertificateStatesContent reply = (CertificateStatesContent) roundTrip(ContentFactory.createCertificateStatesContent(new int[]{3, 4, 5}, states, secret)).getContent();
+        assertTrue(reply.hasValidMAC(secret.toByteArray()));
+        assertFalse(reply.isValid(0));
+        assertTrue(reply.isValid(2));
+    }
+
+    @Test
+    public void testRevocationContents() throws IOException, ClassNotFoundException {
+        KeyPair keys = RSA.generateKeyPair();
+        RevocationContent subscribe = (RevocationContent) roundTrip(ContentFactory.createRevocationSubscribeContent(3)).getContent();
+        assertEquals(CACommunicationTypes.REVOCATION_SUBSCRIBE, subscribe.getSubType());
+        assertEquals(3, subscribe.getVersion());
+        assertNull(subscribe.getSignature());
+
+        BitSet revoked = new BitSet();
+        revoked.set(9);
+        RevocationContent event = (RevocationContent) roundTrip(ContentFactory.createRevocationEventContent(new RevocationEvent(4, revoked), keys.getPrivate())).getContent();
+        assertEquals(CACommunicationTypes.REVOCATION_EVENT, event.getSubType());
+        assertEquals(revoked, event.getRevoked());
+        assertTrue(event.hasValidSignature(keys.getPublic()));
+    }
+
+    @Test
+    public void testMulticastContents() throws IOException, ClassNotFoundException {
+        byte[][] keys = { {1, 2, 3}, {4, 5} };
+        MulticastContent multicast = (MulticastContent) roundTrip(ContentFactory.createMulticastContent(new String[]{"Bob", "Carol"}, keys, new byte[]{9, 8, 7})).getContent();
+        assertEquals(CommunicationTypes.MULTICAST, multicast.getSubType());
+        assertEquals(2, multicast.size());
+        assertEquals("Carol", multicast.getRecipient(1));
+        assertArrayEquals(keys[1], multicast.getKey("Carol").orElseThrow());
+        assertArrayEquals(new byte[]{9, 8, 7}, multicast.getByteMessage());
+    }
+
+    @Test
+    public void testTypeAndErrorContents() throws IOException, ClassNotFoundException {
+        roundTrip(ContentFactory.createTypeContent(AccountMessageTypes.LOGIN));
+        roundTrip(ContentFactory.createTypeContent(CommunicationTypes.INVALID_CERTIFICATE));
+
+        ErrorContent error = (ErrorContent) roundTrip(ContentFactory.createErrorContent(ContentFactory.createRegisterContent("Alice"), "Username in use")).getContent();
+        assertEquals("Alice", error.getErrorContent().getStringMessage());
+    }
+
+    @Test
+    public void testTamperedContentKeepsTransmittedDigest() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        codec.encode(new Message("Alice", "Bob", ContentFactory.createLogoutContent("Alice")), output);
+        byte[] bytes = output.toByteArray();
+        int usernamePosition = new String(bytes, java.nio.charset.StandardCharsets.ISO_8859_1).lastIndexOf("Alice");
+        bytes[usernamePosition] = 'E';
+
+        MessageContentIntegrityHash decoded = (MessageContentIntegrityHash) codec.decode(bytes, 0, bytes.length).getContent();
+        assertFalse(decoded.hasValidDigest());
+    }
+
+    @Test
+    public void testInvalidBytes() {
+        byte[] truncated = {0, 0, 0, 5, 'A'};
+        assertThrows(IOException.class, () -> codec.decode(truncated, 0, truncated.length));
+
+        byte[] unknownTag = {0, (byte) 0xFF, (byte) 0xFF, 0, 0, 0, 0, 0, 0, 0, 0, 99};
+        assertThrows(IOException.class, () -> codec.decode(unknownTag, 0, unknownTag.length));
+    }
+
+    @Test
+    public void testSmallerThanJavaSerialization() throws IOException {
+        Message message = new Message("Alice", "Bob", ContentFactory.createLoginContent("CERT", "Alice"));
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        ByteArrayOutputStream java = new ByteArrayOutputStream();
+        codec.encode(message, binary);
+        new JavaSerializationCodec().encode(message, java);
+
+        assertTrue(binary.size() < java.size());
+    }
+
+    @Test
+    public void testRoutingHeaderIsReadWithoutContent() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        codec.encode(new Message("Alice", "Bob", ContentFactory.createMSGCommunicationContent(new byte[]{1, 2, 3})), output);
+        byte[] bytes = output.toByteArray();
+        bytes[bytes.length - 1] = 99;
+
+        RoutingHeader header = codec.readRoutingHeader(bytes, 0, bytes.length).orElseThrow();
+        assertEquals("Alice", header.getSender());
+        assertEquals("Bob", header.getRecipient());
+        assertEquals(ContentTypes.COMMUNICATION, header.getType());
+        assertEquals(CommunicationTypes.MSG, header.getSubType());
+    }
+
+    @Test
+    public void testRoutingHeaderOfError() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MessageContent error = ContentFactory.createErrorContent(ContentFactory.createLogoutContent("Alice"), "error");
+        codec.encode(new Message("Server", "Alice", error), output);
+        byte[] bytes = output.toByteArray();
+
+        RoutingHeader header = codec.readRoutingHeader(bytes, 0, bytes.length).orElseThrow();
+        assertEquals(ContentTypes.ERROR, header.getType());
+        assertEquals(error.getSubType(), header.getSubType());
+    }
+}
@@ -8,6 +8,11 @@ import Utils.Message.EnumTypes.AccountMessageTypes;
 import Utils.Message.EnumTypes.ContentTypes;
 
 import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 
 public class AllLoggedInContentTest {
@@ -77,4 +82,37 @@ public class AllLoggedInContentTest {
         AllLoggedInContent allLoggedInContent = new AllLoggedInContent(users);
         assertTrue(allLoggedInContent.hasValidDigest());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("testMemoizedByteMessageAndDigest")
+    public void testMemoizedByteMessageAndDigest() {
+        ArrayList<User> users = new ArrayList<>();
+        users.add(new User("user1"));
+        AllLoggedInContent allLoggedInContent = new AllLoggedInContent(users, new AllLoggedInContent(users).getDigest());
+        byte[] bytes = allLoggedInContent.getByteMessage();
+        assertTrue(allLoggedInContent.hasValidDigest());
+
+        users.add(new User("user2"));
+        assertSame(bytes, allLoggedInContent.getByteMessage());
+        assertTrue(allLoggedInContent.hasValidDigest());
+    }
+
+    @Test
+    @DisplayName("testMemoizedStateIsNotSerialized")
+    public void testMemoizedStateIsNotSerialized() throws Exception {
+        ArrayList<User> users = new ArrayList<>();
+        users.add(new User("user1"));
+        AllLoggedInContent allLoggedInContent = new AllLoggedInContent(users, HASH.generateDigest("other".getBytes()));
+        assertFalse(allLoggedInContent.hasValidDigest());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(new AllLoggedInContent(users));
+        }
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            AllLoggedInContent restored = (AllLoggedInContent) input.readObject();
+            assertArrayEquals(users.toString().getBytes(), restored.getByteMessage());
+            assertTrue(restored.hasValidDigest());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package Utils.Message.Contents;
+
+import org.junit.jupiter.api.Test;
+
+import Utils.Message.EnumTypes.CACommunicationTypes;
+import Utils.Message.EnumTypes.ContentTypes;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.math.BigInteger;
+import java.util.BitSet;
+
+public class CertificateStatesContentTest {
+
+    private static final BigInteger SECRET = BigInteger.valueOf(123456);
+
+    @Test
+    public void testGetType() {
+        CertificateStatesContent content = new CertificateStatesContent(new int[]{1, 2}, null, SECRET);
+        assertEquals(ContentTypes.CA_COMMUNICATION, content.getType());
+        assertEquals(CACommunicationTypes.CERTIFICATE_STATES, content.getSubType());
+    }
+
+    @Test
+    public void testRequestHasNoStates() {
+        CertificateStatesContent content = new CertificateStatesContent(new int[]{1, 2}, null, SECRET);
+        assertFalse(content.hasStates());
+        assertFalse(content.isValid(0));
+        assertArrayEquals(new int[]{1, 2}, content.getSerialNumbers());
+    }
+
+    @Test
+    public void testStatesBitmap() {
+        int[] serialNumbers = new int[10];
+        BitSet states = new BitSet();
+        states.set(0);
+        states.set(9);
+        CertificateStatesContent content = new CertificateStatesContent(serialNumbers, states, SECRET);
+
+        assertTrue(content.hasStates());
+        assertEquals(2, content.getStates().length);
+        assertTrue(content.isValid(0));
+        assertFalse(content.isValid(1));
+        assertTrue(content.isValid(9));
+        assertFalse(content.isValid(10));
+    }
+
+    @Test
+    public void testHasValidMAC() {
+        BitSet states = new BitSet();
+        states.set(1);
+        CertificateStatesContent content = new CertificateStatesContent(new int[]{5, 6}, states, SECRET);
+        assertTrue(content.hasValidMAC(SECRET.toByteArray()));
+        assertFalse(content.hasValidMAC(BigInteger.valueOf(654321).toByteArray()));
+
+        byte[] flipped = content.getStates().clone();
+        flipped[0] ^= 1;
+        CertificateStatesContent tampered = new CertificateStatesContent(new int[]{5, 6}, flipped, content.getMAC());
+        assertFalse(tampered.hasValidMAC(SECRET.toByteArray()));
+    }
+}
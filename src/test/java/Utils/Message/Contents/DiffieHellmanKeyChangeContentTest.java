@@ -3,6 +3,7 @@ import org.junit.jupiter.api.Test;
 
 import Utils.Message.EnumTypes.ContentTypes;
 import Utils.Message.EnumTypes.DiffieHellmanTypes;
+import Utils.Security.Encryption.Enums.CipherLayouts;
 
 import static org.junit.jupiter.api.Assertions.*;
 import java.math.BigInteger;
@@ -58,4 +59,15 @@ public class DiffieHellmanKeyChangeContentTest {
         DiffieHellmanKeyChangeContent content = new DiffieHellmanKeyChangeContent(publicKeyBytes);
         assertTrue(content.hasValidDigest());
     }
+
+    @Test
+    public void testCipherLayoutIsDigested() {
+        byte[] publicKeyBytes = BigInteger.valueOf(123456).toByteArray();
+        DiffieHellmanKeyChangeContent content = new DiffieHellmanKeyChangeContent(publicKeyBytes, CipherLayouts.GCM);
+        assertEquals(CipherLayouts.GCM, content.getCipherLayout());
+        assertTrue(content.hasValidDigest());
+
+        DiffieHellmanKeyChangeContent downgraded = new DiffieHellmanKeyChangeContent(publicKeyBytes, CipherLayouts.SINGLE, content.getDigest());
+        assertFalse(downgraded.hasValidDigest());
+    }
 }
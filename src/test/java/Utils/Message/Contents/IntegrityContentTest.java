@@ -64,4 +64,14 @@ public class IntegrityContentTest {
         IntegrityContent integrityContent = new IntegrityContent(content, secret, type);
         assertTrue(integrityContent.hasValidMAC(secret.toByteArray()));
     }
+
+    @Test
+    public void testHasValidMACWithOtherSecret() {
+        BigInteger secret = BigInteger.valueOf(123456);
+        IntegrityContent integrityContent = new IntegrityContent("testContent", secret, CACommunicationTypes.SIGNE);
+        assertTrue(integrityContent.hasValidMAC(secret.toByteArray()));
+        assertTrue(integrityContent.hasValidMAC(secret.toByteArray()));
+        assertFalse(integrityContent.hasValidMAC(BigInteger.valueOf(654321).toByteArray()));
+        assertTrue(integrityContent.hasValidMAC(secret.toByteArray()));
+    }
 }
@@ -55,5 +55,15 @@ public class MessageCommunicationContentTest {
         MessageCommunicationContent content = new MessageCommunicationContent(type, message);
         assertTrue(content.hasValidDigest());
     }
+
+    @Test
+    public void testWithoutDigest() {
+        byte[] message = "testMessage".getBytes();
+        MessageCommunicationContent content = MessageCommunicationContent.withoutDigest(CommunicationTypes.MSG, message);
+        assertFalse(content.hasDigest());
+        assertNull(content.getDigest());
+        assertFalse(content.hasValidDigest());
+        assertArrayEquals(message, content.getByteMessage());
+    }
 }
 
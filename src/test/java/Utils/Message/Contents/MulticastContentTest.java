@@ -0,0 +1,47 @@
+package Utils.Message.Contents;
+
+import org.junit.jupiter.api.Test;
+
+import Utils.Message.EnumTypes.CommunicationTypes;
+import Utils.Message.EnumTypes.ContentTypes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MulticastContentTest {
+
+    private static final String[] RECIPIENTS = {"Bob", "Carol", "Dave"};
+    private static final byte[][] KEYS = { {1}, {2}, {3} };
+    private static final byte[] BODY = {7, 7, 7};
+
+    @Test
+    public void testGetType() {
+        MulticastContent content = new MulticastContent(RECIPIENTS, KEYS, BODY);
+        assertEquals(ContentTypes.COMMUNICATION, content.getType());
+        assertEquals(CommunicationTypes.MULTICAST, content.getSubType());
+        assertEquals(3, content.size());
+        assertArrayEquals(BODY, content.getByteMessage());
+    }
+
+    @Test
+    public void testGetKey() {
+        MulticastContent content = new MulticastContent(RECIPIENTS, KEYS, BODY);
+        assertArrayEquals(new byte[]{2}, content.getKey("Carol").orElseThrow());
+        assertTrue(content.getKey("Eve").isEmpty());
+    }
+
+    @Test
+    public void testForRecipient() {
+        MulticastContent single = new MulticastContent(RECIPIENTS, KEYS, BODY).forRecipient(2);
+        assertEquals(1, single.size());
+        assertEquals("Dave", single.getRecipient(0));
+        assertArrayEquals(new byte[]{3}, single.getKey("Dave").orElseThrow());
+        assertTrue(single.getKey("Bob").isEmpty());
+        assertArrayEquals(BODY, single.getByteMessage());
+    }
+
+    @Test
+    public void testMismatchedKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new MulticastContent(RECIPIENTS, new byte[][]{ {1} }, BODY));
+        assertThrows(IllegalArgumentException.class, () -> new MulticastContent(new String[0], new byte[0][], BODY));
+    }
+}
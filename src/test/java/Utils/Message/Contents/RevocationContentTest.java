@@ -0,0 +1,59 @@
+package Utils.Message.Contents;
+
+import org.junit.jupiter.api.Test;
+
+import Utils.Message.EnumTypes.CACommunicationTypes;
+import Utils.Message.EnumTypes.ContentTypes;
+import Utils.Security.Encryption.RSA;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.security.KeyPair;
+import java.util.BitSet;
+
+public class RevocationContentTest {
+
+    private static final KeyPair KEYS = RSA.generateKeyPair();
+
+    private static BitSet revoked() {
+        BitSet revoked = new BitSet();
+        revoked.set(2);
+        revoked.set(70);
+        return revoked;
+    }
+
+    @Test
+    public void testGetType() {
+        RevocationContent content = new RevocationContent(CACommunicationTypes.REVOCATION_EVENT, 1, revoked(), KEYS.getPrivate());
+        assertEquals(ContentTypes.CA_COMMUNICATION, content.getType());
+        assertEquals(CACommunicationTypes.REVOCATION_EVENT, content.getSubType());
+        assertEquals(revoked(), content.getRevoked());
+        assertEquals(1, content.getVersion());
+    }
+
+    @Test
+    public void testInvalidSubtype() {
+        assertThrows(IllegalArgumentException.class, () -> new RevocationContent(CACommunicationTypes.REVOKE, 1, revoked(), null));
+    }
+
+    @Test
+    public void testSubscribeIsNotSigned() {
+        RevocationContent content = new RevocationContent(CACommunicationTypes.REVOCATION_SUBSCRIBE, 4, new BitSet(), null);
+        assertNull(content.getSignature());
+        assertFalse(content.hasValidSignature(KEYS.getPublic()));
+    }
+
+    @Test
+    public void testHasValidSignature() {
+        RevocationContent content = new RevocationContent(CACommunicationTypes.REVOCATION_LIST, 7, revoked(), KEYS.getPrivate());
+        assertTrue(content.hasValidSignature(KEYS.getPublic()));
+        assertFalse(content.hasValidSignature(RSA.generateKeyPair().getPublic()));
+
+        BitSet fewer = revoked();
+        fewer.clear(70);
+        RevocationContent tampered = new RevocationContent(CACommunicationTypes.REVOCATION_LIST, 7, fewer.toByteArray(), content.getSignature());
+        assertFalse(tampered.hasValidSignature(KEYS.getPublic()));
+
+        RevocationContent older = new RevocationContent(CACommunicationTypes.REVOCATION_LIST, 6, revoked().toByteArray(), content.getSignature());
+        assertFalse(older.hasValidSignature(KEYS.getPublic()));
+    }
+}
@@ -22,4 +22,14 @@ class MessageRecordTest {
 
         assertEquals(expectedOutput, record.toString(), "toString output should be correctly formatted");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReceivedTime() {
+        long time = System.currentTimeMillis();
+        MessageRecord record = new MessageRecord("Alice", "Hello, World!", time);
+
+        assertEquals(time, record.getReceivedAt(), "Received time should match");
+        assertEquals(new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new java.util.Date(time)), record.getReceivedDate());
+        assertEquals(0, new MessageRecord("Alice", "Hello, World!", "10:00:00").getReceivedAt());
+    }
+}
@@ -0,0 +1,99 @@
+package Utils.Presence;
+
+import Utils.Certificate.CertificateReference;
+import Utils.Presence.Enums.PresenceEvents;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresenceRosterTest {
+
+    private static CertificateReference reference(String fingerprint) {
+        return new CertificateReference(fingerprint, fingerprint.length());
+    }
+
+    @Test
+    void testChangesIncrementVersion() {
+        PresenceRoster roster = new PresenceRoster(16);
+        assertEquals(0, roster.getVersion());
+
+        PresenceDelta join = roster.join("Alice", reference("CERT_A"));
+        assertEquals(PresenceEvents.JOIN, join.getEvent());
+        assertEquals(1, join.getVersion());
+
+        PresenceDelta renew = roster.renew("Alice", reference("CERT_A2")).orElseThrow();
+        assertEquals(PresenceEvents.RENEW, renew.getEvent());
+        assertEquals(2, renew.getVersion());
+
+        PresenceDelta leave = roster.leave("Alice").orElseThrow();
+        assertEquals(PresenceEvents.LEAVE, leave.getEvent());
+        assertNull(leave.getCertificate());
+        assertEquals(3, roster.getVersion());
+    }
+
+    @Test
+    void testChangesOfNonMembersAreIgnored() {
+        PresenceRoster roster = new PresenceRoster(16);
+
+        assertTrue(roster.renew("Alice", reference("CERT_A")).isEmpty());
+        assertTrue(roster.leave("Alice").isEmpty());
+        assertEquals(0, roster.getVersion());
+    }
+
+    @Test
+    void testSnapshotHasCurrentCertificates() {
+        PresenceRoster roster = new PresenceRoster(16);
+        roster.join("Alice", reference("CERT_A"));
+        roster.join("Bob", reference("CERT_B"));
+        roster.renew("Alice", reference("CERT_A2"));
+        roster.join("Carol", reference("CERT_C"));
+        roster.leave("Bob");
+
+        PresenceSnapshot snapshot = roster.snapshot();
+        assertEquals(5, snapshot.getVersion());
+        assertEquals(2, snapshot.getMembers().size());
+        assertEquals("Alice", snapshot.getMembers().get(0).getUsername());
+        assertEquals(PresenceEvents.JOIN, snapshot.getMembers().get(0).getEvent());
+        assertEquals(reference("CERT_A2"), snapshot.getMembers().get(0).getCertificate());
+        assertEquals("Carol", snapshot.getMembers().get(1).getUsername());
+    }
+
+    @Test
+    void testDeltasSince() {
+        PresenceRoster roster = new PresenceRoster(16);
+        roster.join("Alice", reference("CERT_A"));
+        roster.join("Bob", reference("CERT_B"));
+        roster.leave("Alice");
+
+        List<PresenceDelta> deltas = roster.deltasSince(1).orElseThrow();
+        assertEquals(2, deltas.size());
+        assertEquals(2, deltas.get(0).getVersion());
+        assertEquals(3, deltas.get(1).getVersion());
+
+        assertEquals(3, roster.deltasSince(0).orElseThrow().size());
+        assertTrue(roster.deltasSince(3).orElseThrow().isEmpty());
+        assertTrue(roster.deltasSince(4).isEmpty());
+        assertTrue(roster.deltasSince(-1).isEmpty());
+    }
+
+    @Test
+    void testDeltasOlderThanHistoryNeedSnapshot() {
+        PresenceRoster roster = new PresenceRoster(2);
+        roster.join("Alice", reference("CERT_A"));
+        roster.join("Bob", reference("CERT_B"));
+        roster.join("Carol", reference("CERT_C"));
+
+        Optional<List<PresenceDelta>> deltas = roster.deltasSince(1);
+        assertTrue(deltas.isPresent());
+        assertEquals(2, deltas.get().size());
+        assertTrue(roster.deltasSince(0).isEmpty());
+
+        PresenceRoster withoutHistory = new PresenceRoster(0);
+        withoutHistory.join("Alice", reference("CERT_A"));
+        assertTrue(withoutHistory.deltasSince(0).isEmpty());
+        assertTrue(withoutHistory.deltasSince(1).orElseThrow().isEmpty());
+    }
+}
@@ -0,0 +1,109 @@
+package Utils.Presence;
+
+import Utils.Certificate.CertificateReference;
+import Utils.Presence.Enums.PresenceEvents;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresenceTrackerTest {
+
+    private static class RecordingListener implements PresenceListener {
+        final List<List<PresenceDelta>> rosters = new ArrayList<>();
+        final List<Long> applied = new ArrayList<>();
+        final List<Long> gaps = new ArrayList<>();
+
+        @Override
+        public void onRoster(List<PresenceDelta> members) {
+            rosters.add(members);
+        }
+
+        @Override
+        public void onDelta(PresenceDelta delta) {
+            applied.add(delta.getVersion());
+        }
+
+        @Override
+        public void onGap(long knownVersion) {
+            gaps.add(knownVersion);
+        }
+    }
+
+    private static PresenceDelta join(String username, long version) {
+        return new PresenceDelta(PresenceEvents.JOIN, username, new CertificateReference("CERT_" + username, 1), version);
+    }
+
+    @Test
+    void testSnapshotPages() {
+        RecordingListener listener = new RecordingListener();
+        PresenceTracker tracker = new PresenceTracker(listener);
+
+        tracker.receiveSnapshot(5, List.of(join("Alice", 1), join("Bob", 2)), false);
+        assertFalse(tracker.hasRoster());
+        assertTrue(listener.rosters.isEmpty());
+
+        tracker.receiveSnapshot(5, List.of(join("Carol", 5)), true);
+        assertTrue(tracker.hasRoster());
+        assertEquals(5, tracker.getVersion());
+        assertEquals(1, listener.rosters.size());
+        assertEquals(3, listener.rosters.get(0).size());
+    }
+
+    @Test
+    void testDeltasBeforeSnapshotAreApplied() {
+        RecordingListener listener = new RecordingListener();
+        PresenceTracker tracker = new PresenceTracker(listener);
+
+        tracker.receiveDeltas(List.of(join("Alice", 1)));
+        tracker.receiveDeltas(List.of(join("Bob", 2)));
+        assertTrue(listener.applied.isEmpty());
+
+        tracker.receiveSnapshot(1, List.of(join("Alice", 1)), true);
+        assertEquals(List.of(2L), listener.applied);
+        assertEquals(2, tracker.getVersion());
+        assertTrue(listener.gaps.isEmpty());
+    }
+
+    @Test
+    void testGapIsReportedOnceAndFilled() {
+        RecordingListener listener = new RecordingListener();
+        PresenceTracker tracker = new PresenceTracker(listener);
+        tracker.receiveSnapshot(1, List.of(join("Alice", 1)), true);
+
+        tracker.receiveDeltas(List.of(join("Carol", 3)));
+        tracker.receiveDeltas(List.of(join("Dave", 4)));
+        assertEquals(List.of(1L), listener.gaps);
+        assertTrue(listener.applied.isEmpty());
+
+        tracker.receiveDeltas(List.of(join("Bob", 2), join("Carol", 3)));
+        assertEquals(List.of(2L, 3L, 4L), listener.applied);
+        assertEquals(4, tracker.getVersion());
+    }
+
+    @Test
+    void testAppliedDeltasAreIgnored() {
+        RecordingListener listener = new RecordingListener();
+        PresenceTracker tracker = new PresenceTracker(listener);
+        tracker.receiveSnapshot(3, List.of(join("Alice", 1)), true);
+
+        tracker.receiveDeltas(List.of(join("Bob", 2), join("Carol", 3), join("Dave", 4)));
+        assertEquals(List.of(4L), listener.applied);
+        assertTrue(listener.gaps.isEmpty());
+    }
+
+    @Test
+    void testNewSnapshotReplacesRoster() {
+        RecordingListener listener = new RecordingListener();
+        PresenceTracker tracker = new PresenceTracker(listener);
+        tracker.receiveSnapshot(1, List.of(join("Alice", 1)), true);
+
+        tracker.receiveSnapshot(9, List.of(join("Bob", 9)), false);
+        tracker.receiveSnapshot(10, List.of(join("Carol", 10)), true);
+        assertEquals(10, tracker.getVersion());
+        assertEquals(2, listener.rosters.size());
+        assertEquals(List.of(join("Carol", 10)).toString(), listener.rosters.get(1).toString());
+    }
+}
@@ -2,7 +2,12 @@ package Utils.Security;
 
 import org.junit.jupiter.api.Test;
 
+import Utils.Security.Encryption.Enums.CipherLayouts;
+import Utils.Security.Encryption.RSA;
+
 import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,4 +44,16 @@ class DiffieHellmanTest {
                 "No exception should be thrown when generating private key");
     }
 
-}
\ No newline at end of file
+    @Test
+    void testSignedPublicKeyBindsLayout() throws GeneralSecurityException {
+        KeyPair keys = RSA.generateKeyPair();
+        BigInteger publicKey = DiffieHellman.generatePublicKey(DiffieHellman.generatePrivateKey());
+        byte[] signed = DiffieHellman.signPublicKey(publicKey, CipherLayouts.GCM, keys.getPrivate());
+
+        assertEquals(publicKey, DiffieHellman.verifyPublicKey(signed, CipherLayouts.GCM, keys.getPublic()));
+        assertThrows(GeneralSecurityException.class, () -> DiffieHellman.verifyPublicKey(signed, CipherLayouts.SINGLE, keys.getPublic()));
+        assertThrows(GeneralSecurityException.class, () -> DiffieHellman.verifyPublicKey(signed, null, keys.getPublic()));
+        assertThrows(GeneralSecurityException.class, () -> DiffieHellman.verifyPublicKey(signed, CipherLayouts.GCM, RSA.generateKeyPair().getPublic()));
+        assertThrows(IllegalArgumentException.class, () -> DiffieHellman.signPublicKey(publicKey, null, keys.getPrivate()));
+    }
+}
@@ -0,0 +1,173 @@
+package Utils.Security.Encryption;
+
+import Utils.Security.Encryption.Enums.CipherLayouts;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AESCipherTest {
+
+    private static final byte[] SECRET_KEY = "1234567890123456".getBytes();
+    private static final String MESSAGE = "This is a longer message that spans multiple blocks!";
+
+    @Test
+    void testSingleLayout() throws GeneralSecurityException {
+        AESCipher cipher = new AESCipher(SECRET_KEY);
+
+        byte[] encrypted = cipher.encrypt(MESSAGE.getBytes(), CipherLayouts.SINGLE);
+        assertEquals(65, encrypted.length);
+        assertArrayEquals(MESSAGE.getBytes(), cipher.decrypt(encrypted));
+    }
+
+    @Test
+    void testBlocksLayoutMatchesBlockEncryption() throws Exception {
+        AESCipher cipher = new AESCipher(SECRET_KEY);
+        byte[] message = MESSAGE.getBytes();
+
+        int paddingLength = 16 - message.length % 16;
+        byte[] padded = Arrays.copyOf(message, message.length + paddingLength);
+        Arrays.fill(padded, message.length, padded.length, (byte) paddingLength);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < padded.length; i += 16) {
+            expected.write(AES.encryptAES(Arrays.copyOfRange(padded, i, i + 16), SECRET_KEY));
+        }
+
+        byte[] encrypted = cipher.encrypt(message, CipherLayouts.BLOCKS);
+        assertArrayEquals(expected.toByteArray(), encrypted);
+        assertArrayEquals(message, cipher.decrypt(encrypted));
+    }
+
+    @Test
+    void testEmptyMessage() throws GeneralSecurityException {
+        AESCipher cipher = new AESCipher(SECRET_KEY);
+
+        assertArrayEquals(new byte[0], cipher.decrypt(cipher.encrypt(new byte[0], CipherLayouts.SINGLE)));
+        assertArrayEquals(new byte[0], cipher.decrypt(cipher.encrypt(new byte[0], CipherLayouts.BLOCKS)));
+    }
+
+    @Test
+    void testLayoutsOfBlockSizedMessages() throws GeneralSecurityException {
+        AESCipher cipher = new AESCipher(SECRET_KEY);
+
+        for (int length = 0; length <= 64; length++) {
+            byte[] message = new byte[length];
+            Arrays.fill(message, (byte) 16);
+            assertArrayEquals(message, cipher.decrypt(cipher.encrypt(message, CipherLayouts.SINGLE)));
+            assertArrayEquals(message, cipher.decrypt(cipher.encrypt(message, CipherLayouts.BLOCKS)));
+        }
+    }
+
+    @Test
+    void testGCMLayout() throws GeneralSecurityException {
+        AESCipher cipher = new AESCipher(SECRET_KEY);
+
+        byte[] encrypted = cipher.encrypt(MESSAGE.getBytes(), CipherLayouts.GCM);
+        assertEquals(MESSAGE.length() + AESCipher.GCM_OVERHEAD, encrypted.length);
+        assertArrayEquals(MESSAGE.getBytes(), cipher.decrypt(encrypted));
+        assertFalse(Arrays.equals(encrypted, cipher.encrypt(MESSAGE.getBytes(), CipherLayouts.GCM)));
+
+        for (int length = 0; length <= 64; length++) {
+            byte[] message = new byte[length];
+            Arrays.fill(message, (byte) 16);
+            assertArrayEquals(message, cipher.decrypt(cipher.encrypt(message, CipherLayouts.GCM)));
+        }
+    }
+
+    @Test
+    void testGCMRejectsModifiedMessage() throws GeneralSecurityException {
+        AESCipher cipher = new AESCipher(SECRET_KEY);
+
+        byte[] encrypted = cipher.encrypt(MESSAGE.getBytes(), CipherLayouts.GCM);
+        encrypted[20] ^= 1;
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(encrypted));
+
+        byte[] otherKey = new AESCipher("6543210987654321".getBytes()).encrypt(MESSAGE.getBytes(), CipherLayouts.GCM);
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(otherKey));
+    }
+
+    @Test
+    void testDecryptAuthenticatedAcceptsOnlyGCM() throws GeneralSecurityException {
+        AESCipher cipher = new AESCipher(SECRET_KEY);
+
+        assertArrayEquals(MESSAGE.getBytes(), cipher.decryptAuthenticated(cipher.encrypt(MESSAGE.getBytes(), CipherLayouts.GCM)));
+        assertThrows(GeneralSecurityException.class, () -> cipher.decryptAuthenticated(cipher.encrypt(MESSAGE.getBytes(), CipherLayouts.SINGLE)));
+    }
+
+    @Test
+    void testEveryPaddingByteIsChecked() throws Exception {
+        AESCipher cipher = new AESCipher(SECRET_KEY);
+        Cipher ecb = Cipher.getInstance("AES/ECB/NoPadding");
+        ecb.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(SECRET_KEY, "AES"));
+
+        byte[] block = "0123456789ab".getBytes();
+        block = Arrays.copyOf(block, 16);
+        Arrays.fill(block, 12, 16, (byte) 4);
+        byte[] valid = ecb.doFinal(block);
+        byte[] single = new byte[17];
+        single[0] = 1;
+        System.arraycopy(valid, 0, single, 1, 16);
+        assertArrayEquals("0123456789ab".getBytes(), cipher.decrypt(single));
+
+        block[13] = 9;
+        System.arraycopy(ecb.doFinal(block), 0, single, 1, 16);
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(single));
+    }
+
+    @Test
+    void testNegotiate() {
+        assertEquals(CipherLayouts.GCM, AESCipher.negotiate(CipherLayouts.GCM, CipherLayouts.GCM));
+        assertEquals(CipherLayouts.SINGLE, AESCipher.negotiate(CipherLayouts.GCM, CipherLayouts.SINGLE));
+        assertEquals(CipherLayouts.BLOCKS, AESCipher.negotiate(CipherLayouts.GCM, CipherLayouts.BLOCKS));
+        assertEquals(CipherLayouts.SINGLE, AESCipher.negotiate(CipherLayouts.SINGLE, CipherLayouts.GCM));
+        assertEquals(CipherLayouts.BLOCKS, AESCipher.negotiate(CipherLayouts.BLOCKS, CipherLayouts.GCM));
+    }
+
+    @Test
+    void testShortKeyIsPadded() throws Exception {
+        byte[] shortKey = {1, 2, 3};
+        byte[] encrypted = AES.encryptMessage(MESSAGE, shortKey);
+
+        assertArrayEquals(MESSAGE.getBytes(), new AESCipher(shortKey).decrypt(encrypted));
+    }
+
+    @Test
+    void testInvalidLength() throws GeneralSecurityException {
+        AESCipher cipher = new AESCipher(SECRET_KEY);
+
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(new byte[15]));
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(new byte[0]));
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(new byte[32]));
+    }
+
+    @Test
+    void testSharedByThreads() throws Exception {
+        AESCipher cipher = new AESCipher(SECRET_KEY);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] results = new Future<?>[16];
+            for (int i = 0; i < results.length; i++) {
+                String message = MESSAGE + i;
+                results[i] = executor.submit(() -> {
+                    for (int j = 0; j < 200; j++) {
+                        assertArrayEquals(message.getBytes(), cipher.decrypt(cipher.encrypt(message.getBytes(), CipherLayouts.SINGLE)));
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package Utils.Security.Encryption;
+
+import Utils.Security.Encryption.Enums.CipherLayouts;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutEncryptionTest {
+
+    private static final byte[] MESSAGE = "A message for everyone in the room".getBytes();
+
+    @Test
+    void testEncryptsForEveryRecipient() throws GeneralSecurityException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Map<String, AESCipher> keys = new LinkedHashMap<>();
+        Map<String, CompletableFuture<AESCipher>> ciphers = new LinkedHashMap<>();
+        for (int i = 0; i < 16; i++) {
+            AESCipher cipher = new AESCipher(("key-of-user-" + i).getBytes());
+            keys.put("user" + i, cipher);
+            ciphers.put("user" + i, CompletableFuture.completedFuture(cipher));
+        }
+
+        Map<String, CompletableFuture<byte[]>> encrypted = new FanOutEncryption(pool).encrypt(MESSAGE, ciphers,
+                recipient -> recipient.equals("user0") ? CipherLayouts.SINGLE : CipherLayouts.GCM);
+
+        assertEquals(List.copyOf(ciphers.keySet()), List.copyOf(encrypted.keySet()));
+        for (Map.Entry<String, CompletableFuture<byte[]>> entry : encrypted.entrySet())
+            assertArrayEquals(MESSAGE, keys.get(entry.getKey()).decrypt(entry.getValue().join()));
+        assertEquals(MESSAGE.length + 1 + 16 - MESSAGE.length % 16, encrypted.get("user0").join().length);
+        pool.shutdown();
+    }
+
+    @Test
+    void testWaitsForPendingCipher() throws GeneralSecurityException {
+        AESCipher cipher = new AESCipher("1234567890123456".getBytes());
+        CompletableFuture<AESCipher> pending = new CompletableFuture<>();
+        Map<String, CompletableFuture<AESCipher>> ciphers = new LinkedHashMap<>();
+        ciphers.put("ready", CompletableFuture.completedFuture(cipher));
+        ciphers.put("pending", pending);
+
+        Map<String, CompletableFuture<byte[]>> encrypted = new FanOutEncryption().encrypt(MESSAGE, ciphers, recipient -> CipherLayouts.GCM);
+        assertArrayEquals(MESSAGE, cipher.decrypt(encrypted.get("ready").join()));
+        assertFalse(encrypted.get("pending").isDone());
+
+        pending.complete(cipher);
+        assertArrayEquals(MESSAGE, cipher.decrypt(encrypted.get("pending").join()));
+    }
+
+    @Test
+    void testFailedCipherFailsOnlyItsRecipient() throws GeneralSecurityException {
+        Map<String, CompletableFuture<AESCipher>> ciphers = new LinkedHashMap<>();
+        ciphers.put("ready", CompletableFuture.completedFuture(new AESCipher("1234567890123456".getBytes())));
+        ciphers.put("failed", CompletableFuture.failedFuture(new IllegalStateException("No secret")));
+
+        Map<String, CompletableFuture<byte[]>> encrypted = new FanOutEncryption().encrypt(MESSAGE, ciphers, recipient -> CipherLayouts.SINGLE);
+        assertNotNull(encrypted.get("ready").join());
+        CompletionException exception = assertThrows(CompletionException.class, () -> encrypted.get("failed").join());
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    void testSealEncryptsBodyOnce() throws GeneralSecurityException {
+        Map<String, AESCipher> ciphers = new LinkedHashMap<>();
+        ciphers.put("alice", new AESCipher("alice-secret-key".getBytes()));
+        ciphers.put("bob", new AESCipher("bob-secret-key-1".getBytes()));
+
+        FanOutEncryption.Envelope<String> envelope = new FanOutEncryption().seal(MESSAGE, ciphers);
+
+        assertEquals(List.copyOf(ciphers.keySet()), List.copyOf(envelope.getKeys().keySet()));
+        for (Map.Entry<String, AESCipher> entry : ciphers.entrySet())
+            assertArrayEquals(MESSAGE, FanOutEncryption.open(envelope.getKeys().get(entry.getKey()), envelope.getBody(), entry.getValue()));
+
+        byte[] tampered = envelope.getBody().clone();
+        tampered[tampered.length - 1] ^= 1;
+        assertThrows(GeneralSecurityException.class, () -> FanOutEncryption.open(envelope.getKeys().get("bob"), tampered, ciphers.get("bob")));
+        assertThrows(GeneralSecurityException.class, () -> FanOutEncryption.open(envelope.getKeys().get("alice"), envelope.getBody(), ciphers.get("bob")));
+    }
+
+    @Test
+    void testRecipientCanNotReplaceBody() throws GeneralSecurityException {
+        AESCipher alice = new AESCipher("alice-secret-key".getBytes());
+        AESCipher bob = new AESCipher("bob-secret-key-1".getBytes());
+        Map<String, AESCipher> ciphers = new LinkedHashMap<>();
+        ciphers.put("alice", alice);
+        ciphers.put("bob", bob);
+        FanOutEncryption.Envelope<String> envelope = new FanOutEncryption().seal(MESSAGE, ciphers);
+
+        // alice knows the content key and encrypts another message under it for bob
+        byte[] wrapped = alice.decrypt(envelope.getKeys().get("alice"));
+        byte[] forged = new AESCipher(Arrays.copyOf(wrapped, 16)).encrypt("forged".getBytes(), CipherLayouts.GCM);
+        assertThrows(GeneralSecurityException.class, () -> FanOutEncryption.open(envelope.getKeys().get("bob"), forged, bob));
+
+        // a key wrapped in an unauthenticated layout is rejected
+        byte[] unauthenticated = bob.encrypt(bob.decrypt(envelope.getKeys().get("bob")), CipherLayouts.SINGLE);
+        assertThrows(GeneralSecurityException.class, () -> FanOutEncryption.open(unauthenticated, envelope.getBody(), bob));
+    }
+}
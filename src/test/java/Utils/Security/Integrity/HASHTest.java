@@ -2,6 +2,13 @@ package Utils.Security.Integrity;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class HASHTest {
@@ -30,4 +37,34 @@ class HASHTest {
         byte[] message2 = "Goodbye World".getBytes();
         assertFalse(HASH.verifyDigest(HASH.generateDigest(message1), HASH.generateDigest(message2)), "Digest verification should fail for different messages");
     }
-}
\ No newline at end of file
+
+    // Test digesting a buffer slice without changing its position
+    @Test
+    void testGenerateDigestFromBuffer() {
+        byte[] frame = "headerHello World".getBytes();
+        ByteBuffer buffer = ByteBuffer.wrap(frame, 6, frame.length - 6);
+
+        assertArrayEquals(HASH.generateDigest("Hello World".getBytes()), HASH.generateDigest(buffer));
+        assertEquals(6, buffer.position());
+        assertArrayEquals(HASH.generateDigest("Hello World".getBytes()), HASH.generateDigest(buffer));
+    }
+
+    // Test the digest of each thread gives the same result
+    @Test
+    void testGenerateDigestFromThreads() throws Exception {
+        byte[] message = "Hello World".getBytes();
+        byte[] expected = HASH.generateDigest(message);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> digests = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                digests.add(executor.submit(() -> HASH.generateDigest(message)));
+            }
+            for (Future<byte[]> digest : digests) {
+                assertArrayEquals(expected, digest.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -2,6 +2,8 @@ package Utils.Security.Integrity;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class MACTest {
@@ -40,4 +42,29 @@ class MACTest {
         assertFalse(MAC.verifyMAC(mac1, mac2), "MAC verification should fail for different keys");
     }
 
-}
\ No newline at end of file
+    // Test MACs with cached keys stay bound to their key
+    @Test
+    void testCachedKeys() {
+        byte[] message = "Hello World".getBytes();
+        byte[] macKey = "secretkey".getBytes();
+        byte[] mac = MAC.generateMAC(message, macKey);
+
+        for (int i = 0; i < 40; i++) {
+            MAC.generateMAC(message, ("key" + i).getBytes());
+        }
+        macKey[0] = 'S';
+        assertFalse(MAC.verifyMAC(mac, MAC.generateMAC(message, macKey)), "A changed key should not reuse the cached MAC");
+        assertTrue(MAC.verifyMAC(mac, MAC.generateMAC(message, "secretkey".getBytes())));
+    }
+
+    // Test the MAC of a buffer slice without changing its position
+    @Test
+    void testGenerateMACFromBuffer() {
+        byte[] frame = "headerHello World".getBytes();
+        byte[] macKey = "secretkey".getBytes();
+        ByteBuffer buffer = ByteBuffer.wrap(frame, 6, frame.length - 6);
+
+        assertArrayEquals(MAC.generateMAC("Hello World".getBytes(), macKey), MAC.generateMAC(buffer, macKey));
+        assertEquals(6, buffer.position());
+    }
+}
@@ -0,0 +1,175 @@
+package Utils.Transport;
+
+import Utils.Logger.Logger;
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Message.Contents.ContentFactory;
+import Utils.Message.Message;
+import Utils.Transport.Enums.OverflowPolicies;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ChannelTransportTest {
+
+    private ServerSocketChannel serverChannel;
+    private SelectorLoop loop;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress("localhost", 0));
+        loop = new SelectorLoop("test-selector", mock(Logger.class));
+        loop.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        loop.close();
+        serverChannel.close();
+    }
+
+    @Test
+    void testMessagesArePushedAndSent() throws Exception {
+        Socket clientSocket = new Socket("localhost", serverChannel.socket().getLocalPort());
+        SocketChannel accepted = serverChannel.accept();
+
+        BlockingQueue<Message> received = new LinkedBlockingQueue<>();
+        BlockingQueue<IOException> disconnections = new LinkedBlockingQueue<>();
+        ChannelTransport transport = new ChannelTransport(accepted, loop);
+        transport.open(new TransportListener() {
+            @Override
+            public void onMessage(Message message) { received.add(message); }
+
+            @Override
+            public void onDisconnect(IOException cause) { disconnections.add(cause); }
+        });
+
+        FramedTransport client = new FramedTransport(clientSocket);
+        client.send(new Message("Alice", "Server", ContentFactory.createRegisterContent("Alice")));
+        client.send(new Message("Alice", "Server", ContentFactory.createRegisterContent("x".repeat(20000))));
+
+        assertEquals("Alice", received.poll(5, TimeUnit.SECONDS).getContent().getStringMessage());
+        assertEquals(20000, received.poll(5, TimeUnit.SECONDS).getContent().getStringMessage().length(), "Frames bigger than the initial buffer should be received");
+
+        transport.send(new Message("Server", "Alice", ContentFactory.createLogoutContent("Bob")));
+        assertEquals("Bob", client.receive().getContent().getStringMessage());
+
+        client.close();
+        assertNotNull(disconnections.poll(5, TimeUnit.SECONDS), "Listener should be notified of the disconnection");
+        assertThrows(IOException.class, () -> transport.send(new Message("Server", "Alice", ContentFactory.createLogoutContent("Bob"))));
+    }
+
+    @Test
+    void testBinaryCodecIsNegotiated() throws Exception {
+        Socket clientSocket = new Socket("localhost", serverChannel.socket().getLocalPort());
+        SocketChannel accepted = serverChannel.accept();
+
+        BlockingQueue<Message> received = new LinkedBlockingQueue<>();
+        ChannelTransport transport = new ChannelTransport(accepted, loop);
+        transport.open(new TransportListener() {
+            @Override
+            public void onMessage(Message message) { received.add(message); }
+
+            @Override
+            public void onDisconnect(IOException cause) { }
+        });
+
+        PullTransport client = CodecNegotiation.connect(clientSocket, CodecTypes.BINARY);
+        client.send(new Message("Alice", "Server", ContentFactory.createRegisterContent("Alice")));
+        assertEquals("Alice", received.poll(5, TimeUnit.SECONDS).getContent().getStringMessage());
+
+        transport.send(new EncodedMessage(new Message("Server", "Alice", ContentFactory.createLogoutContent("Bob"))));
+        assertEquals("Bob", client.receive().getContent().getStringMessage());
+        client.close();
+    }
+
+    @Test
+    void testNoCommonCodecIsAnsweredBeforeClosing() throws Exception {
+        Socket clientSocket = new Socket("localhost", serverChannel.socket().getLocalPort());
+        BlockingQueue<IOException> disconnections = new LinkedBlockingQueue<>();
+        ChannelTransport transport = new ChannelTransport(serverChannel.accept(), loop);
+        transport.open(new TransportListener() {
+            @Override
+            public void onMessage(Message message) { }
+
+            @Override
+            public void onDisconnect(IOException cause) { disconnections.add(cause); }
+        });
+
+        byte[] hello = CodecNegotiation.encodeHello(CodecTypes.BINARY);
+        hello[CodecNegotiation.HELLO_HEADER_SIZE] = 99;
+        clientSocket.getOutputStream().write(hello);
+
+        DataInputStream input = new DataInputStream(clientSocket.getInputStream());
+        assertEquals(CodecNegotiation.MAGIC, input.readInt());
+        assertEquals(0, input.readByte(), "The client should be told there is no common codec");
+        assertEquals(-1, input.read(), "The connection should be closed after the answer");
+        assertNotNull(disconnections.poll(5, TimeUnit.SECONDS));
+        assertThrows(IOException.class, () -> transport.send(new Message("Server", "Alice", ContentFactory.createLogoutContent("Bob"))));
+        clientSocket.close();
+    }
+
+    @Test
+    void testLoopThreadDoesNotWaitForTheQueueOfAnotherLoop() throws Exception {
+        SelectorLoop otherLoop = new SelectorLoop("other-selector", mock(Logger.class));
+        otherLoop.start();
+        try {
+            Socket fullSocket = new Socket("localhost", serverChannel.socket().getLocalPort());
+            OutboundQueue<ByteBuffer> fullQueue = new OutboundQueue<>(1, OverflowPolicies.BLOCK, 10000);
+            ChannelTransport full = new ChannelTransport(serverChannel.accept(), otherLoop, fullQueue);
+            BlockingQueue<Message> fullReceived = new LinkedBlockingQueue<>();
+            BlockingQueue<IOException> fullDisconnections = new LinkedBlockingQueue<>();
+            full.open(new TransportListener() {
+                @Override
+                public void onMessage(Message message) { fullReceived.add(message); }
+
+                @Override
+                public void onDisconnect(IOException cause) { fullDisconnections.add(cause); }
+            });
+            new FramedTransport(fullSocket).send(new Message("Bob", "Server", ContentFactory.createRegisterContent("Bob")));
+            assertNotNull(fullReceived.poll(5, TimeUnit.SECONDS));
+            // Fills the queue without asking the other loop to write it.
+            assertTrue(fullQueue.offer(ByteBuffer.allocate(0)));
+
+            Socket clientSocket = new Socket("localhost", serverChannel.socket().getLocalPort());
+            BlockingQueue<IOException> failures = new LinkedBlockingQueue<>();
+            ChannelTransport transport = new ChannelTransport(serverChannel.accept(), loop);
+            transport.open(new TransportListener() {
+                @Override
+                public void onMessage(Message message) {
+                    try {
+                        full.send(message);
+                    } catch (IOException e) {
+                        failures.add(e);
+                    }
+                }
+
+                @Override
+                public void onDisconnect(IOException cause) {}
+            });
+            new FramedTransport(clientSocket).send(new Message("Alice", "Bob", ContentFactory.createRegisterContent("Alice")));
+
+            assertNotNull(failures.poll(2, TimeUnit.SECONDS), "A loop thread should not wait for room in the queue of another loop");
+            assertNotNull(fullDisconnections.poll(5, TimeUnit.SECONDS), "The overflowed connection should be closed");
+
+            clientSocket.close();
+            fullSocket.close();
+        } finally {
+            otherLoop.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package Utils.Transport;
+
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Message.Contents.ContentFactory;
+import Utils.Message.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodecNegotiationTest {
+
+    private ServerSocket serverSocket;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverSocket = new ServerSocket(0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        serverSocket.close();
+    }
+
+    private CompletableFuture<PullTransport> acceptAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return CodecNegotiation.accept(serverSocket.accept(), StreamResetPolicy.DEFAULT);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private void assertExchange(PullTransport client, PullTransport server) throws IOException, ClassNotFoundException {
+        client.send(new Message("Alice", "Server", ContentFactory.createRegisterContent("Alice")));
+        assertEquals("Alice", server.receive().getContent().getStringMessage());
+        server.send(new Message("Server", "Alice", ContentFactory.createLogoutContent("Bob")));
+        assertEquals("Bob", client.receive().getContent().getStringMessage());
+    }
+
+    @Test
+    void testNegotiatedBinaryCodec() throws Exception {
+        CompletableFuture<PullTransport> accepted = acceptAsync();
+        PullTransport client = CodecNegotiation.connect(new Socket("localhost", serverSocket.getLocalPort()), CodecTypes.BINARY, CodecTypes.JAVA);
+        PullTransport server = accepted.get(5, TimeUnit.SECONDS);
+
+        assertInstanceOf(FramedTransport.class, server);
+        assertExchange(client, server);
+        client.close();
+    }
+
+    @Test
+    void testObjectStreamClientIsDetected() throws Exception {
+        CompletableFuture<PullTransport> accepted = acceptAsync();
+        PullTransport client = new ObjectStreamTransport(new Socket("localhost", serverSocket.getLocalPort()));
+        PullTransport server = accepted.get(5, TimeUnit.SECONDS);
+
+        assertInstanceOf(ObjectStreamTransport.class, server);
+        assertExchange(client, server);
+        client.close();
+    }
+
+    @Test
+    void testFramedClientIsDetected() throws Exception {
+        CompletableFuture<PullTransport> accepted = acceptAsync();
+        PullTransport client = new FramedTransport(new Socket("localhost", serverSocket.getLocalPort()));
+        client.send(new Message("Alice", "Server", ContentFactory.createLogoutContent("Alice")));
+        PullTransport server = accepted.get(5, TimeUnit.SECONDS);
+
+        assertEquals("Alice", server.receive().getContent().getStringMessage());
+        assertExchange(client, server);
+        client.close();
+    }
+
+    @Test
+    void testSelectIgnoresUnknownCodecs() {
+        assertEquals(CodecTypes.JAVA, CodecNegotiation.select(new byte[]{ 99, CodecTypes.JAVA.getId() }));
+        assertNull(CodecNegotiation.select(new byte[]{ 99 }));
+    }
+}
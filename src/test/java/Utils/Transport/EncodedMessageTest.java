@@ -0,0 +1,57 @@
+package Utils.Transport;
+
+import Utils.Message.Codec.Enums.CodecTypes;
+import Utils.Message.Codec.MessageCodec;
+import Utils.Message.Codec.MessageCodecs;
+import Utils.Message.Contents.ContentFactory;
+import Utils.Message.EnumTypes.ContentTypes;
+import Utils.Message.Message;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncodedMessageTest {
+
+    @Test
+    void testFrameIsEncodedOnce() throws IOException, ClassNotFoundException {
+        Message message = new Message("Alice", "", ContentFactory.createLogoutContent("Alice"));
+        EncodedMessage encodedMessage = new EncodedMessage(message);
+
+        byte[] frame = encodedMessage.getFrame();
+        assertSame(frame, encodedMessage.getFrame());
+        assertSame(message, encodedMessage.getMessage());
+
+        Message decoded = MessageFrames.decode(frame, MessageFrames.LENGTH_PREFIX_SIZE, frame.length - MessageFrames.LENGTH_PREFIX_SIZE);
+        assertEquals("Alice", decoded.getContent().getStringMessage());
+    }
+
+    @Test
+    void testReceivedFrameIsRelayedWithoutDecoding() throws IOException, ClassNotFoundException {
+        MessageCodec binary = MessageCodecs.get(CodecTypes.BINARY);
+        Message message = new Message("Alice", "Bob", ContentFactory.createMSGCommunicationContent(new byte[]{1, 2, 3}));
+        byte[] frame = MessageFrames.encode(message, binary);
+
+        EncodedMessage received = EncodedMessage.fromFrame(frame, binary);
+        assertEquals("Bob", received.getHeader().getRecipient());
+        assertEquals(ContentTypes.COMMUNICATION, received.getHeader().getType());
+        assertSame(frame, received.getFrame(binary));
+
+        byte[] javaFrame = received.getFrame();
+        Message decoded = MessageFrames.decode(javaFrame, MessageFrames.LENGTH_PREFIX_SIZE, javaFrame.length - MessageFrames.LENGTH_PREFIX_SIZE);
+        assertEquals("Alice", decoded.getSender());
+        assertSame(received.getMessage(), received.getMessage());
+    }
+
+    @Test
+    void testReceivedJavaFrameIsDecoded() throws IOException, ClassNotFoundException {
+        Message message = new Message("Alice", "", ContentFactory.createLogoutContent("Alice"));
+        byte[] frame = MessageFrames.encode(message);
+
+        EncodedMessage received = EncodedMessage.fromFrame(frame, MessageCodecs.get(CodecTypes.JAVA));
+        assertEquals(ContentTypes.ACCOUNT, received.getHeader().getType());
+        assertSame(frame, received.getFrame());
+        assertEquals("Alice", received.getMessage().getContent().getStringMessage());
+    }
+}
@@ -0,0 +1,68 @@
+package Utils.Transport;
+
+import Utils.Message.Contents.ContentFactory;
+import Utils.Message.Message;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FramedTransportTest {
+
+    @Test
+    void testSendReceive() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        FramedTransport sender = new FramedTransport(new ByteArrayInputStream(new byte[0]), output, output);
+        sender.send(new Message("Alice", "Bob", ContentFactory.createLogoutContent("Alice")));
+        sender.send(new Message("Alice", "", ContentFactory.createLogoutContent("Carol")));
+
+        FramedTransport receiver = new FramedTransport(new ByteArrayInputStream(output.toByteArray()), new ByteArrayOutputStream(), output);
+
+        assertEquals("Alice", receiver.receive().getContent().getStringMessage());
+        assertEquals("Carol", receiver.receive().getContent().getStringMessage());
+        assertThrows(EOFException.class, receiver::receive);
+    }
+
+    @Test
+    void testSharedFrameIsWrittenToEveryConnection() throws IOException, ClassNotFoundException {
+        EncodedMessage encodedMessage = new EncodedMessage(new Message("Server", "", ContentFactory.createLogoutContent("Alice")));
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+
+        new FramedTransport(new ByteArrayInputStream(new byte[0]), first, first).send(encodedMessage);
+        new FramedTransport(new ByteArrayInputStream(new byte[0]), second, second).send(encodedMessage);
+
+        assertArrayEquals(first.toByteArray(), second.toByteArray());
+        FramedTransport receiver = new FramedTransport(new ByteArrayInputStream(second.toByteArray()), new ByteArrayOutputStream(), second);
+        assertEquals("Alice", receiver.receive().getContent().getStringMessage());
+    }
+
+    @Test
+    void testBatchIsWrittenAtOnce() throws IOException, ClassNotFoundException {
+        CountingOutputStream output = new CountingOutputStream();
+        FramedTransport sender = new FramedTransport(new ByteArrayInputStream(new byte[0]), output, output);
+        sender.sendAll(List.of(
+                new EncodedMessage(new Message("Alice", "Bob", ContentFactory.createLogoutContent("Alice"))),
+                new EncodedMessage(new Message("Carol", "Bob", ContentFactory.createLogoutContent("Carol")))));
+        assertEquals(1, output.writes);
+
+        FramedTransport receiver = new FramedTransport(new ByteArrayInputStream(output.toByteArray()), new ByteArrayOutputStream(), output);
+        assertEquals("Alice", receiver.receive().getContent().getStringMessage());
+        assertEquals("Carol", receiver.receive().getContent().getStringMessage());
+    }
+
+    private static class CountingOutputStream extends ByteArrayOutputStream {
+        private int writes;
+
+        @Override
+        public void write(byte[] bytes) throws IOException {
+            writes++;
+            super.write(bytes);
+        }
+    }
+}
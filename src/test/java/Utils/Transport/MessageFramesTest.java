@@ -0,0 +1,34 @@
+package Utils.Transport;
+
+import Utils.Message.Contents.ContentFactory;
+import Utils.Message.Message;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageFramesTest {
+
+    @Test
+    void testEncodeDecode() throws IOException, ClassNotFoundException {
+        Message message = new Message("Alice", "Bob", ContentFactory.createRegisterContent("Alice"));
+
+        byte[] frame = MessageFrames.encode(message);
+        int length = ByteBuffer.wrap(frame).getInt();
+        Message decoded = MessageFrames.decode(frame, MessageFrames.LENGTH_PREFIX_SIZE, length);
+
+        assertEquals(frame.length - MessageFrames.LENGTH_PREFIX_SIZE, length, "Prefix should contain the payload length");
+        assertEquals("Alice", decoded.getSender());
+        assertEquals("Bob", decoded.getRecipient());
+        assertEquals("Alice", decoded.getContent().getStringMessage());
+    }
+
+    @Test
+    void testValidateLength() {
+        assertThrows(IOException.class, () -> MessageFrames.validateLength(-1));
+        assertThrows(IOException.class, () -> MessageFrames.validateLength(MessageFrames.MAX_PAYLOAD_SIZE + 1));
+        assertDoesNotThrow(() -> MessageFrames.validateLength(0));
+    }
+}
@@ -0,0 +1,123 @@
+package Utils.Transport;
+
+import Utils.Transport.Enums.OverflowPolicies;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundQueueTest {
+
+    @Test
+    void testDropOldest() {
+        OutboundQueue<Integer> queue = new OutboundQueue<>(2, OverflowPolicies.DROP_OLDEST, 0);
+
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertTrue(queue.offer(3));
+
+        assertEquals(2, queue.poll());
+        assertEquals(3, queue.poll());
+        assertNull(queue.poll());
+
+        QueueMetrics metrics = queue.getMetrics();
+        assertEquals(0, metrics.getDepth());
+        assertEquals(2, metrics.getHighWaterMark());
+        assertEquals(3, metrics.getEnqueued());
+        assertEquals(1, metrics.getDropped());
+        assertEquals(0, metrics.getRejected());
+    }
+
+    @Test
+    void testDisconnectRejectsWhenFull() {
+        OutboundQueue<Integer> queue = new OutboundQueue<>(1, OverflowPolicies.DISCONNECT, 0);
+
+        assertTrue(queue.offer(1));
+        assertFalse(queue.offer(2));
+        assertEquals(1, queue.getMetrics().getRejected());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void testBlockTimesOut() {
+        OutboundQueue<Integer> queue = new OutboundQueue<>(1, OverflowPolicies.BLOCK, 50);
+        queue.offer(1);
+
+        long start = System.nanoTime();
+        assertFalse(queue.offer(2));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertFalse(queue.offerNow(3));
+    }
+
+    @Test
+    void testBlockWaitsForRoom() throws InterruptedException {
+        OutboundQueue<Integer> queue = new OutboundQueue<>(1, OverflowPolicies.BLOCK, 5000);
+        queue.offer(1);
+
+        CountDownLatch offered = new CountDownLatch(1);
+        Thread sender = new Thread(() -> {
+            if (queue.offer(2))
+                offered.countDown();
+        });
+        sender.start();
+
+        assertFalse(offered.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, queue.take());
+        assertTrue(offered.await(5, TimeUnit.SECONDS));
+        assertEquals(2, queue.take());
+    }
+
+    @Test
+    void testDrainTo() throws InterruptedException {
+        OutboundQueue<Integer> queue = new OutboundQueue<>(4, OverflowPolicies.DISCONNECT, 0);
+        queue.offer(1);
+        queue.offer(2);
+        queue.offer(3);
+        assertFalse(queue.awaitAtMost(1, 10));
+
+        List<Integer> items = new ArrayList<>();
+        assertEquals(2, queue.drainTo(items, 2));
+        assertEquals(List.of(1, 2), items);
+        assertTrue(queue.awaitAtMost(1, 10));
+        assertEquals(3, queue.take());
+        assertEquals(0, queue.drainTo(items, 2));
+    }
+
+    @Test
+    void testCloseWakesUpWriter() throws InterruptedException {
+        OutboundQueue<Integer> queue = new OutboundQueue<>(1, OverflowPolicies.DISCONNECT, 0);
+        CountDownLatch finished = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            try {
+                if (queue.take() == null)
+                    finished.countDown();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        writer.start();
+
+        queue.close();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertFalse(queue.offer(1));
+    }
+
+    @Test
+    void testFinishKeepsQueuedItems() throws InterruptedException {
+        OutboundQueue<Integer> queue = new OutboundQueue<>(4, OverflowPolicies.DISCONNECT, 0);
+        queue.offer(1);
+        queue.offer(2);
+        queue.offer(3);
+
+        queue.finish();
+        assertFalse(queue.offer(4));
+        assertEquals(1, queue.take());
+        List<Integer> items = new ArrayList<>();
+        assertEquals(2, queue.drainTo(items, 4));
+        assertEquals(List.of(2, 3), items);
+        assertNull(queue.take());
+    }
+}
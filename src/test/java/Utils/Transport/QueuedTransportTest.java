@@ -0,0 +1,158 @@
+package Utils.Transport;
+
+import Utils.Message.Contents.ContentFactory;
+import Utils.Message.Message;
+import Utils.Transport.Enums.OverflowPolicies;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class QueuedTransportTest {
+
+    private final Message message = new Message("Alice", "Bob", ContentFactory.createLogoutContent("Alice"));
+
+    @Test
+    void testWriterSendsQueuedMessages() throws Exception {
+        PullTransport transport = mock(PullTransport.class);
+        CountDownLatch sent = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            sent.countDown();
+            return null;
+        }).when(transport).send(any(EncodedMessage.class));
+        doCallRealMethod().when(transport).sendAll(anyList());
+
+        ExecutorService writers = Executors.newSingleThreadExecutor();
+        QueuedTransport queued = new QueuedTransport(transport, new OutboundQueue<>(4, OverflowPolicies.DISCONNECT, 0), writers);
+        queued.send(message);
+        queued.send(message);
+
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        queued.close();
+        verify(transport).close();
+        writers.shutdown();
+    }
+
+    @Test
+    void testOverflowClosesConnection() throws Exception {
+        PullTransport transport = mock(PullTransport.class);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(transport).send(any(EncodedMessage.class));
+
+        ExecutorService writers = Executors.newSingleThreadExecutor();
+        QueuedTransport queued = new QueuedTransport(transport, new OutboundQueue<>(1, OverflowPolicies.DISCONNECT, 0), writers);
+
+        // The first message is taken by the blocked writer, the second fills the queue.
+        queued.send(message);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (queued.getOutboundMetrics().orElseThrow().getDepth() != 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(5);
+        queued.send(message);
+
+        assertThrows(IOException.class, () -> queued.send(message));
+        verify(transport).close();
+        assertThrows(IOException.class, () -> queued.send(message));
+        assertEquals(1, queued.getOutboundMetrics().orElseThrow().getRejected());
+
+        release.countDown();
+        writers.shutdown();
+    }
+
+    @Test
+    void testMessagesQueuedWhileWritingAreBatched() throws Exception {
+        PullTransport transport = mock(PullTransport.class);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return null;
+        }).when(transport).send(any(EncodedMessage.class));
+        List<Integer> batches = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            batches.add(invocation.<List<EncodedMessage>>getArgument(0).size());
+            return null;
+        }).when(transport).sendAll(anyList());
+
+        ExecutorService writers = Executors.newSingleThreadExecutor();
+        QueuedTransport queued = new QueuedTransport(transport, new OutboundQueue<>(8, OverflowPolicies.DISCONNECT, 0), writers);
+        queued.send(message);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        queued.send(message);
+        queued.send(message);
+        queued.send(message);
+        assertFalse(queued.awaitQueued(0, 10));
+
+        release.countDown();
+        assertTrue(queued.awaitQueued(0, 5000));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (batches.isEmpty() && System.currentTimeMillis() < deadline)
+            Thread.sleep(5);
+        assertEquals(List.of(3), batches);
+
+        queued.close();
+        writers.shutdown();
+    }
+
+    @Test
+    void testCloseWritesQueuedMessages() throws Exception {
+        ExecutorService writers = Executors.newSingleThreadExecutor();
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket client = new Socket(server.getInetAddress(), server.getLocalPort());
+             Socket peer = server.accept()) {
+            QueuedTransport queued = new QueuedTransport(new FramedTransport(client), new OutboundQueue<>(256, OverflowPolicies.BLOCK, 1000), writers);
+            for (int i = 0; i < 200; i++)
+                queued.send(new Message("Alice " + i, "Bob", ContentFactory.createLogoutContent("Alice " + i)));
+            queued.send(message);
+            queued.close();
+
+            FramedTransport receiver = new FramedTransport(peer);
+            for (int i = 0; i < 200; i++)
+                assertEquals("Alice " + i, receiver.receive().getSender());
+            assertEquals("Alice", receiver.receive().getSender());
+            assertThrows(IOException.class, receiver::receive);
+        } finally {
+            writers.shutdown();
+        }
+    }
+
+    @Test
+    void testCloseDoesNotWaitForBlockedWriter() throws Exception {
+        PullTransport transport = mock(PullTransport.class);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(transport).send(any(EncodedMessage.class));
+
+        ExecutorService writers = Executors.newSingleThreadExecutor();
+        QueuedTransport queued = new QueuedTransport(transport, new OutboundQueue<>(4, OverflowPolicies.DISCONNECT, 0), writers);
+        queued.send(message);
+        queued.send(message);
+
+        long start = System.currentTimeMillis();
+        queued.close();
+        assertTrue(System.currentTimeMillis() - start < QueuedTransport.CLOSE_TIMEOUT_MILLIS + 1000);
+        verify(transport).close();
+        assertThrows(IOException.class, () -> queued.send(message));
+
+        release.countDown();
+        writers.shutdown();
+    }
+}
@@ -0,0 +1,75 @@
+package Utils.Transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResettingObjectOutputStreamTest {
+
+    private static List<String> payload(int index) {
+        List<String> payload = new ArrayList<>();
+        payload.add("message-" + index);
+        payload.add("body-" + index);
+        return payload;
+    }
+
+    @Test
+    void testResetsAfterMessageCount() throws IOException {
+        ResettingObjectOutputStream output = new ResettingObjectOutputStream(new ByteArrayOutputStream(), new StreamResetPolicy(3, 0));
+
+        for (int i = 0; i < 7; i++) {
+            output.writeMessage(payload(i));
+        }
+
+        StreamMetrics metrics = output.getMetrics();
+        assertEquals(2, metrics.getResets());
+        assertEquals(1, metrics.getMessagesSinceReset());
+        assertEquals(3, metrics.getRetainedHandles());
+    }
+
+    @Test
+    void testResetsAfterByteCount() throws IOException {
+        ResettingObjectOutputStream output = new ResettingObjectOutputStream(new ByteArrayOutputStream(), new StreamResetPolicy(0, 64));
+
+        for (int i = 0; i < 20; i++) {
+            output.writeMessage(payload(i));
+        }
+
+        StreamMetrics metrics = output.getMetrics();
+        assertTrue(metrics.getResets() > 0);
+        assertTrue(metrics.getBytesSinceReset() < 64 + 128);
+    }
+
+    @Test
+    void testRetainedHandlesGrowWithoutPolicy() throws IOException {
+        ResettingObjectOutputStream output = new ResettingObjectOutputStream(new ByteArrayOutputStream(), new StreamResetPolicy(0, 0));
+
+        for (int i = 0; i < 10; i++) {
+            output.writeMessage(payload(i));
+        }
+
+        assertEquals(0, output.getMetrics().getResets());
+        assertEquals(30, output.getMetrics().getRetainedHandles());
+    }
+
+    @Test
+    void testReaderDecodesAcrossResets() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ResettingObjectOutputStream output = new ResettingObjectOutputStream(bytes, new StreamResetPolicy(2, 0));
+        for (int i = 0; i < 5; i++) {
+            output.writeMessage(payload(i));
+        }
+
+        ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(payload(i), input.readObject());
+        }
+    }
+}